@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.query.impl.ColumnBatch;
+
+/**
+ * Aggregator able to accumulate the values of its attribute from a column of
+ * a {@link ColumnBatch} instead of entry by entry. The result must be the
+ * same as if the selected entries were accumulated one by one.
+ */
+public interface ColumnAggregator {
+
+    /**
+     * @return the path of the accumulated attribute, {@code null} if the
+     * aggregator accumulates whole entries
+     */
+    String getAttributePath();
+
+    /**
+     * @param valueClass the class of the values of a column
+     * @return {@code true} if the values of the given class are accumulated
+     * from a column the same way as they would be entry by entry
+     */
+    boolean canAccumulateColumn(Class<?> valueClass);
+
+    /**
+     * Accumulates the selected rows of the batch.
+     *
+     * @param batch     the batch to accumulate
+     * @param column    the column of the attribute, {@code -1} if the
+     *                  {@link #getAttributePath() attribute path} is {@code null}
+     * @param selection the selection bitmap of the rows to accumulate
+     */
+    void accumulateColumn(ColumnBatch batch, int column, long[] selection);
+}
@@ -20,11 +20,13 @@ import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.ColumnBatch;
 
 import java.io.IOException;
 import java.util.Objects;
 
-public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long> implements IdentifiedDataSerializable {
+public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long>
+        implements ColumnAggregator, IdentifiedDataSerializable {
     private long count;
 
     public CountAggregator() {
@@ -40,6 +42,16 @@ public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long
         count++;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueClass) {
+        return true;
+    }
+
+    @Override
+    public void accumulateColumn(ColumnBatch batch, int column, long[] selection) {
+        count += ColumnBatch.count(selection, batch.size());
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         CountAggregator countAggregator = (CountAggregator) aggregator;
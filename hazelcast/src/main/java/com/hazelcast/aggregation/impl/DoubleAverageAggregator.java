@@ -20,13 +20,14 @@ import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.ColumnBatch;
 import com.hazelcast.query.impl.Numbers;
 
 import java.io.IOException;
 import java.util.Objects;
 
 public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements ColumnAggregator, IdentifiedDataSerializable {
 
     private double sum;
 
@@ -46,6 +47,22 @@ public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Numb
         sum += Numbers.asDoubleExactly(value);
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueClass) {
+        // long values may not be representable as doubles exactly
+        return valueClass != Long.class;
+    }
+
+    @Override
+    public void accumulateColumn(ColumnBatch batch, int column, long[] selection) {
+        count += ColumnBatch.count(selection, batch.size());
+        if (batch.isDoubleColumn(column)) {
+            sum = ColumnBatch.sum(sum, batch.getDoubleColumn(column), selection, batch.size());
+        } else {
+            sum = ColumnBatch.sum(sum, batch.getLongColumn(column), selection, batch.size());
+        }
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         DoubleAverageAggregator doubleAverageAggregator = (DoubleAverageAggregator) aggregator;
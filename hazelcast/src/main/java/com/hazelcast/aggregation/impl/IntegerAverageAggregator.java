@@ -20,13 +20,14 @@ import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.ColumnBatch;
 import com.hazelcast.query.impl.Numbers;
 
 import java.io.IOException;
 import java.util.Objects;
 
 public final class IntegerAverageAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements ColumnAggregator, IdentifiedDataSerializable {
 
     private long sum;
 
@@ -46,6 +47,17 @@ public final class IntegerAverageAggregator<I> extends AbstractAggregator<I, Num
         sum += Numbers.asIntExactly(value);
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueClass) {
+        return valueClass == Integer.class || valueClass == Short.class || valueClass == Byte.class;
+    }
+
+    @Override
+    public void accumulateColumn(ColumnBatch batch, int column, long[] selection) {
+        count += ColumnBatch.count(selection, batch.size());
+        sum += ColumnBatch.sum(batch.getLongColumn(column), selection, batch.size());
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         IntegerAverageAggregator integerAverageAggregator = (IntegerAverageAggregator) aggregator;
@@ -20,12 +20,14 @@ import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.ColumnBatch;
 import com.hazelcast.query.impl.Numbers;
 
 import java.io.IOException;
 import java.util.Objects;
 
-public final class LongAverageAggregator<I> extends AbstractAggregator<I, Number, Double> implements IdentifiedDataSerializable {
+public final class LongAverageAggregator<I> extends AbstractAggregator<I, Number, Double>
+        implements ColumnAggregator, IdentifiedDataSerializable {
 
     private long sum;
 
@@ -45,6 +47,17 @@ public final class LongAverageAggregator<I> extends AbstractAggregator<I, Number
         sum += Numbers.asLongExactly(value);
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueClass) {
+        return ColumnBatch.isLongColumnClass(valueClass);
+    }
+
+    @Override
+    public void accumulateColumn(ColumnBatch batch, int column, long[] selection) {
+        count += ColumnBatch.count(selection, batch.size());
+        sum += ColumnBatch.sum(batch.getLongColumn(column), selection, batch.size());
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         LongAverageAggregator longAverageAggregator = (LongAverageAggregator) aggregator;
@@ -20,12 +20,14 @@ import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.ColumnBatch;
 import com.hazelcast.query.impl.Numbers;
 
 import java.io.IOException;
 import java.util.Objects;
 
-public final class LongSumAggregator<I> extends AbstractAggregator<I, Number, Long> implements IdentifiedDataSerializable {
+public final class LongSumAggregator<I> extends AbstractAggregator<I, Number, Long>
+        implements ColumnAggregator, IdentifiedDataSerializable {
 
     private long sum;
 
@@ -42,6 +44,16 @@ public final class LongSumAggregator<I> extends AbstractAggregator<I, Number, Lo
         sum += Numbers.asLongExactly(value);
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueClass) {
+        return ColumnBatch.isLongColumnClass(valueClass);
+    }
+
+    @Override
+    public void accumulateColumn(ColumnBatch batch, int column, long[] selection) {
+        sum += ColumnBatch.sum(batch.getLongColumn(column), selection, batch.size());
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         LongSumAggregator longSumAggregator = (LongSumAggregator) aggregator;
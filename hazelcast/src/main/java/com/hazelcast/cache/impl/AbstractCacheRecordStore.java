@@ -40,6 +40,7 @@ import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
 import com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider;
 import com.hazelcast.internal.eviction.ExpiredKey;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.iteration.IterationPointer;
@@ -134,6 +135,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected final ClearExpiredRecordsTask clearExpiredRecordsTask;
     protected final SamplingEvictionStrategy<Data, R, CRM> evictionStrategy;
     protected final EvictionPolicyEvaluator<Data, R> evictionPolicyEvaluator;
+    protected final TinyLFUEvictionPolicyComparator frequencyPolicy;
     protected final Map<CacheEventType, Set<CacheEventData>> batchEvent = new HashMap<CacheEventType, Set<CacheEventData>>();
     protected final CompositeCacheRSMutationObserver compositeCacheRSMutationObserver;
 
@@ -175,6 +177,8 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         EvictionPolicyComparator evictionPolicyComparator = createEvictionPolicyComparator(evictionConfig);
         evictionPolicyComparator = injectDependencies(evictionPolicyComparator);
         this.evictionPolicyEvaluator = new EvictionPolicyEvaluator<>(evictionPolicyComparator);
+        this.frequencyPolicy = evictionPolicyComparator instanceof TinyLFUEvictionPolicyComparator
+                ? (TinyLFUEvictionPolicyComparator) evictionPolicyComparator : null;
         this.cacheContext = cacheService.getOrCreateCacheContext(cacheNameWithPrefix);
         this.records = createRecordCacheMap();
         this.evictionChecker = createCacheEvictionChecker(evictionConfig.getSize(), evictionConfig.getMaxSizePolicy());
@@ -367,7 +371,11 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected EvictionPolicyComparator createEvictionPolicyComparator(EvictionConfig evictionConfig) {
         checkCacheEvictionConfig(evictionConfig);
 
-        return EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator(evictionConfig, nodeEngine.getConfigClassLoader());
+        int expectedEntryCount = evictionConfig.getMaxSizePolicy() == MaxSizePolicy.ENTRY_COUNT
+                ? EntryCountCacheEvictionChecker.calculateMaxPartitionSize(evictionConfig.getSize(), partitionCount)
+                : TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT / partitionCount;
+        return EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator(evictionConfig, nodeEngine.getConfigClassLoader(),
+                expectedEntryCount);
     }
 
     protected SamplingEvictionStrategy<Data, R, CRM> createEvictionStrategy(EvictionConfig cacheEvictionConfig) {
@@ -621,9 +629,19 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected long onRecordAccess(Data key, R record, ExpiryPolicy expiryPolicy, long now) {
         record.setLastAccessTime(now);
         record.incrementHits();
+        recordAccess(key);
         return updateAccessDuration(key, record, expiryPolicy, now);
     }
 
+    /**
+     * Feeds the access frequency estimates of the eviction policy, if it keeps any.
+     */
+    protected void recordAccess(Data key) {
+        if (frequencyPolicy != null) {
+            frequencyPolicy.recordAccess(key);
+        }
+    }
+
     protected void updateReplaceStat(boolean result, boolean isHit, long startNanos) {
         if (isStatisticsEnabled()) {
             if (result) {
@@ -709,6 +727,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
                     completionId, origin, record, error);
             throw ExceptionUtil.rethrow(error);
         }
+        recordAccess(key);
         try {
             if (!disableWriteThrough) {
                 writeThroughCache(key, value);
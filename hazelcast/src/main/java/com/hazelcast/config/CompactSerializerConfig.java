@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.config;
+
+import com.hazelcast.nio.serialization.CompactSerializer;
+import com.hazelcast.spi.annotation.Beta;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+import static com.hazelcast.internal.util.Preconditions.checkHasText;
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+
+/**
+ * Contains the compact serialization configuration for a particular class.
+ * <p>
+ * The type name is written to the schema of the class and identifies the class
+ * on the members which do not have it on their classpath. If it is not set,
+ * the name of the type class is used.
+ *
+ * @see CompactSerializer
+ */
+@Beta
+public class CompactSerializerConfig {
+
+    private Class typeClass;
+
+    private String typeName;
+
+    private CompactSerializer implementation;
+
+    public CompactSerializerConfig() {
+    }
+
+    public CompactSerializerConfig(CompactSerializerConfig compactSerializerConfig) {
+        typeClass = compactSerializerConfig.typeClass;
+        typeName = compactSerializerConfig.typeName;
+        implementation = compactSerializerConfig.implementation;
+    }
+
+    /**
+     * Gets the type of the class that will be serialized via this implementation.
+     *
+     * @return type of the class that will be serialized via this implementation
+     */
+    public Class getTypeClass() {
+        return typeClass;
+    }
+
+    /**
+     * Sets the type of the class that will be serialized via this implementation.
+     *
+     * @param typeClass type of the class that will be serialized via this implementation
+     * @return CompactSerializerConfig
+     */
+    public CompactSerializerConfig setTypeClass(@Nonnull Class typeClass) {
+        this.typeClass = checkNotNull(typeClass, "Compact serializer type class cannot be null!");
+        return this;
+    }
+
+    /**
+     * Gets the type name written to the schema of the class.
+     *
+     * @return the configured type name or the name of the type class if it is not configured
+     */
+    public String getTypeName() {
+        if (typeName == null && typeClass != null) {
+            return typeClass.getName();
+        }
+        return typeName;
+    }
+
+    /**
+     * Sets the type name written to the schema of the class.
+     *
+     * @param typeName the type name
+     * @return CompactSerializerConfig
+     */
+    public CompactSerializerConfig setTypeName(@Nonnull String typeName) {
+        this.typeName = checkHasText(typeName, "Compact serializer type name must contain text");
+        return this;
+    }
+
+    /**
+     * Returns the compact serializer instance.
+     *
+     * @return the compact serializer instance
+     */
+    public CompactSerializer getImplementation() {
+        return implementation;
+    }
+
+    /**
+     * Sets the compact serializer instance.
+     *
+     * @param implementation the compact serializer instance
+     * @return CompactSerializerConfig
+     */
+    public CompactSerializerConfig setImplementation(@Nonnull CompactSerializer implementation) {
+        this.implementation = checkNotNull(implementation, "Compact serializer cannot be null");
+        return this;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactSerializerConfig)) {
+            return false;
+        }
+
+        CompactSerializerConfig that = (CompactSerializerConfig) o;
+
+        return Objects.equals(typeClass, that.typeClass)
+            && Objects.equals(typeName, that.typeName)
+            && Objects.equals(implementation, that.implementation);
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(typeClass, typeName, implementation);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactSerializerConfig{"
+                + "typeClass=" + typeClass
+                + ", typeName='" + typeName + '\''
+                + ", implementation=" + implementation
+                + '}';
+    }
+}
@@ -35,7 +35,12 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM(3);
+    RANDOM(3),
+    /**
+     * Least Frequently Used with access frequencies estimated by a
+     * frequency sketch, ties are evicted in Least Recently Used order
+     */
+    TINY_LFU(4);
 
     private static final EvictionPolicy[] VALUES = values();
 
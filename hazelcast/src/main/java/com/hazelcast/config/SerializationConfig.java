@@ -43,6 +43,7 @@ public class SerializationConfig {
     private final Map<Integer, PortableFactory> portableFactories;
     private GlobalSerializerConfig globalSerializerConfig;
     private final Collection<SerializerConfig> serializerConfigs;
+    private final Collection<CompactSerializerConfig> compactSerializerConfigs;
     private boolean checkClassDefErrors = true;
     private boolean useNativeByteOrder;
     private ByteOrder byteOrder = ByteOrder.BIG_ENDIAN;
@@ -59,6 +60,7 @@ public class SerializationConfig {
         portableFactoryClasses = new HashMap<>();
         portableFactories = new HashMap<>();
         serializerConfigs = new LinkedList<>();
+        compactSerializerConfigs = new LinkedList<>();
         classDefinitions = new HashSet<>();
     }
 
@@ -74,6 +76,10 @@ public class SerializationConfig {
         for (SerializerConfig serializerConfig : serializationConfig.serializerConfigs) {
             serializerConfigs.add(new SerializerConfig(serializerConfig));
         }
+        compactSerializerConfigs = new LinkedList<>();
+        for (CompactSerializerConfig compactSerializerConfig : serializationConfig.compactSerializerConfigs) {
+            compactSerializerConfigs.add(new CompactSerializerConfig(compactSerializerConfig));
+        }
         checkClassDefErrors = serializationConfig.checkClassDefErrors;
         useNativeByteOrder = serializationConfig.useNativeByteOrder;
         byteOrder = serializationConfig.byteOrder;
@@ -130,6 +136,33 @@ public class SerializationConfig {
         return this;
     }
 
+    /**
+     * @return list of {@link com.hazelcast.config.CompactSerializerConfig}s
+     */
+    public Collection<CompactSerializerConfig> getCompactSerializerConfigs() {
+        return compactSerializerConfigs;
+    }
+
+    /**
+     * @param compactSerializerConfig compact serializer configuration of a class type
+     * @return configured {@link com.hazelcast.config.SerializationConfig} for chaining
+     */
+    public SerializationConfig addCompactSerializerConfig(CompactSerializerConfig compactSerializerConfig) {
+        getCompactSerializerConfigs().add(compactSerializerConfig);
+        return this;
+    }
+
+    /**
+     * @param compactSerializerConfigs lists of compact serializer configs that will be registered
+     * @return configured {@link com.hazelcast.config.SerializationConfig} for chaining
+     */
+    public SerializationConfig setCompactSerializerConfigs(Collection<CompactSerializerConfig> compactSerializerConfigs) {
+        isNotNull(compactSerializerConfigs, "compactSerializerConfigs");
+        this.compactSerializerConfigs.clear();
+        this.compactSerializerConfigs.addAll(compactSerializerConfigs);
+        return this;
+    }
+
     /**
      * Portable version will be used to differentiate two versions of the same class that have changes on the class,
      * like adding/removing a field or changing a type of a field.
@@ -522,6 +555,7 @@ public class SerializationConfig {
                 + ", portableFactories=" + portableFactories
                 + ", globalSerializerConfig=" + globalSerializerConfig
                 + ", serializerConfigs=" + serializerConfigs
+                + ", compactSerializerConfigs=" + compactSerializerConfigs
                 + ", checkClassDefErrors=" + checkClassDefErrors
                 + ", classDefinitions=" + classDefinitions
                 + ", byteOrder=" + byteOrder
@@ -556,6 +590,7 @@ public class SerializationConfig {
             && portableFactories.equals(that.portableFactories)
             && Objects.equals(globalSerializerConfig, that.globalSerializerConfig)
             && serializerConfigs.equals(that.serializerConfigs)
+            && compactSerializerConfigs.equals(that.compactSerializerConfigs)
             && Objects.equals(byteOrder, that.byteOrder)
             && classDefinitions.equals(that.classDefinitions)
             && Objects.equals(javaSerializationFilterConfig, that.javaSerializationFilterConfig);
@@ -565,7 +600,7 @@ public class SerializationConfig {
     public int hashCode() {
         return Objects.hash(portableVersion, dataSerializableFactoryClasses, dataSerializableFactories, portableFactoryClasses,
             portableFactories, globalSerializerConfig, serializerConfigs, checkClassDefErrors, useNativeByteOrder, byteOrder,
-            enableCompression, enableSharedObject, allowUnsafe, allowOverrideDefaultSerializers,
+            compactSerializerConfigs, enableCompression, enableSharedObject, allowUnsafe, allowOverrideDefaultSerializers,
             classDefinitions, javaSerializationFilterConfig);
     }
 }
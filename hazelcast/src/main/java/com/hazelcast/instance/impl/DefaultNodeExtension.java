@@ -128,6 +128,7 @@ import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProper
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.VERSION;
 import static com.hazelcast.internal.util.InstanceTrackingUtil.writeInstanceTrackingFile;
 import static com.hazelcast.map.impl.MapServiceConstructor.getDefaultMapServiceConstructor;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_GATHERING_THRESHOLD;
 
 @SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
 public class DefaultNodeExtension implements NodeExtension, JetPacketConsumer {
@@ -385,7 +386,9 @@ public class DefaultNodeExtension implements NodeExtension, JetPacketConsumer {
     @Override
     public OutboundHandler[] createOutboundHandlers(EndpointQualifier qualifier,
                                                     ServerConnection connection, ServerContext serverContext) {
-        return new OutboundHandler[]{new PacketEncoder()};
+        int gatheringWriteThreshold = node.getProperties().getInteger(IO_WRITE_GATHERING_THRESHOLD);
+        PacketEncoder encoder = gatheringWriteThreshold > 0 ? new PacketEncoder(gatheringWriteThreshold) : new PacketEncoder();
+        return new OutboundHandler[]{encoder};
     }
 
     @Override
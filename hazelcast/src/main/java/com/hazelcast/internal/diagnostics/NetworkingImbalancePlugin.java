@@ -19,6 +19,8 @@ package com.hazelcast.internal.diagnostics;
 import com.hazelcast.internal.networking.Networking;
 import com.hazelcast.internal.networking.nio.NioNetworking;
 import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
+import com.hazelcast.internal.networking.nio.iobalancer.PipelineMigration;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.internal.server.Server;
 import com.hazelcast.internal.server.tcp.TcpServer;
@@ -26,6 +28,9 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.spi.properties.HazelcastProperty;
 
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -35,6 +40,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * This  plugin will probably mostly be used for internal purposes to get a
  * better understanding of imbalances. Normally imbalances are taken care of
  * by the IOBalancer; but we need to make sure it makes the right choice.
+ * Therefore the migrations scheduled by the IOBalancer since the previous
+ * run are rendered as well, including the loads they were based on.
  * <p>
  * This plugin can be used on server and client side.
  */
@@ -52,6 +59,7 @@ public class NetworkingImbalancePlugin extends DiagnosticsPlugin {
 
     private final NioNetworking networking;
     private final long periodMillis;
+    private long lastRenderedMigration;
 
     public NetworkingImbalancePlugin(NodeEngineImpl nodeEngine) {
         this(nodeEngine.getProperties(), getThreadingModel(nodeEngine), nodeEngine.getLogger(NetworkingImbalancePlugin.class));
@@ -98,6 +106,8 @@ public class NetworkingImbalancePlugin extends DiagnosticsPlugin {
         render(writer, networking.getOutputThreads());
         writer.endSection();
 
+        renderMigrations(writer, networking.getIOBalancer());
+
         writer.endSection();
     }
 
@@ -113,6 +123,7 @@ public class NetworkingImbalancePlugin extends DiagnosticsPlugin {
         long totalEvents = 0;
         long totalTaskCount = 0;
         long totalHandleCount = 0;
+        long totalProcessingTimeNanos = 0;
 
         for (NioThread thread : threads) {
             totalBytesReceived += thread.bytesTransceived();
@@ -121,6 +132,7 @@ public class NetworkingImbalancePlugin extends DiagnosticsPlugin {
             totalEvents += thread.eventCount();
             totalTaskCount += thread.completedTaskCount();
             totalHandleCount += thread.handleCount();
+            totalProcessingTimeNanos += thread.processingTimeNanos();
         }
 
         for (NioThread thread : threads) {
@@ -138,8 +150,37 @@ public class NetworkingImbalancePlugin extends DiagnosticsPlugin {
             writer.writeKeyValueEntry("handle-count", thread.handleCount());
             writer.writeKeyValueEntry("tasks-percentage", toPercentage(thread.completedTaskCount(), totalTaskCount));
             writer.writeKeyValueEntry("tasks", thread.completedTaskCount());
+            writer.writeKeyValueEntry("processing-time-percentage",
+                    toPercentage(thread.processingTimeNanos(), totalProcessingTimeNanos));
+            writer.writeKeyValueEntry("processing-time-ms", NANOSECONDS.toMillis(thread.processingTimeNanos()));
+            writer.endSection();
+        }
+    }
+
+    private void renderMigrations(DiagnosticsLogWriter writer, IOBalancer ioBalancer) {
+        if (ioBalancer == null) {
+            return;
+        }
+
+        writer.startSection("Migrations");
+        List<PipelineMigration> migrations = ioBalancer.getRecentMigrations();
+        for (PipelineMigration migration : migrations) {
+            if (migration.sequence() <= lastRenderedMigration) {
+                continue;
+            }
+            lastRenderedMigration = migration.sequence();
+
+            writer.startSection(migration.pipeline());
+            writer.writeKeyValueEntryAsDateTime("time", migration.timeMillis());
+            writer.writeKeyValueEntry("from", migration.srcOwner());
+            writer.writeKeyValueEntry("to", migration.dstOwner());
+            writer.writeKeyValueEntry("pipeline-load", migration.pipelineLoad());
+            writer.writeKeyValueEntry("pipeline-predicted-load", migration.predictedPipelineLoad());
+            writer.writeKeyValueEntry("from-load", migration.srcOwnerLoad());
+            writer.writeKeyValueEntry("to-load", migration.dstOwnerLoad());
             writer.endSection();
         }
+        writer.endSection();
     }
 
     private String toPercentage(long amount, long total) {
@@ -20,6 +20,7 @@ import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.internal.eviction.impl.comparator.LFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.LRUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.RandomEvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
@@ -50,9 +51,29 @@ public final class EvictionPolicyEvaluatorProvider {
      */
     public static <A, E extends Evictable> EvictionPolicyEvaluator<A, E>
     getEvictionPolicyEvaluator(EvictionConfiguration evictionConfig, ClassLoader classLoader) {
+        return getEvictionPolicyEvaluator(evictionConfig, classLoader,
+                TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT);
+    }
+
+    /**
+     * Gets the {@link EvictionPolicyEvaluator}
+     * implementation specified with {@code evictionPolicy}.
+     *
+     * @param evictionConfig     {@link EvictionConfiguration} for
+     *                           requested {@link EvictionPolicyEvaluator} implementation
+     * @param classLoader        the {@link java.lang.ClassLoader} to be
+     *                           used while creating custom {@link EvictionPolicyComparator}
+     *                           if it is specified in the config
+     * @param expectedEntryCount the maximum number of entries of the evicted
+     *                           store, used to size the state of stateful comparators
+     * @return the requested
+     * {@link EvictionPolicyEvaluator} implementation
+     */
+    public static <A, E extends Evictable> EvictionPolicyEvaluator<A, E>
+    getEvictionPolicyEvaluator(EvictionConfiguration evictionConfig, ClassLoader classLoader, int expectedEntryCount) {
         checkNotNull(evictionConfig);
 
-        return new EvictionPolicyEvaluator<>(getEvictionPolicyComparator(evictionConfig, classLoader));
+        return new EvictionPolicyEvaluator<>(getEvictionPolicyComparator(evictionConfig, classLoader, expectedEntryCount));
     }
 
     /**
@@ -67,6 +88,25 @@ public final class EvictionPolicyEvaluatorProvider {
      */
     public static EvictionPolicyComparator getEvictionPolicyComparator(EvictionConfiguration evictionConfig,
                                                                        ClassLoader classLoader) {
+        return getEvictionPolicyComparator(evictionConfig, classLoader,
+                TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT);
+    }
+
+    /**
+     * @param evictionConfig     {@link EvictionConfiguration} for
+     *                           requested {@link EvictionPolicyEvaluator} implementation
+     * @param classLoader        the {@link java.lang.ClassLoader} to be
+     *                           used while creating custom {@link EvictionPolicyComparator}
+     *                           if it is specified in the config
+     * @param expectedEntryCount the maximum number of entries of the evicted
+     *                           store, used to size the state of stateful comparators
+     * @return {@link
+     * EvictionPolicyComparator} instance if it is defined, otherwise
+     * returns null to indicate there is no comparator defined
+     */
+    public static EvictionPolicyComparator getEvictionPolicyComparator(EvictionConfiguration evictionConfig,
+                                                                       ClassLoader classLoader,
+                                                                       int expectedEntryCount) {
         // 1. First check comparator class name
         String evictionPolicyComparatorClassName = evictionConfig.getComparatorClassName();
         if (!isNullOrEmpty(evictionPolicyComparatorClassName)) {
@@ -84,15 +124,19 @@ public final class EvictionPolicyEvaluatorProvider {
         }
 
         // 3. As a last resort, try to pick an out-of-the-box comparator implementation
-        return pickOutOfTheBoxComparator(evictionConfig.getEvictionPolicy());
+        return pickOutOfTheBoxComparator(evictionConfig.getEvictionPolicy(), expectedEntryCount);
     }
 
-    private static EvictionPolicyComparator pickOutOfTheBoxComparator(EvictionPolicy evictionPolicy) {
+    private static EvictionPolicyComparator pickOutOfTheBoxComparator(EvictionPolicy evictionPolicy,
+                                                                      int expectedEntryCount) {
         switch (evictionPolicy) {
             case LRU:
                 return LRUEvictionPolicyComparator.INSTANCE;
             case LFU:
                 return LFUEvictionPolicyComparator.INSTANCE;
+            case TINY_LFU:
+                // keeps access frequencies, so each store gets its own instance
+                return new TinyLFUEvictionPolicyComparator(expectedEntryCount);
             case RANDOM:
                 return RandomEvictionPolicyComparator.INSTANCE;
             case NONE:
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * Count-min sketch estimating how often keys were accessed recently.
+ * <p>
+ * Counters are 4 bits wide and packed sixteen to a {@code long}. A key is
+ * counted in one counter of each of the {@value #DEPTH} rows and its
+ * frequency is the minimum of these counters, so hash collisions can only
+ * make the estimate higher than the actual number of accesses. Counters
+ * saturate at {@value #MAX_FREQUENCY}. Once the number of increments
+ * reaches twenty times the number of counted keys, all counters are halved,
+ * so the estimates follow the recent popularity of keys instead of
+ * their all-time access counts.
+ * <p>
+ * The sketch is not synchronized. Concurrent updates of the same word may
+ * get lost, which only makes the estimates slightly less accurate, counters
+ * never over- or underflow into their neighbours.
+ */
+final class FrequencySketch {
+
+    /**
+     * Maximum value of a single frequency estimate.
+     */
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int DEPTH = 4;
+    private static final int SAMPLE_FACTOR = 20;
+    private static final int MIN_TABLE_LENGTH = 8;
+    private static final int MAX_TABLE_LENGTH = 1 << 20;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param expectedKeyCount the number of keys whose frequencies are
+     *                         expected to be tracked at the same time,
+     *                         typically the maximum size of the evictable store
+     */
+    FrequencySketch(int expectedKeyCount) {
+        int keyCount = Math.max(expectedKeyCount, 1);
+        // a long for every key: a quarter of the counters are in use
+        // when every key has its own counter in each row
+        long length = nextPowerOfTwo((long) keyCount);
+        length = Math.min(Math.max(length, MIN_TABLE_LENGTH), MAX_TABLE_LENGTH);
+        this.table = new long[(int) length];
+        this.tableMask = (int) length - 1;
+        this.sampleSize = SAMPLE_FACTOR * (int) Math.min(keyCount, length);
+    }
+
+    /**
+     * Records an access of the given key.
+     */
+    void increment(Object key) {
+        int hash = fastIntMix(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        boolean incremented = false;
+        for (int row = 0; row < DEPTH; row++) {
+            incremented |= incrementAt(indexOf(hash, row), start + row);
+        }
+
+        if (incremented && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @return the estimated number of recent accesses of the given key,
+     * at most {@value #MAX_FREQUENCY}
+     */
+    int frequency(Object key) {
+        int hash = fastIntMix(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            int offset = (start + row) << 2;
+            int count = (int) ((table[indexOf(hash, row)] >>> offset) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    // package-private for testing
+    int tableLength() {
+        return table.length;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = COUNTER_MASK << offset;
+        long word = table[index];
+        if ((word & mask) == mask) {
+            return false;
+        }
+        table[index] = word + (1L << offset);
+        return true;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> Integer.SIZE;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * Halves all counters, see the class documentation.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.serialization.SerializableByConvention;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap.SamplingEntry;
+import com.hazelcast.spi.eviction.EvictableEntryView;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+/**
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU}
+ * policy based {@link EvictionPolicyComparator}.
+ * <p>
+ * Access frequencies are not kept in the records but estimated by a
+ * {@link FrequencySketch} which is fed by the owning store through {@link
+ * #recordAccess(Object)}, both on reads and on insertions. Since the
+ * sketch ages its counters, entries which were popular a while ago lose
+ * their advantage over recently popular ones, and entries touched once by
+ * a scan never outweigh frequently read ones.
+ * <p>
+ * Candidates with equal estimated frequency are ordered as by the {@link
+ * LRUEvictionPolicyComparator}. A newly added entry starts with the
+ * frequency of its insertion, so among the sampled candidates it is only
+ * protected against entries seen less often than itself, which stands in
+ * for the admission window of W-TinyLFU in the sampling based eviction.
+ * <p>
+ * Unlike the other out-of-the-box comparators, an instance keeps state
+ * and must not be shared between unrelated stores.
+ */
+@SerializableByConvention
+public class TinyLFUEvictionPolicyComparator
+        implements EvictionPolicyComparator<Object, Object, EvictableEntryView<Object, Object>> {
+
+    /**
+     * Number of keys the frequency sketch is sized for when the maximum
+     * size of the evictable store is not known upfront.
+     */
+    public static final int DEFAULT_EXPECTED_ENTRY_COUNT = 1 << 14;
+
+    private final transient FrequencySketch sketch;
+
+    public TinyLFUEvictionPolicyComparator() {
+        this(DEFAULT_EXPECTED_ENTRY_COUNT);
+    }
+
+    /**
+     * @param expectedEntryCount the maximum number of entries held by
+     *                           the stores evicted with this comparator
+     */
+    public TinyLFUEvictionPolicyComparator(int expectedEntryCount) {
+        this.sketch = new FrequencySketch(expectedEntryCount);
+    }
+
+    /**
+     * Records an access of the entry with the given key. The key must be
+     * the same object as the one exposed by the sampled eviction candidates
+     * of the store, e.g. the {@code Data} key for maps and caches.
+     *
+     * @param key the key of the accessed entry
+     */
+    public void recordAccess(Object key) {
+        sketch.increment(key);
+    }
+
+    /**
+     * @param key the key of an entry
+     * @return estimated number of recent accesses of the entry
+     */
+    public int frequency(Object key) {
+        return sketch.frequency(key);
+    }
+
+    @Override
+    public int compare(EvictableEntryView e1, EvictableEntryView e2) {
+        int result = Integer.compare(frequency(keyOf(e1)), frequency(keyOf(e2)));
+        return result != 0 ? result : LRUEvictionPolicyComparator.INSTANCE.compare(e1, e2);
+    }
+
+    /**
+     * Returns the key as stored, sampled entries would otherwise
+     * deserialize their keys on {@link EvictableEntryView#getKey()}.
+     */
+    private static Object keyOf(EvictableEntryView entryView) {
+        if (entryView instanceof SamplingEntry) {
+            return ((SamplingEntry) entryView).getEntryKey();
+        }
+        if (entryView instanceof EvictionCandidate) {
+            return ((EvictionCandidate) entryView).getAccessor();
+        }
+        return entryView.getKey();
+    }
+
+    @Override
+    public String toString() {
+        return "TinyLFUEvictionPolicyComparator{" + super.toString() + "} ";
+    }
+}
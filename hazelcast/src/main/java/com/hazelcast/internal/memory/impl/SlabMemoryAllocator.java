@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.util.collection.Long2LongHashMap;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.Arrays;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+import static com.hazelcast.internal.util.QuickMath.isPowerOfTwo;
+import static com.hazelcast.internal.util.QuickMath.log2;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+
+/**
+ * {@link MemoryAllocator} which carves fixed size-class blocks out of
+ * large off-heap slabs obtained from {@code Unsafe.allocateMemory()}.
+ * Blocks up to {@value #SMALL_BLOCK_LIMIT} bytes are rounded up to a
+ * multiple of {@value #MIN_BLOCK_SIZE} bytes, larger ones to the next
+ * power of two.
+ * <p>
+ * Freed blocks are kept on a per-size-class free list, threaded through
+ * the first 8 bytes of each free block, and reused by later allocations
+ * of the same size class. Slabs are only returned to the operating
+ * system on {@link #dispose()}. Requests larger than the largest size
+ * class are served directly by {@code Unsafe}.
+ * <p>
+ * The allocator is not thread-safe. It is meant to be confined to a
+ * single thread, e.g. the partition thread owning a record store. Only
+ * the memory usage counters may be read by other threads.
+ */
+public final class SlabMemoryAllocator implements MemoryAllocator, MemoryManager {
+
+    /**
+     * Size of the smallest block handed out by this allocator.
+     * It must be able to hold the next-free-block pointer.
+     */
+    public static final int MIN_BLOCK_SIZE = 16;
+
+    /**
+     * Largest block size which is rounded up to a multiple of
+     * {@link #MIN_BLOCK_SIZE} instead of the next power of two.
+     */
+    public static final int SMALL_BLOCK_LIMIT = 256;
+
+    /**
+     * Default size of a single slab.
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1 << 16;
+
+    private static final int SLAB_TO_MAX_BLOCK_RATIO = 8;
+    private static final int INITIAL_SLAB_ARRAY_LENGTH = 8;
+    private static final long LARGE_BLOCK_MISSING_VALUE = -1L;
+    private static final int SMALL_SIZE_CLASS_COUNT = SMALL_BLOCK_LIMIT / MIN_BLOCK_SIZE;
+    private static final int SMALL_BLOCK_LIMIT_SHIFT = log2(SMALL_BLOCK_LIMIT);
+
+    private final int slabSize;
+    private final int maxBlockSize;
+    private final long[] freeListHeads;
+    private final Long2LongHashMap largeBlocks = new Long2LongHashMap(LARGE_BLOCK_MISSING_VALUE);
+
+    private long[] slabs = new long[INITIAL_SLAB_ARRAY_LENGTH];
+    private int slabCount;
+    private long currentSlabAddress = NULL_ADDRESS;
+    private long currentSlabOffset;
+    private final SwCounter usedMemory = newSwCounter();
+    private final SwCounter committedMemory = newSwCounter();
+
+    public SlabMemoryAllocator() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * @param slabSize size of a single slab in bytes, must be a power of two
+     *                 not smaller than {@code 8 * SMALL_BLOCK_LIMIT}. Blocks up
+     *                 to an eighth of the slab size are served from slabs.
+     */
+    public SlabMemoryAllocator(int slabSize) {
+        checkPositive("slabSize", slabSize);
+        checkTrue(isPowerOfTwo(slabSize), "slabSize must be a power of two");
+        checkTrue(slabSize >= SMALL_BLOCK_LIMIT * SLAB_TO_MAX_BLOCK_RATIO,
+                "slabSize must be at least " + SMALL_BLOCK_LIMIT * SLAB_TO_MAX_BLOCK_RATIO);
+        checkTrue(UnsafeUtil.UNSAFE_AVAILABLE, "Off-heap memory allocation requires sun.misc.Unsafe");
+        this.slabSize = slabSize;
+        this.maxBlockSize = slabSize / SLAB_TO_MAX_BLOCK_RATIO;
+        this.freeListHeads = new long[sizeClassOf(maxBlockSize) + 1];
+    }
+
+    @Override
+    public long allocate(long size) {
+        checkPositive("size", size);
+        if (size > maxBlockSize) {
+            return allocateLarge(size);
+        }
+        int sizeClass = sizeClassOf(size);
+        long blockSize = blockSizeOf(sizeClass);
+        long address = freeListHeads[sizeClass];
+        if (address != NULL_ADDRESS) {
+            freeListHeads[sizeClass] = MEM.getLong(address);
+        } else {
+            address = bumpAllocate(blockSize);
+        }
+        MEM.setMemory(address, blockSize, (byte) 0);
+        usedMemory.inc(blockSize);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        if (address == NULL_ADDRESS) {
+            return allocate(newSize);
+        }
+        if (currentSize <= maxBlockSize && newSize <= maxBlockSize
+                && sizeClassOf(currentSize) == sizeClassOf(newSize)) {
+            if (newSize > currentSize) {
+                MEM.setMemory(address + currentSize, newSize - currentSize, (byte) 0);
+            }
+            return address;
+        }
+        long newAddress = allocate(newSize);
+        MEM.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+        free(address, currentSize);
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        if (address == NULL_ADDRESS) {
+            return;
+        }
+        if (size > maxBlockSize) {
+            freeLarge(address);
+            return;
+        }
+        int sizeClass = sizeClassOf(size);
+        MEM.putLong(address, freeListHeads[sizeClass]);
+        freeListHeads[sizeClass] = address;
+        usedMemory.inc(-blockSizeOf(sizeClass));
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < slabCount; i++) {
+            UNSAFE.freeMemory(slabs[i]);
+        }
+        Long2LongHashMap.LongLongCursor cursor = largeBlocks.cursor();
+        while (cursor.advance()) {
+            UNSAFE.freeMemory(cursor.key());
+        }
+        largeBlocks.clear();
+        slabs = new long[INITIAL_SLAB_ARRAY_LENGTH];
+        slabCount = 0;
+        Arrays.fill(freeListHeads, NULL_ADDRESS);
+        currentSlabAddress = NULL_ADDRESS;
+        currentSlabOffset = 0;
+        usedMemory.set(0);
+        committedMemory.set(0);
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return this;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return MEM;
+    }
+
+    /**
+     * Returns the number of bytes in blocks currently handed out,
+     * rounded up to the size class of each block.
+     */
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * Returns the number of bytes reserved from the operating system,
+     * including free blocks and not yet carved slab space.
+     */
+    public long getCommittedMemory() {
+        return committedMemory.get();
+    }
+
+    /**
+     * Returns the number of bytes actually reserved for a block of the
+     * given requested size.
+     */
+    public long blockSizeFor(long size) {
+        return size > maxBlockSize ? size : blockSizeOf(sizeClassOf(size));
+    }
+
+    private long bumpAllocate(long blockSize) {
+        if (currentSlabAddress == NULL_ADDRESS || currentSlabOffset + blockSize > slabSize) {
+            newSlab();
+        }
+        long address = currentSlabAddress + currentSlabOffset;
+        currentSlabOffset += blockSize;
+        return address;
+    }
+
+    private void newSlab() {
+        long address = allocateFromOs(slabSize);
+        if (slabCount == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slabs.length << 1);
+        }
+        slabs[slabCount++] = address;
+        currentSlabAddress = address;
+        currentSlabOffset = 0;
+        committedMemory.inc(slabSize);
+    }
+
+    private long allocateLarge(long size) {
+        long address = allocateFromOs(size);
+        MEM.setMemory(address, size, (byte) 0);
+        largeBlocks.put(address, size);
+        usedMemory.inc(size);
+        committedMemory.inc(size);
+        return address;
+    }
+
+    private void freeLarge(long address) {
+        long size = largeBlocks.remove(address);
+        assert size != LARGE_BLOCK_MISSING_VALUE : "Attempt to free unknown block at " + address;
+        UNSAFE.freeMemory(address);
+        usedMemory.inc(-size);
+        committedMemory.inc(-size);
+    }
+
+    private static int sizeClassOf(long size) {
+        if (size <= SMALL_BLOCK_LIMIT) {
+            return (int) ((size + MIN_BLOCK_SIZE - 1) / MIN_BLOCK_SIZE) - 1;
+        }
+        return SMALL_SIZE_CLASS_COUNT + log2(nextPowerOfTwo(size)) - SMALL_BLOCK_LIMIT_SHIFT - 1;
+    }
+
+    private static long blockSizeOf(int sizeClass) {
+        if (sizeClass < SMALL_SIZE_CLASS_COUNT) {
+            return (long) (sizeClass + 1) * MIN_BLOCK_SIZE;
+        }
+        return 1L << (sizeClass - SMALL_SIZE_CLASS_COUNT + SMALL_BLOCK_LIMIT_SHIFT + 1);
+    }
+
+    private static long allocateFromOs(long size) {
+        try {
+            return UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of off-heap memory", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SlabMemoryAllocator{"
+                + "slabSize=" + slabSize
+                + ", slabCount=" + slabCount
+                + ", usedMemory=" + usedMemory.get()
+                + ", committedMemory=" + committedMemory.get()
+                + '}';
+    }
+}
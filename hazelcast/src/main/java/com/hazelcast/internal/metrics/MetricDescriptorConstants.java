@@ -231,6 +231,9 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_BACKUP_COUNT = "backupCount";
     public static final String MAP_METRIC_QUERY_COUNT = "queryCount";
     public static final String MAP_METRIC_INDEXED_QUERY_COUNT = "indexedQueryCount";
+    public static final String MAP_METRIC_QUERY_RESULT_CACHE_HITS = "queryResultCacheHits";
+    public static final String MAP_METRIC_QUERY_RESULT_CACHE_MISSES = "queryResultCacheMisses";
+    public static final String MAP_METRIC_QUERY_RESULT_CACHE_INVALIDATIONS = "queryResultCacheInvalidations";
     public static final String MAP_METRIC_TOTAL_PUT_LATENCY = "totalPutLatency";
     public static final String MAP_METRIC_TOTAL_SET_LATENCY = "totalSetLatency";
     public static final String MAP_METRIC_TOTAL_GET_LATENCY = "totalGetLatency";
@@ -251,6 +254,14 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_INDEX_REMOVE_COUNT = "removeCount";
     public static final String MAP_METRIC_INDEX_TOTAL_REMOVE_LATENCY = "totalRemoveLatency";
     public static final String MAP_METRIC_INDEX_MEMORY_COST = "memoryCost";
+    public static final String MAP_METRIC_INDEX_PARTITION_COUNT = "partitionCount";
+    public static final String MAP_METRIC_INDEX_INDEXED_PARTITION_COUNT = "indexedPartitionCount";
+    public static final String MAP_METRIC_INDEX_VALUE_FILTER_LOOKUP_COUNT = "valueFilterLookupCount";
+    public static final String MAP_METRIC_INDEX_VALUE_FILTER_SKIP_COUNT = "valueFilterSkipCount";
+    public static final String MAP_METRIC_INDEX_OPTIMIZER_SKIP_COUNT = "optimizerSkipCount";
+    public static final String MAP_METRIC_BACKGROUND_EVICTION_BATCH_COUNT = "backgroundEvictionBatchCount";
+    public static final String MAP_METRIC_BACKGROUND_EVICTION_COUNT = "backgroundEvictionCount";
+    public static final String MAP_METRIC_TOTAL_BACKGROUND_EVICTION_TIME = "totalBackgroundEvictionTime";
     // ===[/MAP]========================================================
 
     // ===[MEMORY]======================================================
@@ -330,8 +341,12 @@ public final class MetricDescriptorConstants {
             "priorityWriteQueuePendingBytes";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS = "idleTimeMillis";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED = "scheduled";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS = "writeCalls";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS_PER_FRAME = "writeCallsPerFrame";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_COPIED = "bytesCopied";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT = "processCount";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_OWNER_ID = "ownerId";
+    public static final String NETWORKING_METRIC_NIO_PIPELINE_PROCESSING_TIME_NANOS = "processingTimeNanos";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_STARTED_MIGRATIONS = "startedMigrations";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_COMPLETED_MIGRATIONS = "completedMigrations";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_OPS_INTERESTED = "opsInterested";
@@ -341,6 +356,7 @@ public final class MetricDescriptorConstants {
     public static final String NETWORKING_METRIC_NIO_THREAD_FRAMES_TRANSCEIVED = "framesTransceived";
     public static final String NETWORKING_METRIC_NIO_THREAD_PRIORITY_FRAMES_TRANSCEIVED = "priorityFramesTransceived";
     public static final String NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT = "processCount";
+    public static final String NETWORKING_METRIC_NIO_THREAD_PROCESSING_TIME_NANOS = "processingTimeNanos";
     public static final String NETWORKING_METRIC_NIO_THREAD_TASK_QUEUE_SIZE = "taskQueueSize";
     public static final String NETWORKING_METRIC_NIO_THREAD_EVENT_COUNT = "eventCount";
     public static final String NETWORKING_METRIC_NIO_THREAD_SELECTOR_IO_EXCEPTION_COUNT = "selectorIOExceptionCount";
@@ -349,6 +365,9 @@ public final class MetricDescriptorConstants {
     public static final String NETWORKING_METRIC_NIO_THREAD_IDLE_TIME_MILLIS = "idleTimeMillis";
     public static final String NETWORKING_METRIC_NIO_IO_BALANCER_IMBALANCE_DETECTED_COUNT = "imbalanceDetectedCount";
     public static final String NETWORKING_METRIC_NIO_IO_BALANCER_MIGRATION_COMPLETED_COUNT = "migrationCompletedCount";
+    public static final String NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_POOLED_BUFFERS = "pooledBuffers";
+    public static final String NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_ALLOCATED_BUFFERS = "allocatedBuffers";
+    public static final String NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_BORROWED_BUFFERS = "borrowedBuffers";
     // ===[/NETWORKING]=================================================
 
     // ===[OPERATION]===================================================
@@ -523,6 +542,7 @@ public final class MetricDescriptorConstants {
     public static final String TCP_PREFIX_CONNECTION_OUT = "tcp.connection.out";
     public static final String TCP_PREFIX_INPUTTHREAD = "tcp.inputThread";
     public static final String TCP_PREFIX_OUTPUTTHREAD = "tcp.outputThread";
+    public static final String TCP_PREFIX_RECEIVE_BUFFER_POOL = "tcp.receiveBufferPool";
     public static final String TCP_DISCRIMINATOR_BINDADDRESS = "bindAddress";
     public static final String TCP_DISCRIMINATOR_ENDPOINT = "endpoint";
     public static final String TCP_DISCRIMINATOR_PIPELINEID = "pipelineId";
@@ -61,4 +61,9 @@ public class GlobalIndexesStats implements IndexesStats {
         return new GlobalPerIndexStats(ordered, usesCachedQueryableEntries);
     }
 
+    @Override
+    public PerIndexStats createPerIndexStats(boolean ordered, boolean flatHash, boolean usesCachedQueryableEntries) {
+        return new GlobalPerIndexStats(ordered, flatHash, usesCachedQueryableEntries);
+    }
+
 }
@@ -73,8 +73,15 @@ public class GlobalPerIndexStats implements PerIndexStats {
             "totalRemoveLatency");
     private static final AtomicLongFieldUpdater<GlobalPerIndexStats> VALUES_MEMORY_COST = newUpdater(GlobalPerIndexStats.class,
             "valuesMemoryCost");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> OPTIMIZER_SKIP_COUNT = newUpdater(GlobalPerIndexStats.class,
+            "optimizerSkipCount");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> VALUE_FILTER_LOOKUP_COUNT = newUpdater(
+            GlobalPerIndexStats.class, "valueFilterLookupCount");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> VALUE_FILTER_SKIP_COUNT = newUpdater(
+            GlobalPerIndexStats.class, "valueFilterSkipCount");
 
     private final boolean ordered;
+    private final boolean flatHash;
     private final boolean usesCachedQueryableEntries;
     private final long creationTime;
 
@@ -90,6 +97,9 @@ public class GlobalPerIndexStats implements PerIndexStats {
     private volatile long removeCount;
     private volatile long totalRemoveLatency;
     private volatile long valuesMemoryCost;
+    private volatile long optimizerSkipCount;
+    private volatile long valueFilterLookupCount;
+    private volatile long valueFilterSkipCount;
 
     /**
      * Constructs a new instance of global index stats.
@@ -103,7 +113,27 @@ public class GlobalPerIndexStats implements PerIndexStats {
      *                                  on-heap memory cost calculation.
      */
     public GlobalPerIndexStats(boolean ordered, boolean usesCachedQueryableEntries) {
+        this(ordered, false, usesCachedQueryableEntries);
+    }
+
+    /**
+     * Constructs a new instance of global index stats.
+     *
+     * @param ordered                   {@code true} if the stats are being created
+     *                                  for an ordered index, {@code false} otherwise.
+     *                                  Affects the on-heap memory cost calculation.
+     * @param flatHash                  {@code true} if the stats are being created
+     *                                  for an index backed by a flat hash table,
+     *                                  {@code false} otherwise. Affects the on-heap
+     *                                  memory cost calculation.
+     * @param usesCachedQueryableEntries {@code true} if the stats are being created
+     *                                  for an index for which queryable entries are
+     *                                  cached, {@code false} otherwise. Affects the
+     *                                  on-heap memory cost calculation.
+     */
+    public GlobalPerIndexStats(boolean ordered, boolean flatHash, boolean usesCachedQueryableEntries) {
         this.ordered = ordered;
+        this.flatHash = flatHash;
         this.usesCachedQueryableEntries = usesCachedQueryableEntries;
         this.creationTime = Clock.currentTimeMillis();
     }
@@ -175,6 +205,9 @@ public class GlobalPerIndexStats implements PerIndexStats {
 
     @Override
     public long getMemoryCost() {
+        if (flatHash) {
+            return IndexHeapMemoryCostUtil.estimateFlatHashTableCost(entryCount, usesCachedQueryableEntries) + valuesMemoryCost;
+        }
         return IndexHeapMemoryCostUtil.estimateMapCost(entryCount, ordered, usesCachedQueryableEntries) + valuesMemoryCost;
     }
 
@@ -246,6 +279,34 @@ public class GlobalPerIndexStats implements PerIndexStats {
         TOTAL_NORMALIZED_HIT_CARDINALITY.addAndGet(this, normalizedHitCardinality);
     }
 
+    @Override
+    public void onValueFilterLookup(boolean skipped) {
+        VALUE_FILTER_LOOKUP_COUNT.incrementAndGet(this);
+        if (skipped) {
+            VALUE_FILTER_SKIP_COUNT.incrementAndGet(this);
+        }
+    }
+
+    @Override
+    public long getValueFilterLookupCount() {
+        return valueFilterLookupCount;
+    }
+
+    @Override
+    public long getValueFilterSkipCount() {
+        return valueFilterSkipCount;
+    }
+
+    @Override
+    public void onOptimizerSkip() {
+        OPTIMIZER_SKIP_COUNT.incrementAndGet(this);
+    }
+
+    @Override
+    public long getOptimizerSkipCount() {
+        return optimizerSkipCount;
+    }
+
     @Override
     public void resetPerQueryStats() {
         // Do nothing, per-query stats are tracked in GlobalQueryContextWithStats
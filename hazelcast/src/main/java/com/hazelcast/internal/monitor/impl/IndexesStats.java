@@ -84,4 +84,22 @@ public interface IndexesStats {
      */
     PerIndexStats createPerIndexStats(boolean ordered, boolean queryableEntriesAreCached);
 
+    /**
+     * Creates a new instance of internal per-index stats for an index which
+     * may be backed by a {@link com.hazelcast.query.impl.FlatHashIndexStore}.
+     *
+     * @param ordered                   {@code true} if the stats are being created
+     *                                  for an ordered index, {@code false} otherwise.
+     * @param flatHash                  {@code true} if the stats are being created
+     *                                  for an index backed by a flat hash table,
+     *                                  {@code false} otherwise.
+     * @param queryableEntriesAreCached {@code true} if the stats are being created
+     *                                  for an index for which queryable entries are
+     *                                  cached, {@code false} otherwise.
+     * @return the created internal per-index stats instance.
+     */
+    default PerIndexStats createPerIndexStats(boolean ordered, boolean flatHash, boolean queryableEntriesAreCached) {
+        return createPerIndexStats(ordered, queryableEntriesAreCached);
+    }
+
 }
@@ -23,13 +23,18 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_AVERAGE_HIT_SELECTIVITY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_CREATION_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_HIT_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_INDEXED_PARTITION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_INSERT_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_MEMORY_COST;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_OPTIMIZER_SKIP_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_PARTITION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_QUERY_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_REMOVE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_INSERT_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_REMOVE_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_UPDATE_LATENCY;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_VALUE_FILTER_LOOKUP_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_VALUE_FILTER_SKIP_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_UPDATE_COUNT;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
@@ -79,6 +84,21 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
     @Probe(name = MAP_METRIC_INDEX_MEMORY_COST, unit = BYTES)
     private volatile long memoryCost;
 
+    @Probe(name = MAP_METRIC_INDEX_PARTITION_COUNT)
+    private volatile long partitionCount;
+
+    @Probe(name = MAP_METRIC_INDEX_INDEXED_PARTITION_COUNT)
+    private volatile long indexedPartitionCount;
+
+    @Probe(name = MAP_METRIC_INDEX_VALUE_FILTER_LOOKUP_COUNT)
+    private volatile long valueFilterLookupCount;
+
+    @Probe(name = MAP_METRIC_INDEX_VALUE_FILTER_SKIP_COUNT)
+    private volatile long valueFilterSkipCount;
+
+    @Probe(name = MAP_METRIC_INDEX_OPTIMIZER_SKIP_COUNT)
+    private volatile long optimizerSkipCount;
+
     @Override
     public long getCreationTime() {
         return creationTime;
@@ -252,6 +272,76 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
         this.memoryCost = memoryCost;
     }
 
+    @Override
+    public long getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Sets the owned partition count of this stats to the given value.
+     *
+     * @param partitionCount the owned partition count value to set.
+     */
+    public void setPartitionCount(long partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public long getIndexedPartitionCount() {
+        return indexedPartitionCount;
+    }
+
+    /**
+     * Sets the indexed partition count of this stats to the given value.
+     *
+     * @param indexedPartitionCount the indexed partition count value to set.
+     */
+    public void setIndexedPartitionCount(long indexedPartitionCount) {
+        this.indexedPartitionCount = indexedPartitionCount;
+    }
+
+    @Override
+    public long getValueFilterLookupCount() {
+        return valueFilterLookupCount;
+    }
+
+    /**
+     * Sets the value filter lookup count of this stats to the given value.
+     *
+     * @param valueFilterLookupCount the value filter lookup count value to set.
+     */
+    public void setValueFilterLookupCount(long valueFilterLookupCount) {
+        this.valueFilterLookupCount = valueFilterLookupCount;
+    }
+
+    @Override
+    public long getValueFilterSkipCount() {
+        return valueFilterSkipCount;
+    }
+
+    /**
+     * Sets the value filter skip count of this stats to the given value.
+     *
+     * @param valueFilterSkipCount the value filter skip count value to set.
+     */
+    public void setValueFilterSkipCount(long valueFilterSkipCount) {
+        this.valueFilterSkipCount = valueFilterSkipCount;
+    }
+
+    @Override
+    public long getOptimizerSkipCount() {
+        return optimizerSkipCount;
+    }
+
+    /**
+     * Sets the optimizer skip count of this stats to the given value.
+     *
+     * @param optimizerSkipCount the optimizer skip count value to set.
+     */
+    public void setOptimizerSkipCount(long optimizerSkipCount) {
+        this.optimizerSkipCount = optimizerSkipCount;
+    }
+
     /**
      * Sets all the values in this stats to the corresponding values in the
      * given on-demand stats.
@@ -271,6 +361,11 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
         this.removeCount = onDemandStats.getRemoveCount();
         this.totalRemoveLatency = onDemandStats.getTotalRemoveLatency();
         this.memoryCost = onDemandStats.getMemoryCost();
+        this.partitionCount = onDemandStats.getPartitionCount();
+        this.indexedPartitionCount = onDemandStats.getIndexedPartitionCount();
+        this.valueFilterLookupCount = onDemandStats.getValueFilterLookupCount();
+        this.valueFilterSkipCount = onDemandStats.getValueFilterSkipCount();
+        this.optimizerSkipCount = onDemandStats.getOptimizerSkipCount();
     }
 
     @Override
@@ -288,6 +383,11 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
                 + ", removeCount=" + removeCount
                 + ", totalRemoveLatency=" + totalRemoveLatency
                 + ", memoryCost=" + memoryCost
+                + ", partitionCount=" + partitionCount
+                + ", indexedPartitionCount=" + indexedPartitionCount
+                + ", valueFilterLookupCount=" + valueFilterLookupCount
+                + ", valueFilterSkipCount=" + valueFilterSkipCount
+                + ", optimizerSkipCount=" + optimizerSkipCount
                 + '}';
     }
 
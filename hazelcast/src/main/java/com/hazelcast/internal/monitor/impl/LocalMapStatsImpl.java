@@ -28,6 +28,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_BACKGROUND_EVICTION_BATCH_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_BACKGROUND_EVICTION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_BACKUP_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_BACKUP_ENTRY_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_BACKUP_ENTRY_MEMORY_COST;
@@ -47,8 +49,12 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_OWNED_ENTRY_MEMORY_COST;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_PUT_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_RESULT_CACHE_HITS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_RESULT_CACHE_INVALIDATIONS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_RESULT_CACHE_MISSES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_REMOVE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_SET_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TOTAL_BACKGROUND_EVICTION_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TOTAL_GET_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TOTAL_MAX_GET_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TOTAL_MAX_PUT_LATENCY;
@@ -103,6 +109,12 @@ public class LocalMapStatsImpl implements LocalMapStats {
             newUpdater(LocalMapStatsImpl.class, "maxSetLatency");
     private static final AtomicLongFieldUpdater<LocalMapStatsImpl> MAX_REMOVE_LATENCY =
             newUpdater(LocalMapStatsImpl.class, "maxRemoveLatency");
+    private static final AtomicLongFieldUpdater<LocalMapStatsImpl> BACKGROUND_EVICTION_BATCH_COUNT =
+            newUpdater(LocalMapStatsImpl.class, "backgroundEvictionBatchCount");
+    private static final AtomicLongFieldUpdater<LocalMapStatsImpl> BACKGROUND_EVICTION_COUNT =
+            newUpdater(LocalMapStatsImpl.class, "backgroundEvictionCount");
+    private static final AtomicLongFieldUpdater<LocalMapStatsImpl> TOTAL_BACKGROUND_EVICTION_TIME =
+            newUpdater(LocalMapStatsImpl.class, "totalBackgroundEvictionTimeNanos");
 
     private final ConcurrentMap<String, LocalIndexStatsImpl> mutableIndexStats =
             new ConcurrentHashMap<>();
@@ -135,6 +147,11 @@ public class LocalMapStatsImpl implements LocalMapStats {
     private volatile long maxPutLatency;
     private volatile long maxSetLatency;
     private volatile long maxRemoveLatency;
+    @Probe(name = MAP_METRIC_BACKGROUND_EVICTION_BATCH_COUNT)
+    private volatile long backgroundEvictionBatchCount;
+    @Probe(name = MAP_METRIC_BACKGROUND_EVICTION_COUNT)
+    private volatile long backgroundEvictionCount;
+    private volatile long totalBackgroundEvictionTimeNanos;
     @Probe(name = MAP_METRIC_CREATION_TIME, unit = MS)
     private final long creationTime;
     @Probe(name = MAP_METRIC_OWNED_ENTRY_COUNT)
@@ -166,6 +183,12 @@ public class LocalMapStatsImpl implements LocalMapStats {
     private volatile long queryCount;
     @Probe(name = MAP_METRIC_INDEXED_QUERY_COUNT)
     private volatile long indexedQueryCount;
+    @Probe(name = MAP_METRIC_QUERY_RESULT_CACHE_HITS)
+    private volatile long queryResultCacheHits;
+    @Probe(name = MAP_METRIC_QUERY_RESULT_CACHE_MISSES)
+    private volatile long queryResultCacheMisses;
+    @Probe(name = MAP_METRIC_QUERY_RESULT_CACHE_INVALIDATIONS)
+    private volatile long queryResultCacheInvalidations;
 
     public LocalMapStatsImpl() {
         creationTime = Clock.currentTimeMillis();
@@ -405,6 +428,36 @@ public class LocalMapStatsImpl implements LocalMapStats {
         this.indexedQueryCount = indexedQueryCount;
     }
 
+    @Override
+    public long getQueryResultCacheHits() {
+        return queryResultCacheHits;
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        return queryResultCacheMisses;
+    }
+
+    @Override
+    public long getQueryResultCacheInvalidations() {
+        return queryResultCacheInvalidations;
+    }
+
+    /**
+     * Sets the query result cache counters of this stats to the given
+     * values.
+     *
+     * @param hits          the number of queries served from the cache.
+     * @param misses        the number of queries not found in the cache.
+     * @param invalidations the number of stale results dropped from the
+     *                      cache.
+     */
+    public void setQueryResultCacheStats(long hits, long misses, long invalidations) {
+        this.queryResultCacheHits = hits;
+        this.queryResultCacheMisses = misses;
+        this.queryResultCacheInvalidations = invalidations;
+    }
+
     @Override
     public Map<String, LocalIndexStats> getIndexStats() {
         return indexStats;
@@ -454,6 +507,31 @@ public class LocalMapStatsImpl implements LocalMapStats {
         setMax(this, MAX_REMOVE_LATENCY, latencyNanos);
     }
 
+    /**
+     * Records a batch of the background eviction.
+     *
+     * @param evictionCount number of entries evicted by the batch
+     * @param elapsedNanos  time spent on the batch
+     */
+    public void incrementBackgroundEvictions(int evictionCount, long elapsedNanos) {
+        BACKGROUND_EVICTION_BATCH_COUNT.incrementAndGet(this);
+        BACKGROUND_EVICTION_COUNT.addAndGet(this, evictionCount);
+        TOTAL_BACKGROUND_EVICTION_TIME.addAndGet(this, elapsedNanos);
+    }
+
+    public long getBackgroundEvictionBatchCount() {
+        return backgroundEvictionBatchCount;
+    }
+
+    public long getBackgroundEvictionCount() {
+        return backgroundEvictionCount;
+    }
+
+    @Probe(name = MAP_METRIC_TOTAL_BACKGROUND_EVICTION_TIME, unit = MS)
+    public long getTotalBackgroundEvictionTime() {
+        return convertNanosToMillis(totalBackgroundEvictionTimeNanos);
+    }
+
     public void incrementOtherOperations() {
         NUMBER_OF_OTHER_OPERATIONS.incrementAndGet(this);
     }
@@ -505,6 +583,9 @@ public class LocalMapStatsImpl implements LocalMapStats {
                 + ", maxPutLatency=" + convertNanosToMillis(maxPutLatency)
                 + ", maxSetLatency=" + convertNanosToMillis(maxSetLatency)
                 + ", maxRemoveLatency=" + convertNanosToMillis(maxRemoveLatency)
+                + ", backgroundEvictionBatchCount=" + backgroundEvictionBatchCount
+                + ", backgroundEvictionCount=" + backgroundEvictionCount
+                + ", totalBackgroundEvictionTime=" + convertNanosToMillis(totalBackgroundEvictionTimeNanos)
                 + ", ownedEntryCount=" + ownedEntryCount
                 + ", backupEntryCount=" + backupEntryCount
                 + ", backupCount=" + backupCount
@@ -518,6 +599,9 @@ public class LocalMapStatsImpl implements LocalMapStats {
                 + ", nearCacheStats=" + (nearCacheStats != null ? nearCacheStats : "")
                 + ", queryCount=" + queryCount
                 + ", indexedQueryCount=" + indexedQueryCount
+                + ", queryResultCacheHits=" + queryResultCacheHits
+                + ", queryResultCacheMisses=" + queryResultCacheMisses
+                + ", queryResultCacheInvalidations=" + queryResultCacheInvalidations
                 + ", indexStats=" + indexStats
                 + '}';
     }
@@ -343,6 +343,21 @@ public class LocalReplicatedMapStatsImpl implements LocalReplicatedMapStats {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
     }
 
+    @Override
+    public long getQueryResultCacheHits() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
+    @Override
+    public long getQueryResultCacheInvalidations() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
     @Override
     public Map<String, LocalIndexStats> getIndexStats() {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
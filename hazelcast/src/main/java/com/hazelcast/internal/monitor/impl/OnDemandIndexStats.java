@@ -51,6 +51,16 @@ public class OnDemandIndexStats {
 
     private long totalHitCount;
 
+    private long partitionCount;
+
+    private long indexedPartitionCount;
+
+    private long valueFilterLookupCount;
+
+    private long valueFilterSkipCount;
+
+    private long optimizerSkipCount;
+
     /**
      * Returns the creation time.
      */
@@ -259,6 +269,86 @@ public class OnDemandIndexStats {
         this.totalHitCount = totalHitCount;
     }
 
+    /**
+     * Returns the owned partition count.
+     */
+    public long getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Sets the owned partition count to the given value.
+     *
+     * @param partitionCount the owned partition count value to set.
+     */
+    public void setPartitionCount(long partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Returns the indexed partition count.
+     */
+    public long getIndexedPartitionCount() {
+        return indexedPartitionCount;
+    }
+
+    /**
+     * Sets the indexed partition count to the given value.
+     *
+     * @param indexedPartitionCount the indexed partition count value to set.
+     */
+    public void setIndexedPartitionCount(long indexedPartitionCount) {
+        this.indexedPartitionCount = indexedPartitionCount;
+    }
+
+    /**
+     * Returns the value filter lookup count.
+     */
+    public long getValueFilterLookupCount() {
+        return valueFilterLookupCount;
+    }
+
+    /**
+     * Sets the value filter lookup count to the given value.
+     *
+     * @param valueFilterLookupCount the value filter lookup count value to set.
+     */
+    public void setValueFilterLookupCount(long valueFilterLookupCount) {
+        this.valueFilterLookupCount = valueFilterLookupCount;
+    }
+
+    /**
+     * Returns the value filter skip count.
+     */
+    public long getValueFilterSkipCount() {
+        return valueFilterSkipCount;
+    }
+
+    /**
+     * Sets the value filter skip count to the given value.
+     *
+     * @param valueFilterSkipCount the value filter skip count value to set.
+     */
+    public void setValueFilterSkipCount(long valueFilterSkipCount) {
+        this.valueFilterSkipCount = valueFilterSkipCount;
+    }
+
+    /**
+     * Returns the optimizer skip count.
+     */
+    public long getOptimizerSkipCount() {
+        return optimizerSkipCount;
+    }
+
+    /**
+     * Sets the optimizer skip count to the given value.
+     *
+     * @param optimizerSkipCount the optimizer skip count value to set.
+     */
+    public void setOptimizerSkipCount(long optimizerSkipCount) {
+        this.optimizerSkipCount = optimizerSkipCount;
+    }
+
     @Override
     public String toString() {
         return "LocalIndexStatsImpl{" + "creationTime=" + creationTime + ", hitCount=" + hitCount + ", entryCount=" + entryCount
@@ -266,7 +356,9 @@ public class OnDemandIndexStats {
                 + averageHitLatency + ", insertCount=" + insertCount + ", totalInsertLatency=" + totalInsertLatency
                 + ", updateCount=" + updateCount + ", totalUpdateLatency=" + totalUpdateLatency + ", removeCount=" + removeCount
                 + ", totalRemoveLatency=" + totalRemoveLatency + ", memoryCost=" + memoryCost + ", totalHitCount=" + totalHitCount
-                + '}';
+                + ", partitionCount=" + partitionCount + ", indexedPartitionCount=" + indexedPartitionCount
+                + ", valueFilterLookupCount=" + valueFilterLookupCount + ", valueFilterSkipCount=" + valueFilterSkipCount
+                + ", optimizerSkipCount=" + optimizerSkipCount + '}';
     }
 
 }
@@ -57,6 +57,12 @@ public class PartitionPerIndexStats implements PerIndexStats {
             PartitionPerIndexStats.class, "totalRemoveLatency");
     private static final AtomicLongFieldUpdater<PartitionPerIndexStats> MEMORY_COST = newUpdater(PartitionPerIndexStats.class,
             "memoryCost");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> VALUE_FILTER_LOOKUP_COUNT = newUpdater(
+            PartitionPerIndexStats.class, "valueFilterLookupCount");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> VALUE_FILTER_SKIP_COUNT = newUpdater(
+            PartitionPerIndexStats.class, "valueFilterSkipCount");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> OPTIMIZER_SKIP_COUNT = newUpdater(
+            PartitionPerIndexStats.class, "optimizerSkipCount");
 
     // Per-operation stats may be safely reused/shared for operations on
     // partitioned indexes since we know for sure only a single thread may
@@ -77,6 +83,9 @@ public class PartitionPerIndexStats implements PerIndexStats {
     private volatile long removeCount;
     private volatile long totalRemoveLatency;
     private volatile long memoryCost;
+    private volatile long valueFilterLookupCount;
+    private volatile long valueFilterSkipCount;
+    private volatile long optimizerSkipCount;
 
     private boolean hasQueries;
 
@@ -239,6 +248,35 @@ public class PartitionPerIndexStats implements PerIndexStats {
         TOTAL_NORMALIZED_HIT_CARDINALITY.lazySet(this, newEncodedTotalNormalizedHitCardinality);
     }
 
+    @Override
+    public void onValueFilterLookup(boolean skipped) {
+        VALUE_FILTER_LOOKUP_COUNT.lazySet(this, valueFilterLookupCount + 1);
+        if (skipped) {
+            VALUE_FILTER_SKIP_COUNT.lazySet(this, valueFilterSkipCount + 1);
+        }
+    }
+
+    @Override
+    public long getValueFilterLookupCount() {
+        return valueFilterLookupCount;
+    }
+
+    @Override
+    public long getValueFilterSkipCount() {
+        return valueFilterSkipCount;
+    }
+
+    @Override
+    public void onOptimizerSkip() {
+        // optimizers may run outside of the partition thread
+        OPTIMIZER_SKIP_COUNT.incrementAndGet(this);
+    }
+
+    @Override
+    public long getOptimizerSkipCount() {
+        return optimizerSkipCount;
+    }
+
     @Override
     public void resetPerQueryStats() {
         hasQueries = false;
@@ -303,6 +303,52 @@ public interface PerIndexStats {
      */
     void onIndexHit(long timestamp, long hitCardinality);
 
+    /**
+     * Invoked by the associated index after an equality lookup consulted the
+     * value filter of the index.
+     *
+     * @param skipped {@code true} if the filter has shown that no entry has
+     *                the looked up values and the index wasn't probed, {@code
+     *                false} otherwise.
+     * @see com.hazelcast.query.impl.InternalIndex#enableValueFilter
+     */
+    default void onValueFilterLookup(boolean skipped) {
+        // do nothing
+    }
+
+    /**
+     * Returns the number of the equality lookups which consulted the value
+     * filter of the index.
+     */
+    default long getValueFilterLookupCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of the equality lookups for which the value filter of
+     * the index has shown that the index doesn't need to be probed.
+     */
+    default long getValueFilterSkipCount() {
+        return 0;
+    }
+
+    /**
+     * Invoked by a query optimizer after it decided not to use the associated
+     * index for a query predicate the index is able to serve, because a full
+     * scan or a lookup in another index is estimated to be cheaper.
+     */
+    default void onOptimizerSkip() {
+        // do nothing
+    }
+
+    /**
+     * Returns the number of the query predicates for which a query optimizer
+     * decided not to use the index.
+     */
+    default long getOptimizerSkipCount() {
+        return 0;
+    }
+
     /**
      * Resets the per-query stats, if any, currently tracked by this internal
      * index stats instance.
@@ -19,9 +19,11 @@ package com.hazelcast.internal.nearcache.impl.store;
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
@@ -79,6 +81,7 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     protected EvictionChecker evictionChecker;
     protected SamplingEvictionStrategy<KS, R, NCRM> evictionStrategy;
     protected EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
+    protected TinyLFUEvictionPolicyComparator frequencyPolicy;
 
     protected volatile long reservationId;
     protected volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
@@ -109,7 +112,12 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         this.evictionChecker = createNearCacheEvictionChecker(evictionConfig, nearCacheConfig);
         if (!evictionDisabled) {
             this.evictionStrategy = SamplingEvictionStrategy.INSTANCE;
-            this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader);
+            int expectedEntryCount = evictionConfig.getMaxSizePolicy() == MaxSizePolicy.ENTRY_COUNT
+                    ? evictionConfig.getSize() : TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT;
+            this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader, expectedEntryCount);
+            if (evictionPolicyEvaluator.getEvictionPolicyComparator() instanceof TinyLFUEvictionPolicyComparator) {
+                this.frequencyPolicy = (TinyLFUEvictionPolicyComparator) evictionPolicyEvaluator.getEvictionPolicyComparator();
+            }
         }
     }
 
@@ -225,6 +233,11 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         R record = null;
         V value = null;
         try {
+            if (frequencyPolicy != null) {
+                // misses are counted too, they are followed by
+                // populating the Near Cache with the fetched value
+                frequencyPolicy.recordAccess(key);
+            }
             record = getRecord(key);
 
             if (record == null) {
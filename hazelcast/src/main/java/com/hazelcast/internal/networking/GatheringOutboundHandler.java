@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.networking;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by {@link OutboundHandler}s which can hand large payloads over
+ * to the {@link OutboundPipeline} as they are, instead of copying them into
+ * their dst buffer.
+ * <p>
+ * Only the last handler of a pipeline writes straight to the socket, so the
+ * pipeline enables the gathering writes of a handler only while it is the
+ * last one. The pipeline then writes the content of the dst buffer followed
+ * by the {@link #payload() payload} with a single gathering write.
+ */
+public interface GatheringOutboundHandler {
+
+    /**
+     * Enables or disables the gathering writes of this handler. While they
+     * are disabled, the handler has to copy all its output into its dst
+     * buffer.
+     *
+     * @param enabled {@code true} if the pipeline writes the payloads of this
+     *                handler to the socket, {@code false} otherwise
+     */
+    void setGatheringWritesEnabled(boolean enabled);
+
+    /**
+     * Returns the payload to be written to the socket right after the content
+     * of the dst buffer. The handler must not produce any output until the
+     * payload has been written completely.
+     *
+     * @return the payload or {@code null} if there is none
+     */
+    ByteBuffer payload();
+}
@@ -48,6 +48,11 @@ public abstract class InboundHandler<S, D> extends ChannelHandler<InboundHandler
      * InboundHandlers should be able to deal with spurious onReads
      * (so a read even though there is nothing to be processed).
      *
+     * The first handler of the pipeline should leave its src ByteBuffer in
+     * writing mode when this method returns, so with position 0 when all
+     * bytes have been consumed. The pipeline may then replace the empty
+     * src by another empty buffer of the same capacity before the next call.
+     *
      * @return HandlerStatus the status of the handler after processing the src.
      * @throws Exception if something fails while reading data from the src
      *                   or processing the data (e.g. when a Packet fails to get processed). When an
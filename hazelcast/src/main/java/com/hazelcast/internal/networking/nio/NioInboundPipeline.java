@@ -38,6 +38,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_INBOUND_PIPELINE_PRIORITY_FRAMES_READ;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.networking.ChannelOption.SO_RCVBUF;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 import static com.hazelcast.internal.util.collection.ArrayUtils.replaceFirst;
@@ -56,6 +57,9 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
 
     private InboundHandler[] handlers = new InboundHandler[0];
     private ByteBuffer receiveBuffer;
+    private final ReceiveBufferPool receiveBufferPool;
+    // the capacity of the receive buffer returned to the pool, 0 if none was returned
+    private int releasedBufferCapacity;
 
     @Probe(name = NETWORKING_METRIC_NIO_INBOUND_PIPELINE_BYTES_READ, unit = BYTES)
     private final SwCounter bytesRead = newSwCounter();
@@ -69,13 +73,16 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
     private volatile long normalFramesReadLastPublish;
     private volatile long priorityFramesReadLastPublish;
     private volatile long processCountLastPublish;
+    private volatile long processingTimeNanosLastPublish;
 
     NioInboundPipeline(NioChannel channel,
                        NioThread owner,
                        ChannelErrorHandler errorHandler,
                        ILogger logger,
-                       IOBalancer balancer) {
+                       IOBalancer balancer,
+                       ReceiveBufferPool receiveBufferPool) {
         super(channel, owner, errorHandler, OP_READ, logger, balancer);
+        this.receiveBufferPool = receiveBufferPool;
     }
 
     public long normalFramesRead() {
@@ -95,6 +102,8 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
                 return bytesRead.get();
             case LOAD_BALANCING_FRAME:
                 return normalFramesRead.get() + priorityFramesRead.get();
+            case LOAD_BALANCING_TIME:
+                return processingTimeNanos.get();
             default:
                 throw new RuntimeException();
         }
@@ -111,6 +120,8 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
 
     @Override
     void process() throws Exception {
+        borrowReceiveBufferIfReleased();
+
         int readBytes = socketChannel.read(receiveBuffer);
 
         if (readBytes == -1) {
@@ -158,6 +169,8 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
             }
         } while (!cleanPipeline);
 
+        releaseReceiveBufferIfDrained();
+
         if (migrationRequested()) {
             startMigration();
             return;
@@ -168,6 +181,44 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
         }
     }
 
+    private void borrowReceiveBufferIfReleased() {
+        if (receiveBuffer != null || releasedBufferCapacity == 0) {
+            return;
+        }
+
+        receiveBuffer = receiveBufferPool.take(releasedBufferCapacity);
+        releasedBufferCapacity = 0;
+        handlers[0].src(receiveBuffer);
+    }
+
+    /**
+     * Returns the receive buffer to the {@link ReceiveBufferPool} if the
+     * first handler consumed all the bytes read. Only the regular direct
+     * socket receive buffers are pooled; e.g. the small buffers used while
+     * the protocol is being detected are left alone.
+     */
+    private void releaseReceiveBufferIfDrained() {
+        ByteBuffer buffer = receiveBuffer;
+        if (receiveBufferPool == null || buffer == null || buffer.position() != 0) {
+            return;
+        }
+        if (!isSocketReceiveBuffer(buffer)) {
+            return;
+        }
+
+        handlers[0].src(null);
+        receiveBuffer = null;
+        releasedBufferCapacity = buffer.capacity();
+        receiveBufferPool.release(buffer);
+    }
+
+    private boolean isSocketReceiveBuffer(ByteBuffer buffer) {
+        return buffer.isDirect()
+                && handlers.length > 0
+                && handlers[0].src() == buffer
+                && buffer.capacity() == channel.options().getOption(SO_RCVBUF);
+    }
+
     long bytesRead() {
         return bytesRead.get();
     }
@@ -183,11 +234,13 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
         owner.framesTransceived += normalFramesRead.get() - normalFramesReadLastPublish;
         owner.priorityFramesTransceived += priorityFramesRead.get() - priorityFramesReadLastPublish;
         owner.processCount += processCount.get() - processCountLastPublish;
+        owner.processingTimeNanos += processingTimeNanos.get() - processingTimeNanosLastPublish;
 
         bytesReadLastPublish = bytesRead.get();
         normalFramesReadLastPublish = normalFramesRead.get();
         priorityFramesReadLastPublish = priorityFramesRead.get();
         processCountLastPublish = processCount.get();
+        processingTimeNanosLastPublish = processingTimeNanos.get();
     }
 
     @Override
@@ -247,6 +300,9 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
     private void updatePipeline(InboundHandler[] handlers) {
         this.handlers = handlers;
         receiveBuffer = handlers.length == 0 ? null : (ByteBuffer) handlers[0].src();
+        if (receiveBuffer != null) {
+            releasedBufferCapacity = 0;
+        }
 
         InboundHandler prev = null;
         for (InboundHandler handler : handlers) {
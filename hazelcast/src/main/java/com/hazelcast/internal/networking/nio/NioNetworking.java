@@ -59,6 +59,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFIX_CONNECTION_OUT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFIX_INPUTTHREAD;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFIX_OUTPUTTHREAD;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFIX_RECEIVE_BUFFER_POOL;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW_STRING;
@@ -121,6 +122,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final ThreadAffinity inputThreadAffinity;
+    private final ReceiveBufferPool receiveBufferPool;
     private volatile IOBalancer ioBalancer;
     private volatile NioThread[] inputThreads;
     private volatile NioThread[] outputThreads;
@@ -152,6 +154,9 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         this.selectorWorkaroundTest = ctx.selectorWorkaroundTest;
         this.idleStrategy = ctx.idleStrategy;
         this.concurrencyDetection = ctx.concurrencyDetection;
+        // a few spare buffers per input thread cover the connections that
+        // are receiving concurrently, the rest is allocated on demand
+        this.receiveBufferPool = ctx.receiveBufferPoolEnabled ? new ReceiveBufferPool(2 * inputThreadCount) : null;
         // selector mode SELECT_WITH_FIX requires that a single thread
         // accesses a selector & its selectionKeys. Selection key wake-up
         // and write through break this requirement, therefore must be
@@ -187,6 +192,11 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         return ioBalancer;
     }
 
+    // used in tests
+    ReceiveBufferPool getReceiveBufferPool() {
+        return receiveBufferPool;
+    }
+
     @Override
     public void restart() {
         if (!started.compareAndSet(false, true)) {
@@ -348,7 +358,8 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                 threads[index],
                 errorHandler,
                 loggingService.getLogger(NioInboundPipeline.class),
-                ioBalancer);
+                ioBalancer,
+                receiveBufferPool);
     }
 
     @Override
@@ -370,6 +381,10 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             context.collect(descriptorOut, channel.outboundPipeline());
         }
 
+        if (receiveBufferPool != null) {
+            context.collect(descriptor.copy().withPrefix(TCP_PREFIX_RECEIVE_BUFFER_POOL), receiveBufferPool);
+        }
+
         NioThread[] inputThreads = this.inputThreads;
         if (inputThreads != null) {
             for (NioThread nioThread : inputThreads) {
@@ -503,6 +518,9 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         // this is an optimization that can speed up low threaded setups
         private boolean writeThroughEnabled;
 
+        // if the receive buffers of idle connections are returned to a pool shared by all connections
+        private boolean receiveBufferPoolEnabled;
+
         public Context() {
             String selectorModeString = SelectorMode.getConfiguredString();
             if (selectorModeString.startsWith(SELECT_NOW_STRING + ",")) {
@@ -520,6 +538,11 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             return this;
         }
 
+        public Context receiveBufferPoolEnabled(boolean receiveBufferPoolEnabled) {
+            this.receiveBufferPoolEnabled = receiveBufferPoolEnabled;
+            return this;
+        }
+
         public Context concurrencyDetection(ConcurrencyDetection concurrencyDetection) {
             this.concurrencyDetection = concurrencyDetection;
             return this;
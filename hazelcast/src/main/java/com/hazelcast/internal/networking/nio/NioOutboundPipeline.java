@@ -19,6 +19,7 @@ package com.hazelcast.internal.networking.nio;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelHandler;
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.networking.OutboundHandler;
@@ -37,6 +38,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_COPIED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN;
@@ -45,6 +47,8 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS_PER_FRAME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
@@ -113,6 +117,9 @@ public final class NioOutboundPipeline
 
     private OutboundHandler[] handlers = new OutboundHandler[0];
     private ByteBuffer sendBuffer;
+    // the last handler if it hands payloads over for gathering writes, otherwise null
+    private GatheringOutboundHandler gatheringHandler;
+    private final ByteBuffer[] gatheringBuffers = new ByteBuffer[2];
 
     private final AtomicReference<State> scheduled = new AtomicReference<>(State.SCHEDULED);
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN, unit = BYTES)
@@ -121,6 +128,12 @@ public final class NioOutboundPipeline
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN)
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS)
+    private final SwCounter writeCalls = newSwCounter();
+    // the bytes written that were copied before reaching the socket: the bytes
+    // the handlers copied into the send buffer and the payloads on the heap
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_COPIED, unit = BYTES)
+    private final SwCounter bytesCopied = newSwCounter();
 
     private volatile long lastWriteTime;
 
@@ -128,6 +141,7 @@ public final class NioOutboundPipeline
     private long normalFramesWrittenLastPublish;
     private long priorityFramesWrittenLastPublish;
     private long processCountLastPublish;
+    private long processingTimeNanosLastPublish;
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final boolean selectionKeyWakeupEnabled;
@@ -155,6 +169,8 @@ public final class NioOutboundPipeline
                 return bytesWritten.get();
             case LOAD_BALANCING_FRAME:
                 return normalFramesWritten.get() + priorityFramesWritten.get();
+            case LOAD_BALANCING_TIME:
+                return processingTimeNanos.get();
             default:
                 throw new RuntimeException();
         }
@@ -196,6 +212,12 @@ public final class NioOutboundPipeline
         return scheduled.get().ordinal();
     }
 
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS_PER_FRAME, level = DEBUG)
+    private double writeCallsPerFrame() {
+        long frames = normalFramesWritten.get() + priorityFramesWritten.get();
+        return frames == 0 ? 0 : (double) writeCalls.get() / frames;
+    }
+
     public void write(OutboundFrame frame) {
         if (frame.isUrgent()) {
             priorityWriteQueue.offer(frame);
@@ -319,7 +341,7 @@ public final class NioOutboundPipeline
             return;
         }
 
-        if (sendBuffer.remaining() > 0) {
+        if (sendBuffer.remaining() > 0 || payloadPending()) {
             pipelineStatus = DIRTY;
         }
 
@@ -376,7 +398,7 @@ public final class NioOutboundPipeline
             // if we don't wake up the selector explicitly, only after the selector.select(timeout)
             // has expired the selectionKey will be seen. For more info see:
             // https://stackoverflow.com/questions/11523471/java-selectionkey-interestopsint-not-thread-safe
-            owner.getSelector().wakeup();
+            owner.wakeup();
             concurrencyDetection.onDetected();
         }
     }
@@ -425,9 +447,50 @@ public final class NioOutboundPipeline
 
     private void flushToSocket() throws IOException {
         lastWriteTime = currentTimeMillis();
-        int written = socketChannel.write(sendBuffer);
+        ByteBuffer payload = gatheringHandler == null ? null : gatheringHandler.payload();
+        int sendBufferBytes = sendBuffer.remaining();
+        long written;
+        long copied;
+        if (payload == null || !payload.hasRemaining()) {
+            if (sendBufferBytes == 0) {
+                return;
+            }
+            written = socketChannel.write(sendBuffer);
+            copied = written;
+        } else {
+            int payloadBytes = payload.position();
+            written = writeGathering(payload);
+            payloadBytes = payload.position() - payloadBytes;
+            // the JDK copies a heap payload into a temporary direct buffer
+            copied = payload.isDirect() ? written - payloadBytes : written;
+        }
+        writeCalls.inc();
         bytesWritten.inc(written);
-        //System.out.println(channel + " bytes written:" + written);
+        bytesCopied.inc(copied);
+    }
+
+    private long writeGathering(ByteBuffer payload) throws IOException {
+        // the payload is written in chunks no larger than the send buffer so
+        // the temporary direct buffer the JDK copies a heap payload into
+        // stays bounded
+        int limit = payload.limit();
+        payload.limit((int) Math.min(limit, (long) payload.position() + sendBuffer.capacity()));
+        gatheringBuffers[0] = sendBuffer;
+        gatheringBuffers[1] = payload;
+        try {
+            return socketChannel.write(gatheringBuffers);
+        } finally {
+            gatheringBuffers[1] = null;
+            payload.limit(limit);
+        }
+    }
+
+    private boolean payloadPending() {
+        if (gatheringHandler == null) {
+            return false;
+        }
+        ByteBuffer payload = gatheringHandler.payload();
+        return payload != null && payload.hasRemaining();
     }
 
     void drainWriteQueues() {
@@ -449,11 +512,13 @@ public final class NioOutboundPipeline
         owner.framesTransceived += normalFramesWritten.get() - normalFramesWrittenLastPublish;
         owner.priorityFramesTransceived += priorityFramesWritten.get() - priorityFramesWrittenLastPublish;
         owner.processCount += processCount.get() - processCountLastPublish;
+        owner.processingTimeNanos += processingTimeNanos.get() - processingTimeNanosLastPublish;
 
         bytesWrittenLastPublish = bytesWritten.get();
         normalFramesWrittenLastPublish = normalFramesWritten.get();
         priorityFramesWrittenLastPublish = priorityFramesWritten.get();
         processCountLastPublish = processCount.get();
+        processingTimeNanosLastPublish = processingTimeNanos.get();
     }
 
     @Override
@@ -502,6 +567,17 @@ public final class NioOutboundPipeline
     private void updatePipeline(OutboundHandler[] newHandlers) {
         this.handlers = newHandlers;
         this.sendBuffer = newHandlers.length == 0 ? null : (ByteBuffer) newHandlers[newHandlers.length - 1].dst();
+        this.gatheringHandler = null;
+        for (int k = 0; k < newHandlers.length; k++) {
+            if (newHandlers[k] instanceof GatheringOutboundHandler) {
+                GatheringOutboundHandler handler = (GatheringOutboundHandler) newHandlers[k];
+                boolean last = k == newHandlers.length - 1;
+                handler.setGatheringWritesEnabled(last);
+                if (last) {
+                    gatheringHandler = handler;
+                }
+            }
+        }
 
         OutboundHandler prev = null;
         for (OutboundHandler handler : handlers) {
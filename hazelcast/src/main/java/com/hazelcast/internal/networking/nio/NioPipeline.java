@@ -34,9 +34,11 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_OPS_INTERESTED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_OPS_READY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_OWNER_ID;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_PROCESSING_TIME_NANOS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_STARTED_MIGRATIONS;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Thread.currentThread;
 
@@ -45,6 +47,10 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
     protected static final int LOAD_BALANCING_HANDLE = 0;
     protected static final int LOAD_BALANCING_BYTE = 1;
     protected static final int LOAD_BALANCING_FRAME = 2;
+    // the time the owner spent processing the pipeline; unlike bytes or frames it
+    // reflects both the cost of large frames and the per-event overhead of small ones.
+    // It is opt-in since measuring it adds two System.nanoTime() calls per process().
+    protected static final int LOAD_BALANCING_TIME = 3;
 
     // for the time being we configure using a int until we have decided which load strategy to use.
     protected final int loadType = Integer.getInteger("hazelcast.io.load", LOAD_BALANCING_BYTE);
@@ -52,6 +58,10 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
     // the number of time the NioPipeline.process() method has been called.
     @Probe(name = NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT)
     protected final SwCounter processCount = newSwCounter();
+    // the time the owner spent in the NioPipeline.process() method; only
+    // tracked when the load type is LOAD_BALANCING_TIME.
+    @Probe(name = NETWORKING_METRIC_NIO_PIPELINE_PROCESSING_TIME_NANOS, unit = NS)
+    protected final SwCounter processingTimeNanos = newSwCounter();
     protected final ILogger logger;
     protected final NioChannel channel;
     protected final SocketChannel socketChannel;
@@ -165,6 +175,27 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
      */
     abstract void process() throws Exception;
 
+    /**
+     * Calls {@link #process()} and adds the time it took to the processing
+     * time of this pipeline.
+     * <p>
+     * This method should only be called by the owner. The time is only
+     * tracked with the {@link #LOAD_BALANCING_TIME} load type and it isn't
+     * added if the pipeline started migrating to another owner while processing.
+     */
+    final void processAndTrackTime() throws Exception {
+        if (loadType != LOAD_BALANCING_TIME) {
+            process();
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        process();
+        if (owner == currentThread()) {
+            processingTimeNanos.inc(System.nanoTime() - startNanos);
+        }
+    }
+
     /**
      * Adds a task to be executed on the {@link NioThread owner}.
      * <p>
@@ -227,7 +258,7 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
     public final void run() {
         if (owner == currentThread()) {
             try {
-                process();
+                processAndTrackTime();
             } catch (Throwable t) {
                 onError(t);
             }
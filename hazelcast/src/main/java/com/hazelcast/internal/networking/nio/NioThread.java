@@ -34,6 +34,7 @@ import java.util.Iterator;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_BYTES_TRANSCEIVED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_COMPLETED_TASK_COUNT;
@@ -42,6 +43,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_IDLE_TIME_MILLIS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_IO_THREAD_ID;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PRIORITY_FRAMES_TRANSCEIVED;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PROCESSING_TIME_NANOS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_SELECTOR_IO_EXCEPTION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_SELECTOR_REBUILD_COUNT;
@@ -49,6 +51,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricTarget.MANAGEMENT_CENTER;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW;
 import static com.hazelcast.internal.networking.nio.SelectorOptimizer.newSelector;
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
@@ -71,6 +74,8 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
     // when testing, we simulate the selector bug randomly with one out of TEST_SELECTOR_BUG_PROBABILITY
     private static final int TEST_SELECTOR_BUG_PROBABILITY = Integer.parseInt(
             System.getProperty("hazelcast.io.selector.bug.probability", "16"));
+    private static final AtomicIntegerFieldUpdater<NioThread> SELECTING =
+            AtomicIntegerFieldUpdater.newUpdater(NioThread.class, "selecting");
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
     // this field is set during construction and is meant for the probes so that the NioPipeline can
@@ -86,6 +91,8 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
     volatile long priorityFramesTransceived;
     @Probe(name = NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT)
     volatile long processCount;
+    @Probe(name = NETWORKING_METRIC_NIO_THREAD_PROCESSING_TIME_NANOS, unit = NS)
+    volatile long processingTimeNanos;
 
     @Probe(name = NETWORKING_METRIC_NIO_THREAD_TASK_QUEUE_SIZE)
     private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
@@ -112,6 +119,11 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
     // last time select unblocked with some keys selected
     private volatile long lastSelectTimeMs;
 
+    // 1 while this thread is (about to be) blocked in Selector.select and
+    // nobody has woken it up yet, so only the first of the threads adding
+    // tasks concurrently pays for the Selector.wakeup system call.
+    private volatile int selecting;
+
     private volatile boolean stop;
 
     // set to true while testing
@@ -166,6 +178,10 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         return processCount;
     }
 
+    public long processingTimeNanos() {
+        return processingTimeNanos;
+    }
+
     public long eventCount() {
         return eventCount.get();
     }
@@ -221,7 +237,18 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
      */
     public void addTaskAndWakeup(Runnable task) {
         taskQueue.add(task);
-        if (selectMode != SELECT_NOW) {
+        wakeup();
+    }
+
+    /**
+     * Wakes up the selector if this thread is blocked in, or about to
+     * block in, {@link Selector#select(long)}. If the thread is running,
+     * it will see the added tasks and the changed interest sets of the
+     * selection keys before it blocks again, so waking it up again would
+     * be a wasted system call.
+     */
+    public void wakeup() {
+        if (selectMode != SELECT_NOW && SELECTING.getAndSet(this, 0) == 1) {
             selector.wakeup();
         }
     }
@@ -289,7 +316,7 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         while (!stop) {
             processTaskQueue();
 
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select();
             if (selectedKeys > 0) {
                 processSelectionKeys();
             }
@@ -302,7 +329,7 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
             processTaskQueue();
 
             long before = currentTimeMillis();
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select();
             if (selectedKeys > 0) {
                 idleCount = 0;
                 processSelectionKeys();
@@ -321,6 +348,20 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         }
     }
 
+    private int select() throws IOException {
+        // the flag has to be raised before the task queue is checked, so a
+        // task added after the check always finds it raised and wakes us up
+        selecting = 1;
+        try {
+            if (!taskQueue.isEmpty()) {
+                return selector.selectNow();
+            }
+            return selector.select(SELECT_WAIT_TIME_MILLIS);
+        } finally {
+            selecting = 0;
+        }
+    }
+
     private boolean selectorBugDetected(int idleCount) {
         return idleCount > SELECT_IDLE_COUNT_THRESHOLD
                 || (selectorWorkaroundTest && RANDOM.nextInt(TEST_SELECTOR_BUG_PROBABILITY) == 1);
@@ -380,7 +421,7 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
             // we don't need to check for sk.isReadable/sk.isWritable since the pipeline has only registered
             // for events it can handle.
             eventCount.inc();
-            pipeline.process();
+            pipeline.processAndTrackTime();
         } catch (Throwable t) {
              pipeline.onError(t);
         }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_ALLOCATED_BUFFERS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_BORROWED_BUFFERS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_POOLED_BUFFERS;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * A pool of direct receive buffers shared by the {@link NioInboundPipeline}s
+ * of a {@link NioNetworking}.
+ * <p>
+ * An inbound pipeline returns its receive buffer to the pool as soon as its
+ * first handler has consumed all the bytes read, and borrows a buffer again
+ * on the next read. So only the connections in the middle of receiving a
+ * message hold a buffer; idle connections don't pin any direct memory.
+ * A borrowed buffer is owned by a single pipeline until it is returned.
+ * <p>
+ * Buffers are pooled per capacity, since the receive buffer sizes of the
+ * endpoints can differ. The pool retains a bounded number of buffers per
+ * capacity, the surplus is left to the garbage collector.
+ */
+public final class ReceiveBufferPool {
+
+    private final int maxPooledBuffers;
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> buffers = new ConcurrentHashMap<>();
+
+    @Probe(name = NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_ALLOCATED_BUFFERS)
+    private final MwCounter allocatedBuffers = newMwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_BORROWED_BUFFERS)
+    private final MwCounter borrowedBuffers = newMwCounter();
+
+    /**
+     * @param maxPooledBuffers the maximum number of buffers retained per
+     *                         buffer capacity
+     */
+    public ReceiveBufferPool(int maxPooledBuffers) {
+        this.maxPooledBuffers = checkPositive("maxPooledBuffers", maxPooledBuffers);
+    }
+
+    /**
+     * Borrows a cleared direct buffer with the given capacity, a new buffer
+     * is allocated if there is none in the pool.
+     */
+    ByteBuffer take(int capacity) {
+        borrowedBuffers.inc();
+        Queue<ByteBuffer> queue = buffers.get(capacity);
+        ByteBuffer buffer = queue == null ? null : queue.poll();
+        if (buffer == null) {
+            allocatedBuffers.inc();
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a direct buffer to the pool. The buffer must not be used by
+     * the caller afterwards.
+     */
+    void release(ByteBuffer buffer) {
+        assert buffer.isDirect();
+        buffer.clear();
+        buffers.computeIfAbsent(buffer.capacity(), capacity -> new ArrayBlockingQueue<>(maxPooledBuffers))
+               .offer(buffer);
+    }
+
+    long allocatedBuffers() {
+        return allocatedBuffers.get();
+    }
+
+    long borrowedBuffers() {
+        return borrowedBuffers.get();
+    }
+
+    @Probe(name = NETWORKING_METRIC_NIO_RECEIVE_BUFFER_POOL_POOLED_BUFFERS)
+    int pooledBuffers() {
+        int pooledBuffers = 0;
+        for (Queue<ByteBuffer> queue : buffers.values()) {
+            pooledBuffers += queue.size();
+        }
+        return pooledBuffers;
+    }
+}
@@ -29,6 +29,9 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
 import com.hazelcast.spi.properties.ClusterProperty;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -38,6 +41,7 @@ import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_INTERVAL_SECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_THREAD_COUNT;
+import static java.lang.System.currentTimeMillis;
 
 /**
  * It attempts to detect and fix a selector imbalance problem.
@@ -65,6 +69,7 @@ import static com.hazelcast.spi.properties.ClusterProperty.IO_THREAD_COUNT;
  */
 public class IOBalancer {
     private static final String PROP_MONKEY_BALANCER = "hazelcast.io.balancer.monkey";
+    private static final int MAX_RECENT_MIGRATIONS = 32;
     private final ILogger logger;
 
     private final int balancerIntervalSeconds;
@@ -74,6 +79,9 @@ public class IOBalancer {
     private final LoadTracker outLoadTracker;
     private final String hzName;
     private final BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
+    // only IOBalancerThread will add to this queue, it can be read by any thread.
+    private final BlockingQueue<PipelineMigration> recentMigrations = new ArrayBlockingQueue<>(MAX_RECENT_MIGRATIONS);
+    private long migrationSequence;
     private volatile boolean enabled;
     private IOBalancerThread ioBalancerThread;
 
@@ -116,6 +124,16 @@ public class IOBalancer {
         return workQueue;
     }
 
+    /**
+     * Returns the most recent migrations scheduled by this balancer, oldest
+     * first. Can be called by any thread.
+     *
+     * @return the list of recent migrations
+     */
+    public List<PipelineMigration> getRecentMigrations() {
+        return new ArrayList<>(recentMigrations);
+    }
+
     public void channelAdded(MigratablePipeline inboundPipeline, MigratablePipeline outboundPipeline) {
         // if not enabled, then don't schedule tasks that will not get processed.
         // See https://github.com/hazelcast/hazelcast/issues/11501
@@ -213,9 +231,16 @@ public class IOBalancer {
             logger.finest("Scheduling migration of pipeline " + pipeline
                     + " from " + srcOwner + " to " + dstOwner);
         }
+        recordMigration(new PipelineMigration(++migrationSequence, currentTimeMillis(), pipeline, loadImbalance));
         pipeline.requestMigration(dstOwner);
     }
 
+    private void recordMigration(PipelineMigration migration) {
+        while (!recentMigrations.offer(migration)) {
+            recentMigrations.poll();
+        }
+    }
+
     public void signalMigrationComplete() {
         migrationCompletedCount.inc();
     }
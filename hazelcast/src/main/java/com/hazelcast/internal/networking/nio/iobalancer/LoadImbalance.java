@@ -42,11 +42,19 @@ class LoadImbalance {
 
     private final Map<NioThread, Set<MigratablePipeline>> ownerToPipelines;
     private final ItemCounter<MigratablePipeline> pipelineLoadCounter;
+    private final ItemCounter<MigratablePipeline> pipelinePredictedLoadCounter;
 
     LoadImbalance(Map<NioThread, Set<MigratablePipeline>> ownerToPipelines,
                   ItemCounter<MigratablePipeline> pipelineLoadCounter) {
+        this(ownerToPipelines, pipelineLoadCounter, pipelineLoadCounter);
+    }
+
+    LoadImbalance(Map<NioThread, Set<MigratablePipeline>> ownerToPipelines,
+                  ItemCounter<MigratablePipeline> pipelineLoadCounter,
+                  ItemCounter<MigratablePipeline> pipelinePredictedLoadCounter) {
         this.ownerToPipelines = ownerToPipelines;
         this.pipelineLoadCounter = pipelineLoadCounter;
+        this.pipelinePredictedLoadCounter = pipelinePredictedLoadCounter;
     }
 
     /**
@@ -64,4 +72,12 @@ class LoadImbalance {
     long getLoad(MigratablePipeline pipeline) {
         return pipelineLoadCounter.get(pipeline);
     }
+
+    /**
+     * @param pipeline
+     * @return load the pipeline is expected to record in the next interval
+     */
+    long getPredictedLoad(MigratablePipeline pipeline) {
+        return pipelinePredictedLoadCounter.get(pipeline);
+    }
 }
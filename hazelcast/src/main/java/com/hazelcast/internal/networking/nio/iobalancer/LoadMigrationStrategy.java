@@ -28,7 +28,10 @@ import java.util.Set;
  *
  * Once a migration is triggered it tries to find the busiest pipeline registered in
  * {@link LoadImbalance#srcOwner} which wouldn't cause overload of the
- * {@link LoadImbalance#dstOwner} after a migration.
+ * {@link LoadImbalance#dstOwner} after a migration. The pipelines are compared by
+ * their predicted load, so a pipeline is not migrated because of a single burst
+ * and a pipeline which has been hot for a while is not left behind because it
+ * was quiet in the last interval.
  */
 class LoadMigrationStrategy implements MigrationStrategy {
 
@@ -84,7 +87,7 @@ class LoadMigrationStrategy implements MigrationStrategy {
         MigratablePipeline candidate = null;
         long loadInSelectedPipeline = 0;
         for (MigratablePipeline pipeline : candidates) {
-            long load = imbalance.getLoad(pipeline);
+            long load = imbalance.getPredictedLoad(pipeline);
             if (load > loadInSelectedPipeline) {
                 if (load < migrationThreshold) {
                     loadInSelectedPipeline = load;
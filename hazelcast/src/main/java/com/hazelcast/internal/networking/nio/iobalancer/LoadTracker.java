@@ -49,6 +49,8 @@ class LoadTracker {
     private final ItemCounter<NioThread> ownerLoad = new ItemCounter<NioThread>();
     //load per pipeline since last calculation
     private final ItemCounter<MigratablePipeline> pipelineLoadCount = new ItemCounter<MigratablePipeline>();
+    //load per pipeline expected in the next interval, an exponentially weighted average of the past loads
+    private final ItemCounter<MigratablePipeline> pipelinePredictedLoad = new ItemCounter<MigratablePipeline>();
 
     //contains all known pipelines
     private final Set<MigratablePipeline> pipelines = new HashSet<MigratablePipeline>();
@@ -65,7 +67,7 @@ class LoadTracker {
         for (NioThread selector : ioThreads) {
             ownerToPipelines.put(selector, new HashSet<MigratablePipeline>());
         }
-        this.imbalance = new LoadImbalance(ownerToPipelines, pipelineLoadCount);
+        this.imbalance = new LoadImbalance(ownerToPipelines, pipelineLoadCount, pipelinePredictedLoad);
     }
 
     /**
@@ -97,6 +99,11 @@ class LoadTracker {
         return pipelineLoadCount;
     }
 
+    // just for testing
+    ItemCounter<MigratablePipeline> getPipelinePredictedLoad() {
+        return pipelinePredictedLoad;
+    }
+
     private void updateNewFinalImbalance() {
         imbalance.minimumLoad = Long.MAX_VALUE;
         imbalance.maximumLoad = Long.MIN_VALUE;
@@ -130,6 +137,7 @@ class LoadTracker {
     private void updatePipelineState(MigratablePipeline pipeline) {
         long pipelineLoad = getLoadSinceLastCheck(pipeline);
         pipelineLoadCount.set(pipeline, pipelineLoad);
+        updatePredictedLoad(pipeline, pipelineLoad);
         NioThread owner = pipeline.owner();
         if (owner == null) {
             // the pipeline is currently being migrated - owner is null
@@ -139,6 +147,21 @@ class LoadTracker {
         ownerToPipelines.get(owner).add(pipeline);
     }
 
+    /**
+     * Smooths the load of the pipeline over the intervals, so a pipeline
+     * which was busy for a single interval is not considered hot, while the
+     * prediction still follows a lasting change of the load within a few
+     * intervals. A newly added pipeline starts with its first load.
+     */
+    private void updatePredictedLoad(MigratablePipeline pipeline, long pipelineLoad) {
+        if (pipelinePredictedLoad.keySet().contains(pipeline)) {
+            long predictedLoad = pipelinePredictedLoad.get(pipeline);
+            pipelinePredictedLoad.set(pipeline, predictedLoad + (pipelineLoad - predictedLoad) / 2);
+        } else {
+            pipelinePredictedLoad.set(pipeline, pipelineLoad);
+        }
+    }
+
     private long getLoadSinceLastCheck(MigratablePipeline pipeline) {
         long load = pipeline.load();
         long lastLoad = lastLoadCounter.getAndSet(pipeline, load);
@@ -160,6 +183,7 @@ class LoadTracker {
     void removePipeline(MigratablePipeline pipeline) {
         pipelines.remove(pipeline);
         pipelineLoadCount.remove(pipeline);
+        pipelinePredictedLoad.remove(pipeline);
         lastLoadCounter.remove(pipeline);
     }
 
@@ -226,6 +250,8 @@ class LoadTracker {
             sb.append(pipeline)
                     .append(":  ")
                     .append(loadPerPipeline)
+                    .append(" predicted: ")
+                    .append(pipelinePredictedLoad.get(pipeline))
                     .append(LINE_SEPARATOR);
         }
         sb.append(LINE_SEPARATOR);
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio.iobalancer;
+
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+import com.hazelcast.internal.networking.nio.NioThread;
+
+/**
+ * A migration of a {@link MigratablePipeline} scheduled by the
+ * {@link IOBalancer}, together with the loads it was based on.
+ * <p>
+ * The loads are measured over the balancer interval, in the unit of the
+ * configured load type.
+ */
+public final class PipelineMigration {
+
+    private final long sequence;
+    private final long timeMillis;
+    private final String pipeline;
+    private final String srcOwner;
+    private final String dstOwner;
+    private final long pipelineLoad;
+    private final long predictedPipelineLoad;
+    private final long srcOwnerLoad;
+    private final long dstOwnerLoad;
+
+    PipelineMigration(long sequence, long timeMillis, MigratablePipeline pipeline, LoadImbalance imbalance) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.pipeline = pipeline.toString();
+        this.srcOwner = nameOf(imbalance.srcOwner);
+        this.dstOwner = nameOf(imbalance.dstOwner);
+        this.pipelineLoad = imbalance.getLoad(pipeline);
+        this.predictedPipelineLoad = imbalance.getPredictedLoad(pipeline);
+        this.srcOwnerLoad = imbalance.maximumLoad;
+        this.dstOwnerLoad = imbalance.minimumLoad;
+    }
+
+    private static String nameOf(NioThread owner) {
+        return owner == null ? null : owner.getName();
+    }
+
+    /**
+     * @return the sequence number of the migration, increasing with every
+     * migration scheduled by the balancer
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    public long timeMillis() {
+        return timeMillis;
+    }
+
+    public String pipeline() {
+        return pipeline;
+    }
+
+    public String srcOwner() {
+        return srcOwner;
+    }
+
+    public String dstOwner() {
+        return dstOwner;
+    }
+
+    public long pipelineLoad() {
+        return pipelineLoad;
+    }
+
+    public long predictedPipelineLoad() {
+        return predictedPipelineLoad;
+    }
+
+    public long srcOwnerLoad() {
+        return srcOwnerLoad;
+    }
+
+    public long dstOwnerLoad() {
+        return dstOwnerLoad;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineMigration{"
+                + "pipeline=" + pipeline
+                + ", srcOwner=" + srcOwner
+                + ", dstOwner=" + dstOwner
+                + ", pipelineLoad=" + pipelineLoad
+                + ", predictedPipelineLoad=" + predictedPipelineLoad
+                + ", srcOwnerLoad=" + srcOwnerLoad
+                + ", dstOwnerLoad=" + dstOwnerLoad
+                + '}';
+    }
+}
@@ -58,11 +58,8 @@ public class PacketIOHelper {
                 return false;
             }
 
-            dst.put(VERSION);
-            dst.putChar(packet.getFlags());
-            dst.putInt(packet.getPartitionId());
+            writeHeader(packet, dst);
             size = packet.totalSize();
-            dst.putInt(size);
             headerComplete = true;
         }
 
@@ -74,6 +71,31 @@ public class PacketIOHelper {
         }
     }
 
+    /**
+     * Writes only the header of the packet to the supplied {@code ByteBuffer}, the caller is responsible for
+     * writing the payload of the packet right after it. Nothing is written if the writing of a packet by
+     * {@link #writeTo(Packet, ByteBuffer)} is in progress.
+     *
+     * @param dst the destination byte buffer
+     * @return {@code true} if the header got written; {@code false} if there is not enough space in the buffer
+     * or the writing of a packet is in progress.
+     */
+    public boolean writeHeaderTo(Packet packet, ByteBuffer dst) {
+        if (headerComplete || dst.remaining() < HEADER_SIZE) {
+            return false;
+        }
+
+        writeHeader(packet, dst);
+        return true;
+    }
+
+    private void writeHeader(Packet packet, ByteBuffer dst) {
+        dst.put(VERSION);
+        dst.putChar(packet.getFlags());
+        dst.putInt(packet.getPartitionId());
+        dst.putInt(packet.totalSize());
+    }
+
     private boolean writeValue(Packet packet, ByteBuffer dst) {
         if (size > 0) {
             // the number of bytes that can be written to the bb.
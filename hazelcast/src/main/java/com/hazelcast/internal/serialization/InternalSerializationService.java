@@ -71,6 +71,16 @@ public interface InternalSerializationService extends SerializationService, Disp
 
     <B extends Data> B convertData(Data data, DataType type);
 
+    /**
+     * Returns the form of the given data to keep in a long-lived store, such as the
+     * values of a map. The returned data is equal to the given one and has the same
+     * serialized form, but it may share parts of it with other stored data.
+     *
+     * @param data the data to store
+     * @return the data to store in place of the given one
+     */
+    Data toStoredData(Data data);
+
     void writeObject(ObjectDataOutput out, Object obj);
 
     <T> T readObject(ObjectDataInput in);
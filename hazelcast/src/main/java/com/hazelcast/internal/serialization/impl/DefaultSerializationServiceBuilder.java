@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.serialization.impl;
 
+import com.hazelcast.config.CompactSerializerConfig;
 import com.hazelcast.config.GlobalSerializerConfig;
 import com.hazelcast.config.JavaSerializationFilterConfig;
 import com.hazelcast.config.SerializationConfig;
@@ -42,8 +43,10 @@ import com.hazelcast.partition.PartitioningStrategy;
 import com.hazelcast.spi.properties.ClusterProperty;
 
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -66,6 +69,8 @@ public class DefaultSerializationServiceBuilder implements SerializationServiceB
 
     protected final Set<ClassDefinition> classDefinitions = new HashSet<>();
 
+    protected final List<CompactSerializerConfig> compactSerializerConfigs = new ArrayList<>();
+
     protected ClassLoader classLoader;
     protected SerializationConfig config;
 
@@ -233,6 +238,7 @@ public class DefaultSerializationServiceBuilder implements SerializationServiceB
             addConfigDataSerializableFactories(dataSerializableFactories, config, classLoader);
             addConfigPortableFactories(portableFactories, config, classLoader);
             classDefinitions.addAll(config.getClassDefinitions());
+            compactSerializerConfigs.addAll(config.getCompactSerializerConfigs());
         }
 
         InputOutputFactory inputOutputFactory = createInputOutputFactory();
@@ -301,6 +307,7 @@ public class DefaultSerializationServiceBuilder implements SerializationServiceB
                     .withClassNameFilter(classNameFilter)
                     .withCheckClassDefErrors(checkClassDefErrors)
                     .withAllowOverrideDefaultSerializers(allowOverrideDefaultSerializers)
+                    .withCompactSerializerConfigs(compactSerializerConfigs)
                     .build();
                 serializationServiceV1.registerClassDefinitions(classDefinitions);
                 return serializationServiceV1;
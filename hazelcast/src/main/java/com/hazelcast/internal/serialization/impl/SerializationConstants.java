@@ -140,6 +140,12 @@ public final class SerializationConstants {
     // NUMBER OF CONSTANT SERIALIZERS...
     public static final int CONSTANT_SERIALIZERS_LENGTH = 55;
 
+    // ------------------------------------------------------------
+    // COMPACT SERIALIZATION
+    // Resolved through the registered types, not a constant serializer.
+
+    public static final int TYPE_COMPACT = -55;
+
     // ------------------------------------------------------------
     // JAVA SERIALIZATION
 
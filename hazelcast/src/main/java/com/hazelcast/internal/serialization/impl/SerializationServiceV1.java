@@ -16,10 +16,14 @@
 
 package com.hazelcast.internal.serialization.impl;
 
+import com.hazelcast.config.CompactSerializerConfig;
 import com.hazelcast.core.HazelcastJsonValue;
 import com.hazelcast.internal.nio.BufferObjectDataInput;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.DataType;
+import com.hazelcast.internal.serialization.impl.compact.CompactInternalGenericRecord;
+import com.hazelcast.internal.serialization.impl.compact.CompactStoredData;
+import com.hazelcast.internal.serialization.impl.compact.CompactStreamSerializer;
 import com.hazelcast.internal.serialization.impl.defaultserializers.ArrayBlockingQueueStreamSerializer;
 import com.hazelcast.internal.serialization.impl.defaultserializers.ArrayDequeStreamSerializer;
 import com.hazelcast.internal.serialization.impl.defaultserializers.ArrayListStreamSerializer;
@@ -143,6 +147,7 @@ public class SerializationServiceV1 extends AbstractSerializationService {
 
     private final PortableContextImpl portableContext;
     private final PortableSerializer portableSerializer;
+    private final CompactStreamSerializer compactStreamSerializer;
 
     SerializationServiceV1(AbstractBuilder<?> builder) {
         super(builder);
@@ -162,6 +167,9 @@ public class SerializationServiceV1 extends AbstractSerializationService {
                 new JavaDefaultSerializers.ExternalizableSerializer(builder.enableCompression, builder.classNameFilter));
         registerConstantSerializers();
         registerJavaTypeSerializers();
+
+        compactStreamSerializer = new CompactStreamSerializer(this, builder.compactSerializerConfigs);
+        registerCompactSerializers();
     }
 
     @Override
@@ -188,9 +196,20 @@ public class SerializationServiceV1 extends AbstractSerializationService {
         return (B) data;
     }
 
+    @Override
+    public Data toStoredData(Data data) {
+        return compactStreamSerializer.toStoredData(data);
+    }
+
     public InternalGenericRecord readAsInternalGenericRecord(Data data) throws IOException {
+        if (data instanceof CompactStoredData) {
+            return compactStreamSerializer.readAsInternalGenericRecord((CompactStoredData) data);
+        }
+        if (data.isCompact()) {
+            return compactStreamSerializer.readAsInternalGenericRecord(createObjectDataInput(data));
+        }
         if (!data.isPortable()) {
-            throw new IllegalArgumentException("Given data is not Portable! -> " + data.getType());
+            throw new IllegalArgumentException("Given data is not Portable or Compact! -> " + data.getType());
         }
         BufferObjectDataInput in = createObjectDataInput(data);
         return portableSerializer.readAsInternalGenericRecord(in);
@@ -273,6 +292,14 @@ public class SerializationServiceV1 extends AbstractSerializationService {
         safeRegister(HazelcastJsonValue.class, new HazelcastJsonValueSerializer());
     }
 
+    private void registerCompactSerializers() {
+        SerializerAdapter compactSerializerAdapter = createSerializerAdapter(compactStreamSerializer);
+        safeRegister(CompactInternalGenericRecord.class, compactSerializerAdapter);
+        for (Class typeClass : compactStreamSerializer.getRegisteredClasses()) {
+            safeRegister(typeClass, compactSerializerAdapter);
+        }
+    }
+
     public void registerClassDefinitions(Collection<ClassDefinition> classDefinitions) {
         Map<Integer, Map<Integer, ClassDefinition>> factoryMap = createHashMap(classDefinitions.size());
         for (ClassDefinition cd : classDefinitions) {
@@ -362,6 +389,7 @@ public class SerializationServiceV1 extends AbstractSerializationService {
         private boolean enableSharedObject;
         private ClassNameFilter classNameFilter;
         private boolean checkClassDefErrors;
+        private Collection<CompactSerializerConfig> compactSerializerConfigs = Collections.emptyList();
 
         protected AbstractBuilder() {
         }
@@ -405,6 +433,11 @@ public class SerializationServiceV1 extends AbstractSerializationService {
             this.checkClassDefErrors = checkClassDefErrors;
             return self();
         }
+
+        public final T withCompactSerializerConfigs(Collection<CompactSerializerConfig> compactSerializerConfigs) {
+            this.compactSerializerConfigs = compactSerializerConfigs;
+            return self();
+        }
     }
 
     public static final class Builder extends AbstractBuilder<Builder> {
@@ -0,0 +1,561 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.serialization.impl.AbstractGenericRecord;
+import com.hazelcast.internal.serialization.impl.InternalGenericRecord;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.serialization.FieldType;
+import com.hazelcast.nio.serialization.GenericRecord;
+import com.hazelcast.nio.serialization.GenericRecordBuilder;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.serialization.impl.compact.DefaultCompactWriter.HEADER_SIZE;
+import static com.hazelcast.internal.serialization.impl.compact.DefaultCompactWriter.NULL_OFFSET;
+
+/**
+ * A {@link GenericRecord} view over a compact record in serialized form.
+ * <p>
+ * Every field is read directly from the position described by the {@link Schema},
+ * fixed size fields with a single positional read and variable size fields through
+ * the offset table, so reading a single field does not deserialize the others.
+ * The schemas of nested records are resolved from the schema table of the serialized form.
+ * Reads of variable size fields move the position of the shared input, they are
+ * performed while holding its monitor and restore the position afterwards.
+ * <p>
+ * Decimal, temporal and nested object array fields are not supported by the compact format yet.
+ */
+@SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity"})
+public class CompactInternalGenericRecord extends AbstractGenericRecord implements InternalGenericRecord {
+
+    private final CompactStreamSerializer serializer;
+    private final BufferObjectDataInput in;
+    private final Schema[] schemaTable;
+    private final Schema schema;
+    private final int start;
+    private final int fixedStart;
+    private final int offsetTableStart;
+
+    CompactInternalGenericRecord(CompactStreamSerializer serializer, BufferObjectDataInput in, Schema[] schemaTable,
+                                 Schema schema, int start) {
+        this.serializer = serializer;
+        this.in = in;
+        this.schemaTable = schemaTable;
+        this.schema = schema;
+        this.start = start;
+        this.fixedStart = start + HEADER_SIZE;
+        this.offsetTableStart = fixedStart + schema.getFixedSize();
+    }
+
+    Schema getSchema() {
+        return schema;
+    }
+
+    BufferObjectDataInput getInput() {
+        return in;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    @Nonnull
+    @Override
+    public GenericRecordBuilder newBuilder() {
+        throw new UnsupportedOperationException("Builders are not supported for compact generic records");
+    }
+
+    @Nonnull
+    @Override
+    public GenericRecordBuilder cloneWithBuilder() {
+        throw new UnsupportedOperationException("Builders are not supported for compact generic records");
+    }
+
+    @Nonnull
+    @Override
+    public Set<String> getFieldNames() {
+        return schema.getFieldNames();
+    }
+
+    @Nonnull
+    @Override
+    public FieldType getFieldType(@Nonnull String fieldName) {
+        FieldDescriptor field = schema.getField(fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field: " + fieldName);
+        }
+        return field.getType();
+    }
+
+    @Override
+    public boolean hasField(@Nonnull String fieldName) {
+        return schema.getField(fieldName) != null;
+    }
+
+    @Override
+    public boolean getBoolean(@Nonnull String fieldName) {
+        try {
+            return in.readBoolean(fixedFieldPosition(fieldName, FieldType.BOOLEAN));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public byte getByte(@Nonnull String fieldName) {
+        try {
+            return in.readByte(fixedFieldPosition(fieldName, FieldType.BYTE));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public char getChar(@Nonnull String fieldName) {
+        try {
+            return in.readChar(fixedFieldPosition(fieldName, FieldType.CHAR));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public short getShort(@Nonnull String fieldName) {
+        try {
+            return in.readShort(fixedFieldPosition(fieldName, FieldType.SHORT));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int getInt(@Nonnull String fieldName) {
+        try {
+            return in.readInt(fixedFieldPosition(fieldName, FieldType.INT));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public long getLong(@Nonnull String fieldName) {
+        try {
+            return in.readLong(fixedFieldPosition(fieldName, FieldType.LONG));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public float getFloat(@Nonnull String fieldName) {
+        try {
+            return in.readFloat(fixedFieldPosition(fieldName, FieldType.FLOAT));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public double getDouble(@Nonnull String fieldName) {
+        try {
+            return in.readDouble(fixedFieldPosition(fieldName, FieldType.DOUBLE));
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String getString(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.UTF, ObjectDataInput::readString);
+    }
+
+    @Override
+    public GenericRecord getGenericRecord(@Nonnull String fieldName) {
+        int position = variableFieldPosition(fieldName, FieldType.PORTABLE);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return serializer.readAsInternalGenericRecord(in, position, schemaTable);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Object getObject(@Nonnull String fieldName) {
+        int position = variableFieldPosition(fieldName, FieldType.PORTABLE);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return serializer.readRecord(in, position, schemaTable);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean[] getBooleanArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.BOOLEAN_ARRAY, ObjectDataInput::readBooleanArray);
+    }
+
+    @Override
+    public byte[] getByteArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.BYTE_ARRAY, ObjectDataInput::readByteArray);
+    }
+
+    @Override
+    public char[] getCharArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.CHAR_ARRAY, ObjectDataInput::readCharArray);
+    }
+
+    @Override
+    public short[] getShortArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.SHORT_ARRAY, ObjectDataInput::readShortArray);
+    }
+
+    @Override
+    public int[] getIntArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.INT_ARRAY, ObjectDataInput::readIntArray);
+    }
+
+    @Override
+    public long[] getLongArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.LONG_ARRAY, ObjectDataInput::readLongArray);
+    }
+
+    @Override
+    public float[] getFloatArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.FLOAT_ARRAY, ObjectDataInput::readFloatArray);
+    }
+
+    @Override
+    public double[] getDoubleArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.DOUBLE_ARRAY, ObjectDataInput::readDoubleArray);
+    }
+
+    @Override
+    public String[] getStringArray(@Nonnull String fieldName) {
+        return readVariableField(fieldName, FieldType.UTF_ARRAY, ObjectDataInput::readStringArray);
+    }
+
+    @Override
+    public Boolean getBooleanFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.BOOLEAN_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readBoolean(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Byte getByteFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.BYTE_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readByte(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Character getCharFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.CHAR_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readChar(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Short getShortFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.SHORT_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readShort(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Integer getIntFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.INT_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readInt(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Long getLongFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.LONG_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readLong(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Float getFloatFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.FLOAT_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readFloat(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Double getDoubleFromArray(@Nonnull String fieldName, int index) {
+        int position = arrayElementPosition(fieldName, FieldType.DOUBLE_ARRAY, index);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        try {
+            return in.readDouble(position);
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String getStringFromArray(@Nonnull String fieldName, int index) {
+        String[] array = getStringArray(fieldName);
+        if (array == null || index < 0 || index >= array.length) {
+            return null;
+        }
+        return array[index];
+    }
+
+    @Override
+    public BigDecimal getDecimal(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DECIMAL);
+    }
+
+    @Override
+    public BigDecimal[] getDecimalArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DECIMAL_ARRAY);
+    }
+
+    @Override
+    public BigDecimal getDecimalFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DECIMAL_ARRAY);
+    }
+
+    @Override
+    public LocalTime getTime(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIME);
+    }
+
+    @Override
+    public LocalTime[] getTimeArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIME_ARRAY);
+    }
+
+    @Override
+    public LocalTime getTimeFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIME_ARRAY);
+    }
+
+    @Override
+    public LocalDate getDate(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DATE);
+    }
+
+    @Override
+    public LocalDate[] getDateArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DATE_ARRAY);
+    }
+
+    @Override
+    public LocalDate getDateFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.DATE_ARRAY);
+    }
+
+    @Override
+    public LocalDateTime getTimestamp(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP);
+    }
+
+    @Override
+    public LocalDateTime[] getTimestampArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP_ARRAY);
+    }
+
+    @Override
+    public LocalDateTime getTimestampFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP_ARRAY);
+    }
+
+    @Override
+    public OffsetDateTime getTimestampWithTimezone(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    @Override
+    public OffsetDateTime[] getTimestampWithTimezoneArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP_WITH_TIMEZONE_ARRAY);
+    }
+
+    @Override
+    public OffsetDateTime getTimestampWithTimezoneFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.TIMESTAMP_WITH_TIMEZONE_ARRAY);
+    }
+
+    @Override
+    public GenericRecord[] getGenericRecordArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.PORTABLE_ARRAY);
+    }
+
+    @Override
+    public GenericRecord getGenericRecordFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.PORTABLE_ARRAY);
+    }
+
+    @Override
+    public Object[] getObjectArray(@Nonnull String fieldName) {
+        throw newUnsupportedFieldException(fieldName, FieldType.PORTABLE_ARRAY);
+    }
+
+    @Override
+    public Object getObjectFromArray(@Nonnull String fieldName, int index) {
+        throw newUnsupportedFieldException(fieldName, FieldType.PORTABLE_ARRAY);
+    }
+
+    @Override
+    protected Object getClassIdentifier() {
+        return schema;
+    }
+
+    private int fixedFieldPosition(String fieldName, FieldType type) {
+        return fixedStart + checkField(fieldName, type).getOffset();
+    }
+
+    /**
+     * @return absolute position of the variable size field or {@link DefaultCompactWriter#NULL_OFFSET} if it is null
+     */
+    private int variableFieldPosition(String fieldName, FieldType type) {
+        FieldDescriptor field = checkField(fieldName, type);
+        try {
+            int offset = in.readInt(offsetTableStart + field.getIndex() * INT_SIZE_IN_BYTES);
+            return offset == NULL_OFFSET ? NULL_OFFSET : start + offset;
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return absolute position of the array element or {@link DefaultCompactWriter#NULL_OFFSET}
+     * if the array is null or does not have the index
+     */
+    private int arrayElementPosition(String fieldName, FieldType type, int index) {
+        int position = variableFieldPosition(fieldName, type);
+        if (position == NULL_OFFSET) {
+            return NULL_OFFSET;
+        }
+        try {
+            int length = in.readInt(position);
+            if (index < 0 || index >= length) {
+                return NULL_OFFSET;
+            }
+            return position + INT_SIZE_IN_BYTES + index * type.getSingleType().getTypeSize();
+        } catch (IOException e) {
+            throw newIllegalStateException(e);
+        }
+    }
+
+    private <T> T readVariableField(String fieldName, FieldType type, Reader<T> reader) {
+        int position = variableFieldPosition(fieldName, type);
+        if (position == NULL_OFFSET) {
+            return null;
+        }
+        synchronized (in) {
+            int currentPosition = in.position();
+            try {
+                in.position(position);
+                return reader.read(in);
+            } catch (IOException e) {
+                throw newIllegalStateException(e);
+            } finally {
+                in.position(currentPosition);
+            }
+        }
+    }
+
+    private FieldDescriptor checkField(String fieldName, FieldType type) {
+        FieldDescriptor field = schema.getField(fieldName);
+        if (field == null) {
+            throw new HazelcastSerializationException("Unknown field name: '" + fieldName + "' for " + schema);
+        }
+        if (field.getType() != type) {
+            throw new HazelcastSerializationException("Not a '" + type + "' field: " + fieldName);
+        }
+        return field;
+    }
+
+    private HazelcastSerializationException newUnsupportedFieldException(String fieldName, FieldType type) {
+        checkField(fieldName, type);
+        // unreachable since schemas never contain unsupported field types
+        return new HazelcastSerializationException("Compact serialization does not support '" + type + "' fields");
+    }
+
+    private IllegalStateException newIllegalStateException(IOException e) {
+        return new IllegalStateException("IOException is not expected since we read from a well known format and position", e);
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(BufferObjectDataInput in) throws IOException;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.internal.nio.Bits;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.SerializationConstants;
+import com.hazelcast.internal.util.HashUtil;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static com.hazelcast.internal.serialization.impl.HeapData.PARTITION_HASH_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.internal.util.JVMUtil.OBJECT_HEADER_SIZE;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * A {@link Data} of a compact serialized value kept in a long-lived store, which
+ * references a {@link SchemaTable} shared with the other values written with the
+ * same schemas instead of holding its own copy of the table.
+ * <p>
+ * It has the same serialized form as the {@link com.hazelcast.internal.serialization.impl.HeapData}
+ * it was created from and is equal to it. The serialized form is assembled each time
+ * {@link #toByteArray()} is called, the fields of the value can be read from the
+ * record without assembling it, see {@link CompactStreamSerializer#readAsInternalGenericRecord(CompactStoredData)}.
+ */
+public final class CompactStoredData implements Data {
+
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+
+    // the header of the data followed by the record
+    private final byte[] payload;
+    private final SchemaTable schemaTable;
+    private int hashCode;
+
+    CompactStoredData(byte[] payload, SchemaTable schemaTable) {
+        this.payload = payload;
+        this.schemaTable = schemaTable;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    SchemaTable getSchemaTable() {
+        return schemaTable;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[totalSize()];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+
+    @Override
+    public int getType() {
+        return Bits.readIntB(payload, TYPE_OFFSET);
+    }
+
+    @Override
+    public int totalSize() {
+        return payload.length + schemaTable.getBytes().length;
+    }
+
+    @Override
+    public void copyTo(byte[] dest, int destPos) {
+        System.arraycopy(payload, 0, dest, destPos, payload.length);
+        byte[] tableBytes = schemaTable.getBytes();
+        System.arraycopy(tableBytes, 0, dest, destPos + payload.length, tableBytes.length);
+    }
+
+    @Override
+    public int dataSize() {
+        return totalSize() - HEAP_DATA_OVERHEAD;
+    }
+
+    /**
+     * Returns the heap cost of this data, the shared schema table is not included.
+     */
+    @Override
+    public int getHeapCost() {
+        return OBJECT_HEADER_SIZE
+                + 2 * REFERENCE_COST_IN_BYTES
+                + Bits.INT_SIZE_IN_BYTES
+                + ARRAY_HEADER_SIZE_IN_BYTES + payload.length;
+    }
+
+    @Override
+    public int getPartitionHash() {
+        if (hasPartitionHash()) {
+            return Bits.readIntB(payload, PARTITION_HASH_OFFSET);
+        }
+        return hashCode();
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return Bits.readIntB(payload, PARTITION_HASH_OFFSET) != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return HashUtil.MurmurHash3_x64_64(toByteArray(), DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean isPortable() {
+        return false;
+    }
+
+    @Override
+    public boolean isJson() {
+        return false;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return SerializationConstants.TYPE_COMPACT == getType();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Data)) {
+            return false;
+        }
+        Data data = (Data) o;
+        if (getType() != data.getType() || dataSize() != data.dataSize()) {
+            return false;
+        }
+        if (data instanceof CompactStoredData && ((CompactStoredData) data).schemaTable == schemaTable) {
+            return equals(payload, ((CompactStoredData) data).payload);
+        }
+        return equals(toByteArray(), data.toByteArray());
+    }
+
+    // compares the bytes following the header, the same way as HeapData
+    private static boolean equals(byte[] bytes1, byte[] bytes2) {
+        if (bytes1.length != bytes2.length) {
+            return false;
+        }
+        for (int i = bytes1.length - 1; i >= DATA_OFFSET; i--) {
+            if (bytes1[i] != bytes2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the same hash code as the {@link com.hazelcast.internal.serialization.impl.HeapData}
+     * of the serialized form. It is computed on the first call.
+     */
+    @Override
+    public int hashCode() {
+        int h = hashCode;
+        if (h == 0) {
+            h = HashUtil.MurmurHash3_x86_32(toByteArray(), DATA_OFFSET, dataSize());
+            hashCode = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactStoredData{"
+                + "type=" + getType()
+                + ", hashCode=" + hashCode()
+                + ", partitionHash=" + getPartitionHash()
+                + ", totalSize=" + totalSize()
+                + ", dataSize=" + dataSize()
+                + ", heapCost=" + getHeapCost()
+                + '}';
+    }
+}
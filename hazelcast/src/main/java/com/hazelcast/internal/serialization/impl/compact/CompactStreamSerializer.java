@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.config.CompactSerializerConfig;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.InternalGenericRecord;
+import com.hazelcast.internal.serialization.impl.SerializationConstants;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.CompactSerializer;
+import com.hazelcast.nio.serialization.FieldType;
+import com.hazelcast.nio.serialization.GenericRecord;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+
+/**
+ * Serializer for the compact serialization format.
+ * <p>
+ * The serialized form consists of the record of the object followed by a schema table
+ * containing every schema used by the record and its nested records:
+ * <pre>
+ * | record | schema count (int) | schema id (long) | schema length (int) | schema | ... |
+ * </pre>
+ * The schemas of the table are ordered by their ids, so equal objects have equal serialized
+ * forms and partition hashes, whether they are written from an object or a generic record.
+ * See {@link DefaultCompactWriter} for the layout of a record. The schemas of a record are
+ * resolved from its own schema table, so the fields of a record can be located without a
+ * class definition lookup. Parsed schemas are cached by id, up to {@link #MAX_CACHED_SCHEMAS}
+ * of them, and the table entries of cached schemas are skipped without being parsed. Records
+ * of types without a registered {@link CompactSerializer} are read as {@link GenericRecord}s.
+ */
+public final class CompactStreamSerializer implements StreamSerializer<Object> {
+
+    /**
+     * Maximum number of parsed schemas cached by the serializer. Schemas arrive with the
+     * serialized form, so the cache is bounded; schemas which do not fit are parsed again
+     * each time a record using them is read.
+     */
+    static final int MAX_CACHED_SCHEMAS = 1024;
+
+    /**
+     * Maximum number of distinct schema tables shared by {@link CompactStoredData}.
+     * Data with other schema tables is stored as is.
+     */
+    static final int MAX_SHARED_SCHEMA_TABLES = 1024;
+
+    private final InternalSerializationService serializationService;
+    private final Map<Class, Registration> classToRegistration = new HashMap<>();
+    private final Map<String, Registration> typeNameToRegistration = new HashMap<>();
+    private final ConcurrentMap<Long, Schema> schemas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ByteBuffer, SchemaTable> schemaTables = new ConcurrentHashMap<>();
+
+    public CompactStreamSerializer(InternalSerializationService serializationService,
+                                   Collection<CompactSerializerConfig> compactSerializerConfigs) {
+        this.serializationService = serializationService;
+        for (CompactSerializerConfig config : compactSerializerConfigs) {
+            Class typeClass = config.getTypeClass();
+            CompactSerializer serializer = config.getImplementation();
+            if (typeClass == null || serializer == null) {
+                throw new IllegalArgumentException("Type class and implementation of the compact serializer must be set! -> "
+                        + config);
+            }
+            Registration registration = new Registration(config.getTypeName(), serializer);
+            if (classToRegistration.putIfAbsent(typeClass, registration) != null) {
+                throw new IllegalArgumentException("Compact serializer for '" + typeClass + "' is already registered!");
+            }
+            if (typeNameToRegistration.putIfAbsent(registration.typeName, registration) != null) {
+                throw new IllegalArgumentException("Compact serializer with type name '" + registration.typeName
+                        + "' is already registered!");
+            }
+        }
+    }
+
+    /**
+     * @return the classes with a registered compact serializer
+     */
+    public Set<Class> getRegisteredClasses() {
+        return classToRegistration.keySet();
+    }
+
+    int getCachedSchemaCount() {
+        return schemas.size();
+    }
+
+    @Override
+    public int getTypeId() {
+        return SerializationConstants.TYPE_COMPACT;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, Object o) throws IOException {
+        if (!(out instanceof BufferObjectDataOutput)) {
+            throw new IllegalArgumentException("ObjectDataOutput must be instance of BufferObjectDataOutput!");
+        }
+        BufferObjectDataOutput output = (BufferObjectDataOutput) out;
+        // the table is ordered by schema id, so the serialized form does not depend on the order
+        // in which the nested records were written or on whether the object is a generic record
+        Map<Long, Schema> writtenSchemas = new TreeMap<>();
+        writeRecord(output, o, writtenSchemas);
+
+        output.writeInt(writtenSchemas.size());
+        for (Schema schema : writtenSchemas.values()) {
+            output.writeLong(schema.getSchemaId());
+            int lengthPosition = output.position();
+            output.writeInt(0);
+            schema.writeData(output);
+            output.writeInt(lengthPosition, output.position() - lengthPosition - INT_SIZE_IN_BYTES);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void writeRecord(BufferObjectDataOutput out, Object o, Map<Long, Schema> writtenSchemas) throws IOException {
+        if (o instanceof CompactInternalGenericRecord) {
+            writeGenericRecord(out, (CompactInternalGenericRecord) o, writtenSchemas);
+            return;
+        }
+        Registration registration = classToRegistration.get(o.getClass());
+        if (registration == null) {
+            throw new HazelcastSerializationException("There is no compact serializer registered for " + o.getClass());
+        }
+        Schema schema = registration.schemaOf(o);
+        writtenSchemas.putIfAbsent(schema.getSchemaId(), schema);
+        DefaultCompactWriter writer = new DefaultCompactWriter(this, out, schema, writtenSchemas);
+        registration.serializer.write(writer, o);
+        writer.end();
+    }
+
+    private void writeGenericRecord(BufferObjectDataOutput out, CompactInternalGenericRecord record,
+                                    Map<Long, Schema> writtenSchemas) throws IOException {
+        // offsets are relative to the start of the record, so the record can be copied as is
+        out.write(copyRecord(record.getInput(), record.getStart()));
+        collectSchemas(record, writtenSchemas);
+    }
+
+    private void collectSchemas(CompactInternalGenericRecord record, Map<Long, Schema> writtenSchemas) {
+        Schema schema = record.getSchema();
+        writtenSchemas.putIfAbsent(schema.getSchemaId(), schema);
+        for (String fieldName : schema.getFieldNames()) {
+            if (schema.getField(fieldName).getType() == FieldType.PORTABLE) {
+                GenericRecord nested = record.getGenericRecord(fieldName);
+                if (nested != null) {
+                    collectSchemas((CompactInternalGenericRecord) nested, writtenSchemas);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Object read(ObjectDataInput in) throws IOException {
+        if (!(in instanceof BufferObjectDataInput)) {
+            throw new IllegalArgumentException("ObjectDataInput must be instance of BufferObjectDataInput!");
+        }
+        BufferObjectDataInput input = (BufferObjectDataInput) in;
+        int start = input.position();
+        Schema[] schemaTable = readSchemas(input, start);
+        int end = input.position();
+        try {
+            return readRecord(input, start, schemaTable);
+        } finally {
+            input.position(end);
+        }
+    }
+
+    /**
+     * Reads the serialized form as a {@link GenericRecord} without deserializing any of its fields.
+     * The returned record reads from the given input.
+     */
+    public InternalGenericRecord readAsInternalGenericRecord(ObjectDataInput in) throws IOException {
+        BufferObjectDataInput input = (BufferObjectDataInput) in;
+        int start = input.position();
+        Schema[] schemaTable = readSchemas(input, start);
+        return readAsInternalGenericRecord(input, start, schemaTable);
+    }
+
+    /**
+     * Reads the stored data as a {@link GenericRecord} without deserializing any of its fields
+     * and without assembling its serialized form.
+     */
+    public InternalGenericRecord readAsInternalGenericRecord(CompactStoredData data) throws IOException {
+        BufferObjectDataInput in = serializationService.createObjectDataInput(data.getPayload());
+        return readAsInternalGenericRecord(in, DATA_OFFSET, data.getSchemaTable().getSchemas());
+    }
+
+    /**
+     * Returns the form of the given data to keep in a long-lived store. Compact data is
+     * returned as a {@link CompactStoredData} referencing a schema table shared with the
+     * other stored data written with the same schemas, any other data is returned as is.
+     * Compact data is also returned as is when its schema table is not among the
+     * {@link #MAX_SHARED_SCHEMA_TABLES} shared ones and there is no room for another one.
+     */
+    public Data toStoredData(Data data) {
+        if (!data.isCompact() || data instanceof CompactStoredData) {
+            return data;
+        }
+        byte[] bytes = data.toByteArray();
+        try {
+            int tableStart = DATA_OFFSET + serializationService.createObjectDataInput(bytes)
+                    .readInt(DATA_OFFSET + LONG_SIZE_IN_BYTES);
+            if (tableStart <= DATA_OFFSET || tableStart >= bytes.length) {
+                throw new HazelcastSerializationException("Invalid record length: " + (tableStart - DATA_OFFSET));
+            }
+            SchemaTable schemaTable = schemaTables.get(ByteBuffer.wrap(bytes, tableStart, bytes.length - tableStart));
+            if (schemaTable == null) {
+                if (schemaTables.size() >= MAX_SHARED_SCHEMA_TABLES) {
+                    return data;
+                }
+                byte[] tableBytes = Arrays.copyOfRange(bytes, tableStart, bytes.length);
+                Schema[] tableSchemas = readSchemaTable(serializationService.createObjectDataInput(tableBytes));
+                SchemaTable newSchemaTable = new SchemaTable(tableBytes, tableSchemas);
+                schemaTable = schemaTables.putIfAbsent(ByteBuffer.wrap(tableBytes), newSchemaTable);
+                if (schemaTable == null) {
+                    schemaTable = newSchemaTable;
+                }
+            }
+            return new CompactStoredData(Arrays.copyOf(bytes, tableStart), schemaTable);
+        } catch (IOException e) {
+            throw new HazelcastSerializationException(e);
+        }
+    }
+
+    InternalGenericRecord readAsInternalGenericRecord(BufferObjectDataInput in, int position, Schema[] schemaTable)
+            throws IOException {
+        Schema schema = findSchema(schemaTable, in.readLong(position));
+        return new CompactInternalGenericRecord(this, in, schemaTable, schema, position);
+    }
+
+    Object readRecord(BufferObjectDataInput in, int position, Schema[] schemaTable) throws IOException {
+        Schema schema = findSchema(schemaTable, in.readLong(position));
+        Registration registration = typeNameToRegistration.get(schema.getTypeName());
+        if (registration == null) {
+            // the record may outlive the input, so it reads from its own copy
+            BufferObjectDataInput copy = serializationService.createObjectDataInput(copyRecord(in, position));
+            return new CompactInternalGenericRecord(this, copy, schemaTable, schema, 0);
+        }
+        return registration.serializer.read(new DefaultCompactReader(this, in, schemaTable, schema, position));
+    }
+
+    /**
+     * Reads the schema table following the record which starts at the given position
+     * and leaves the input positioned after the table.
+     */
+    private Schema[] readSchemas(BufferObjectDataInput in, int start) throws IOException {
+        in.position(start + in.readInt(start + LONG_SIZE_IN_BYTES));
+        return readSchemaTable(in);
+    }
+
+    private Schema[] readSchemaTable(BufferObjectDataInput in) throws IOException {
+        int schemaCount = in.readInt();
+        if (schemaCount <= 0) {
+            throw new HazelcastSerializationException("Invalid schema count: " + schemaCount);
+        }
+        Schema[] schemaTable = new Schema[schemaCount];
+        for (int i = 0; i < schemaCount; i++) {
+            long schemaId = in.readLong();
+            int length = in.readInt();
+            Schema schema = schemas.get(schemaId);
+            if (schema != null) {
+                in.position(in.position() + length);
+            } else {
+                schema = Schema.readData(in);
+                if (schema.getSchemaId() != schemaId) {
+                    throw new HazelcastSerializationException("Schema id mismatch, expected: " + schemaId
+                            + ", actual: " + schema);
+                }
+                if (schemas.size() < MAX_CACHED_SCHEMAS) {
+                    schemas.putIfAbsent(schemaId, schema);
+                }
+            }
+            schemaTable[i] = schema;
+        }
+        return schemaTable;
+    }
+
+    private static Schema findSchema(Schema[] schemaTable, long schemaId) {
+        for (Schema schema : schemaTable) {
+            if (schema.getSchemaId() == schemaId) {
+                return schema;
+            }
+        }
+        throw new HazelcastSerializationException("There is no schema with id " + schemaId + " in the schema table");
+    }
+
+    private static byte[] copyRecord(BufferObjectDataInput in, int position) throws IOException {
+        byte[] bytes = new byte[in.readInt(position + LONG_SIZE_IN_BYTES)];
+        synchronized (in) {
+            int currentPosition = in.position();
+            try {
+                in.position(position);
+                in.readFully(bytes);
+            } finally {
+                in.position(currentPosition);
+            }
+        }
+        return bytes;
+    }
+
+    private final class Registration {
+
+        private final String typeName;
+        private final CompactSerializer serializer;
+        private volatile Schema schema;
+
+        Registration(String typeName, CompactSerializer serializer) {
+            this.typeName = typeName;
+            this.serializer = serializer;
+        }
+
+        /**
+         * Returns the schema of the type, deriving it from the fields written
+         * for the given object the first time it is called.
+         */
+        @SuppressWarnings("unchecked")
+        Schema schemaOf(Object o) throws IOException {
+            Schema current = schema;
+            if (current == null) {
+                SchemaWriter schemaWriter = new SchemaWriter(typeName);
+                serializer.write(schemaWriter, o);
+                current = schemaWriter.build();
+                schema = current;
+            }
+            return current;
+        }
+    }
+}
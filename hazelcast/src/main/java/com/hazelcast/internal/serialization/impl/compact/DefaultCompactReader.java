@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.nio.serialization.CompactReader;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reads the fields of a compact record for a {@link com.hazelcast.nio.serialization.CompactSerializer}
+ * directly from their positions in the serialized form.
+ */
+public class DefaultCompactReader extends CompactInternalGenericRecord implements CompactReader {
+
+    DefaultCompactReader(CompactStreamSerializer serializer, BufferObjectDataInput in, Schema[] schemaTable,
+                         Schema schema, int start) {
+        super(serializer, in, schemaTable, schema, start);
+    }
+
+    @Override
+    public boolean readBoolean(@Nonnull String fieldName) {
+        return getBoolean(fieldName);
+    }
+
+    @Override
+    public byte readByte(@Nonnull String fieldName) {
+        return getByte(fieldName);
+    }
+
+    @Override
+    public char readChar(@Nonnull String fieldName) {
+        return getChar(fieldName);
+    }
+
+    @Override
+    public short readShort(@Nonnull String fieldName) {
+        return getShort(fieldName);
+    }
+
+    @Override
+    public int readInt(@Nonnull String fieldName) {
+        return getInt(fieldName);
+    }
+
+    @Override
+    public long readLong(@Nonnull String fieldName) {
+        return getLong(fieldName);
+    }
+
+    @Override
+    public float readFloat(@Nonnull String fieldName) {
+        return getFloat(fieldName);
+    }
+
+    @Override
+    public double readDouble(@Nonnull String fieldName) {
+        return getDouble(fieldName);
+    }
+
+    @Override
+    public String readString(@Nonnull String fieldName) {
+        return getString(fieldName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readObject(@Nonnull String fieldName) {
+        return (T) getObject(fieldName);
+    }
+
+    @Override
+    public boolean[] readBooleanArray(@Nonnull String fieldName) {
+        return getBooleanArray(fieldName);
+    }
+
+    @Override
+    public byte[] readByteArray(@Nonnull String fieldName) {
+        return getByteArray(fieldName);
+    }
+
+    @Override
+    public char[] readCharArray(@Nonnull String fieldName) {
+        return getCharArray(fieldName);
+    }
+
+    @Override
+    public short[] readShortArray(@Nonnull String fieldName) {
+        return getShortArray(fieldName);
+    }
+
+    @Override
+    public int[] readIntArray(@Nonnull String fieldName) {
+        return getIntArray(fieldName);
+    }
+
+    @Override
+    public long[] readLongArray(@Nonnull String fieldName) {
+        return getLongArray(fieldName);
+    }
+
+    @Override
+    public float[] readFloatArray(@Nonnull String fieldName) {
+        return getFloatArray(fieldName);
+    }
+
+    @Override
+    public double[] readDoubleArray(@Nonnull String fieldName) {
+        return getDoubleArray(fieldName);
+    }
+
+    @Override
+    public String[] readStringArray(@Nonnull String fieldName) {
+        return getStringArray(fieldName);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.FieldType;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * Writes a compact record in the layout described by its {@link Schema}:
+ * <pre>
+ * | schema id (long) | record length (int) | fixed size fields | offset table (int per variable field) | variable fields |
+ * </pre>
+ * Fixed size fields are written to their offsets directly. Variable size fields are appended
+ * in the order they are written and their positions relative to the start of the record are
+ * stored in the offset table, where {@code -1} stands for {@code null}.
+ */
+final class DefaultCompactWriter implements CompactWriter {
+
+    static final int HEADER_SIZE = LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
+    static final int NULL_OFFSET = -1;
+
+    private final CompactStreamSerializer serializer;
+    private final BufferObjectDataOutput out;
+    private final Schema schema;
+    private final Map<Long, Schema> schemas;
+    private final int start;
+    private final int fixedStart;
+    private final int offsetTableStart;
+
+    DefaultCompactWriter(CompactStreamSerializer serializer, BufferObjectDataOutput out, Schema schema,
+                         Map<Long, Schema> schemas) throws IOException {
+        this.serializer = serializer;
+        this.out = out;
+        this.schema = schema;
+        this.schemas = schemas;
+        this.start = out.position();
+        this.fixedStart = start + HEADER_SIZE;
+        this.offsetTableStart = fixedStart + schema.getFixedSize();
+        out.writeLong(schema.getSchemaId());
+        out.writeInt(0);
+        out.writeZeroBytes(schema.getFixedSize());
+        for (int i = 0; i < schema.getVariableFieldCount(); i++) {
+            out.writeInt(NULL_OFFSET);
+        }
+    }
+
+    /**
+     * Completes the record by writing its length to the header.
+     */
+    void end() throws IOException {
+        out.writeInt(start + LONG_SIZE_IN_BYTES, out.position() - start);
+    }
+
+    @Override
+    public void writeBoolean(@Nonnull String fieldName, boolean value) throws IOException {
+        out.writeBoolean(fixedFieldPosition(fieldName, FieldType.BOOLEAN), value);
+    }
+
+    @Override
+    public void writeByte(@Nonnull String fieldName, byte value) throws IOException {
+        out.writeByte(fixedFieldPosition(fieldName, FieldType.BYTE), value);
+    }
+
+    @Override
+    public void writeChar(@Nonnull String fieldName, char value) throws IOException {
+        out.writeChar(fixedFieldPosition(fieldName, FieldType.CHAR), value);
+    }
+
+    @Override
+    public void writeShort(@Nonnull String fieldName, short value) throws IOException {
+        out.writeShort(fixedFieldPosition(fieldName, FieldType.SHORT), value);
+    }
+
+    @Override
+    public void writeInt(@Nonnull String fieldName, int value) throws IOException {
+        out.writeInt(fixedFieldPosition(fieldName, FieldType.INT), value);
+    }
+
+    @Override
+    public void writeLong(@Nonnull String fieldName, long value) throws IOException {
+        out.writeLong(fixedFieldPosition(fieldName, FieldType.LONG), value);
+    }
+
+    @Override
+    public void writeFloat(@Nonnull String fieldName, float value) throws IOException {
+        out.writeFloat(fixedFieldPosition(fieldName, FieldType.FLOAT), value);
+    }
+
+    @Override
+    public void writeDouble(@Nonnull String fieldName, double value) throws IOException {
+        out.writeDouble(fixedFieldPosition(fieldName, FieldType.DOUBLE), value);
+    }
+
+    @Override
+    public void writeString(@Nonnull String fieldName, @Nullable String value) throws IOException {
+        if (startVariableField(fieldName, FieldType.UTF, value)) {
+            out.writeString(value);
+        }
+    }
+
+    @Override
+    public void writeObject(@Nonnull String fieldName, @Nullable Object value) throws IOException {
+        if (startVariableField(fieldName, FieldType.PORTABLE, value)) {
+            serializer.writeRecord(out, value, schemas);
+        }
+    }
+
+    @Override
+    public void writeBooleanArray(@Nonnull String fieldName, @Nullable boolean[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.BOOLEAN_ARRAY, value)) {
+            out.writeBooleanArray(value);
+        }
+    }
+
+    @Override
+    public void writeByteArray(@Nonnull String fieldName, @Nullable byte[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.BYTE_ARRAY, value)) {
+            out.writeByteArray(value);
+        }
+    }
+
+    @Override
+    public void writeCharArray(@Nonnull String fieldName, @Nullable char[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.CHAR_ARRAY, value)) {
+            out.writeCharArray(value);
+        }
+    }
+
+    @Override
+    public void writeShortArray(@Nonnull String fieldName, @Nullable short[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.SHORT_ARRAY, value)) {
+            out.writeShortArray(value);
+        }
+    }
+
+    @Override
+    public void writeIntArray(@Nonnull String fieldName, @Nullable int[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.INT_ARRAY, value)) {
+            out.writeIntArray(value);
+        }
+    }
+
+    @Override
+    public void writeLongArray(@Nonnull String fieldName, @Nullable long[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.LONG_ARRAY, value)) {
+            out.writeLongArray(value);
+        }
+    }
+
+    @Override
+    public void writeFloatArray(@Nonnull String fieldName, @Nullable float[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.FLOAT_ARRAY, value)) {
+            out.writeFloatArray(value);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(@Nonnull String fieldName, @Nullable double[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.DOUBLE_ARRAY, value)) {
+            out.writeDoubleArray(value);
+        }
+    }
+
+    @Override
+    public void writeStringArray(@Nonnull String fieldName, @Nullable String[] value) throws IOException {
+        if (startVariableField(fieldName, FieldType.UTF_ARRAY, value)) {
+            out.writeStringArray(value);
+        }
+    }
+
+    private int fixedFieldPosition(String fieldName, FieldType type) {
+        return fixedStart + checkField(fieldName, type).getOffset();
+    }
+
+    /**
+     * Records the position of a variable size field in the offset table.
+     *
+     * @return {@code true} if the value is not {@code null} and should be written
+     */
+    private boolean startVariableField(String fieldName, FieldType type, Object value) throws IOException {
+        FieldDescriptor field = checkField(fieldName, type);
+        if (value == null) {
+            return false;
+        }
+        out.writeInt(offsetTableStart + field.getIndex() * INT_SIZE_IN_BYTES, out.position() - start);
+        return true;
+    }
+
+    private FieldDescriptor checkField(String fieldName, FieldType type) {
+        FieldDescriptor field = schema.getField(fieldName);
+        if (field == null) {
+            throw new HazelcastSerializationException("Invalid field name: '" + fieldName + "' for " + schema
+                    + ". Compact serializers must write the same fields for every object of a type.");
+        }
+        if (field.getType() != type) {
+            throw new HazelcastSerializationException("Invalid field type: '" + fieldName + "' for " + schema
+                    + ", expected: " + field.getType() + ", actual: " + type);
+        }
+        return field;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.nio.serialization.FieldType;
+
+/**
+ * Describes a field of a {@link Schema}. A fixed size field is located at its offset
+ * in the fixed size section of the record, a variable size field is located through
+ * its index in the offset table of the record.
+ */
+public final class FieldDescriptor {
+
+    private final String name;
+    private final FieldType type;
+    private final int offset;
+    private final int index;
+
+    FieldDescriptor(String name, FieldType type, int offset, int index) {
+        this.name = name;
+        this.type = type;
+        this.offset = offset;
+        this.index = index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FieldType getType() {
+        return type;
+    }
+
+    /**
+     * @return offset of the field in the fixed size section, or {@code -1} for variable size fields
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return index of the field in the offset table, or {@code -1} for fixed size fields
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldDescriptor{"
+                + "name='" + name + '\''
+                + ", type=" + type
+                + ", offset=" + offset
+                + ", index=" + index
+                + '}';
+    }
+}
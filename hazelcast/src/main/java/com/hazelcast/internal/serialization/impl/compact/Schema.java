@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.FieldType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.HashUtil.MurmurHash3_x64_64;
+
+/**
+ * Describes the binary layout of the compact serialized form of a type.
+ * <p>
+ * Fields are ordered by name. Fixed size fields are laid out one after the other
+ * in the fixed size section, variable size fields are assigned consecutive indexes
+ * in the offset table that follows the fixed size section. Since the layout only
+ * depends on the type name and the field names and types, the schema is identified
+ * by a 64-bit hash of them and equal schemas have equal ids on every member.
+ */
+public final class Schema {
+
+    private final String typeName;
+    private final Map<String, FieldDescriptor> fields;
+    private final int fixedSize;
+    private final int variableFieldCount;
+    private final long schemaId;
+
+    Schema(String typeName, TreeMap<String, FieldType> fieldTypes) {
+        this.typeName = typeName;
+        Map<String, FieldDescriptor> descriptors = new TreeMap<>();
+        StringBuilder fingerprint = new StringBuilder(typeName);
+        int offset = 0;
+        int index = 0;
+        for (Map.Entry<String, FieldType> entry : fieldTypes.entrySet()) {
+            String name = entry.getKey();
+            FieldType type = entry.getValue();
+            if (isFixedSize(type)) {
+                descriptors.put(name, new FieldDescriptor(name, type, offset, -1));
+                offset += type.getTypeSize();
+            } else {
+                descriptors.put(name, new FieldDescriptor(name, type, -1, index++));
+            }
+            fingerprint.append(',').append(name).append(':').append(type.getId());
+        }
+        this.fields = Collections.unmodifiableMap(descriptors);
+        this.fixedSize = offset;
+        this.variableFieldCount = index;
+        byte[] bytes = fingerprint.toString().getBytes(StandardCharsets.UTF_8);
+        this.schemaId = MurmurHash3_x64_64(bytes, 0, bytes.length);
+    }
+
+    static boolean isFixedSize(FieldType type) {
+        return !type.isArrayType() && type != FieldType.PORTABLE && type != FieldType.UTF;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public long getSchemaId() {
+        return schemaId;
+    }
+
+    public FieldDescriptor getField(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    public Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    public int getFieldCount() {
+        return fields.size();
+    }
+
+    /**
+     * @return size of the fixed size section in bytes
+     */
+    public int getFixedSize() {
+        return fixedSize;
+    }
+
+    public int getVariableFieldCount() {
+        return variableFieldCount;
+    }
+
+    /**
+     * @return size of the fixed size section and the offset table in bytes
+     */
+    int getDataOffset() {
+        return fixedSize + variableFieldCount * INT_SIZE_IN_BYTES;
+    }
+
+    void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(typeName);
+        out.writeInt(fields.size());
+        for (FieldDescriptor field : fields.values()) {
+            out.writeString(field.getName());
+            out.writeByte(field.getType().getId());
+        }
+    }
+
+    static Schema readData(ObjectDataInput in) throws IOException {
+        String typeName = in.readString();
+        int fieldCount = in.readInt();
+        TreeMap<String, FieldType> fieldTypes = new TreeMap<>();
+        for (int i = 0; i < fieldCount; i++) {
+            String name = in.readString();
+            fieldTypes.put(name, FieldType.get(in.readByte()));
+        }
+        return new Schema(typeName, fieldTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Schema that = (Schema) o;
+        return schemaId == that.schemaId && typeName.equals(that.typeName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(schemaId);
+    }
+
+    @Override
+    public String toString() {
+        return "Schema{"
+                + "typeName='" + typeName + '\''
+                + ", schemaId=" + schemaId
+                + ", fields=" + fields.values()
+                + '}';
+    }
+}
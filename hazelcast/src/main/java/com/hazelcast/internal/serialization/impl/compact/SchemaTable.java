@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+/**
+ * The schema table of a compact serialized form, shared by the {@link CompactStoredData}
+ * written with the same schemas.
+ */
+final class SchemaTable {
+
+    private final byte[] bytes;
+    private final Schema[] schemas;
+
+    SchemaTable(byte[] bytes, Schema[] schemas) {
+        this.bytes = bytes;
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return the table as it is laid out in the serialized form
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the schemas of the table, in table order
+     */
+    Schema[] getSchemas() {
+        return schemas;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.FieldType;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import javax.annotation.Nonnull;
+import java.util.TreeMap;
+
+/**
+ * Collects the fields written by a {@link com.hazelcast.nio.serialization.CompactSerializer}
+ * to build the {@link Schema} of the serialized type. Values are ignored.
+ */
+final class SchemaWriter implements CompactWriter {
+
+    private final String typeName;
+    private final TreeMap<String, FieldType> fieldTypes = new TreeMap<>();
+
+    SchemaWriter(String typeName) {
+        this.typeName = typeName;
+    }
+
+    Schema build() {
+        return new Schema(typeName, fieldTypes);
+    }
+
+    private void addField(String fieldName, FieldType type) {
+        if (fieldTypes.putIfAbsent(fieldName, type) != null) {
+            throw new HazelcastSerializationException("Field with the name '" + fieldName
+                    + "' already exists in " + typeName);
+        }
+    }
+
+    @Override
+    public void writeBoolean(@Nonnull String fieldName, boolean value) {
+        addField(fieldName, FieldType.BOOLEAN);
+    }
+
+    @Override
+    public void writeByte(@Nonnull String fieldName, byte value) {
+        addField(fieldName, FieldType.BYTE);
+    }
+
+    @Override
+    public void writeChar(@Nonnull String fieldName, char value) {
+        addField(fieldName, FieldType.CHAR);
+    }
+
+    @Override
+    public void writeShort(@Nonnull String fieldName, short value) {
+        addField(fieldName, FieldType.SHORT);
+    }
+
+    @Override
+    public void writeInt(@Nonnull String fieldName, int value) {
+        addField(fieldName, FieldType.INT);
+    }
+
+    @Override
+    public void writeLong(@Nonnull String fieldName, long value) {
+        addField(fieldName, FieldType.LONG);
+    }
+
+    @Override
+    public void writeFloat(@Nonnull String fieldName, float value) {
+        addField(fieldName, FieldType.FLOAT);
+    }
+
+    @Override
+    public void writeDouble(@Nonnull String fieldName, double value) {
+        addField(fieldName, FieldType.DOUBLE);
+    }
+
+    @Override
+    public void writeString(@Nonnull String fieldName, String value) {
+        addField(fieldName, FieldType.UTF);
+    }
+
+    @Override
+    public void writeObject(@Nonnull String fieldName, Object value) {
+        addField(fieldName, FieldType.PORTABLE);
+    }
+
+    @Override
+    public void writeBooleanArray(@Nonnull String fieldName, boolean[] value) {
+        addField(fieldName, FieldType.BOOLEAN_ARRAY);
+    }
+
+    @Override
+    public void writeByteArray(@Nonnull String fieldName, byte[] value) {
+        addField(fieldName, FieldType.BYTE_ARRAY);
+    }
+
+    @Override
+    public void writeCharArray(@Nonnull String fieldName, char[] value) {
+        addField(fieldName, FieldType.CHAR_ARRAY);
+    }
+
+    @Override
+    public void writeShortArray(@Nonnull String fieldName, short[] value) {
+        addField(fieldName, FieldType.SHORT_ARRAY);
+    }
+
+    @Override
+    public void writeIntArray(@Nonnull String fieldName, int[] value) {
+        addField(fieldName, FieldType.INT_ARRAY);
+    }
+
+    @Override
+    public void writeLongArray(@Nonnull String fieldName, long[] value) {
+        addField(fieldName, FieldType.LONG_ARRAY);
+    }
+
+    @Override
+    public void writeFloatArray(@Nonnull String fieldName, float[] value) {
+        addField(fieldName, FieldType.FLOAT_ARRAY);
+    }
+
+    @Override
+    public void writeDoubleArray(@Nonnull String fieldName, double[] value) {
+        addField(fieldName, FieldType.DOUBLE_ARRAY);
+    }
+
+    @Override
+    public void writeStringArray(@Nonnull String fieldName, String[] value) {
+        addField(fieldName, FieldType.UTF_ARRAY);
+    }
+}
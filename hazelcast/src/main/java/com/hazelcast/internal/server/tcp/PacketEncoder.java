@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.server.tcp;
 
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.Packet;
@@ -27,6 +28,7 @@ import java.util.function.Supplier;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
 
 /**
  * A {@link OutboundHandler} that for member to member communication.
@@ -37,23 +39,68 @@ import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
  * multiple connections. The flyweight contains the actual 'position' state of
  * what has been written.
  *
+ * When gathering writes are enabled, only the header of a packet with a
+ * payload of at least the configured threshold is written to the
+ * {@link ByteBuffer}. The payload is handed over to the pipeline which writes
+ * it to the socket straight from the byte array of the packet. Smaller
+ * packets keep being copied, so they are coalesced into a single write.
+ *
  * @see PacketDecoder
  */
-public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> {
+public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
+        implements GatheringOutboundHandler {
 
     private final PacketIOHelper packetWriter = new PacketIOHelper();
+    private final int gatheringWriteThreshold;
 
+    private boolean gatheringWritesEnabled;
     private Packet packet;
+    private ByteBuffer payload;
+
+    /**
+     * Creates an encoder which copies all packets to its dst buffer.
+     */
+    public PacketEncoder() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param gatheringWriteThreshold the minimum payload size in bytes of
+     *                                the packets written without copying
+     *                                their payload, if gathering writes are
+     *                                enabled
+     */
+    public PacketEncoder(int gatheringWriteThreshold) {
+        this.gatheringWriteThreshold = checkPositive("gatheringWriteThreshold", gatheringWriteThreshold);
+    }
 
     @Override
     public void handlerAdded() {
         initDstBuffer();
     }
 
+    @Override
+    public void setGatheringWritesEnabled(boolean enabled) {
+        this.gatheringWritesEnabled = enabled;
+    }
+
+    @Override
+    public ByteBuffer payload() {
+        return payload;
+    }
+
     @Override
     public HandlerStatus onWrite() {
         compactOrClear(dst);
         try {
+            if (payload != null) {
+                if (payload.hasRemaining()) {
+                    // the payload has to be written before anything else
+                    return DIRTY;
+                }
+                payload = null;
+            }
+
             for (; ; ) {
                 if (packet == null) {
                     packet = src.get();
@@ -64,6 +111,14 @@ public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
                     }
                 }
 
+                if (gatheringWritesEnabled && packet.totalSize() >= gatheringWriteThreshold
+                        && packetWriter.writeHeaderTo(packet, dst)) {
+                    // the pipeline writes the payload right after the header
+                    payload = ByteBuffer.wrap(packet.toByteArray());
+                    packet = null;
+                    return DIRTY;
+                }
+
                 if (packetWriter.writeTo(packet, dst)) {
                     // packet got written, lets see if another packet can be written
                     packet = null;
@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.util;
 
+import com.hazelcast.internal.util.collection.TopNCollector;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.impl.CachedQueryEntry;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -124,11 +125,27 @@ public final class SortingUtil {
         return (entry1, entry2) -> SortingUtil.compare(comparator, iterationType, entry1, entry2);
     }
 
-    private static Comparator<QueryableEntry> newComparator(final PagingPredicateImpl pagingPredicate) {
+    public static Comparator<QueryableEntry> newComparator(final PagingPredicateImpl pagingPredicate) {
         return (entry1, entry2) ->
                 SortingUtil.compare(pagingPredicate.getComparator(), pagingPredicate.getIterationType(), entry1, entry2);
     }
 
+    /**
+     * Returns the number of the first entries following the nearest anchor
+     * which are needed to produce the requested page: the entries of the
+     * requested page and of all the pages between the nearest anchor and the
+     * requested page, since their anchors are not known yet.
+     *
+     * @param pagingPredicate    the paging predicate of the query.
+     * @param nearestAnchorEntry the nearest anchor entry of the paging predicate.
+     * @return the number of the needed entries.
+     */
+    public static int getPageLimit(PagingPredicate pagingPredicate, Map.Entry<Integer, Map.Entry> nearestAnchorEntry) {
+        int nearestPage = nearestAnchorEntry.getKey();
+        long limit = pagingPredicate.getPageSize() * ((long) pagingPredicate.getPage() - nearestPage);
+        return (int) Math.min(Math.max(limit, 0), Integer.MAX_VALUE);
+    }
+
     public static List<QueryableEntry> getSortedSubList(List<QueryableEntry> list, PagingPredicate pagingPredicate,
                                                         Map.Entry<Integer, Map.Entry> nearestAnchorEntry) {
         if (pagingPredicate == null || list.isEmpty()) {
@@ -136,16 +153,18 @@ public final class SortingUtil {
         }
         PagingPredicateImpl pagingPredicateImpl = (PagingPredicateImpl) pagingPredicate;
         Comparator<QueryableEntry> comparator = newComparator(pagingPredicateImpl);
-        Collections.sort(list, comparator);
-        int nearestPage = nearestAnchorEntry.getKey();
-        int pageSize = pagingPredicate.getPageSize();
-        int page = pagingPredicate.getPage();
-        long totalSize = pageSize * ((long) page - nearestPage);
-        if (list.size() > totalSize) {
-            // it's safe to cast totalSize back to int here since it's limited by the list size
-            list = list.subList(0, (int) totalSize);
+        int limit = getPageLimit(pagingPredicate, nearestAnchorEntry);
+        if (list.size() <= limit) {
+            Collections.sort(list, comparator);
+            return list;
+        }
+
+        // select the needed entries without sorting all of them
+        TopNCollector<QueryableEntry> collector = new TopNCollector<>(comparator, limit);
+        for (QueryableEntry entry : list) {
+            collector.add(entry);
         }
-        return list;
+        return collector.toSortedList();
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNegative;
+
+/**
+ * Collects the {@code limit} smallest of the added elements according to
+ * the given comparator. The collected elements are kept in a bounded
+ * max-heap, so selecting the first elements of {@code n} elements takes
+ * {@code O(n log(limit))} time and {@code O(limit)} memory instead of
+ * sorting all of them.
+ * <p>
+ * The collector is not thread-safe.
+ *
+ * @param <E> the type of the collected elements.
+ */
+public final class TopNCollector<E> {
+
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final Comparator<? super E> comparator;
+    private final int limit;
+    private final PriorityQueue<E> heap;
+
+    /**
+     * @param comparator the comparator defining the order of the elements.
+     * @param limit      the maximum number of the collected elements.
+     */
+    public TopNCollector(Comparator<? super E> comparator, int limit) {
+        checkNotNegative(limit, "limit must be non-negative");
+        this.comparator = comparator;
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, MAX_INITIAL_CAPACITY)), comparator.reversed());
+    }
+
+    /**
+     * Checks whether the given element would be collected by {@link #add},
+     * which allows to skip preparing elements which would be rejected anyway.
+     *
+     * @param element the element to check.
+     * @return {@code true} if the element would be collected, {@code false}
+     * otherwise.
+     */
+    public boolean isCandidate(E element) {
+        if (heap.size() < limit) {
+            return true;
+        }
+        return limit > 0 && comparator.compare(element, heap.peek()) < 0;
+    }
+
+    /**
+     * Adds the given element to the collected ones, if it's smaller than the
+     * largest collected one or the limit is not reached yet. In the former
+     * case the largest collected element is dropped.
+     *
+     * @param element the element to add.
+     * @return {@code true} if the element was collected, {@code false}
+     * otherwise.
+     */
+    public boolean add(E element) {
+        if (!isCandidate(element)) {
+            return false;
+        }
+        if (heap.size() == limit) {
+            heap.poll();
+        }
+        heap.offer(element);
+        return true;
+    }
+
+    /**
+     * @return the number of the collected elements.
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the collected elements sorted according to the comparator.
+     */
+    public List<E> toSortedList() {
+        List<E> list = new ArrayList<>(heap);
+        list.sort(comparator);
+        return list;
+    }
+}
@@ -104,6 +104,11 @@ public class DelegatingSerializationService extends AbstractSerializationService
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Data toStoredData(Data data) {
+        return data;
+    }
+
     @Override
     public InternalGenericRecord readAsInternalGenericRecord(Data data) {
         throw new UnsupportedOperationException();
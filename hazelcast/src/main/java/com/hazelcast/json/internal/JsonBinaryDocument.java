@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.json.internal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hazelcast.internal.json.NonTerminalJsonValue;
+import com.hazelcast.query.impl.getters.JsonPathCursor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readIntB;
+import static com.hazelcast.internal.nio.Bits.readLongB;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Bits.writeLongB;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Pre-parsed binary form of a JSON document. It is created when the
+ * document is stored and lets queries read attributes by following
+ * offsets instead of parsing the JSON text.
+ * <p>
+ * Every value is a tag byte followed by its payload:
+ * <pre>
+ * object: OBJECT, member count, (name offset, value offset) per member
+ * array:  ARRAY, element count, value offset per element
+ * string: STRING, UTF-8 length, UTF-8 bytes
+ * number: LONG or DOUBLE, 8 bytes
+ * other:  TRUE, FALSE or NULL
+ * </pre>
+ * Member names are stored as their UTF-8 length and bytes. Members are
+ * written before their parents, the offset of the root value is stored in
+ * the first 4 bytes of the buffer. All numbers are big-endian.
+ * <p>
+ * Values are converted the same way as by the getters parsing the text:
+ * integers are returned as {@code long}s, other numbers as {@code double}s
+ * and integers which don't fit in a {@code long} as {@code null}.
+ */
+public final class JsonBinaryDocument {
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+    private static final byte STRING = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte NULL = 8;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_MEMBER_CAPACITY = 16;
+    private static final int MEMBER_ENTRY_SIZE = 2 * INT_SIZE_IN_BYTES;
+
+    private final byte[] buffer;
+
+    private JsonBinaryDocument(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates the binary form of the JSON value read from the given parser.
+     *
+     * @return the binary form or {@code null} if the input is empty
+     * @throws IOException if the input is not a valid JSON value
+     */
+    public static JsonBinaryDocument create(JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            return null;
+        }
+        Writer writer = new Writer();
+        int rootOffset = writer.writeValue(parser);
+        writeIntB(writer.buffer, 0, rootOffset);
+        return new JsonBinaryDocument(Arrays.copyOf(writer.buffer, writer.position));
+    }
+
+    /**
+     * Finds the value at the given path. The path must not contain
+     * {@code [any]}.
+     *
+     * @return a {@code String}, {@code Long}, {@code Double} or {@code Boolean}
+     * for terminal values, {@link NonTerminalJsonValue#INSTANCE} for objects
+     * and arrays and {@code null} for {@code null} values and paths not
+     * present in the document
+     */
+    public Object find(JsonPathCursor path) {
+        int offset = readIntB(buffer, 0);
+        while (path.getNext() != null) {
+            offset = path.isArray() ? findElement(offset, path.getArrayIndex()) : findMember(offset, path.getCurrentAsUTF8());
+            if (offset < 0) {
+                return null;
+            }
+        }
+        return valueAt(offset);
+    }
+
+    /**
+     * @return the size of the binary form in bytes
+     */
+    public int size() {
+        return buffer.length;
+    }
+
+    private int findElement(int offset, int index) {
+        if (buffer[offset] != ARRAY || index < 0 || index >= readIntB(buffer, offset + 1)) {
+            return -1;
+        }
+        return readIntB(buffer, offset + 1 + INT_SIZE_IN_BYTES + index * INT_SIZE_IN_BYTES);
+    }
+
+    private int findMember(int offset, byte[] name) {
+        if (buffer[offset] != OBJECT) {
+            return -1;
+        }
+        int count = readIntB(buffer, offset + 1);
+        int entry = offset + 1 + INT_SIZE_IN_BYTES;
+        for (int i = 0; i < count; i++, entry += MEMBER_ENTRY_SIZE) {
+            if (nameEquals(readIntB(buffer, entry), name)) {
+                return readIntB(buffer, entry + INT_SIZE_IN_BYTES);
+            }
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(int nameOffset, byte[] name) {
+        int length = readIntB(buffer, nameOffset);
+        if (length != name.length) {
+            return false;
+        }
+        int start = nameOffset + INT_SIZE_IN_BYTES;
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object valueAt(int offset) {
+        switch (buffer[offset]) {
+            case STRING:
+                return new String(buffer, offset + 1 + INT_SIZE_IN_BYTES, readIntB(buffer, offset + 1), UTF_8);
+            case LONG:
+                return readLongB(buffer, offset + 1);
+            case DOUBLE:
+                return Double.longBitsToDouble(readLongB(buffer, offset + 1));
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case NULL:
+                return null;
+            default:
+                return NonTerminalJsonValue.INSTANCE;
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+        // the offset of the root value goes first
+        private int position = INT_SIZE_IN_BYTES;
+
+        /**
+         * Writes the value at the current token of the parser and its
+         * members, leaving the parser at the last token of the value.
+         *
+         * @return the offset of the value
+         */
+        int writeValue(JsonParser parser) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON input");
+            }
+            switch (token) {
+                case START_OBJECT:
+                    return writeObject(parser);
+                case START_ARRAY:
+                    return writeArray(parser);
+                case VALUE_STRING:
+                    return writeString(parser.getText());
+                case VALUE_NUMBER_INT:
+                    return writeInteger(parser);
+                case VALUE_NUMBER_FLOAT:
+                    return writeLong(DOUBLE, Double.doubleToRawLongBits(parser.getValueAsDouble()));
+                case VALUE_TRUE:
+                    return writeTag(TRUE);
+                case VALUE_FALSE:
+                    return writeTag(FALSE);
+                case VALUE_NULL:
+                    return writeTag(NULL);
+                default:
+                    throw new IOException("Unexpected JSON token: " + token);
+            }
+        }
+
+        private int writeObject(JsonParser parser) throws IOException {
+            int[] members = new int[INITIAL_MEMBER_CAPACITY];
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (2 * count == members.length) {
+                    members = Arrays.copyOf(members, 2 * members.length);
+                }
+                members[2 * count] = writeUtf8(parser.getCurrentName());
+                parser.nextToken();
+                members[2 * count + 1] = writeValue(parser);
+                count++;
+            }
+            return writeTable(OBJECT, members, 2 * count);
+        }
+
+        private int writeArray(JsonParser parser) throws IOException {
+            int[] elements = new int[INITIAL_MEMBER_CAPACITY];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count == elements.length) {
+                    elements = Arrays.copyOf(elements, 2 * elements.length);
+                }
+                elements[count++] = writeValue(parser);
+            }
+            return writeTable(ARRAY, elements, count);
+        }
+
+        private int writeTable(byte tag, int[] offsets, int length) {
+            int offset = writeTag(tag);
+            ensureCapacity(INT_SIZE_IN_BYTES * (length + 1));
+            // the number of members, not the number of offsets
+            writeIntB(buffer, position, tag == OBJECT ? length / 2 : length);
+            position += INT_SIZE_IN_BYTES;
+            for (int i = 0; i < length; i++) {
+                writeIntB(buffer, position, offsets[i]);
+                position += INT_SIZE_IN_BYTES;
+            }
+            return offset;
+        }
+
+        private int writeString(String value) {
+            int offset = writeTag(STRING);
+            writeUtf8(value);
+            return offset;
+        }
+
+        private int writeInteger(JsonParser parser) throws IOException {
+            // the getters parsing the text fail to read these as longs
+            if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                return writeTag(NULL);
+            }
+            return writeLong(LONG, parser.getLongValue());
+        }
+
+        /**
+         * Writes the UTF-8 encoded string prefixed by its length.
+         */
+        private int writeUtf8(String string) {
+            byte[] bytes = string.getBytes(UTF_8);
+            int offset = position;
+            ensureCapacity(INT_SIZE_IN_BYTES + bytes.length);
+            writeIntB(buffer, position, bytes.length);
+            System.arraycopy(bytes, 0, buffer, position + INT_SIZE_IN_BYTES, bytes.length);
+            position += INT_SIZE_IN_BYTES + bytes.length;
+            return offset;
+        }
+
+        private int writeLong(byte tag, long value) {
+            int offset = writeTag(tag);
+            ensureCapacity(LONG_SIZE_IN_BYTES);
+            writeLongB(buffer, position, value);
+            position += LONG_SIZE_IN_BYTES;
+            return offset;
+        }
+
+        private int writeTag(byte tag) {
+            ensureCapacity(1);
+            buffer[position] = tag;
+            return position++;
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, position + length));
+            }
+        }
+    }
+}
@@ -269,6 +269,41 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     long getIndexedQueryCount();
 
+    /**
+     * Returns the number of queries on the map served from the query result
+     * cache of this member.
+     * <p>
+     * The query result cache is disabled by default, the returned value is
+     * {@code 0} then.
+     *
+     * @see com.hazelcast.spi.properties.ClusterProperty#QUERY_RESULT_CACHE_ENABLED
+     */
+    default long getQueryResultCacheHits() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of queries on the map which were looked up in the
+     * query result cache of this member without finding an up to date
+     * result.
+     *
+     * @see #getQueryResultCacheHits()
+     */
+    default long getQueryResultCacheMisses() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of results dropped from the query result cache of
+     * this member because the queried partitions were mutated since the
+     * results were cached.
+     *
+     * @see #getQueryResultCacheHits()
+     */
+    default long getQueryResultCacheInvalidations() {
+        return 0;
+    }
+
     /**
      * Returns the per-index statistics map keyed by the index name.
      */
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.Storage;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+import static com.hazelcast.config.CacheDeserializedValues.NEVER;
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+
+/**
+ * Populates indexes from the entries of a partition record store.
+ * <p>
+ * The entries are indexed in batches of at most {@link
+ * ClusterProperty#INDEX_POPULATION_BATCH_SIZE} entries. The first batch is
+ * indexed by {@link #start()} on the caller's partition thread, after each
+ * batch the task resubmits itself to the partition thread, so operations
+ * queued for the partition are executed in between instead of waiting for
+ * the whole partition to be indexed. Mutations done by these operations are
+ * applied to the indexes by {@link com.hazelcast.map.impl.recordstore.IndexingMutationObserver
+ * IndexingMutationObserver} as usual and each batch indexes the current
+ * state of the entries it visits, so the indexes catch up with the record
+ * store by the time the last batch is done.
+ * <p>
+ * The partition is marked as being updated in the indexes until then, so
+ * queries don't use the indexes for the partition in the meantime. The
+ * population is abandoned if the partition migrates away, or the record
+ * store or the indexes are replaced before it's done.
+ * <p>
+ * Should be created and started on the partition thread.
+ */
+public final class IndexPopulationTask implements PartitionSpecificRunnable {
+
+    private final int partitionId;
+    private final RecordStore recordStore;
+    private final MapContainer mapContainer;
+    private final InternalIndex[] indexes;
+    private final Index.OperationSource operationSource;
+    private final int batchSize;
+    private final SerializationService serializationService;
+    private final IPartitionService partitionService;
+    private final OperationExecutor operationExecutor;
+    private final CachedQueryEntry<?, ?> cachedEntry;
+
+    private IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+
+    /**
+     * @param recordStore     the record store to index the entries of
+     * @param indexes         the indexes to populate, all belonging to the
+     *                        {@link Indexes} of the record store partition
+     * @param operationSource the source of the index operations
+     */
+    public IndexPopulationTask(RecordStore recordStore, InternalIndex[] indexes, Index.OperationSource operationSource) {
+        this.partitionId = recordStore.getPartitionId();
+        this.recordStore = recordStore;
+        this.mapContainer = recordStore.getMapContainer();
+        this.indexes = indexes;
+        this.operationSource = operationSource;
+
+        NodeEngine nodeEngine = mapContainer.getMapServiceContext().getNodeEngine();
+        this.batchSize = nodeEngine.getProperties().getInteger(ClusterProperty.INDEX_POPULATION_BATCH_SIZE);
+        this.serializationService = nodeEngine.getSerializationService();
+        this.partitionService = nodeEngine.getPartitionService();
+        this.operationExecutor = ((OperationServiceImpl) nodeEngine.getOperationService()).getOperationExecutor();
+
+        CacheDeserializedValues cacheDeserializedValues = mapContainer.getMapConfig().getCacheDeserializedValues();
+        this.cachedEntry = cacheDeserializedValues == NEVER
+                ? new CachedQueryEntry<>(serializationService, mapContainer.getExtractors()) : null;
+    }
+
+    /**
+     * Marks the partition as being updated in the indexes and indexes the
+     * first batch of entries.
+     */
+    public void start() {
+        Indexes.beginPartitionUpdate(indexes);
+        run();
+    }
+
+    @Override
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    @Override
+    public void run() {
+        if (!isStillRelevant()) {
+            abandon();
+            return;
+        }
+
+        boolean done;
+        try {
+            done = indexBatch();
+        } catch (Throwable t) {
+            abandon();
+            throw rethrow(t);
+        }
+
+        if (done) {
+            Indexes.markPartitionAsIndexed(partitionId, indexes);
+        } else {
+            operationExecutor.execute(this);
+        }
+    }
+
+    /**
+     * @return {@code true} if all the entries are indexed, {@code false}
+     * otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private boolean indexBatch() {
+        Storage<Data, Record> storage = recordStore.getStorage();
+        MapKeysWithCursor batch = storage.fetchKeys(pointers, batchSize);
+        for (Data key : batch.getBatch()) {
+            Record record = storage.get(key);
+            if (record == null) {
+                continue;
+            }
+            Object value = Records.getValueOrCachedValue(record, serializationService);
+            if (value == null) {
+                continue;
+            }
+            QueryableEntry<?, ?> queryEntry = mapContainer.newQueryEntry(key, value);
+            queryEntry.setRecord(record);
+            CachedQueryEntry<?, ?> newEntry =
+                    cachedEntry == null ? (CachedQueryEntry<?, ?>) queryEntry : cachedEntry.init(key, value);
+            for (InternalIndex index : indexes) {
+                index.putEntry(newEntry, null, queryEntry, operationSource);
+            }
+        }
+
+        pointers = batch.getIterationPointers();
+        return batch.getBatch().isEmpty() || pointers[pointers.length - 1].getIndex() < 0;
+    }
+
+    private boolean isStillRelevant() {
+        if (!partitionService.isPartitionOwner(partitionId)) {
+            return false;
+        }
+        if (mapContainer.getMapServiceContext().getExistingRecordStore(partitionId, recordStore.getName()) != recordStore) {
+            return false;
+        }
+        for (InternalIndex index : indexes) {
+            if (!isRegistered(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isRegistered(InternalIndex index) {
+        return mapContainer.getIndexes(partitionId).getIndex(index.getName()) == index;
+    }
+
+    private void abandon() {
+        for (InternalIndex index : indexes) {
+            // destroyed indexes don't track the partitions anymore
+            if (isRegistered(index)) {
+                index.markPartitionAsUnindexed(partitionId);
+            }
+        }
+    }
+}
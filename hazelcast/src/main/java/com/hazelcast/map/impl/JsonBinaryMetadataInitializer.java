@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.json.internal.JsonBinaryDocument;
+
+import java.io.IOException;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+
+/**
+ * Creates a {@link JsonBinaryDocument} as the metadata of JSON keys and
+ * values, used instead of {@link JsonMetadataInitializer} when
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_JSON_BINARY_METADATA_ENABLED}
+ * is set.
+ */
+public class JsonBinaryMetadataInitializer implements MetadataInitializer {
+
+    public static final JsonBinaryMetadataInitializer INSTANCE = new JsonBinaryMetadataInitializer();
+
+    private static final int UTF_CHAR_COUNT_FIELD_SIZE = 4;
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    public Object createFromData(Data data) throws IOException {
+        if (data.isJson()) {
+            try (JsonParser parser = FACTORY.createParser(data.toByteArray(),
+                    HEAP_DATA_OVERHEAD + UTF_CHAR_COUNT_FIELD_SIZE, data.dataSize() - UTF_CHAR_COUNT_FIELD_SIZE)) {
+                return JsonBinaryDocument.create(parser);
+            }
+        }
+        return null;
+    }
+
+    public Object createFromObject(Object obj) throws IOException {
+        if (obj instanceof HazelcastJsonValue) {
+            try (JsonParser parser = FACTORY.createParser(obj.toString())) {
+                return JsonBinaryDocument.create(parser);
+            }
+        }
+        return null;
+    }
+}
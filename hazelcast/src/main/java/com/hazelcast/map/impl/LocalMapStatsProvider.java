@@ -36,6 +36,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.map.impl.query.QueryResultCache;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.query.impl.Indexes;
@@ -102,6 +103,7 @@ public class LocalMapStatsProvider {
         LocalMapOnDemandCalculatedStats onDemandStats = new LocalMapOnDemandCalculatedStats();
         addNearCacheStats(mapName, stats, onDemandStats);
         addIndexStats(mapName, stats);
+        addQueryResultCacheStats(mapName, stats);
         updateMapOnDemandStats(mapName, onDemandStats);
 
         return onDemandStats.updateAndGet(stats);
@@ -135,6 +137,7 @@ public class LocalMapStatsProvider {
             LocalMapOnDemandCalculatedStats onDemand = ((LocalMapOnDemandCalculatedStats) entry.getValue());
             addNearCacheStats(mapName, existingStats, onDemand);
             addIndexStats(mapName, existingStats);
+            addQueryResultCacheStats(mapName, existingStats);
             addStructureStats(mapName, onDemand);
 
             LocalMapStatsImpl updatedStats = onDemand.updateAndGet(existingStats);
@@ -327,7 +330,16 @@ public class LocalMapStatsProvider {
             assert globalIndexes.isGlobal();
             localMapStats.setQueryCount(globalIndexes.getIndexesStats().getQueryCount());
             localMapStats.setIndexedQueryCount(globalIndexes.getIndexesStats().getIndexedQueryCount());
-            freshStats = aggregateFreshIndexStats(globalIndexes.getIndexes(), null);
+            InternalIndex[] indexes = globalIndexes.getIndexes();
+            freshStats = aggregateFreshIndexStats(indexes, null);
+            if (freshStats != null) {
+                for (PartitionContainer partitionContainer : mapServiceContext.getPartitionContainers()) {
+                    int partitionId = partitionContainer.getPartitionId();
+                    if (partitionService.getPartition(partitionId).isLocal()) {
+                        aggregateIndexedPartitions(indexes, partitionId, freshStats);
+                    }
+                }
+            }
             finalizeFreshIndexStats(freshStats);
         } else {
             long queryCount = 0;
@@ -354,6 +366,9 @@ public class LocalMapStatsProvider {
                 indexedQueryCount = Math.max(indexedQueryCount, indexesStats.getIndexedQueryCount());
 
                 freshStats = aggregateFreshIndexStats(partitionIndexes.getIndexes(), freshStats);
+                if (freshStats != null) {
+                    aggregateIndexedPartitions(partitionIndexes.getIndexes(), partitionContainer.getPartitionId(), freshStats);
+                }
             }
 
             localMapStats.setQueryCount(queryCount);
@@ -365,6 +380,16 @@ public class LocalMapStatsProvider {
         localMapStats.updateIndexStats(freshStats);
     }
 
+    private void addQueryResultCacheStats(String mapName, LocalMapStatsImpl localMapStats) {
+        QueryResultCache queryResultCache = mapServiceContext.getMapContainer(mapName).getQueryResultCache();
+        if (queryResultCache == null) {
+            return;
+        }
+
+        localMapStats.setQueryResultCacheStats(queryResultCache.getHits(), queryResultCache.getMisses(),
+                queryResultCache.getInvalidations());
+    }
+
     private static Map<String, OnDemandIndexStats> aggregateFreshIndexStats(InternalIndex[] freshIndexes,
                                                                             Map<String, OnDemandIndexStats> freshStats) {
         if (freshIndexes.length > 0 && freshStats == null) {
@@ -398,11 +423,31 @@ public class LocalMapStatsProvider {
             freshIndexStats.setTotalUpdateLatency(freshIndexStats.getTotalUpdateLatency() + indexStats.getTotalUpdateLatency());
             freshIndexStats.setRemoveCount(freshIndexStats.getRemoveCount() + indexStats.getRemoveCount());
             freshIndexStats.setTotalRemoveLatency(freshIndexStats.getTotalRemoveLatency() + indexStats.getTotalRemoveLatency());
+            freshIndexStats.setValueFilterLookupCount(
+                    freshIndexStats.getValueFilterLookupCount() + indexStats.getValueFilterLookupCount());
+            freshIndexStats.setValueFilterSkipCount(
+                    freshIndexStats.getValueFilterSkipCount() + indexStats.getValueFilterSkipCount());
+            freshIndexStats.setOptimizerSkipCount(freshIndexStats.getOptimizerSkipCount() + indexStats.getOptimizerSkipCount());
         }
 
         return freshStats;
     }
 
+    /**
+     * Accounts the given owned partition in the partition counts of the
+     * given indexes, see {@link com.hazelcast.query.LocalIndexStats#getIndexedPartitionCount()}.
+     */
+    private static void aggregateIndexedPartitions(InternalIndex[] indexes, int partitionId,
+                                                   Map<String, OnDemandIndexStats> freshStats) {
+        for (InternalIndex index : indexes) {
+            OnDemandIndexStats freshIndexStats = freshStats.get(index.getName());
+            freshIndexStats.setPartitionCount(freshIndexStats.getPartitionCount() + 1);
+            if (index.hasPartitionIndexed(partitionId)) {
+                freshIndexStats.setIndexedPartitionCount(freshIndexStats.getIndexedPartitionCount() + 1);
+            }
+        }
+    }
+
     /**
      * Finalizes the aggregation of the freshly obtained on-demand index
      * statistics by computing the final average values which are accumulated
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.InvalidConfigurationException;
 import com.hazelcast.config.MapConfig;
@@ -26,6 +27,7 @@ import com.hazelcast.config.WanConsumerConfig;
 import com.hazelcast.config.WanReplicationConfig;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.config.WanSyncConfig;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.Data;
@@ -45,6 +47,7 @@ import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
+import com.hazelcast.map.impl.query.QueryResultCache;
 import com.hazelcast.map.impl.record.DataRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
@@ -58,6 +61,7 @@ import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
 import com.hazelcast.spi.merge.SplitBrainMergePolicyProvider;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.wan.impl.DelegatingWanScheme;
 import com.hazelcast.wan.impl.WanReplicationService;
 
@@ -70,13 +74,20 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static com.hazelcast.config.ConsistencyCheckStrategy.MERKLE_TREES;
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.internal.config.MergePolicyValidator.checkMapMergePolicy;
 import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_VALUE_FILTER_CAPACITY;
 import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_OFF_HEAP_STORAGE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_DATA_SERIALIZABLE_NAVIGATION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_MAX_ENTRIES;
 import static java.lang.System.getProperty;
 
 /**
@@ -92,6 +103,8 @@ public class MapContainer {
     // stored in the mapContainer, so if globalIndexes is null it means that
     // global index is not in use
     protected final Indexes globalIndexes;
+    // null if the query result cache is disabled
+    protected final QueryResultCache queryResultCache;
     protected final Extractors extractors;
     protected final MapStoreContext mapStoreContext;
     protected final ObjectNamespace objectNamespace;
@@ -103,6 +116,8 @@ public class MapContainer {
     protected final Function<Object, Data> toDataFunction = new ObjectToData();
     protected final InterceptorRegistry interceptorRegistry = new InterceptorRegistry();
     protected final ConstructorFunction<Void, RecordFactory> recordFactoryConstructor;
+    // true if the record stores keep their entries in OffHeapStorage
+    protected final boolean offHeapStorageEnabled;
     /**
      * Holds number of registered {@link InvalidationListener} from clients.
      */
@@ -135,14 +150,19 @@ public class MapContainer {
         this.splitBrainProtectionName = mapConfig.getSplitBrainProtectionName();
         this.serializationService = ((InternalSerializationService) nodeEngine.getSerializationService());
         this.recordFactoryConstructor = createRecordFactoryConstructor(serializationService);
+        this.offHeapStorageEnabled = mapConfig.getInMemoryFormat() == BINARY && UNSAFE_AVAILABLE
+                && nodeEngine.getProperties().getBoolean(MAP_OFF_HEAP_STORAGE_ENABLED);
         this.objectNamespace = MapService.getObjectNamespace(name);
         this.extractors = Extractors.newBuilder(serializationService)
                 .setAttributeConfigs(mapConfig.getAttributeConfigs())
                 .setClassLoader(nodeEngine.getConfigClassLoader())
+                .setDataSerializableNavigationEnabled(
+                        nodeEngine.getProperties().getBoolean(QUERY_DATA_SERIALIZABLE_NAVIGATION_ENABLED))
                 .build();
         this.queryEntryFactory = new QueryEntryFactory(mapConfig.getCacheDeserializedValues(),
                 serializationService, extractors);
         this.globalIndexes = shouldUseGlobalIndex() ? createIndexes(true) : null;
+        this.queryResultCache = createQueryResultCache(nodeEngine);
         this.mapStoreContext = createMapStoreContext(this);
         initWanReplication(mapServiceContext.getNodeEngine());
     }
@@ -167,10 +187,21 @@ public class MapContainer {
                 .indexProvider(mapServiceContext.getIndexProvider(mapConfig))
                 .usesCachedQueryableEntries(mapConfig.getCacheDeserializedValues() != CacheDeserializedValues.NEVER)
                 .partitionCount(partitionCount)
+                .valueFilterCapacity(mapServiceContext.getNodeEngine().getProperties().getInteger(INDEX_VALUE_FILTER_CAPACITY))
+                .indexStatisticsEnabled(mapServiceContext.getQueryOptimizer().usesIndexStatistics())
                 .resultFilterFactory(new IndexResultFilterFactory())
                 .build();
     }
 
+    private QueryResultCache createQueryResultCache(NodeEngine nodeEngine) {
+        HazelcastProperties properties = nodeEngine.getProperties();
+        if (!properties.getBoolean(QUERY_RESULT_CACHE_ENABLED)) {
+            return null;
+        }
+        return new QueryResultCache(serializationService, nodeEngine.getPartitionService().getPartitionCount(),
+                properties.getInteger(QUERY_RESULT_CACHE_MAX_ENTRIES));
+    }
+
     public AtomicLong getLastInvalidMergePolicyCheckTime() {
         return lastInvalidMergePolicyCheckTime;
     }
@@ -211,13 +242,32 @@ public class MapContainer {
     public final void initEvictor() {
         NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
         EvictionPolicyComparator evictionPolicyComparator
-                = getEvictionPolicyComparator(mapConfig.getEvictionConfig(), nodeEngine.getConfigClassLoader());
+                = getEvictionPolicyComparator(mapConfig.getEvictionConfig(), nodeEngine.getConfigClassLoader(),
+                getExpectedEntryCount(nodeEngine.getPartitionService()));
 
         evictor = evictionPolicyComparator != null
                 ? newEvictor(evictionPolicyComparator, nodeEngine.getProperties().getInteger(MAP_EVICTION_BATCH_SIZE),
                 nodeEngine.getPartitionService()) : NULL_EVICTOR;
     }
 
+    /**
+     * @return the maximum number of entries of this map on this member
+     * according to its max-size config, if there is such a limit
+     */
+    private int getExpectedEntryCount(IPartitionService partitionService) {
+        EvictionConfig evictionConfig = mapConfig.getEvictionConfig();
+        int size = evictionConfig.getSize();
+        switch (evictionConfig.getMaxSizePolicy()) {
+            case PER_NODE:
+                return size == MapConfig.DEFAULT_MAX_SIZE
+                        ? TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT : size;
+            case PER_PARTITION:
+                return (int) Math.min((long) size * partitionService.getPartitionCount(), Integer.MAX_VALUE);
+            default:
+                return TinyLFUEvictionPolicyComparator.DEFAULT_EXPECTED_ENTRY_COUNT;
+        }
+    }
+
     // this method is overridden
     protected Evictor newEvictor(EvictionPolicyComparator evictionPolicyComparator,
                                  int evictionBatchSize, IPartitionService partitionService) {
@@ -230,6 +280,18 @@ public class MapContainer {
         return mapConfig.getInMemoryFormat() != NATIVE || mapServiceContext.globalIndexEnabled();
     }
 
+    /**
+     * @return {@code true} if the record stores of this map keep their
+     * entries in {@link com.hazelcast.map.impl.recordstore.OffHeapStorage}.
+     * Like with {@code NATIVE} maps, such record stores may only be
+     * accessed on partition threads, so partition scans must not run on
+     * query or SQL threads.
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_OFF_HEAP_STORAGE_ENABLED
+     */
+    public boolean isOffHeapStorageEnabled() {
+        return offHeapStorageEnabled;
+    }
+
     protected static MemoryInfoAccessor getMemoryInfoAccessor() {
         MemoryInfoAccessor pluggedMemoryInfoAccessor = getPluggedMemoryInfoAccessor();
         return pluggedMemoryInfoAccessor != null ? pluggedMemoryInfoAccessor : new RuntimeMemoryInfoAccessor();
@@ -337,6 +399,14 @@ public class MapContainer {
         return mapServiceContext.getPartitionContainer(partitionId).getIndexes(name);
     }
 
+    /**
+     * @return the cache of the query results of this map or {@code null}
+     * if the query result cache is disabled
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public boolean isGlobalIndexEnabled() {
         return globalIndexes != null;
     }
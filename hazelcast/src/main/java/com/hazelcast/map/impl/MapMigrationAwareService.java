@@ -253,7 +253,7 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         return mapServiceContext.getMapNearCacheManager().getInvalidator().getMetaDataGenerator();
     }
 
-    @SuppressWarnings("checkstyle:NPathComplexity")
+    @SuppressWarnings({"checkstyle:NPathComplexity", "checkstyle:CyclomaticComplexity"})
     private void populateIndexes(PartitionMigrationEvent event,
                                  TargetIndexes targetIndexes, String stepName) {
         assert event.getMigrationEndpoint() == DESTINATION;
@@ -284,6 +284,13 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
 
             InternalIndex[] indexesSnapshot = indexes.getIndexes();
 
+            if (targetIndexes == TargetIndexes.GLOBAL) {
+                // the partition is already owned by this member, so the
+                // population may be interleaved with the partition operations
+                new IndexPopulationTask(recordStore, indexesSnapshot, Index.OperationSource.SYSTEM).start();
+                continue;
+            }
+
             Indexes.beginPartitionUpdate(indexesSnapshot);
 
             CacheDeserializedValues cacheDeserializedValues = mapContainer.getMapConfig().getCacheDeserializedValues();
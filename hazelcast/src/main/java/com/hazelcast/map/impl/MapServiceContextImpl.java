@@ -32,6 +32,7 @@ import com.hazelcast.internal.util.ConstructorFunction;
 import com.hazelcast.internal.util.ContextMutexFactory;
 import com.hazelcast.internal.util.InvocationUtil;
 import com.hazelcast.internal.util.LocalRetryableExecution;
+import com.hazelcast.internal.util.RuntimeAvailableProcessors;
 import com.hazelcast.internal.util.Timer;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.internal.util.comparators.ValueComparator;
@@ -41,6 +42,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.event.MapEventPublisherImpl;
+import com.hazelcast.map.impl.eviction.MapBackgroundEvictionTask;
 import com.hazelcast.map.impl.eviction.MapClearExpiredRecordsTask;
 import com.hazelcast.map.impl.journal.MapEventJournal;
 import com.hazelcast.map.impl.journal.RingbufferMapEventJournalImpl;
@@ -59,6 +61,7 @@ import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.AggregationResultProcessor;
 import com.hazelcast.map.impl.query.CallerRunsAccumulationExecutor;
 import com.hazelcast.map.impl.query.CallerRunsPartitionScanExecutor;
+import com.hazelcast.map.impl.query.ForkJoinPartitionScanExecutor;
 import com.hazelcast.map.impl.query.ParallelAccumulationExecutor;
 import com.hazelcast.map.impl.query.ParallelPartitionScanExecutor;
 import com.hazelcast.map.impl.query.PartitionScanExecutor;
@@ -111,6 +114,9 @@ import static com.hazelcast.query.impl.predicates.QueryOptimizerFactory.newOptim
 import static com.hazelcast.spi.impl.executionservice.ExecutionService.QUERY_EXECUTOR;
 import static com.hazelcast.spi.impl.operationservice.Operation.GENERIC_PARTITION_ID;
 import static com.hazelcast.spi.properties.ClusterProperty.AGGREGATION_ACCUMULATION_PARALLEL_EVALUATION;
+import static com.hazelcast.spi.properties.ClusterProperty.AGGREGATION_SCAN_PARALLEL_EVALUATION;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_BPLUS_TREE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_FLAT_HASH_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.INDEX_COPY_BEHAVIOR;
 import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS;
 import static com.hazelcast.spi.properties.ClusterProperty.QUERY_PREDICATE_PARALLEL_EVALUATION;
@@ -142,10 +148,11 @@ class MapServiceContextImpl implements MapServiceContext {
     private final ResultProcessorRegistry resultProcessorRegistry;
     private final InternalSerializationService serializationService;
     private final MapClearExpiredRecordsTask clearExpiredRecordsTask;
+    private final MapBackgroundEvictionTask backgroundEvictionTask;
     private final PartitioningStrategyFactory partitioningStrategyFactory;
     private final NodeWideUsedCapacityCounter nodeWideUsedCapacityCounter;
     private final ConstructorFunction<String, MapContainer> mapConstructor;
-    private final IndexProvider indexProvider = new DefaultIndexProvider();
+    private final IndexProvider indexProvider;
     private final ContextMutexFactory contextMutexFactory = new ContextMutexFactory();
     private final ConcurrentMap<String, MapContainer> mapContainers = new ConcurrentHashMap<>();
     private final ExecutorStats offloadedExecutorStats = new ExecutorStats();
@@ -167,11 +174,15 @@ class MapServiceContextImpl implements MapServiceContext {
         this.partitionContainers = createPartitionContainers();
         this.clearExpiredRecordsTask = new MapClearExpiredRecordsTask(partitionContainers, nodeEngine);
         this.expirationManager = new ExpirationManager(clearExpiredRecordsTask, nodeEngine);
+        this.backgroundEvictionTask = new MapBackgroundEvictionTask(partitionContainers, nodeEngine);
+        this.backgroundEvictionTask.schedule();
         this.mapNearCacheManager = createMapNearCacheManager();
         this.localMapStatsProvider = createLocalMapStatsProvider();
         this.mapEventPublisher = createMapEventPublisherSupport();
         this.eventJournal = createEventJournal();
         this.queryOptimizer = newOptimizer(nodeEngine.getProperties());
+        this.indexProvider = new DefaultIndexProvider(nodeEngine.getProperties().getBoolean(INDEX_BPLUS_TREE_ENABLED),
+                nodeEngine.getProperties().getBoolean(INDEX_FLAT_HASH_ENABLED));
         this.resultProcessorRegistry = createResultProcessorRegistry(serializationService);
         this.partitionScanRunner = createPartitionScanRunner();
         this.queryEngine = createMapQueryEngine();
@@ -248,6 +259,15 @@ class MapServiceContextImpl implements MapServiceContext {
         } else {
             partitionScanExecutor = new CallerRunsPartitionScanExecutor(partitionScanRunner);
         }
+        if (nodeEngine.getProperties().getBoolean(AGGREGATION_SCAN_PARALLEL_EVALUATION)) {
+            int opTimeoutInMillis = nodeEngine.getProperties().getInteger(OPERATION_CALL_TIMEOUT_MILLIS);
+            ManagedExecutorService queryExecutorService = nodeEngine.getExecutionService().getExecutor(QUERY_EXECUTOR);
+            // the calling thread scans partitions as well
+            int parallelism = Math.min(RuntimeAvailableProcessors.get(), queryExecutorService.getMaximumPoolSize() + 1);
+            partitionScanExecutor = new ForkJoinPartitionScanExecutor(partitionScanExecutor, partitionScanRunner,
+                    queryExecutorService, nodeEngine.getPartitionService().getPartitionCount(), parallelism,
+                    opTimeoutInMillis);
+        }
         return new QueryRunner(this, queryOptimizer, partitionScanExecutor, resultProcessorRegistry);
     }
 
@@ -464,6 +484,7 @@ class MapServiceContextImpl implements MapServiceContext {
         mapNearCacheManager.shutdown();
         mapContainers.clear();
         expirationManager.onShutdown();
+        backgroundEvictionTask.cancel();
         offloadedExecutorStats.clear();
     }
 
@@ -26,6 +26,7 @@ import com.hazelcast.internal.util.ConcurrencyUtil;
 import com.hazelcast.internal.util.ConstructorFunction;
 import com.hazelcast.internal.util.ContextMutexFactory;
 import com.hazelcast.internal.util.MapUtil;
+import com.hazelcast.map.impl.operation.MapBackgroundEvictionOperation;
 import com.hazelcast.map.impl.operation.MapClearExpiredOperation;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.query.impl.Indexes;
@@ -68,6 +69,11 @@ public class PartitionContainer {
      */
     private volatile boolean hasRunningCleanup;
     private volatile long lastCleanupTime;
+    /**
+     * Flag to check if there is a {@link MapBackgroundEvictionOperation}
+     * running on this partition at this moment or not.
+     */
+    private volatile boolean hasRunningBackgroundEviction;
 
     /**
      * Used when sorting partition containers in {@link ExpirationManager}
@@ -225,6 +231,14 @@ public class PartitionContainer {
         this.lastCleanupTime = lastCleanupTime;
     }
 
+    public boolean hasRunningBackgroundEviction() {
+        return hasRunningBackgroundEviction;
+    }
+
+    public void setHasRunningBackgroundEviction(boolean hasRunningBackgroundEviction) {
+        this.hasRunningBackgroundEviction = hasRunningBackgroundEviction;
+    }
+
     public long getLastCleanupTimeCopy() {
         return lastCleanupTimeCopy;
     }
@@ -35,6 +35,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_LOW_WATERMARK_PERCENTAGE;
 import static java.lang.String.format;
 
 /**
@@ -50,6 +52,8 @@ public class EvictionChecker {
     private static final int MIN_TRANSLATED_PARTITION_SIZE = 1;
 
     private final int partitionCount;
+    private final int highWatermarkPercentage;
+    private final int lowWatermarkPercentage;
     private final ILogger logger;
     private final ClusterService clusterService;
     private final PartitionContainer[] containers;
@@ -68,6 +72,8 @@ public class EvictionChecker {
         this.partitionCount = nodeEngine.getPartitionService().getPartitionCount();
         this.mapNearCacheManager = mapServiceContext.getMapNearCacheManager();
         this.memoryInfoAccessor = givenMemoryInfoAccessor;
+        this.highWatermarkPercentage = nodeEngine.getProperties().getInteger(MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE);
+        this.lowWatermarkPercentage = nodeEngine.getProperties().getInteger(MAP_EVICTION_LOW_WATERMARK_PERCENTAGE);
 
         if (logger.isFinestEnabled()) {
             logger.finest("Used memoryInfoAccessor=" + this.memoryInfoAccessor.getClass().getCanonicalName());
@@ -106,6 +112,47 @@ public class EvictionChecker {
         }
     }
 
+    /**
+     * Checks whether the record store has an entry count based max-size
+     * policy and holds more entries than the high watermark percentage
+     * of its maximum size. Used by the background eviction.
+     */
+    public boolean isAboveHighWatermark(RecordStore recordStore) {
+        double maxSize = getPerPartitionMaxEntryCount(recordStore);
+        return maxSize > 0 && recordStore.size() > maxSize * highWatermarkPercentage / ONE_HUNDRED;
+    }
+
+    /**
+     * Returns the number of entries which have to be evicted from the
+     * record store to bring its size down to the low watermark percentage
+     * of its maximum size, {@code 0} if the record store does not have an
+     * entry count based max-size policy. Used by the background eviction.
+     */
+    public int getEntryCountAboveLowWatermark(RecordStore recordStore) {
+        double maxSize = getPerPartitionMaxEntryCount(recordStore);
+        if (maxSize <= 0) {
+            return 0;
+        }
+        double excess = recordStore.size() - maxSize * lowWatermarkPercentage / ONE_HUNDRED;
+        return excess > 0 ? (int) Math.ceil(excess) : 0;
+    }
+
+    /**
+     * @return the maximum entry count of the record store, {@code -1} if
+     * its max-size policy is not entry count based
+     */
+    private double getPerPartitionMaxEntryCount(RecordStore recordStore) {
+        EvictionConfig evictionConfig = recordStore.getMapContainer().getMapConfig().getEvictionConfig();
+        switch (evictionConfig.getMaxSizePolicy()) {
+            case PER_NODE:
+                return toPerPartitionMaxSize(evictionConfig.getSize(), recordStore.getName());
+            case PER_PARTITION:
+                return evictionConfig.getSize();
+            default:
+                return -1;
+        }
+    }
+
     /**
      * Calculates and returns the expected maximum size of an evicted
      * record-store when {@link
@@ -85,4 +85,38 @@ public interface Evictor {
      */
     boolean checkEvictable(RecordStore recordStore);
 
+    /**
+     * Checks whether the supplied record-store is to be evicted
+     * by the background eviction.
+     *
+     * @param recordStore the recordStore
+     * @return {@code true} if its size exceeds the high watermark
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_BACKGROUND_EVICTION_ENABLED
+     */
+    default boolean checkAboveHighWatermark(RecordStore recordStore) {
+        return false;
+    }
+
+    /**
+     * Evicts the supplied record-store down to its low watermark,
+     * used by the background eviction.
+     *
+     * @param recordStore  the recordStore
+     * @param maxEvictions maximum number of entries to evict
+     * @return the number of evicted entries
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_BACKGROUND_EVICTION_ENABLED
+     */
+    default int evictToLowWatermark(RecordStore recordStore, int maxEvictions) {
+        return 0;
+    }
+
+    /**
+     * Records an access of the entry with the supplied key,
+     * for eviction policies which estimate access frequencies
+     * of keys outside of the records.
+     *
+     * @param dataKey key of the read or newly added entry
+     */
+    default void recordAccess(Data dataKey) {
+    }
 }
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.eviction;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.Data;
@@ -28,6 +29,10 @@ import com.hazelcast.map.impl.recordstore.Storage;
 import com.hazelcast.map.impl.recordstore.expiry.ExpiryReason;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.ThreadUtil.assertRunningOnPartitionThread;
 
@@ -41,6 +46,7 @@ public class EvictorImpl implements Evictor {
     protected final IPartitionService partitionService;
 
     private final int batchSize;
+    private final TinyLFUEvictionPolicyComparator frequencyPolicy;
 
     public EvictorImpl(EvictionPolicyComparator policy,
                        EvictionChecker evictionChecker, int batchSize,
@@ -50,6 +56,8 @@ public class EvictorImpl implements Evictor {
         this.partitionService = checkNotNull(partitionService);
         this.policy = checkNotNull(policy);
         this.batchSize = batchSize;
+        this.frequencyPolicy = policy instanceof TinyLFUEvictionPolicyComparator
+                ? (TinyLFUEvictionPolicyComparator) policy : null;
     }
 
     @Override
@@ -67,6 +75,66 @@ public class EvictorImpl implements Evictor {
         }
     }
 
+    @Override
+    public boolean checkAboveHighWatermark(RecordStore recordStore) {
+        return evictionChecker.isAboveHighWatermark(recordStore);
+    }
+
+    @Override
+    public int evictToLowWatermark(RecordStore recordStore, int maxEvictions) {
+        assertRunningOnPartitionThread();
+
+        int entryCount = Math.min(evictionChecker.getEntryCountAboveLowWatermark(recordStore), maxEvictions);
+        if (entryCount <= 0) {
+            return 0;
+        }
+
+        long now = getNow();
+        boolean backup = isBackup(recordStore);
+        int evicted = 0;
+        for (EntryView entryView : selectEvictableEntries(recordStore, entryCount, now, backup)) {
+            if (evictEntry(recordStore, entryView, now, backup)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Selects the given number of entries to evict from a single sample
+     * {@link #SAMPLE_COUNT} times larger, which matches the selection of the
+     * best entry out of {@link #SAMPLE_COUNT} sampled ones per eviction
+     * without sampling the record store for every evicted entry.
+     */
+    @SuppressWarnings("checkstyle:rvcheckcomparetoforspecificreturnvalue")
+    private List<EntryView> selectEvictableEntries(RecordStore recordStore, int entryCount,
+                                                   long now, boolean backup) {
+        int sampleCount = (int) Math.min((long) entryCount * SAMPLE_COUNT, Integer.MAX_VALUE);
+        List<EntryView> selected = new ArrayList<>(entryCount);
+        // the worst of the best candidates sampled so far is on the top
+        PriorityQueue<EntryView> candidates = new PriorityQueue<>(entryCount, (a, b) -> policy.compare(b, a));
+        for (EntryView current : getRandomSamples(recordStore, sampleCount)) {
+            if (recordStore.isExpired(getDataKeyFromEntryView(current), now, backup)) {
+                selected.add(current);
+                if (selected.size() == entryCount) {
+                    return selected;
+                }
+            } else if (candidates.size() < entryCount) {
+                candidates.offer(current);
+            } else if (policy.compare(current, candidates.peek()) < 0) {
+                candidates.poll();
+                candidates.offer(current);
+            }
+        }
+
+        int remaining = entryCount - selected.size();
+        while (candidates.size() > remaining) {
+            candidates.poll();
+        }
+        selected.addAll(candidates);
+        return selected;
+    }
+
     @Override
     public void forceEvictByPercentage(RecordStore recordStore, double evictionPercentage) {
         // NOP.
@@ -102,12 +170,12 @@ public class EvictorImpl implements Evictor {
         return selected == null ? excluded : selected;
     }
 
-    private void evictEntry(RecordStore recordStore, EntryView selectedEntry,
-                            long now, boolean backup) {
+    private boolean evictEntry(RecordStore recordStore, EntryView selectedEntry,
+                               long now, boolean backup) {
         Data dataKey = getDataKeyFromEntryView(selectedEntry);
 
         if (recordStore.isLocked(dataKey)) {
-            return;
+            return false;
         }
 
         ExpiryReason expiryReason
@@ -117,6 +185,14 @@ public class EvictorImpl implements Evictor {
         if (value != null && !backup) {
             recordStore.doPostEvictionOperations(dataKey, value, expiryReason);
         }
+        return value != null;
+    }
+
+    @Override
+    public void recordAccess(Data dataKey) {
+        if (frequencyPolicy != null) {
+            frequencyPolicy.recordAccess(dataKey);
+        }
     }
 
     @Override
@@ -143,8 +219,12 @@ public class EvictorImpl implements Evictor {
     }
 
     protected Iterable<EntryView> getRandomSamples(RecordStore recordStore) {
+        return getRandomSamples(recordStore, SAMPLE_COUNT);
+    }
+
+    protected Iterable<EntryView> getRandomSamples(RecordStore recordStore, int sampleCount) {
         Storage storage = recordStore.getStorage();
-        return storage.getRandomSamples(SAMPLE_COUNT);
+        return storage.getRandomSamples(sampleCount);
     }
 
     protected static long getNow() {
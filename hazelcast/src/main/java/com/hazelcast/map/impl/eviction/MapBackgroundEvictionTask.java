@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.eviction;
+
+import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.internal.partition.IPartition;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.operation.MapBackgroundEvictionOperation;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_BACKGROUND_EVICTION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_BACKGROUND_EVICTION_MAX_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_BACKGROUND_EVICTION_PERIOD_MILLIS;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_LOW_WATERMARK_PERCENTAGE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Periodically sends a {@link MapBackgroundEvictionOperation} to every
+ * partition owned by this member which has a record store above its high
+ * watermark.
+ * <p>
+ * The per-put eviction check still evicts record stores which reached
+ * their maximum size, but as long as this task keeps up with the
+ * insertions, record stores are kept between their low and high
+ * watermarks and puts don't pay for the sampling of eviction candidates.
+ *
+ * @see com.hazelcast.spi.properties.ClusterProperty#MAP_BACKGROUND_EVICTION_ENABLED
+ */
+public class MapBackgroundEvictionTask implements Runnable {
+
+    private final boolean enabled;
+    private final long periodMillis;
+    private final int maxBatchSize;
+    private final NodeEngine nodeEngine;
+    private final IPartitionService partitionService;
+    private final PartitionContainer[] partitionContainers;
+    private final AtomicBoolean singleRunPermit = new AtomicBoolean();
+
+    private volatile ScheduledFuture<?> scheduledTask;
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    public MapBackgroundEvictionTask(PartitionContainer[] partitionContainers, NodeEngine nodeEngine) {
+        HazelcastProperties properties = nodeEngine.getProperties();
+        this.enabled = properties.getBoolean(MAP_BACKGROUND_EVICTION_ENABLED);
+        this.periodMillis = checkPositive(MAP_BACKGROUND_EVICTION_PERIOD_MILLIS.getName(),
+                properties.getMillis(MAP_BACKGROUND_EVICTION_PERIOD_MILLIS));
+        this.maxBatchSize = checkPositive(MAP_BACKGROUND_EVICTION_MAX_BATCH_SIZE.getName(),
+                properties.getInteger(MAP_BACKGROUND_EVICTION_MAX_BATCH_SIZE));
+        if (enabled) {
+            int highWatermark = properties.getInteger(MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE);
+            int lowWatermark = properties.getInteger(MAP_EVICTION_LOW_WATERMARK_PERCENTAGE);
+            checkTrue(lowWatermark > 0 && lowWatermark < highWatermark && highWatermark <= 100,
+                    "Eviction watermarks should satisfy 0 < low watermark < high watermark <= 100");
+        }
+        this.nodeEngine = nodeEngine;
+        this.partitionService = nodeEngine.getPartitionService();
+        this.partitionContainers = partitionContainers;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the periodic background eviction if it is enabled.
+     */
+    public void schedule() {
+        if (enabled && scheduledTask == null) {
+            scheduledTask = nodeEngine.getExecutionService().getGlobalTaskScheduler()
+                    .scheduleWithRepetition(this, periodMillis, periodMillis, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic background eviction.
+     */
+    public void cancel() {
+        ScheduledFuture<?> scheduledTask = this.scheduledTask;
+        if (scheduledTask != null) {
+            scheduledTask.cancel(false);
+            this.scheduledTask = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!singleRunPermit.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (nodeEngine.getLocalMember().isLiteMember()
+                    || nodeEngine.getClusterService().getClusterState() == ClusterState.PASSIVE) {
+                return;
+            }
+
+            for (PartitionContainer container : partitionContainers) {
+                if (canProcessContainer(container)) {
+                    // mark partition container as has on going background eviction.
+                    container.setHasRunningBackgroundEviction(true);
+                    nodeEngine.getOperationService().execute(newBackgroundEvictionOp(container));
+                }
+            }
+        } finally {
+            singleRunPermit.set(false);
+        }
+    }
+
+    private boolean canProcessContainer(PartitionContainer container) {
+        if (container.hasRunningBackgroundEviction()) {
+            return false;
+        }
+
+        // backups keep being evicted by their per-put max-size check
+        IPartition partition = partitionService.getPartition(container.getPartitionId(), false);
+        if (partition.isMigrating() || !partition.isLocal()) {
+            return false;
+        }
+
+        for (RecordStore recordStore : container.getMaps().values()) {
+            if (recordStore.getMapContainer().getEvictor().checkAboveHighWatermark(recordStore)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Operation newBackgroundEvictionOp(PartitionContainer container) {
+        return new MapBackgroundEvictionOperation(maxBatchSize)
+                .setNodeEngine(nodeEngine)
+                .setCallerUuid(nodeEngine.getLocalMember().getUuid())
+                .setPartitionId(container.getPartitionId())
+                .setValidateTarget(false)
+                .setServiceName(SERVICE_NAME);
+    }
+}
@@ -16,20 +16,16 @@
 
 package com.hazelcast.map.impl.operation;
 
-import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.IndexConfig;
-import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.IndexPopulationTask;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapService;
-import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
-import com.hazelcast.query.impl.CachedQueryEntry;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexUtils;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
-import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.impl.operationservice.BackupAwareOperation;
 import com.hazelcast.spi.impl.operationservice.MutatingOperation;
 import com.hazelcast.spi.impl.operationservice.Operation;
@@ -37,8 +33,6 @@ import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
 
 import java.io.IOException;
 
-import static com.hazelcast.config.CacheDeserializedValues.NEVER;
-
 public class AddIndexOperation extends MapOperation
         implements PartitionAwareOperation, MutatingOperation, BackupAwareOperation {
     /**
@@ -91,23 +85,8 @@ public class AddIndexOperation extends MapOperation
             return;
         }
 
-        SerializationService serializationService = getNodeEngine().getSerializationService();
-
-        index.beginPartitionUpdate();
-
-        CacheDeserializedValues cacheDeserializedValues = mapContainer.getMapConfig().getCacheDeserializedValues();
-        CachedQueryEntry<?, ?> cachedEntry = cacheDeserializedValues == NEVER ? new CachedQueryEntry<>(serializationService,
-                mapContainer.getExtractors()) : null;
-        recordStore.forEach((dataKey, record) -> {
-            Object value = Records.getValueOrCachedValue(record, serializationService);
-            QueryableEntry<?, ?> queryEntry = mapContainer.newQueryEntry(dataKey, value);
-            queryEntry.setRecord(record);
-            CachedQueryEntry<?, ?> newEntry =
-                    cachedEntry == null ? (CachedQueryEntry<?, ?>) queryEntry : cachedEntry.init(dataKey, value);
-            index.putEntry(newEntry, null, queryEntry, Index.OperationSource.USER);
-        }, false);
-
-        index.markPartitionAsIndexed(partitionId);
+        // the index becomes usable for the partition once the population is done
+        new IndexPopulationTask(recordStore, new InternalIndex[]{index}, Index.OperationSource.USER).start();
     }
 
     @Override
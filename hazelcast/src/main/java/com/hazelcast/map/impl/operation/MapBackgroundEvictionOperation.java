@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.eviction.Evictor;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.exception.PartitionMigratingException;
+import com.hazelcast.spi.impl.operationservice.AbstractLocalOperation;
+import com.hazelcast.spi.impl.operationservice.MutatingOperation;
+import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
+
+import java.util.logging.Level;
+
+/**
+ * Evicts the record stores of a partition which grew above their
+ * high watermark down to their low watermark.
+ *
+ * @see com.hazelcast.map.impl.eviction.MapBackgroundEvictionTask
+ */
+public class MapBackgroundEvictionOperation extends AbstractLocalOperation
+        implements PartitionAwareOperation, MutatingOperation {
+
+    private final int maxBatchSize;
+
+    public MapBackgroundEvictionOperation(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public void run() throws Exception {
+        if (getNodeEngine().getLocalMember().isLiteMember()) {
+            // this operation shouldn't run on lite members. This situation can potentially be seen
+            // when converting a data-member to lite-member during merge operations.
+            return;
+        }
+
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(getPartitionId());
+        for (RecordStore recordStore : partitionContainer.getMaps().values()) {
+            MapContainer mapContainer = recordStore.getMapContainer();
+            Evictor evictor = mapContainer.getEvictor();
+            if (!evictor.checkAboveHighWatermark(recordStore)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            int evicted = evictor.evictToLowWatermark(recordStore, maxBatchSize);
+            recordStore.disposeDeferredBlocks();
+            long elapsedNanos = System.nanoTime() - start;
+
+            if (evicted > 0 && mapContainer.getMapConfig().isStatisticsEnabled()) {
+                mapServiceContext.getLocalMapStatsProvider().getLocalMapStatsImpl(recordStore.getName())
+                        .incrementBackgroundEvictions(evicted, elapsedNanos);
+            }
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Throwable e) {
+        try {
+            super.onExecutionFailure(e);
+        } finally {
+            prepareForNextEviction();
+        }
+    }
+
+    @Override
+    public void logError(Throwable e) {
+        if (e instanceof PartitionMigratingException) {
+            ILogger logger = getLogger();
+            if (logger.isLoggable(Level.FINEST)) {
+                logger.log(Level.FINEST, e.toString());
+            }
+        } else {
+            super.logError(e);
+        }
+    }
+
+    @Override
+    public void afterRun() throws Exception {
+        prepareForNextEviction();
+    }
+
+    private void prepareForNextEviction() {
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        mapServiceContext.getPartitionContainer(getPartitionId()).setHasRunningBackgroundEviction(false);
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", maxBatchSize=").append(maxBatchSize);
+    }
+}
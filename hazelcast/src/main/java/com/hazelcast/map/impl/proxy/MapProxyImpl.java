@@ -60,6 +60,7 @@ import com.hazelcast.map.impl.querycache.subscriber.SubscriberContext;
 import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
@@ -99,6 +100,7 @@ import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.query.QueryResultUtils.transformToSet;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest.newQueryCacheRequest;
 import static com.hazelcast.map.impl.record.Record.UNSET;
+import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 import static com.hazelcast.spi.impl.InternalCompletableFuture.newCompletedFuture;
 import static com.hazelcast.spi.impl.InternalCompletableFuture.newDelegatingFuture;
 import static java.util.Collections.emptyMap;
@@ -1122,6 +1124,58 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         return new MapQueryIterable<>(this, fetchSize, partitionCount, projection, predicate);
     }
 
+    /**
+     * Returns an iterable for iterating the entries in all of
+     * the partitions which satisfy the {@code predicate}. Unlike
+     * {@link #entrySet(Predicate)}, the matching entries are not collected into
+     * a single result: the partitions are queried one after another in batches
+     * of at most {@code fetchSize} entries and the next batch is requested
+     * only once the previous one was consumed. The memory used by the query on
+     * the members and on the caller is therefore bounded by the fetch size
+     * regardless of the number of matching entries, and the query result size
+     * limit does not apply.
+     * <p>
+     * The iteration may be done while the map is being mutated, with the same
+     * guarantees as {@link #iterable(int, Projection, Predicate)}.
+     *
+     * @param fetchSize the maximum number of entries fetched in a single batch
+     * @param predicate the predicate which the entries must match. null value is not allowed
+     * @return an iterable for the entries of the matching entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    @Nonnull
+    public Iterable<Entry<K, V>> entrySetIterable(int fetchSize, @Nonnull Predicate<K, V> predicate) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotPagingPredicate(predicate, "entrySetIterable");
+        return iterable(fetchSize, Projections.<Entry<K, V>>identity(), predicate);
+    }
+
+    /**
+     * Returns an iterable for iterating the values of the entries in all of
+     * the partitions which satisfy the {@code predicate}. Unlike
+     * {@link #values(Predicate)}, the matching entries are not collected into
+     * a single result: the partitions are queried one after another in batches
+     * of at most {@code fetchSize} entries and the next batch is requested
+     * only once the previous one was consumed. The memory used by the query on
+     * the members and on the caller is therefore bounded by the fetch size
+     * regardless of the number of matching entries, and the query result size
+     * limit does not apply.
+     * <p>
+     * The iteration may be done while the map is being mutated, with the same
+     * guarantees as {@link #iterable(int, Projection, Predicate)}.
+     *
+     * @param fetchSize the maximum number of entries fetched in a single batch
+     * @param predicate the predicate which the entries must match. null value is not allowed
+     * @return an iterable for the values of the matching entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    @Nonnull
+    public Iterable<V> valuesIterable(int fetchSize, @Nonnull Predicate<K, V> predicate) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotPagingPredicate(predicate, "valuesIterable");
+        return iterable(fetchSize, Projections.<Entry<K, V>, V>singleAttribute(THIS_ATTRIBUTE_NAME.value()), predicate);
+    }
+
     /**
      * Returns an iterable for iterating entries in the all of the partitions. If
      * {@code prefetchValues} is {@code true}, values will be sent along with
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.ColumnAggregator;
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.LazyMapEntry;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.ColumnBatch;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.ColumnPredicate;
+
+import java.util.Arrays;
+
+/**
+ * Columnar evaluation of an aggregation on a full scan of a partition, see
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_COLUMNAR_SCAN_ENABLED}.
+ * <p>
+ * The scanned entries are added to a {@link ColumnBatch}. Once the batch is
+ * full, the predicate is evaluated on its columns and the selected values
+ * are accumulated by the aggregator. Entries which can't be added to the
+ * batch are left to the caller to be processed entry by entry, all entries
+ * of a batch the predicate or the aggregator can't be evaluated on are
+ * processed entry by entry when the batch is flushed.
+ */
+final class ColumnarPartitionScan {
+
+    private final ColumnBatch batch = new ColumnBatch();
+    private final long[] selection = new long[ColumnBatch.SELECTION_LENGTH];
+    private final Data[] keys = new Data[ColumnBatch.CAPACITY];
+    private final Object[] values = new Object[ColumnBatch.CAPACITY];
+    private final Record[] records = new Record[ColumnBatch.CAPACITY];
+    private final LazyMapEntry entry = new LazyMapEntry();
+
+    private final Predicate predicate;
+    private final AggregationResult result;
+    private final InternalSerializationService ss;
+    private final Extractors extractors;
+    private final RecordStore recordStore;
+
+    private ColumnPredicate columnPredicate;
+    private ColumnAggregator aggregator;
+    private int aggregatorColumn;
+
+    private ColumnarPartitionScan(Predicate predicate, AggregationResult result, InternalSerializationService ss,
+                                  Extractors extractors, RecordStore recordStore) {
+        this.predicate = predicate;
+        this.result = result;
+        this.ss = ss;
+        this.extractors = extractors;
+        this.recordStore = recordStore;
+    }
+
+    /**
+     * @return the columnar scan evaluating the given predicate and
+     * accumulating the matching entries to the given result, {@code null}
+     * if the predicate or the result can't be evaluated on columns
+     */
+    static ColumnarPartitionScan of(Predicate predicate, Result result, InternalSerializationService ss,
+                                    Extractors extractors, RecordStore recordStore) {
+        if (!(result instanceof AggregationResult)) {
+            return null;
+        }
+        AggregationResult aggregationResult = (AggregationResult) result;
+        Aggregator aggregator = aggregationResult.getAggregator();
+        if (!(aggregator instanceof ColumnAggregator)) {
+            return null;
+        }
+
+        ColumnarPartitionScan scan = new ColumnarPartitionScan(predicate, aggregationResult, ss, extractors, recordStore);
+        scan.columnPredicate = ColumnPredicate.compile(predicate, scan.batch);
+        if (scan.columnPredicate == null) {
+            return null;
+        }
+        scan.aggregator = (ColumnAggregator) aggregator;
+        String attributePath = scan.aggregator.getAttributePath();
+        if (attributePath != null) {
+            scan.aggregatorColumn = scan.batch.addColumn(attributePath);
+        } else if (aggregator instanceof CountAggregator) {
+            scan.aggregatorColumn = -1;
+        } else {
+            // the entry values themselves are accumulated
+            return null;
+        }
+        return scan;
+    }
+
+    /**
+     * Adds the given entry to the current batch.
+     *
+     * @param key       the key of the entry
+     * @param value     the value of the entry
+     * @param record    the record of the entry
+     * @param queryEntry the entry initialized with the given key, value and
+     *                   record its attributes are extracted from
+     * @return {@code true} if the entry was added, {@code false} if the
+     * caller has to process the entry
+     */
+    boolean add(Data key, Object value, Record record, LazyMapEntry queryEntry) {
+        if (!batch.add(queryEntry)) {
+            return false;
+        }
+        int row = batch.size() - 1;
+        keys[row] = key;
+        values[row] = value;
+        records[row] = record;
+        if (batch.isFull()) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the entries of the current batch.
+     */
+    void flush() {
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+
+        if (columnPredicate.bind(batch)
+                && (aggregatorColumn < 0 || aggregator.canAccumulateColumn(batch.getColumnClass(aggregatorColumn)))) {
+            columnPredicate.evaluate(batch, selection);
+            aggregator.accumulateColumn(batch, aggregatorColumn, selection);
+        } else {
+            for (int row = 0; row < size; row++) {
+                entry.init(ss, keys[row], values[row], extractors);
+                entry.setRecord(records[row]);
+                entry.setMetadata(recordStore.getOrCreateMetadataStore().get(keys[row]));
+                if (predicate.apply(entry)) {
+                    result.add(entry);
+                }
+            }
+        }
+
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(records, 0, size, null);
+        batch.clear();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.internal.util.executor.ManagedExecutorService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntriesSegment;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.util.FutureUtil.RETHROW_EVERYTHING;
+import static com.hazelcast.internal.util.FutureUtil.returnWithDeadline;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Implementation of the {@link PartitionScanExecutor} which scans the partitions
+ * of aggregations fork-join style. The calling thread and up to {@code
+ * parallelism - 1} tasks submitted to the underlying executor claim the
+ * partitions one by one, so the threads finishing early take over the
+ * remaining partitions. Each thread accumulates all partitions it scans into
+ * its own sub-result and the sub-results are combined once all partitions
+ * are scanned, so the aggregator is cloned and combined once per thread
+ * instead of once per partition.
+ * <p>
+ * The scans of other results are delegated.
+ */
+public class ForkJoinPartitionScanExecutor implements PartitionScanExecutor {
+
+    private final PartitionScanExecutor delegate;
+    private final PartitionScanRunner partitionScanRunner;
+    private final ManagedExecutorService executor;
+    private final int partitionCount;
+    private final int parallelism;
+    private final int timeoutInMillis;
+
+    public ForkJoinPartitionScanExecutor(PartitionScanExecutor delegate, PartitionScanRunner partitionScanRunner,
+                                         ManagedExecutorService executor, int partitionCount, int parallelism,
+                                         int timeoutInMillis) {
+        this.delegate = delegate;
+        this.partitionScanRunner = partitionScanRunner;
+        this.executor = executor;
+        this.partitionCount = partitionCount;
+        this.parallelism = parallelism;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(String mapName, Predicate predicate, Collection<Integer> partitions, Result result) {
+        if (!(result instanceof AggregationResult) || parallelism < 2 || partitions.size() < 2) {
+            delegate.execute(mapName, predicate, partitions, result);
+            return;
+        }
+
+        ScanTask task = new ScanTask(mapName, predicate, partitions, result);
+        int forkCount = Math.min(parallelism, partitions.size()) - 1;
+        List<Fork> forks = new ArrayList<>(forkCount);
+        Result callerResult;
+        try {
+            for (int i = 0; i < forkCount; i++) {
+                Fork fork = new Fork(task);
+                try {
+                    fork.future = executor.submit(fork);
+                } catch (RejectedExecutionException e) {
+                    // the partitions are left to the threads already scanning
+                    break;
+                }
+                forks.add(fork);
+            }
+            callerResult = task.call();
+        } finally {
+            // the forks which didn't start yet have nothing left to scan,
+            // the ones already running may still hold a sub-result
+            forks.removeIf(Fork::preventStart);
+        }
+
+        List<Future<Result>> futures = new ArrayList<>(forks.size());
+        for (Fork fork : forks) {
+            futures.add(fork.future);
+        }
+        Collection<Result> forkResults = returnWithDeadline(futures, timeoutInMillis, MILLISECONDS, RETHROW_EVERYTHING);
+        if (callerResult != null) {
+            result.combine(callerResult);
+        }
+        for (Result forkResult : forkResults) {
+            if (forkResult != null) {
+                result.combine(forkResult);
+            }
+        }
+    }
+
+    @Override
+    public QueryableEntriesSegment execute(String mapName, Predicate predicate, int partitionId,
+                                           IterationPointer[] pointers, int fetchSize) {
+        return delegate.execute(mapName, predicate, partitionId, pointers, fetchSize);
+    }
+
+    /**
+     * Runs the shared {@link ScanTask} on a thread of the executor, unless
+     * the calling thread prevented the start of the fork after it ran out
+     * of partitions to scan.
+     */
+    private static final class Fork implements Callable<Result> {
+
+        private final ScanTask task;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private Future<Result> future;
+
+        private Fork(ScanTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public Result call() {
+            return started.compareAndSet(false, true) ? task.call() : null;
+        }
+
+        /**
+         * @return {@code true} if the fork did not start and never will,
+         * {@code false} if it is running or already completed
+         */
+        boolean preventStart() {
+            if (started.compareAndSet(false, true)) {
+                future.cancel(false);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Scans the partitions not claimed by other threads yet into a new
+     * sub-result, shared by the calling thread and the forks.
+     */
+    private final class ScanTask implements Callable<Result> {
+
+        private final String mapName;
+        private final Predicate predicate;
+        private final int[] partitionIds;
+        private final Result result;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+
+        private ScanTask(String mapName, Predicate predicate, Collection<Integer> partitions, Result result) {
+            this.mapName = mapName;
+            this.predicate = predicate;
+            this.result = result;
+            this.partitionIds = new int[partitions.size()];
+            int i = 0;
+            for (Integer partitionId : partitions) {
+                partitionIds[i++] = partitionId;
+            }
+        }
+
+        /**
+         * @return the sub-result of the partitions scanned by the current
+         * thread, {@code null} if all partitions were claimed by other threads
+         */
+        @Override
+        public Result call() {
+            Result subResult = null;
+            PartitionIdSet scannedPartitions = null;
+            RetryableHazelcastException storedException = null;
+            for (int i = nextPartition.getAndIncrement(); i < partitionIds.length; i = nextPartition.getAndIncrement()) {
+                if (subResult == null) {
+                    subResult = result.createSubResult();
+                    scannedPartitions = new PartitionIdSet(partitionCount);
+                }
+                try {
+                    partitionScanRunner.run(mapName, predicate, partitionIds[i], subResult);
+                } catch (RetryableHazelcastException e) {
+                    // stored and re-thrown once all partitions are scanned, as
+                    // in CallerRunsPartitionScanExecutor
+                    if (storedException == null) {
+                        storedException = e;
+                    }
+                }
+                scannedPartitions.add(partitionIds[i]);
+            }
+            if (storedException != null) {
+                throw storedException;
+            }
+            if (subResult != null) {
+                subResult.setPartitionIds(scannedPartitions);
+            }
+            return subResult;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.query;
 
 import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.RuntimeAvailableProcessors;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.internal.util.executor.ManagedExecutorService;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -34,22 +35,30 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Implementation of the {@link AccumulationExecutor} that runs the accumulation in a multi-threaded way.
- * Entries are split into chunks and each chunk is sent as a task to the underlying executor.
- * At the end the result is merged to a single AggregationResult.
+ * Entries are split into a chunk per thread, the first chunk is accumulated by the calling thread and
+ * each other chunk is sent as a task to the underlying executor. Every chunk is accumulated by its own
+ * clone of the aggregator. At the end the result is merged to a single AggregationResult.
  */
 public class ParallelAccumulationExecutor implements AccumulationExecutor {
 
-    private static final int THREAD_SPLIT_COUNT = 8;
+    /**
+     * The minimum number of entries accumulated by a single thread, smaller
+     * chunks don't pay off the cloning and combining of their aggregators.
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
 
     private final ManagedExecutorService executor;
     private final SerializationService serializationService;
     private final int callTimeoutInMillis;
+    private final int parallelism;
 
     public ParallelAccumulationExecutor(ManagedExecutorService executor, SerializationService serializationService,
                                         int callTimeoutInMillis) {
         this.executor = executor;
         this.serializationService = serializationService;
         this.callTimeoutInMillis = callTimeoutInMillis;
+        // the calling thread accumulates a chunk as well
+        this.parallelism = Math.min(RuntimeAvailableProcessors.get(), executor.getMaximumPoolSize() + 1);
     }
 
     @Override
@@ -74,22 +83,27 @@ public class ParallelAccumulationExecutor implements AccumulationExecutor {
     }
 
     protected Collection<Aggregator> accumulateParallel(Aggregator aggregator, Iterable<QueryableEntry> entries) {
-        Collection<Future<Aggregator>> futures = new ArrayList<>();
-
-        List<QueryableEntry> buffer = new ArrayList<>();
+        List<QueryableEntry> entryList = new ArrayList<>();
         for (QueryableEntry entry : entries) {
-            buffer.add(entry);
-            if (buffer.size() == THREAD_SPLIT_COUNT) {
-                futures.add(executor.submit(new AccumulatePartitionCallable(clone(aggregator), buffer)));
-                buffer = new ArrayList<>();
-            }
+            entryList.add(entry);
         }
 
-        if (!buffer.isEmpty()) {
-            futures.add(executor.submit(new AccumulatePartitionCallable(clone(aggregator), buffer)));
+        int size = entryList.size();
+        int chunkCount = Math.max(1, Math.min(parallelism, (size + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE));
+        int chunkSize = (size + chunkCount - 1) / chunkCount;
+        Collection<Future<Aggregator>> futures = new ArrayList<>(chunkCount - 1);
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            List<QueryableEntry> chunkEntries = entryList.subList(chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize));
+            futures.add(executor.submit(new AccumulatePartitionCallable(clone(aggregator), chunkEntries)));
         }
 
-        return returnWithDeadline(futures, callTimeoutInMillis, MILLISECONDS, RETHROW_EVERYTHING);
+        List<QueryableEntry> callerEntries = entryList.subList(0, Math.min(size, chunkSize));
+        Aggregator callerAggregator = new AccumulatePartitionCallable(clone(aggregator), callerEntries).call();
+
+        Collection<Aggregator> chunkAggregators = new ArrayList<>(chunkCount);
+        chunkAggregators.add(callerAggregator);
+        chunkAggregators.addAll(returnWithDeadline(futures, callTimeoutInMillis, MILLISECONDS, RETHROW_EVERYTHING));
+        return chunkAggregators;
     }
 
     private Aggregator clone(Aggregator aggregator) {
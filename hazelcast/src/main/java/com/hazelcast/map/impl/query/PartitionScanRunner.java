@@ -22,6 +22,7 @@ import com.hazelcast.internal.iteration.IterationPointer;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.collection.TopNCollector;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.LazyMapEntry;
 import com.hazelcast.map.impl.MapContainer;
@@ -46,8 +47,11 @@ import java.util.Map.Entry;
 import java.util.function.BiConsumer;
 
 import static com.hazelcast.internal.util.SortingUtil.compareAnchor;
+import static com.hazelcast.internal.util.SortingUtil.getPageLimit;
+import static com.hazelcast.internal.util.SortingUtil.newComparator;
 import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
 import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_COLUMNAR_SCAN_ENABLED;
 
 /**
  * Responsible for running a full-partition scan for a single partition in the calling thread.
@@ -61,6 +65,7 @@ public class PartitionScanRunner {
     protected final IPartitionService partitionService;
     protected final OperationService operationService;
     protected final ClusterService clusterService;
+    protected final boolean columnarScanEnabled;
 
     public PartitionScanRunner(MapServiceContext mapServiceContext) {
         this.mapServiceContext = mapServiceContext;
@@ -70,9 +75,10 @@ public class PartitionScanRunner {
         this.logger = nodeEngine.getLogger(getClass());
         this.operationService = nodeEngine.getOperationService();
         this.clusterService = nodeEngine.getClusterService();
+        this.columnarScanEnabled = nodeEngine.getProperties().getBoolean(QUERY_COLUMNAR_SCAN_ENABLED);
     }
 
-    @SuppressWarnings("unchecked")
+    @SuppressWarnings({"unchecked", "checkstyle:anoninnerlength"})
     public void run(String mapName, Predicate predicate, int partitionId, Result result) {
         PagingPredicateImpl pagingPredicate = predicate instanceof PagingPredicateImpl
                 ? (PagingPredicateImpl) predicate : null;
@@ -85,6 +91,12 @@ public class PartitionScanRunner {
         Extractors extractors = mapServiceContext.getExtractors(mapName);
         Map.Entry<Integer, Map.Entry> nearestAnchorEntry =
                 pagingPredicate == null ? null : pagingPredicate.getNearestAnchorEntry();
+        ColumnarPartitionScan columnarScan = columnarScanEnabled && pagingPredicate == null && !nativeMemory
+                ? ColumnarPartitionScan.of(predicate, result, ss, extractors, recordStore) : null;
+        // only the entries of the requested page and of the pages preceding
+        // it up to the nearest anchor are needed from a partition
+        TopNCollector<QueryableEntry> pageCollector = pagingPredicate == null ? null
+                : new TopNCollector<>(newComparator(pagingPredicate), getPageLimit(pagingPredicate, nearestAnchorEntry));
 
         recordStore.forEachAfterLoad(new BiConsumer<Data, Record>() {
             LazyMapEntry queryEntry = new LazyMapEntry();
@@ -101,12 +113,22 @@ public class PartitionScanRunner {
                 queryEntry.setRecord(record);
                 queryEntry.setMetadata(recordStore.getOrCreateMetadataStore().get(key));
 
+                if (columnarScan != null && columnarScan.add(key, value, record, queryEntry)) {
+                    return;
+                }
+
                 if (predicate.apply(queryEntry)
-                        && compareAnchor(pagingPredicate, queryEntry, nearestAnchorEntry)) {
+                        && compareAnchor(pagingPredicate, queryEntry, nearestAnchorEntry)
+                        && (pageCollector == null || pageCollector.isCandidate(queryEntry))) {
 
                     // always copy key&value to heap if map is backed by native memory
                     value = nativeMemory ? toHeapData((Data) value) : value;
-                    result.add(queryEntry.init(ss, toHeapData(key), value, extractors));
+                    queryEntry.init(ss, toHeapData(key), value, extractors);
+                    if (pageCollector == null) {
+                        result.add(queryEntry);
+                    } else {
+                        pageCollector.add(queryEntry);
+                    }
 
                     // We can't reuse the existing entry after it was added to the
                     // result. Allocate the new one.
@@ -114,6 +136,14 @@ public class PartitionScanRunner {
                 }
             }
         }, false);
+        if (columnarScan != null) {
+            columnarScan.flush();
+        }
+        if (pageCollector != null) {
+            for (QueryableEntry entry : pageCollector.toSortedList()) {
+                result.add(entry);
+            }
+        }
         result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
     }
 
@@ -16,7 +16,6 @@
 
 package com.hazelcast.map.impl.query;
 
-import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.map.impl.MapContainer;
@@ -63,11 +62,6 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
         this.query = query;
     }
 
-    private InMemoryFormat getMapInMemoryFormat() {
-        MapContainer mapContainer = getMapServiceContext().getMapContainer(name);
-        return mapContainer.getMapConfig().getInMemoryFormat();
-    }
-
     private MapServiceContext getMapServiceContext() {
         MapService mapService = getService();
         return mapService.getMapServiceContext();
@@ -83,41 +77,52 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
     private CallStatus callInternal() {
         QueryRunner queryRunner = getMapServiceContext().getMapQueryRunner(getName());
 
-        switch (getMapInMemoryFormat()) {
+        MapContainer mapContainer = getMapServiceContext().getMapContainer(getName());
+        switch (mapContainer.getMapConfig().getInMemoryFormat()) {
             case BINARY:
+                if (mapContainer.isOffHeapStorageEnabled()) {
+                    // off-heap storage frees entry blocks on the partition
+                    // threads, so it must not be scanned from this thread
+                    return runOnPartitionThreads(queryRunner, mapContainer);
+                }
+                result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query);
+                return RESPONSE;
             case OBJECT:
                 result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query);
                 return RESPONSE;
             case NATIVE:
-                boolean useGlobalIndex = getMapServiceContext().getMapContainer(getName()).shouldUseGlobalIndex();
-
-                if (useGlobalIndex) {
-                    // Try to use HD global index
-                    // Don't do map scan because it is not thread-safe
-                    Result indexResult = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query, false);
-                    if (indexResult != null) {
-                        result = indexResult;
-                        return RESPONSE;
-                    }
-                }
-
-                // Offload query run on the partition threads.
-                BitSet queryPartitions = localPartitions();
-                if (query.getPartitionIdSet() != null) {
-                    queryPartitions.and(query.getPartitionIdSet().bitSetCopy());
-                }
-                if (queryPartitions.cardinality() == 0) {
-                    // important to deal with situation of not having any partitions
-                    result = queryRunner.populateEmptyResult(query, Collections.emptyList());
-                    return RESPONSE;
-                } else {
-                    return new OffloadedImpl(queryRunner, queryPartitions);
-                }
+                return runOnPartitionThreads(queryRunner, mapContainer);
             default:
                 throw new IllegalArgumentException("Unsupported in memory format");
         }
     }
 
+    @Nonnull
+    private CallStatus runOnPartitionThreads(QueryRunner queryRunner, MapContainer mapContainer) {
+        if (mapContainer.shouldUseGlobalIndex()) {
+            // Try to use the global index
+            // Don't do map scan because it is not thread-safe
+            Result indexResult = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query, false);
+            if (indexResult != null) {
+                result = indexResult;
+                return RESPONSE;
+            }
+        }
+
+        // Offload query run on the partition threads.
+        BitSet queryPartitions = localPartitions();
+        if (query.getPartitionIdSet() != null) {
+            queryPartitions.and(query.getPartitionIdSet().bitSetCopy());
+        }
+        if (queryPartitions.cardinality() == 0) {
+            // important to deal with situation of not having any partitions
+            result = queryRunner.populateEmptyResult(query, Collections.emptyList());
+            return RESPONSE;
+        } else {
+            return new OffloadedImpl(queryRunner, queryPartitions);
+        }
+    }
+
     private int partitionCount() {
         return getNodeEngine().getPartitionService().getPartitionCount();
     }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+
+/**
+ * Caches the results of the queries run on the partitions owned by this
+ * member, for a single map.
+ * <p>
+ * Every partition has a version which is incremented on every mutation of
+ * the partition by the
+ * {@link com.hazelcast.map.impl.recordstore.QueryResultCacheMutationObserver}. A cached
+ * result remembers the versions of the partitions it was computed on and
+ * is served only while none of them changed, otherwise it is dropped on
+ * the next lookup. The versions are read before the query runs, so a
+ * mutation racing with the query only makes the result stale, it never
+ * gets served as up to date.
+ * <p>
+ * The cached results are shared between the callers, they must not be
+ * mutated.
+ */
+public final class QueryResultCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final AtomicLongFieldUpdater<QueryResultCache> HITS =
+            AtomicLongFieldUpdater.newUpdater(QueryResultCache.class, "hits");
+    private static final AtomicLongFieldUpdater<QueryResultCache> MISSES =
+            AtomicLongFieldUpdater.newUpdater(QueryResultCache.class, "misses");
+    private static final AtomicLongFieldUpdater<QueryResultCache> INVALIDATIONS =
+            AtomicLongFieldUpdater.newUpdater(QueryResultCache.class, "invalidations");
+
+    private final SerializationService serializationService;
+    private final AtomicLongArray partitionVersions;
+    private final Map<Key, CachedResult> results;
+
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long invalidations;
+
+    public QueryResultCache(SerializationService serializationService, int partitionCount, int maxEntries) {
+        checkPositive("maxEntries", maxEntries);
+        this.serializationService = serializationService;
+        this.partitionVersions = new AtomicLongArray(partitionCount);
+        this.results = new LinkedHashMap<Key, CachedResult>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Creates the key under which the result of the given query is cached.
+     *
+     * @return the key or {@code null} if the result of the query can't be
+     * cached: aggregations are not cached and neither are the queries whose
+     * predicate or projection is not serializable.
+     */
+    public Object createKey(Query query) {
+        if (query.isAggregationQuery()) {
+            return null;
+        }
+        try {
+            Data predicate = serializationService.toData(query.getPredicate());
+            Data projection = serializationService.toData(query.getProjection());
+            return new Key(predicate, projection, query.getIterationType());
+        } catch (HazelcastSerializationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cached result of the query with the given key run on the
+     * given partitions, if none of the partitions was mutated since the
+     * result was cached.
+     *
+     * @param key        the key created by {@link #createKey(Query)}
+     * @param partitions the partitions to be queried
+     * @return the cached result or {@code null} if there is none
+     */
+    public Result get(Object key, PartitionIdSet partitions) {
+        CachedResult cached;
+        synchronized (results) {
+            cached = results.get(key);
+        }
+
+        if (cached == null || !cached.partitions.equals(partitions)) {
+            MISSES.incrementAndGet(this);
+            return null;
+        }
+
+        if (!isUpToDate(cached)) {
+            synchronized (results) {
+                results.remove(key, cached);
+            }
+            INVALIDATIONS.incrementAndGet(this);
+            MISSES.incrementAndGet(this);
+            return null;
+        }
+
+        HITS.incrementAndGet(this);
+        return cached.result;
+    }
+
+    /**
+     * Reads the current versions of the given partitions. The versions must
+     * be read before the query runs and passed to {@link #put} with its
+     * result.
+     */
+    public long[] readVersions(PartitionIdSet partitions) {
+        long[] versions = new long[partitions.size()];
+        int i = 0;
+        for (PrimitiveIterator.OfInt it = partitions.intIterator(); it.hasNext(); ) {
+            versions[i++] = partitionVersions.get(it.nextInt());
+        }
+        return versions;
+    }
+
+    /**
+     * Caches the result of the query with the given key.
+     *
+     * @param key        the key created by {@link #createKey(Query)}
+     * @param partitions the queried partitions
+     * @param versions   the versions of the partitions read before the
+     *                   query was run
+     * @param result     the result of the query
+     */
+    public void put(Object key, PartitionIdSet partitions, long[] versions, Result result) {
+        CachedResult cached = new CachedResult(partitions.copy(), versions, result);
+        if (!isUpToDate(cached)) {
+            // mutated while the query was running
+            return;
+        }
+        synchronized (results) {
+            results.put((Key) key, cached);
+        }
+    }
+
+    /**
+     * Invalidates the cached results computed on the given partition.
+     */
+    public void onMutation(int partitionId) {
+        partitionVersions.incrementAndGet(partitionId);
+    }
+
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of cached results found stale on lookup.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    private boolean isUpToDate(CachedResult cached) {
+        long[] versions = cached.versions;
+        int i = 0;
+        for (PrimitiveIterator.OfInt it = cached.partitions.intIterator(); it.hasNext(); ) {
+            if (partitionVersions.get(it.nextInt()) != versions[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class CachedResult {
+
+        private final PartitionIdSet partitions;
+        private final long[] versions;
+        private final Result result;
+
+        CachedResult(PartitionIdSet partitions, long[] versions, Result result) {
+            this.partitions = partitions;
+            this.versions = versions;
+            this.result = result;
+        }
+    }
+
+    private static final class Key {
+
+        private final Data predicate;
+        private final Data projection;
+        private final IterationType iterationType;
+
+        Key(Data predicate, Data projection, IterationType iterationType) {
+            this.predicate = predicate;
+            this.projection = projection;
+            this.iterationType = iterationType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return predicate.equals(key.predicate)
+                    && (projection != null ? projection.equals(key.projection) : key.projection == null)
+                    && iterationType == key.iterationType;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = predicate.hashCode();
+            result = 31 * result + (projection != null ? projection.hashCode() : 0);
+            result = 31 * result + (iterationType != null ? iterationType.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.LocalMapStatsProvider;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntriesSegment;
@@ -35,6 +36,7 @@ import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.OperationService;
 
 import java.util.Collection;
+import java.util.PrimitiveIterator;
 
 import static com.hazelcast.internal.util.SetUtil.singletonPartitionIdSet;
 
@@ -120,6 +122,7 @@ public class QueryRunner {
      * @return the query result. {@code null} if the {@code doPartitionScan} is set and the execution on the
      * global index failed.
      */
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
     public Result runIndexOrPartitionScanQueryOnOwnedPartitions(Query query, boolean doPartitionScan) {
         int migrationStamp = getMigrationStamp();
         PartitionIdSet initialPartitions = mapServiceContext.getOrInitCachedMemberPartitions();
@@ -129,6 +132,17 @@ public class QueryRunner {
 
         MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
 
+        QueryResultCache queryResultCache = getQueryResultCache(mapContainer, actualPartitions);
+        Object cacheKey = queryResultCache != null ? queryResultCache.createKey(query) : null;
+        long[] partitionVersions = null;
+        if (cacheKey != null) {
+            Result cachedResult = queryResultCache.get(cacheKey, actualPartitions);
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+            partitionVersions = queryResultCache.readVersions(actualPartitions);
+        }
+
         // to optimize the query we need to get any index instance
         Indexes indexes = mapContainer.getIndexes();
         if (indexes == null) {
@@ -166,9 +180,33 @@ public class QueryRunner {
             result = populateNonEmptyResult(query, entries, actualPartitions);
         }
 
+        if (cacheKey != null && result instanceof QueryResult && result.getPartitionIds() != null
+                && validateMigrationStamp(migrationStamp)) {
+            queryResultCache.put(cacheKey, actualPartitions, partitionVersions, result);
+        }
         return result;
     }
 
+    /**
+     * Returns the query result cache of the given map if the results of the
+     * given partitions can be cached. Results of partitions with expirable
+     * entries are never cached, since the expired entries disappear from
+     * the results without any mutation of the partitions.
+     */
+    private QueryResultCache getQueryResultCache(MapContainer mapContainer, PartitionIdSet partitions) {
+        QueryResultCache queryResultCache = mapContainer.getQueryResultCache();
+        if (queryResultCache == null) {
+            return null;
+        }
+        for (PrimitiveIterator.OfInt it = partitions.intIterator(); it.hasNext(); ) {
+            RecordStore recordStore = mapServiceContext.getExistingRecordStore(it.nextInt(), mapContainer.getName());
+            if (recordStore != null && recordStore.isExpirable()) {
+                return null;
+            }
+        }
+        return queryResultCache;
+    }
+
     /**
      * Performs the given query using indexes.
      * <p>
@@ -20,18 +20,20 @@ import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.query.impl.Indexes;
 
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 
 public class DataRecordFactory implements RecordFactory<Data> {
 
     private final MapContainer mapContainer;
-    private final SerializationService ss;
+    private final InternalSerializationService ss;
 
     public DataRecordFactory(MapContainer mapContainer, SerializationService ss) {
-        this.ss = ss;
+        this.ss = (InternalSerializationService) ss;
         this.mapContainer = mapContainer;
     }
 
@@ -42,16 +44,36 @@ public class DataRecordFactory implements RecordFactory<Data> {
         CacheDeserializedValues cacheDeserializedValues = mapConfig.getCacheDeserializedValues();
         boolean hasEviction = mapContainer.getEvictor() != NULL_EVICTOR;
 
-        Data valueData = ss.toData(value);
+        Data valueData = ss.toStoredData(ss.toData(value));
 
         switch (cacheDeserializedValues) {
             case NEVER:
                 return newSimpleRecord(valueData, mapConfig, perEntryStatsEnabled, hasEviction);
+            case INDEX_ONLY:
+                if (!hasIndexes()) {
+                    return newSimpleRecord(valueData, mapConfig, perEntryStatsEnabled, hasEviction);
+                }
+                return newCachedSimpleRecord(valueData, mapConfig, perEntryStatsEnabled, hasEviction);
             default:
                 return newCachedSimpleRecord(valueData, mapConfig, perEntryStatsEnabled, hasEviction);
         }
     }
 
+    /**
+     * With {@link CacheDeserializedValues#INDEX_ONLY} the cached value
+     * is only ever populated by index updates, so records of a map without
+     * indexes can omit the cached-value field altogether. Records created
+     * before an index is added are still queryable, their values are then
+     * deserialized on each access.
+     * <p>
+     * On-heap maps always use global indexes, so a missing global
+     * {@link Indexes} instance means there is nothing to cache for.
+     */
+    private boolean hasIndexes() {
+        Indexes indexes = mapContainer.getIndexes();
+        return indexes != null && indexes.haveAtLeastOneIndexOrDefinition();
+    }
+
     @Override
     public MapContainer geMapContainer() {
         return mapContainer;
@@ -64,7 +86,8 @@ public class DataRecordFactory implements RecordFactory<Data> {
         }
 
         if (hasEviction) {
-            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU) {
+            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU
+                    || mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.TINY_LFU) {
                 return new CachedSimpleRecordWithLRUEviction(valueData);
             }
 
@@ -89,7 +112,8 @@ public class DataRecordFactory implements RecordFactory<Data> {
         }
 
         if (hasEviction) {
-            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU) {
+            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU
+                    || mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.TINY_LFU) {
                 return new SimpleRecordWithLRUEviction<>(valueData);
             }
 
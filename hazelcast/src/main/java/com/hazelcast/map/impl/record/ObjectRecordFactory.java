@@ -60,7 +60,8 @@ public class ObjectRecordFactory implements RecordFactory<Object> {
         }
 
         if (hasEviction) {
-            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU) {
+            if (mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.LRU
+                    || mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.TINY_LFU) {
                 return new SimpleRecordWithLRUEviction<>(objectValue);
             }
 
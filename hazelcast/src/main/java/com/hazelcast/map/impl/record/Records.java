@@ -224,11 +224,12 @@ public final class Records {
     }
 
     static boolean shouldCache(Object value) {
-        // For portables, we cannot extract information from the deserialized form.
+        // For portables and compact objects, we read the fields from the serialized form.
         // For HazelcastJsonValue objects, if we pass the instanceof Data check, that
         // means the metadata is created from the Data representation of the object.
         // If we allow using the deserialized values, the metadata might not be safe to use.
-        return value instanceof Data && !((Data) value).isPortable() && !((Data) value).isJson();
+        return value instanceof Data && !((Data) value).isPortable() && !((Data) value).isCompact()
+                && !((Data) value).isJson();
     }
 
 
@@ -167,6 +167,7 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
     @Override
     public void accessRecord(Data dataKey, Record record, long now) {
         record.onAccess(now);
+        mapContainer.getEvictor().recordAccess(dataKey);
         updateStatsOnGet(now);
         expirySystem.extendExpiryTime(dataKey, now);
     }
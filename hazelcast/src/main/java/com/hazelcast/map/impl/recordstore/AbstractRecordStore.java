@@ -29,13 +29,16 @@ import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.internal.util.comparators.ValueComparator;
 import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.JsonBinaryMetadataInitializer;
 import com.hazelcast.map.impl.JsonMetadataInitializer;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.MapStoreWrapper;
+import com.hazelcast.map.impl.MetadataInitializer;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
+import com.hazelcast.map.impl.query.QueryResultCache;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.RecordReaderWriter;
@@ -45,6 +48,10 @@ import com.hazelcast.wan.impl.CallerProvenance;
 
 import javax.annotation.Nonnull;
 
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_JSON_BINARY_METADATA_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_PRIMITIVE_KEY_STORAGE_ENABLED;
+
 /**
  * Contains record store common parts.
  */
@@ -99,8 +106,17 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
         // Add observer for json metadata
         if (mapContainer.getMapConfig().getMetadataPolicy() == MetadataPolicy.CREATE_ON_UPDATE) {
+            MetadataInitializer metadataInitializer
+                    = mapServiceContext.getNodeEngine().getProperties().getBoolean(QUERY_JSON_BINARY_METADATA_ENABLED)
+                    ? JsonBinaryMetadataInitializer.INSTANCE : JsonMetadataInitializer.INSTANCE;
             mutationObserver.add(new JsonMetadataMutationObserver(serializationService,
-                    JsonMetadataInitializer.INSTANCE, getOrCreateMetadataStore()));
+                    metadataInitializer, getOrCreateMetadataStore()));
+        }
+
+        // Add observer for query result cache
+        QueryResultCache queryResultCache = mapContainer.getQueryResultCache();
+        if (queryResultCache != null) {
+            mutationObserver.add(new QueryResultCacheMutationObserver(queryResultCache, partitionId));
         }
 
         // Add observer for indexing
@@ -166,6 +182,12 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (memoryFormat == BINARY && mapContainer.isOffHeapStorageEnabled()) {
+            return new OffHeapStorage(getExpirySystem(), serializationService);
+        }
+        if (mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_PRIMITIVE_KEY_STORAGE_ENABLED)) {
+            return new PrimitiveKeyStorage(memoryFormat, getExpirySystem(), serializationService);
+        }
         return new StorageImpl(memoryFormat, getExpirySystem(), serializationService);
     }
 
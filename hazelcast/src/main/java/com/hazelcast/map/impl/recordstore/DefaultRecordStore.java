@@ -912,6 +912,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             putIntoMapStore(record, key, newValue, ttl, maxIdle, now, transactionId);
         }
         storage.put(key, record);
+        mapContainer.getEvictor().recordAccess(key);
         expirySystem.addKeyIfExpirable(key, ttl, maxIdle, expiryTime, now);
 
         if (entryEventType == EntryEventType.LOADED) {
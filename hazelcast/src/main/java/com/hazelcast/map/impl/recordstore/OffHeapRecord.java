@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReaderWriter;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.CREATION_TIME_OFFSET;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.HITS_OFFSET;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.LAST_ACCESS_TIME_OFFSET;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.LAST_STORED_TIME_OFFSET;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.LAST_UPDATE_TIME_OFFSET;
+import static com.hazelcast.map.impl.recordstore.OffHeapStorage.VERSION_OFFSET;
+
+/**
+ * Flyweight {@link Record} over an entry block of an {@link OffHeapStorage}.
+ * <p>
+ * Instances are short-lived views created on each access. They do not
+ * hold any entry state themselves, every getter and setter reads from or
+ * writes through to the off-heap entry block. A view must not be used
+ * after its entry has been removed from the storage.
+ */
+final class OffHeapRecord implements Record<Data> {
+
+    private final OffHeapStorage storage;
+    private final long address;
+
+    OffHeapRecord(OffHeapStorage storage, long address) {
+        this.storage = storage;
+        this.address = address;
+    }
+
+    long address() {
+        return address;
+    }
+
+    @Override
+    public Data getValue() {
+        return storage.readValue(address);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        storage.writeValue(address, value);
+    }
+
+    @Override
+    public long getCost() {
+        return storage.entryCost(address);
+    }
+
+    @Override
+    public int getVersion() {
+        return MEM.getInt(address + VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(int version) {
+        MEM.putInt(address + VERSION_OFFSET, version);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return MEM.getInt(address + HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(int hits) {
+        MEM.putInt(address + HITS_OFFSET, hits);
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return MEM.getInt(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        MEM.putInt(address + CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return MEM.getInt(address + LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        MEM.putInt(address + LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return MEM.getInt(address + LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        MEM.putInt(address + LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return MEM.getInt(address + LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int lastStoredTime) {
+        MEM.putInt(address + LAST_STORED_TIME_OFFSET, lastStoredTime);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OffHeapRecord that = (OffHeapRecord) o;
+        return address == that.address && storage == that.storage;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (address ^ (address >>> Integer.SIZE));
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRecord{"
+                + "address=" + address
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", lastAccessTime=" + getRawLastAccessTime()
+                + ", lastUpdateTime=" + getRawLastUpdateTime()
+                + ", creationTime=" + getRawCreationTime()
+                + '}';
+    }
+}
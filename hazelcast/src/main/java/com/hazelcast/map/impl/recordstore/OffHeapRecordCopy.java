@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReaderWriter;
+
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * On-heap copy of an entry of an {@link OffHeapStorage}.
+ * <p>
+ * Iterators and eviction samples of the storage hand out copies instead
+ * of {@link OffHeapRecord} flyweights, since their records may be kept,
+ * e.g. by query results, after the entry block has been freed or the
+ * storage has been cleared. Changes to a copy are not written back to
+ * the storage.
+ */
+final class OffHeapRecordCopy implements Record<Data> {
+
+    private Data value;
+    private final long cost;
+    private int version;
+    private int hits;
+    private int lastAccessTime;
+    private int lastUpdateTime;
+    private int creationTime;
+    private int lastStoredTime;
+
+    OffHeapRecordCopy(OffHeapRecord record) {
+        this.value = record.getValue();
+        this.cost = record.getCost();
+        this.version = record.getVersion();
+        this.hits = record.getHits();
+        this.lastAccessTime = record.getRawLastAccessTime();
+        this.lastUpdateTime = record.getRawLastUpdateTime();
+        this.creationTime = record.getRawCreationTime();
+        this.lastStoredTime = record.getRawLastStoredTime();
+    }
+
+    @Override
+    public Data getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(Data value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getCost() {
+        return cost;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(lastAccessTime);
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = stripBaseTime(lastAccessTime);
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(lastUpdateTime);
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = stripBaseTime(lastUpdateTime);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(creationTime);
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        this.creationTime = stripBaseTime(creationTime);
+    }
+
+    @Override
+    public int getHits() {
+        return hits;
+    }
+
+    @Override
+    public void setHits(int hits) {
+        this.hits = hits;
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        this.lastStoredTime = stripBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return lastStoredTime;
+    }
+
+    @Override
+    public void setRawLastStoredTime(int lastStoredTime) {
+        this.lastStoredTime = lastStoredTime;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRecordCopy{"
+                + "version=" + version
+                + ", hits=" + hits
+                + ", lastAccessTime=" + lastAccessTime
+                + ", lastUpdateTime=" + lastUpdateTime
+                + ", creationTime=" + creationTime
+                + '}';
+    }
+}
@@ -0,0 +1,717 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.impl.SlabMemoryAllocator;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.HeapMemoryAccessor.ARRAY_BYTE_BASE_OFFSET;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.HashUtil.fastLongMix;
+
+/**
+ * {@link Storage} which lays out keys, values and record metadata in
+ * off-heap memory obtained from a {@link SlabMemoryAllocator}, so that a
+ * stored entry does not retain any object on the Java heap.
+ * <p>
+ * Entries are kept in a chained hash table whose bucket array lives
+ * off-heap as well. Each entry is a single block with the layout below,
+ * directly followed by the key blob. The value blob is stored in a
+ * separate block so that value updates do not move the entry.
+ * <pre>
+ *   0: next entry in bucket (8)   8: key hash (4)     12: key size (4)
+ *  16: value address (8)         24: value size (4)   28: version (4)
+ *  32: hits (4)                  36: last access (4)  40: last update (4)
+ *  44: creation time (4)         48: last stored (4)  52: key blob
+ * </pre>
+ * Times are kept as seconds relative to {@link Record#EPOCH_TIME} exactly
+ * like the on-heap records do. Records handed out by this storage are
+ * {@link OffHeapRecord} flyweights which read and write through to the
+ * entry block; records passed in by the {@link RecordStore} are copied
+ * into a new entry block on {@link #put}. The iterator and the eviction
+ * samples hand out {@link OffHeapRecordCopy on-heap copies} instead,
+ * since their records may outlive the entry block, e.g. in query results.
+ * <p>
+ * The bucket array, and with it the first slab, is only allocated when
+ * the first entry is put, so empty record stores do not reserve any
+ * off-heap memory.
+ * <p>
+ * Only usable with {@link com.hazelcast.config.InMemoryFormat#BINARY}.
+ * Blocks are freed and reused as soon as an entry is removed or its
+ * value is replaced, so apart from {@link #size()} and the footprint
+ * reported by {@link #getEntryCostEstimator()} an instance must only be
+ * accessed by the partition thread owning the record store. Maps using
+ * this storage are flagged by {@link
+ * com.hazelcast.map.impl.MapContainer#isOffHeapStorageEnabled()}, which
+ * makes queries scan their partitions on the partition threads the same
+ * way as {@code NATIVE} maps instead of on query threads.
+ */
+@SuppressWarnings({"checkstyle:methodcount", "rawtypes"})
+public class OffHeapStorage implements Storage<Data, Record> {
+
+    static final int NEXT_OFFSET = 0;
+    static final int HASH_OFFSET = 8;
+    static final int KEY_SIZE_OFFSET = 12;
+    static final int VALUE_ADDRESS_OFFSET = 16;
+    static final int VALUE_SIZE_OFFSET = 24;
+    static final int VERSION_OFFSET = 28;
+    static final int HITS_OFFSET = 32;
+    static final int LAST_ACCESS_TIME_OFFSET = 36;
+    static final int LAST_UPDATE_TIME_OFFSET = 40;
+    static final int CREATION_TIME_OFFSET = 44;
+    static final int LAST_STORED_TIME_OFFSET = 48;
+    static final int KEY_OFFSET = 52;
+
+    private static final int NULL_VALUE_SIZE = -1;
+    private static final int INITIAL_BUCKET_BUFFER_LENGTH = 4;
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final SlabMemoryAllocator malloc;
+    private final ExpirySystem expirySystem;
+    private final SerializationService serializationService;
+
+    private long table;
+    private int capacity;
+    private int resizeThreshold;
+    private volatile int size;
+    // incremented on each removal, lets iterators detect
+    // that a prefetched entry block may have been freed
+    private int removalCount;
+    // incremented when all the memory is released, ends the iterations
+    private int releaseCount;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator = new FootprintEstimator();
+
+    public OffHeapStorage(ExpirySystem expirySystem, SerializationService serializationService) {
+        this(new SlabMemoryAllocator(), expirySystem, serializationService);
+    }
+
+    OffHeapStorage(SlabMemoryAllocator malloc, ExpirySystem expirySystem,
+                   SerializationService serializationService) {
+        this.malloc = malloc;
+        this.expirySystem = expirySystem;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        int hash = key.hashCode();
+        long entry = findEntry(key, hash);
+        if (entry != NULL_ADDRESS) {
+            if (!(record instanceof OffHeapRecord) || ((OffHeapRecord) record).address() != entry) {
+                copyRecord(record, entry);
+            }
+            return;
+        }
+
+        if (table == NULL_ADDRESS) {
+            allocateTable(DEFAULT_INITIAL_CAPACITY);
+        } else if (size >= resizeThreshold) {
+            resize(capacity << 1);
+        }
+        entry = newEntry(key, hash);
+        copyRecord(record, entry);
+        long bucket = bucketAddress(table, capacity, hash);
+        MEM.putLong(entry + NEXT_OFFSET, MEM.getLong(bucket));
+        MEM.putLong(bucket, entry);
+        size++;
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        Data dataValue = serializationService.toData(value);
+        if (record instanceof OffHeapRecord) {
+            writeValue(((OffHeapRecord) record).address(), dataValue);
+            return;
+        }
+
+        // the record store may update a record it did not yet put into
+        // this storage, keep it in sync with the stored entry if there is one
+        record.setValue(dataValue);
+        long entry = findEntry(key, key.hashCode());
+        if (entry != NULL_ADDRESS) {
+            writeValue(entry, dataValue);
+        }
+    }
+
+    @Override
+    public Record get(Data key) {
+        long entry = findEntry(key, key.hashCode());
+        return entry == NULL_ADDRESS ? null : new OffHeapRecord(this, entry);
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("OffHeapStorage#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull Record record) {
+        if (size == 0) {
+            return;
+        }
+        int hash = dataKey.hashCode();
+        long bucket = bucketAddress(table, capacity, hash);
+        long prev = NULL_ADDRESS;
+        long entry = MEM.getLong(bucket);
+        while (entry != NULL_ADDRESS) {
+            long next = MEM.getLong(entry + NEXT_OFFSET);
+            if (keyEquals(entry, dataKey, hash)) {
+                if (prev == NULL_ADDRESS) {
+                    MEM.putLong(bucket, next);
+                } else {
+                    MEM.putLong(prev + NEXT_OFFSET, next);
+                }
+                freeEntry(entry);
+                size--;
+                removalCount++;
+                return;
+            }
+            prev = entry;
+            entry = next;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return findEntry(key, key.hashCode()) != NULL_ADDRESS;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, Record>> mutationTolerantIterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        releaseMemory();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        releaseMemory();
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        int startIndex = ThreadLocalRandomProvider.get().nextInt(capacity);
+        int index = startIndex;
+        do {
+            long entry = MEM.getLong(table + (long) index * LONG_SIZE_IN_BYTES);
+            while (entry != NULL_ADDRESS && samples.size() < sampleCount) {
+                Data key = readKey(entry);
+                samples.add(new LazyEvictableEntryView<>(key, copyRecord(entry),
+                        expirySystem.getExpiredMetadata(key), serializationService));
+                entry = MEM.getLong(entry + NEXT_OFFSET);
+            }
+            index = (index + 1) & (capacity - 1);
+        } while (index != startIndex && samples.size() < sampleCount);
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, entry) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size,
+                (key, entry) -> entries.add(new AbstractMap.SimpleEntry<>(key, readValue(entry))));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    /**
+     * @return number of off-heap bytes currently used by entries and the bucket array
+     */
+    public long getUsedMemory() {
+        return malloc.getUsedMemory();
+    }
+
+    /**
+     * @return number of off-heap bytes reserved from the operating system
+     */
+    public long getCommittedMemory() {
+        return malloc.getCommittedMemory();
+    }
+
+    Data readValue(long entry) {
+        int valueSize = MEM.getInt(entry + VALUE_SIZE_OFFSET);
+        if (valueSize == NULL_VALUE_SIZE) {
+            return null;
+        }
+        byte[] bytes = new byte[valueSize];
+        MEM.copyToByteArray(MEM.getLong(entry + VALUE_ADDRESS_OFFSET), bytes, 0, valueSize);
+        return new HeapData(bytes);
+    }
+
+    void writeValue(long entry, Data value) {
+        long oldAddress = MEM.getLong(entry + VALUE_ADDRESS_OFFSET);
+        int oldSize = MEM.getInt(entry + VALUE_SIZE_OFFSET);
+        if (value == null) {
+            if (oldSize > 0) {
+                malloc.free(oldAddress, oldSize);
+            }
+            MEM.putLong(entry + VALUE_ADDRESS_OFFSET, NULL_ADDRESS);
+            MEM.putInt(entry + VALUE_SIZE_OFFSET, NULL_VALUE_SIZE);
+            return;
+        }
+
+        byte[] bytes = value.toByteArray();
+        int newSize = bytes == null ? 0 : bytes.length;
+        long newAddress = NULL_ADDRESS;
+        if (newSize > 0) {
+            newAddress = oldSize > 0
+                    ? malloc.reallocate(oldAddress, oldSize, newSize)
+                    : malloc.allocate(newSize);
+            MEM.copyFromByteArray(bytes, 0, newAddress, newSize);
+        } else if (oldSize > 0) {
+            malloc.free(oldAddress, oldSize);
+        }
+        MEM.putLong(entry + VALUE_ADDRESS_OFFSET, newAddress);
+        MEM.putInt(entry + VALUE_SIZE_OFFSET, newSize);
+    }
+
+    long entryCost(long entry) {
+        long cost = malloc.blockSizeFor(KEY_OFFSET + MEM.getInt(entry + KEY_SIZE_OFFSET));
+        int valueSize = MEM.getInt(entry + VALUE_SIZE_OFFSET);
+        if (valueSize > 0) {
+            cost += malloc.blockSizeFor(valueSize);
+        }
+        return cost;
+    }
+
+    private Record copyRecord(long entry) {
+        return new OffHeapRecordCopy(new OffHeapRecord(this, entry));
+    }
+
+    /**
+     * All entry blocks are carved out of the allocator's slabs, so it is
+     * enough to release them in bulk. No record handed out by this storage
+     * outlives the operation unless it is a copy, and the running
+     * iterations end, so the released memory is not read anymore.
+     */
+    private void releaseMemory() {
+        malloc.dispose();
+        size = 0;
+        removalCount++;
+        releaseCount++;
+        table = NULL_ADDRESS;
+        capacity = 0;
+        resizeThreshold = 0;
+        entryCostEstimator.reset();
+    }
+
+    private long newEntry(Data key, int hash) {
+        byte[] keyBytes = key.toByteArray();
+        int keySize = keyBytes == null ? 0 : keyBytes.length;
+        long entry = malloc.allocate(KEY_OFFSET + keySize);
+        MEM.putInt(entry + HASH_OFFSET, hash);
+        MEM.putInt(entry + KEY_SIZE_OFFSET, keySize);
+        MEM.putInt(entry + VALUE_SIZE_OFFSET, NULL_VALUE_SIZE);
+        if (keySize > 0) {
+            MEM.copyFromByteArray(keyBytes, 0, entry + KEY_OFFSET, keySize);
+        }
+        return entry;
+    }
+
+    private void copyRecord(Record record, long entry) {
+        Object value = record.getValue();
+        writeValue(entry, value == null ? null : serializationService.toData(value));
+        MEM.putInt(entry + VERSION_OFFSET, record.getVersion());
+        MEM.putInt(entry + HITS_OFFSET, Math.max(record.getHits(), 0));
+        // going through the millisecond getters keeps the semantics of
+        // records which do not track some of the times, they report UNSET
+        MEM.putInt(entry + LAST_ACCESS_TIME_OFFSET, record.stripBaseTime(record.getLastAccessTime()));
+        MEM.putInt(entry + LAST_UPDATE_TIME_OFFSET, record.stripBaseTime(record.getLastUpdateTime()));
+        MEM.putInt(entry + CREATION_TIME_OFFSET, record.stripBaseTime(record.getCreationTime()));
+        MEM.putInt(entry + LAST_STORED_TIME_OFFSET, record.stripBaseTime(record.getLastStoredTime()));
+    }
+
+    private void freeEntry(long entry) {
+        int valueSize = MEM.getInt(entry + VALUE_SIZE_OFFSET);
+        if (valueSize > 0) {
+            malloc.free(MEM.getLong(entry + VALUE_ADDRESS_OFFSET), valueSize);
+        }
+        malloc.free(entry, KEY_OFFSET + MEM.getInt(entry + KEY_SIZE_OFFSET));
+    }
+
+    private long findEntry(Data key, int hash) {
+        if (size == 0) {
+            return NULL_ADDRESS;
+        }
+        long entry = MEM.getLong(bucketAddress(table, capacity, hash));
+        while (entry != NULL_ADDRESS) {
+            if (keyEquals(entry, key, hash)) {
+                return entry;
+            }
+            entry = MEM.getLong(entry + NEXT_OFFSET);
+        }
+        return NULL_ADDRESS;
+    }
+
+    private static boolean keyEquals(long entry, Data key, int hash) {
+        if (MEM.getInt(entry + HASH_OFFSET) != hash) {
+            return false;
+        }
+        byte[] keyBytes = key.toByteArray();
+        int keySize = keyBytes == null ? 0 : keyBytes.length;
+        if (MEM.getInt(entry + KEY_SIZE_OFFSET) != keySize) {
+            return false;
+        }
+        long keyAddress = entry + KEY_OFFSET;
+        int i = 0;
+        for (; i + LONG_SIZE_IN_BYTES <= keySize; i += LONG_SIZE_IN_BYTES) {
+            if (MEM.getLong(keyAddress + i) != MEM.getLong(keyBytes, ARRAY_BYTE_BASE_OFFSET + i)) {
+                return false;
+            }
+        }
+        for (; i < keySize; i++) {
+            if (MEM.getByte(keyAddress + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Data readKey(long entry) {
+        int keySize = MEM.getInt(entry + KEY_SIZE_OFFSET);
+        byte[] bytes = new byte[keySize];
+        MEM.copyToByteArray(entry + KEY_OFFSET, bytes, 0, keySize);
+        return new HeapData(bytes);
+    }
+
+    private static long bucketAddress(long table, int capacity, int hash) {
+        return table + (long) bucketIndex(hash, capacity) * LONG_SIZE_IN_BYTES;
+    }
+
+    private static int bucketIndex(int hash, int capacity) {
+        return (int) fastLongMix(hash) & (capacity - 1);
+    }
+
+    private void allocateTable(int newCapacity) {
+        table = malloc.allocate((long) newCapacity * LONG_SIZE_IN_BYTES);
+        capacity = newCapacity;
+        resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    private void resize(int newCapacity) {
+        long oldTable = table;
+        int oldCapacity = capacity;
+        allocateTable(newCapacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            long entry = MEM.getLong(oldTable + (long) i * LONG_SIZE_IN_BYTES);
+            while (entry != NULL_ADDRESS) {
+                long next = MEM.getLong(entry + NEXT_OFFSET);
+                long bucket = bucketAddress(table, capacity, MEM.getInt(entry + HASH_OFFSET));
+                MEM.putLong(entry + NEXT_OFFSET, MEM.getLong(bucket));
+                MEM.putLong(bucket, entry);
+                entry = next;
+            }
+        }
+        malloc.free(oldTable, (long) oldCapacity * LONG_SIZE_IN_BYTES);
+    }
+
+    /**
+     * Same iteration contract as {@code SampleableConcurrentHashMap#fetchNext}:
+     * buckets are visited from the highest index down and a resize during
+     * iteration is tracked by appending a new pointer.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size,
+                                         BiConsumer<Data, Long> entryConsumer) {
+        pointers = checkPointers(pointers, capacity);
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+
+        int nextIndex;
+        if (lastPointer.getIndex() >= 0 && lastPointer.getIndex() < capacity) {
+            nextIndex = lastPointer.getIndex();
+        } else {
+            nextIndex = capacity - 1;
+        }
+        int counter = 0;
+        while (nextIndex >= 0 && counter < size) {
+            long entry = MEM.getLong(table + (long) nextIndex-- * LONG_SIZE_IN_BYTES);
+            while (entry != NULL_ADDRESS) {
+                if (hasNotBeenObserved(MEM.getInt(entry + HASH_OFFSET), pointers)) {
+                    entryConsumer.accept(readKey(entry), entry);
+                    counter++;
+                }
+                entry = MEM.getLong(entry + NEXT_OFFSET);
+            }
+        }
+        lastPointer.setIndex(nextIndex);
+        return pointers;
+    }
+
+    private static IterationPointer[] checkPointers(IterationPointer[] pointers, int currentCapacity) {
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+        boolean iterationStarted = lastPointer.getSize() == -1;
+        boolean tableResized = lastPointer.getSize() != currentCapacity;
+        int newLength = !iterationStarted && tableResized ? pointers.length + 1 : pointers.length;
+
+        IterationPointer[] updatedPointers = new IterationPointer[newLength];
+        for (int i = 0; i < pointers.length; i++) {
+            updatedPointers[i] = new IterationPointer(pointers[i]);
+        }
+        if (iterationStarted || tableResized) {
+            updatedPointers[updatedPointers.length - 1] = new IterationPointer(Integer.MAX_VALUE, currentCapacity);
+        }
+        return updatedPointers;
+    }
+
+    private static boolean hasNotBeenObserved(int hash, IterationPointer[] pointers) {
+        for (int i = 0; i < pointers.length - 1; i++) {
+            IterationPointer pointer = pointers[i];
+            if (bucketIndex(hash, pointer.getSize()) > pointer.getIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Iterates bucket by bucket from the highest index down, buffering the
+     * entries of the current bucket. Removals done while iterating are
+     * detected through {@link #removalCount} and buffered entries which
+     * are no longer linked into the table are skipped, so the iterator
+     * never reads a freed entry block. A resize done while iterating is
+     * tracked the same way as by {@link #fetchNext}: the iteration goes on
+     * over the new table and skips the entries of the buckets visited in
+     * the previous ones. Releasing the memory ends the iteration.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Data, Record>> {
+
+        private final int expectedReleaseCount = releaseCount;
+        private long[] bucketEntries = new long[INITIAL_BUCKET_BUFFER_LENGTH];
+        private int[] bucketEntryHashes = new int[INITIAL_BUCKET_BUFFER_LENGTH];
+        private int bucketEntryCount;
+        private int bucketEntryIndex;
+        // the last pointer holds the next bucket to visit in the current table,
+        // the preceding ones the buckets not yet visited in the previous tables
+        private IterationPointer[] pointers = {new IterationPointer(capacity - 1, capacity)};
+        private int expectedRemovalCount = removalCount;
+        private long nextEntry = NULL_ADDRESS;
+        private Data lastReturnedKey;
+        private Record lastReturnedRecord;
+
+        @Override
+        public boolean hasNext() {
+            if (expectedReleaseCount != releaseCount) {
+                nextEntry = NULL_ADDRESS;
+                return false;
+            }
+            while (nextEntry == NULL_ADDRESS) {
+                if (bucketEntryIndex == bucketEntryCount && !advanceBucket()) {
+                    return false;
+                }
+                while (bucketEntryIndex < bucketEntryCount) {
+                    long entry = bucketEntries[bucketEntryIndex];
+                    int hash = bucketEntryHashes[bucketEntryIndex++];
+                    if (expectedRemovalCount == removalCount || isLinked(entry, hash)) {
+                        nextEntry = entry;
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<Data, Record> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long entry = nextEntry;
+            nextEntry = NULL_ADDRESS;
+            lastReturnedKey = readKey(entry);
+            lastReturnedRecord = copyRecord(entry);
+            return new AbstractMap.SimpleEntry<>(lastReturnedKey, lastReturnedRecord);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturnedKey == null) {
+                throw new IllegalStateException();
+            }
+            removeRecord(lastReturnedKey, lastReturnedRecord);
+            lastReturnedKey = null;
+            lastReturnedRecord = null;
+        }
+
+        private boolean advanceBucket() {
+            bucketEntryCount = 0;
+            bucketEntryIndex = 0;
+            expectedRemovalCount = removalCount;
+            IterationPointer current = currentPointer();
+            int index = current.getIndex();
+            for (; index >= 0 && bucketEntryCount == 0; index--) {
+                long entry = MEM.getLong(table + (long) index * LONG_SIZE_IN_BYTES);
+                while (entry != NULL_ADDRESS) {
+                    int hash = MEM.getInt(entry + HASH_OFFSET);
+                    if (hasNotBeenObserved(hash, pointers)) {
+                        bufferEntry(entry, hash);
+                    }
+                    entry = MEM.getLong(entry + NEXT_OFFSET);
+                }
+            }
+            current.setIndex(index);
+            return bucketEntryCount > 0;
+        }
+
+        private IterationPointer currentPointer() {
+            IterationPointer current = pointers[pointers.length - 1];
+            if (current.getSize() == capacity) {
+                return current;
+            }
+            // the table was resized or allocated for the first time
+            current = new IterationPointer(capacity - 1, capacity);
+            if (pointers[pointers.length - 1].getSize() == 0) {
+                pointers[pointers.length - 1] = current;
+            } else {
+                pointers = Arrays.copyOf(pointers, pointers.length + 1);
+                pointers[pointers.length - 1] = current;
+            }
+            return current;
+        }
+
+        private void bufferEntry(long entry, int hash) {
+            if (bucketEntryCount == bucketEntries.length) {
+                bucketEntries = Arrays.copyOf(bucketEntries, bucketEntryCount << 1);
+                bucketEntryHashes = Arrays.copyOf(bucketEntryHashes, bucketEntryCount << 1);
+            }
+            bucketEntries[bucketEntryCount] = entry;
+            bucketEntryHashes[bucketEntryCount++] = hash;
+        }
+
+        private boolean isLinked(long candidate, int hash) {
+            if (capacity == 0) {
+                return false;
+            }
+            long entry = MEM.getLong(bucketAddress(table, capacity, hash));
+            while (entry != NULL_ADDRESS) {
+                if (entry == candidate) {
+                    return true;
+                }
+                entry = MEM.getLong(entry + NEXT_OFFSET);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reports the actual off-heap footprint of the storage
+     * instead of estimating the cost of each entry.
+     */
+    private final class FootprintEstimator implements EntryCostEstimator<Data, Record> {
+
+        @Override
+        public long getEstimate() {
+            return malloc.getUsedMemory();
+        }
+
+        @Override
+        public void adjustEstimateBy(long adjustment) {
+            // NOP, the footprint is tracked by the allocator
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            // NOP, the footprint is tracked by the allocator
+        }
+    }
+}
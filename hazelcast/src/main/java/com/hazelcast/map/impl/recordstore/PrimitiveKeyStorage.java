@@ -0,0 +1,645 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readInt;
+import static com.hazelcast.internal.nio.Bits.readLong;
+import static com.hazelcast.internal.nio.Bits.writeInt;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Bits.writeLong;
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_INTEGER;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_LONG;
+import static com.hazelcast.internal.util.HashUtil.fastLongMix;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSizeEstimator;
+
+/**
+ * {@link Storage} for maps keyed by {@link Long} or {@link Integer} which
+ * keeps its records in a primitive open-addressing table, in the spirit
+ * of {@link Long2ObjectHashMap}, instead of a hash map keyed by
+ * {@link Data}.
+ * <p>
+ * The key payload is read straight out of the serialized key, so the
+ * member neither retains a {@link HeapData} instance per entry nor hashes
+ * the key blob on {@code get}/{@code put}. Keys are materialized back
+ * into {@link Data} only when they are handed out, e.g. on iteration or
+ * sampling. The payload is read and written with a fixed byte order, so
+ * the materialized key is byte-for-byte equal to the original one, no
+ * matter which byte order the serializer used.
+ * <p>
+ * The first key decides whether the storage holds {@code long} or
+ * {@code int} keys. Once a key of any other type, or a key carrying a
+ * partition hash, is put, all entries are moved into a {@link StorageImpl}
+ * which serves all further calls. A paged iteration which spans that
+ * switch may miss or repeat entries, the storage is therefore meant for
+ * maps whose keys are all of a single primitive wrapper type.
+ * <p>
+ * Deleted slots are marked with a tombstone, so removals never move other
+ * entries and iterating while removing is safe. The storage is only
+ * mutated by the partition thread owning the record store, but like the
+ * on-heap storages it is read by other threads too, e.g. partition scans
+ * on query threads. The arrays of the table and their mask are therefore
+ * kept in an immutable {@link Table} published through a single volatile
+ * field, and each read snapshots that field once, so it never combines
+ * arrays of different sizes. Slots are updated in place, so concurrent
+ * readers are weakly consistent, as with the on-heap storages.
+ *
+ * @param <R> the type of records in this storage
+ */
+@SuppressWarnings({"checkstyle:methodcount", "rawtypes", "unchecked"})
+public class PrimitiveKeyStorage<R extends Record> implements Storage<Data, R> {
+
+    private static final int KEY_KIND_NONE = 0;
+    private static final int KEY_KIND_LONG = 1;
+    private static final int KEY_KIND_INT = 2;
+    private static final int KEY_KIND_OTHER = -1;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+    private static final double LOAD_FACTOR = Long2ObjectHashMap.DEFAULT_LOAD_FACTOR;
+    private static final int SLOT_COST_IN_BYTES = LONG_SIZE_IN_BYTES + REFERENCE_COST_IN_BYTES;
+    private static final Object TOMBSTONE = new Object();
+
+    private final InMemoryFormat inMemoryFormat;
+    private final ExpirySystem expirySystem;
+    private final InternalSerializationService serializationService;
+
+    private int keyKind = KEY_KIND_NONE;
+    private volatile Table table;
+    private int tombstones;
+    private volatile int size;
+    private volatile StorageImpl<R> fallback;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator;
+
+    public PrimitiveKeyStorage(InMemoryFormat inMemoryFormat, ExpirySystem expirySystem,
+                               SerializationService serializationService) {
+        this.inMemoryFormat = inMemoryFormat;
+        this.expirySystem = expirySystem;
+        this.serializationService = (InternalSerializationService) serializationService;
+        this.entryCostEstimator = inMemoryFormat == BINARY
+                ? new SlotCostEstimator() : createMapSizeEstimator(inMemoryFormat);
+        table = new Table(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:npathcomplexity")
+    public void put(Data key, R record) {
+        if (fallback != null) {
+            fallback.put(key, record);
+            return;
+        }
+        int kind = keyKindOf(key);
+        if (keyKind == KEY_KIND_NONE && kind != KEY_KIND_OTHER) {
+            keyKind = kind;
+        }
+        if (kind != keyKind) {
+            inflate().put(key, record);
+            return;
+        }
+
+        Table table = this.table;
+        long[] keys = table.keys;
+        Object[] records = table.records;
+        long primitiveKey = readKey(key);
+        int index = homeSlot(primitiveKey, table.mask);
+        int firstTombstone = -1;
+        Object slot;
+        while ((slot = records[index]) != null) {
+            if (slot == TOMBSTONE) {
+                if (firstTombstone < 0) {
+                    firstTombstone = index;
+                }
+            } else if (keys[index] == primitiveKey) {
+                records[index] = record;
+                updateCostEstimate(-entryCostEstimator.calculateValueCost((R) slot));
+                updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+                return;
+            }
+            index = (index + 1) & table.mask;
+        }
+        if (firstTombstone >= 0) {
+            index = firstTombstone;
+            tombstones--;
+        }
+        keys[index] = primitiveKey;
+        records[index] = record;
+        size++;
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, record));
+
+        if (size + tombstones > table.resizeThreshold) {
+            rehash(table, size > table.resizeThreshold >> 1 ? records.length << 1 : records.length);
+        }
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        if (fallback != null) {
+            fallback.updateRecordValue(key, record, value);
+            return;
+        }
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+
+        record.setValue(inMemoryFormat == BINARY
+                ? serializationService.toStoredData(serializationService.toData(value))
+                : serializationService.toObject(value));
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+    }
+
+    @Override
+    public R get(Data key) {
+        if (fallback != null) {
+            return fallback.get(key);
+        }
+        Table table = this.table;
+        int index = findSlot(table, key);
+        return index < 0 ? null : (R) table.records[index];
+    }
+
+    @Override
+    public R getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("PrimitiveKeyStorage#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull R record) {
+        if (fallback != null) {
+            fallback.removeRecord(dataKey, record);
+            return;
+        }
+        Table table = this.table;
+        int index = findSlot(table, dataKey);
+        if (index < 0) {
+            return;
+        }
+        // a slot followed by a free one does not
+        // interrupt any probe sequence, so it can be freed
+        Object[] records = table.records;
+        records[index] = records[(index + 1) & table.mask] == null ? null : TOMBSTONE;
+        if (records[index] == TOMBSTONE) {
+            tombstones++;
+        }
+        size--;
+        updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, record));
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        if (fallback != null) {
+            return fallback.containsKey(key);
+        }
+        return findSlot(table, key) >= 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, R>> mutationTolerantIterator() {
+        if (fallback != null) {
+            return fallback.mutationTolerantIterator();
+        }
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        StorageImpl<R> fallback = this.fallback;
+        return fallback != null ? fallback.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        if (fallback != null) {
+            fallback.clear(isDuringShutdown);
+            fallback = null;
+        }
+        keyKind = KEY_KIND_NONE;
+        table = new Table(DEFAULT_INITIAL_CAPACITY);
+        size = 0;
+        tombstones = 0;
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        StorageImpl<R> fallback = this.fallback;
+        return fallback != null ? fallback.getEntryCostEstimator() : entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        if (fallback != null) {
+            fallback.setEntryCostEstimator(entryCostEstimator);
+        } else {
+            this.entryCostEstimator = entryCostEstimator;
+        }
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (fallback != null) {
+            return fallback.getRandomSamples(sampleCount);
+        }
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        Table table = this.table;
+        Object[] records = table.records;
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        int startIndex = ThreadLocalRandomProvider.get().nextInt(records.length);
+        int index = startIndex;
+        do {
+            Object record = records[index];
+            if (record != null && record != TOMBSTONE) {
+                Data key = toData(table.keys[index]);
+                samples.add(new LazyEvictableEntryView<>(key, (R) record,
+                        expirySystem.getExpiredMetadata(key), serializationService));
+            }
+            index = (index + 1) & table.mask;
+        } while (index != startIndex && samples.size() < sampleCount);
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        if (fallback != null) {
+            return fallback.fetchKeys(pointers, size);
+        }
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        if (fallback != null) {
+            return fallback.fetchEntries(pointers, size);
+        }
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> entries.add(
+                new AbstractMap.SimpleEntry<>(key, serializationService.toData(record.getValue()))));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    /**
+     * @return {@code true} if the records are still kept in the primitive
+     * table, {@code false} if they have been moved to a {@link StorageImpl}
+     */
+    public boolean isPrimitive() {
+        return fallback == null;
+    }
+
+    protected void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    private int findSlot(Table table, Data key) {
+        if (size == 0 || keyKindOf(key) != keyKind) {
+            return -1;
+        }
+        long primitiveKey = readKey(key);
+        int index = homeSlot(primitiveKey, table.mask);
+        Object slot;
+        while ((slot = table.records[index]) != null) {
+            if (slot != TOMBSTONE && table.keys[index] == primitiveKey) {
+                return index;
+            }
+            index = (index + 1) & table.mask;
+        }
+        return -1;
+    }
+
+    private StorageImpl<R> inflate() {
+        StorageImpl<R> storage = new StorageImpl<>(inMemoryFormat, expirySystem, serializationService);
+        Table table = this.table;
+        for (int i = 0; i < table.records.length; i++) {
+            Object record = table.records[i];
+            if (record != null && record != TOMBSTONE) {
+                storage.put(toData(table.keys[i]), (R) record);
+            }
+        }
+        fallback = storage;
+        this.table = new Table(DEFAULT_INITIAL_CAPACITY);
+        size = 0;
+        tombstones = 0;
+        entryCostEstimator.reset();
+        return storage;
+    }
+
+    private void rehash(Table oldTable, int newCapacity) {
+        Table newTable = new Table(newCapacity);
+        long[] oldKeys = oldTable.keys;
+        Object[] oldRecords = oldTable.records;
+        for (int i = 0; i < oldRecords.length; i++) {
+            Object record = oldRecords[i];
+            if (record != null && record != TOMBSTONE) {
+                int index = homeSlot(oldKeys[i], newTable.mask);
+                while (newTable.records[index] != null) {
+                    index = (index + 1) & newTable.mask;
+                }
+                newTable.keys[index] = oldKeys[i];
+                newTable.records[index] = record;
+            }
+        }
+        // published only once it is completely filled
+        table = newTable;
+        tombstones = 0;
+    }
+
+    /**
+     * Fetches entries in the order of their home slots, from the highest
+     * down, so that a probe sequence is visited as a whole, the same way
+     * {@link com.hazelcast.internal.util.SampleableConcurrentHashMap}
+     * visits a bucket. A resize during iteration is tracked by appending a
+     * new pointer, entries already returned before the resize are skipped.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size, BiConsumer<Data, R> entryConsumer) {
+        Table table = this.table;
+        long[] keys = table.keys;
+        Object[] records = table.records;
+        int mask = table.mask;
+        int capacity = records.length;
+        pointers = checkPointers(pointers, capacity);
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+
+        int nextIndex;
+        if (lastPointer.getIndex() >= 0 && lastPointer.getIndex() < capacity) {
+            nextIndex = lastPointer.getIndex();
+        } else {
+            nextIndex = capacity - 1;
+        }
+        int counter = 0;
+        while (nextIndex >= 0 && counter < size) {
+            int home = nextIndex--;
+            Object record;
+            for (int index = home; (record = records[index]) != null; index = (index + 1) & mask) {
+                if (record == TOMBSTONE) {
+                    continue;
+                }
+                int hash = hash(keys[index]);
+                if ((hash & mask) == home && hasNotBeenObserved(hash, pointers)) {
+                    entryConsumer.accept(toData(keys[index]), (R) record);
+                    counter++;
+                }
+            }
+        }
+        lastPointer.setIndex(nextIndex);
+        return pointers;
+    }
+
+    private static IterationPointer[] checkPointers(IterationPointer[] pointers, int currentCapacity) {
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+        boolean iterationStarted = lastPointer.getSize() == -1;
+        boolean tableResized = lastPointer.getSize() != currentCapacity;
+        int newLength = !iterationStarted && tableResized ? pointers.length + 1 : pointers.length;
+
+        IterationPointer[] updatedPointers = new IterationPointer[newLength];
+        for (int i = 0; i < pointers.length; i++) {
+            updatedPointers[i] = new IterationPointer(pointers[i]);
+        }
+        if (iterationStarted || tableResized) {
+            updatedPointers[updatedPointers.length - 1] = new IterationPointer(Integer.MAX_VALUE, currentCapacity);
+        }
+        return updatedPointers;
+    }
+
+    private static boolean hasNotBeenObserved(int hash, IterationPointer[] pointers) {
+        for (int i = 0; i < pointers.length - 1; i++) {
+            IterationPointer pointer = pointers[i];
+            if ((hash & (pointer.getSize() - 1)) > pointer.getIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long readKey(Data key) {
+        byte[] payload = key.toByteArray();
+        return keyKind == KEY_KIND_LONG
+                ? readLong(payload, DATA_OFFSET, true) : readInt(payload, DATA_OFFSET, true);
+    }
+
+    private Data toData(long primitiveKey) {
+        byte[] payload;
+        if (keyKind == KEY_KIND_LONG) {
+            payload = new byte[DATA_OFFSET + LONG_SIZE_IN_BYTES];
+            writeIntB(payload, TYPE_OFFSET, CONSTANT_TYPE_LONG);
+            writeLong(payload, DATA_OFFSET, primitiveKey, true);
+        } else {
+            payload = new byte[DATA_OFFSET + INT_SIZE_IN_BYTES];
+            writeIntB(payload, TYPE_OFFSET, CONSTANT_TYPE_INTEGER);
+            writeInt(payload, DATA_OFFSET, (int) primitiveKey, true);
+        }
+        return new HeapData(payload);
+    }
+
+    private static int keyKindOf(Data key) {
+        if (!(key instanceof HeapData) || key.hasPartitionHash()) {
+            return KEY_KIND_OTHER;
+        }
+        int type = key.getType();
+        if (type == CONSTANT_TYPE_LONG && key.dataSize() == LONG_SIZE_IN_BYTES) {
+            return KEY_KIND_LONG;
+        }
+        if (type == CONSTANT_TYPE_INTEGER && key.dataSize() == INT_SIZE_IN_BYTES) {
+            return KEY_KIND_INT;
+        }
+        return KEY_KIND_OTHER;
+    }
+
+    private static int hash(long primitiveKey) {
+        return (int) fastLongMix(primitiveKey);
+    }
+
+    private static int homeSlot(long primitiveKey, int mask) {
+        return hash(primitiveKey) & mask;
+    }
+
+    /**
+     * Iterates the slots from the highest index down. Since removals only
+     * mark slots, entries never move under the iterator. If the table is
+     * replaced by a resize in the meantime, the iterator carries on over
+     * the table it started with and re-checks each entry against the
+     * current one.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Data, R>> {
+
+        private final Table iteratedTable = table;
+        private int index = iteratedTable.records.length;
+        private Data nextKey;
+        private R nextRecord;
+        private Data lastReturnedKey;
+        private R lastReturnedRecord;
+
+        @Override
+        public boolean hasNext() {
+            while (nextKey == null && --index >= 0) {
+                Object record = iteratedTable.records[index];
+                if (record == null || record == TOMBSTONE) {
+                    continue;
+                }
+                Data key = toData(iteratedTable.keys[index]);
+                if (iteratedTable != table) {
+                    record = get(key);
+                    if (record == null) {
+                        continue;
+                    }
+                }
+                nextKey = key;
+                nextRecord = (R) record;
+            }
+            return nextKey != null;
+        }
+
+        @Override
+        public Map.Entry<Data, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturnedKey = nextKey;
+            lastReturnedRecord = nextRecord;
+            nextKey = null;
+            nextRecord = null;
+            return new AbstractMap.SimpleEntry<>(lastReturnedKey, lastReturnedRecord);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturnedKey == null) {
+                throw new IllegalStateException();
+            }
+            removeRecord(lastReturnedKey, lastReturnedRecord);
+            lastReturnedKey = null;
+            lastReturnedRecord = null;
+        }
+    }
+
+    /**
+     * Slot arrays of the open-addressing table. The arrays are replaced
+     * together on a resize, by publishing a new instance.
+     */
+    private static final class Table {
+
+        final long[] keys;
+        final Object[] records;
+        final int mask;
+        final int resizeThreshold;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.records = new Object[capacity];
+            this.mask = capacity - 1;
+            this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        }
+    }
+
+    /**
+     * Estimates the cost of an entry as its record plus the
+     * key and record reference slots of the primitive table.
+     */
+    private static final class SlotCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        private volatile long estimate;
+
+        @Override
+        public long getEstimate() {
+            return estimate;
+        }
+
+        @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
+                justification = "We have the guarantee that only a single partition thread at any given time can change"
+                        + " the volatile field, but multiple threads can read it.")
+        @Override
+        public void adjustEstimateBy(long adjustment) {
+            estimate += adjustment;
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return SLOT_COST_IN_BYTES + record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            estimate = 0L;
+        }
+    }
+}
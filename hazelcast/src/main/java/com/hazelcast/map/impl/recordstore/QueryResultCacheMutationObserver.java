@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.query.QueryResultCache;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Invalidates the cached query results of a partition on every mutation
+ * of the partition. Backup mutations invalidate the results too, since
+ * a backup replica keeps its records when it gets promoted.
+ */
+public class QueryResultCacheMutationObserver implements MutationObserver<Record> {
+
+    private final QueryResultCache queryResultCache;
+    private final int partitionId;
+
+    public QueryResultCacheMutationObserver(QueryResultCache queryResultCache, int partitionId) {
+        this.queryResultCache = queryResultCache;
+        this.partitionId = partitionId;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        onMutation();
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        onMutation();
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        onMutation();
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        onMutation();
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        onMutation();
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        onMutation();
+    }
+
+    @Override
+    public void onReset() {
+        onMutation();
+    }
+
+    @Override
+    public void onClear() {
+        onMutation();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        onMutation();
+    }
+
+    private void onMutation() {
+        queryResultCache.onMutation(partitionId);
+    }
+}
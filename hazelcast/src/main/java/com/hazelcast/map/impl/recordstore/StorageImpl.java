@@ -20,6 +20,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.internal.iteration.IterationPointer;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.EntryCostEstimator;
 import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
@@ -44,7 +45,7 @@ import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSiz
 public class StorageImpl<R extends Record> implements Storage<Data, R> {
 
     private final StorageSCHM<R> records;
-    private final SerializationService serializationService;
+    private final InternalSerializationService serializationService;
     private final InMemoryFormat inMemoryFormat;
 
     // not final for testing purposes.
@@ -55,7 +56,7 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
         this.entryCostEstimator = createMapSizeEstimator(inMemoryFormat);
         this.inMemoryFormat = inMemoryFormat;
         this.records = new StorageSCHM<>(serializationService, expirySystem);
-        this.serializationService = serializationService;
+        this.serializationService = (InternalSerializationService) serializationService;
     }
 
     @Override
@@ -87,7 +88,8 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
         updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
 
         record.setValue(inMemoryFormat == BINARY
-                ? serializationService.toData(value) : serializationService.toObject(value));
+                ? serializationService.toStoredData(serializationService.toData(value))
+                : serializationService.toObject(value));
 
         updateCostEstimate(entryCostEstimator.calculateValueCost(record));
     }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore.expiry;
+
+import com.hazelcast.internal.serialization.Data;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel which keeps the expirable keys of a record
+ * store ordered by the second they become due.
+ * <p>
+ * Ticks are seconds since {@link com.hazelcast.map.impl.record.Record#EPOCH_TIME},
+ * the same resolution {@link ExpiryMetadata} stores expiration times in.
+ * The wheel has {@value #LEVEL_COUNT} levels of {@value #SLOT_COUNT} slots,
+ * a slot of the lowest level holds the keys due in a single tick and a
+ * slot of each higher level spans all slots of the level below it. Keys
+ * due further away than the last level covers (about 194 days) are
+ * parked in its furthest slot. When the lowest level wraps around, the
+ * next slot of the level above is cascaded down, so every key is moved at
+ * most once per level and {@link #advance(long)} costs time proportional
+ * to the number of passed ticks and moved keys, independent of the number
+ * of keys which are not due yet.
+ * <p>
+ * Keys of passed ticks are appended to a queue of due keys which is
+ * drained by the owner. The wheel never removes keys on its own: the
+ * owner validates every due key against the current expiry metadata and
+ * schedules it again if it is not due after all, e.g. because its idle
+ * time was extended in the meantime or it is parked in the last level.
+ * <p>
+ * Not thread-safe, the wheel is only accessed by the partition thread
+ * of its record store.
+ */
+final class ExpirationWheel {
+
+    static final int LEVEL_COUNT = 4;
+    static final int SLOT_COUNT = 64;
+
+    private static final int LEVEL_BITS = 6;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+    private static final long MAX_DELAY = (1L << (LEVEL_BITS * LEVEL_COUNT)) - 1;
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    private final Slot[][] levels = new Slot[LEVEL_COUNT][SLOT_COUNT];
+    private final ArrayDeque<Data> dueKeys = new ArrayDeque<>();
+
+    /**
+     * The next tick to pass, all keys scheduled before it are either
+     * in the due queue or were already polled from it.
+     */
+    private long currentTick;
+    private int size;
+
+    ExpirationWheel(long nowTick) {
+        this.currentTick = nowTick + 1;
+    }
+
+    /**
+     * Schedules the key to become due at the given tick.
+     *
+     * @return the tick the key is actually scheduled at, ticks which have
+     * already passed are moved to the next tick and ticks beyond the
+     * range of the wheel are clamped to its end
+     */
+    long schedule(Data key, long tick) {
+        long effectiveTick = Math.min(Math.max(tick, currentTick), currentTick + MAX_DELAY);
+        add(key, effectiveTick);
+        size++;
+        return effectiveTick;
+    }
+
+    /**
+     * Passes all ticks up to and including the given one, the keys
+     * scheduled at these ticks are appended to the due keys.
+     */
+    void advance(long nowTick) {
+        if (size == 0) {
+            // nothing to cascade, skip the empty ticks
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return;
+        }
+
+        while (currentTick <= nowTick && size > 0) {
+            if ((currentTick & SLOT_MASK) == 0) {
+                cascade(1);
+            }
+
+            Slot slot = levels[0][(int) (currentTick & SLOT_MASK)];
+            if (slot != null && slot.size > 0) {
+                for (int i = 0; i < slot.size; i++) {
+                    dueKeys.add(slot.keys[i]);
+                }
+                size -= slot.size;
+                slot.clear();
+            }
+            currentTick++;
+        }
+        currentTick = Math.max(currentTick, nowTick + 1);
+    }
+
+    boolean hasDueKeys() {
+        return !dueKeys.isEmpty();
+    }
+
+    /**
+     * @return the next due key or {@code null} if there is none
+     */
+    Data pollDueKey() {
+        return dueKeys.poll();
+    }
+
+    /**
+     * @return number of scheduled keys including the due ones
+     * which were not polled yet
+     */
+    int size() {
+        return size + dueKeys.size();
+    }
+
+    void clear() {
+        for (Slot[] level : levels) {
+            Arrays.fill(level, null);
+        }
+        dueKeys.clear();
+        size = 0;
+    }
+
+    // package-private for testing
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Moves the keys of the current slot of the given level to the lower
+     * levels, after cascading the level above if it is due as well.
+     */
+    private void cascade(int level) {
+        int index = (int) ((currentTick >>> (LEVEL_BITS * level)) & SLOT_MASK);
+        if (index == 0 && level + 1 < LEVEL_COUNT) {
+            cascade(level + 1);
+        }
+
+        Slot slot = levels[level][index];
+        if (slot == null || slot.size == 0) {
+            return;
+        }
+
+        // detach the slot, so it is never appended to while its keys are moved
+        levels[level][index] = null;
+        for (int i = 0; i < slot.size; i++) {
+            long tick = slot.ticks[i];
+            add(slot.keys[i], tick < currentTick ? currentTick : tick);
+        }
+    }
+
+    private void add(Data key, long tick) {
+        long delay = tick - currentTick;
+        int level = delay < SLOT_COUNT ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(delay)) / LEVEL_BITS;
+        int index = (int) ((tick >>> (LEVEL_BITS * level)) & SLOT_MASK);
+
+        Slot slot = levels[level][index];
+        if (slot == null) {
+            slot = new Slot();
+            levels[level][index] = slot;
+        }
+        slot.add(key, tick);
+    }
+
+    /**
+     * Keys and their ticks, the ticks are needed to cascade
+     * the keys from the higher levels.
+     */
+    private static final class Slot {
+
+        private Data[] keys = new Data[INITIAL_SLOT_CAPACITY];
+        private long[] ticks = new long[INITIAL_SLOT_CAPACITY];
+        private int size;
+
+        void add(Data key, long tick) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                ticks = Arrays.copyOf(ticks, size << 1);
+            }
+            keys[size] = key;
+            ticks[size] = tick;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -111,6 +111,19 @@ public interface ExpiryMetadata {
 
     ExpiryMetadata setRawExpirationTime(int expirationTime);
 
+    /**
+     * @return the raw expiration time this entry is scheduled at in the
+     * {@link ExpirationWheel} of its record store, {@link
+     * com.hazelcast.map.impl.record.Record#UNSET} if it is not tracked
+     */
+    default int getRawScheduledExpirationTime() {
+        return UNSET;
+    }
+
+    default ExpiryMetadata setRawScheduledExpirationTime(int scheduledExpirationTime) {
+        return this;
+    }
+
     default int stripBaseTime(long value) {
         int diff = UNSET;
         if (value > 0) {
@@ -28,6 +28,8 @@ public class ExpiryMetadataImpl implements ExpiryMetadata {
     // No need to set default value of
     // expirationTime to UNSET after version 4.2
     private volatile int expirationTime = UNSET;
+    // only accessed by the partition thread
+    private int scheduledExpirationTime = UNSET;
 
     public ExpiryMetadataImpl() {
     }
@@ -123,6 +125,17 @@ public class ExpiryMetadataImpl implements ExpiryMetadata {
         return this;
     }
 
+    @Override
+    public int getRawScheduledExpirationTime() {
+        return scheduledExpirationTime;
+    }
+
+    @Override
+    public ExpiryMetadata setRawScheduledExpirationTime(int scheduledExpirationTime) {
+        this.scheduledExpirationTime = scheduledExpirationTime;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ExpiryMetadataImpl{"
@@ -16,11 +16,13 @@
 
 package com.hazelcast.map.impl.recordstore.expiry;
 
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.internal.eviction.ClearExpiredRecordsTask;
 import com.hazelcast.internal.eviction.ExpiredKey;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.Clock;
 import com.hazelcast.internal.util.ExceptionUtil;
 import com.hazelcast.internal.util.MapUtil;
 import com.hazelcast.logging.ILogger;
@@ -45,13 +47,23 @@ import java.util.concurrent.TimeUnit;
 import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.pickMaxIdleMillis;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.pickTTLMillis;
+import static com.hazelcast.map.impl.record.Record.EPOCH_TIME;
+import static com.hazelcast.map.impl.record.Record.UNSET;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * This class has all logic to remove expired entries. Expiry reason
  * can be ttl or idleness. An instance of this class is created for
  * each {@link RecordStore} and it is always accessed by same single thread.
+ * <p>
+ * Expired entries are found either by sampling a percentage of the
+ * expirable keys on each run of the expiration task or, when {@link
+ * ClusterProperty#MAP_EXPIRY_WHEEL_ENABLED} is set, by polling the keys
+ * which became due from an {@link ExpirationWheel}.
  */
+@SuppressWarnings("checkstyle:methodcount")
 public class ExpirySystem {
     private static final long DEFAULT_EXPIRED_KEY_SCAN_TIMEOUT_NANOS
             = TimeUnit.MILLISECONDS.toNanos(1);
@@ -63,10 +75,12 @@ public class ExpirySystem {
     private static final int ONE_HUNDRED_PERCENT = 100;
     private static final int MIN_TOTAL_NUMBER_OF_KEYS_TO_SCAN = 100;
     private static final int MAX_SAMPLE_AT_A_TIME = 16;
+    private static final int WHEEL_COMPACTION_FACTOR = 2;
     private static final ThreadLocal<List> BATCH_OF_EXPIRED
             = ThreadLocal.withInitial(() -> new ArrayList<>(MAX_SAMPLE_AT_A_TIME << 1));
 
     private final long expiryDelayMillis;
+    private final long backupExpiryDelayTicks;
     private final long expiredKeyScanTimeoutNanos;
     private final boolean canPrimaryDriveExpiration;
     private final ILogger logger;
@@ -75,6 +89,8 @@ public class ExpirySystem {
     private final MapServiceContext mapServiceContext;
     private final ClearExpiredRecordsTask clearExpiredRecordsTask;
     private final InvalidationQueue<ExpiredKey> expiredKeys = new InvalidationQueue<>();
+    // null if the expiry wheel is disabled
+    private final ExpirationWheel expirationWheel;
 
     private Iterator<Map.Entry<Data, ExpiryMetadata>> cachedExpirationIterator;
     // This is volatile since it can be initialized at runtime lazily and
@@ -94,6 +110,12 @@ public class ExpirySystem {
         this.mapServiceContext = mapServiceContext;
         this.canPrimaryDriveExpiration = mapServiceContext.getClearExpiredRecordsTask().canPrimaryDriveExpiration();
         this.expiredKeyScanTimeoutNanos = nodeEngine.getProperties().getNanos(EXPIRED_KEY_SCAN_TIMEOUT_NANOS);
+        this.backupExpiryDelayTicks = MILLISECONDS.toSeconds(expiryDelayMillis + SECONDS.toMillis(1) - 1);
+        // the wheel holds references to the keys, which is
+        // only safe as long as they are stored on-heap
+        this.expirationWheel = hazelcastProperties.getBoolean(ClusterProperty.MAP_EXPIRY_WHEEL_ENABLED)
+                && mapContainer.getMapConfig().getInMemoryFormat() != InMemoryFormat.NATIVE
+                ? new ExpirationWheel(toTick(Clock.currentTimeMillis())) : null;
     }
 
     public final boolean isEmpty() {
@@ -114,6 +136,9 @@ public class ExpirySystem {
     public void clear() {
         Map<Data, ExpiryMetadata> map = getOrCreateExpireTimeByKeyMap(false);
         map.clear();
+        if (expirationWheel != null) {
+            expirationWheel.clear();
+        }
     }
 
     protected Map<Data, ExpiryMetadata> getOrCreateExpireTimeByKeyMap(boolean createIfAbsent) {
@@ -160,10 +185,16 @@ public class ExpirySystem {
             expiryMetadata = createExpiryMetadata(ttlMillis, maxIdleMillis, expirationTime);
             Data nativeKey = recordStore.getStorage().toBackingDataKeyFormat(key);
             expireTimeByKey.put(nativeKey, expiryMetadata);
+            if (expirationWheel != null) {
+                scheduleExpiration(nativeKey, expiryMetadata, expiryMetadata.getRawExpirationTime());
+            }
         } else {
             expiryMetadata.setTtl(ttlMillis)
                     .setMaxIdle(maxIdleMillis)
                     .setExpirationTime(expirationTime);
+            if (expirationWheel != null) {
+                rescheduleIfEarlier(key, expiryMetadata);
+            }
         }
 
         mapServiceContext.getExpirationManager().scheduleExpirationTask();
@@ -182,6 +213,10 @@ public class ExpirySystem {
             return;
         }
         callRemove(key, expireTimeByKey);
+        if (expirationWheel != null && isEmpty()) {
+            // drop the references to the removed keys
+            expirationWheel.clear();
+        }
     }
 
     public final void extendExpiryTime(Data dataKey, long now) {
@@ -249,6 +284,11 @@ public class ExpirySystem {
 
     @SuppressWarnings("checkstyle:magicnumber")
     public final void evictExpiredEntries(final int percentage, final long now, final boolean backup) {
+        if (expirationWheel != null) {
+            evictDueEntries(now, backup);
+            return;
+        }
+
         // 1. Find how many keys we can scan at max.
         final int maxScannableCount = findMaxScannableCount(percentage);
         if (maxScannableCount == 0) {
@@ -279,6 +319,131 @@ public class ExpirySystem {
         }
     }
 
+    /**
+     * Evicts the entries which became due since the previous run, the
+     * run is bounded by the same timeout as the sampling and the due keys
+     * which were not checked are left to the next run.
+     */
+    private void evictDueEntries(long now, boolean backup) {
+        compactExpirationWheelIfNeeded();
+
+        long nowTick = toTick(now);
+        expirationWheel.advance(nowTick);
+        if (!expirationWheel.hasDueKeys()) {
+            return;
+        }
+
+        int checkedCount = 0;
+        int expiredCount = 0;
+        try {
+            long loopStartNanos = System.nanoTime();
+            do {
+                checkedCount += findDueExpiredKeys(now, nowTick, backup);
+                expiredCount += evictExpiredKeys(backup);
+            } while (expirationWheel.hasDueKeys()
+                    && (System.nanoTime() - loopStartNanos) < expiredKeyScanTimeoutNanos);
+        } catch (Exception e) {
+            BATCH_OF_EXPIRED.get().clear();
+            throw ExceptionUtil.rethrow(e);
+        }
+
+        // send expired keys to backups(only valid for max-idle-expiry)
+        tryToSendBackupExpiryOp();
+
+        if (logger.isFinestEnabled()) {
+            logger.finest(String.format("mapName: %s, partitionId: %d, partitionSize: %d, "
+                            + "remainingKeyCountInWheel: %d, checkedKeyCount: %d, expiredKeyCount: %d"
+                    , recordStore.getName(), recordStore.getPartitionId(), recordStore.size()
+                    , expirationWheel.size(), checkedCount, expiredCount));
+        }
+    }
+
+    private int findDueExpiredKeys(long now, long nowTick, boolean backup) {
+        List batchOfExpired = BATCH_OF_EXPIRED.get();
+        Map<Data, ExpiryMetadata> expireTimeByKey = getOrCreateExpireTimeByKeyMap(false);
+
+        int checkedCount = 0;
+        while (checkedCount < MAX_SAMPLE_AT_A_TIME && expirationWheel.hasDueKeys()) {
+            Data key = expirationWheel.pollDueKey();
+            checkedCount++;
+
+            ExpiryMetadata expiryMetadata = expireTimeByKey.get(key);
+            if (expiryMetadata == null || expiryMetadata.getRawScheduledExpirationTime() > nowTick) {
+                // removed or already scheduled at a later tick
+                continue;
+            }
+
+            ExpiryReason expiryReason = hasExpired(expiryMetadata, now, backup);
+            if (expiryReason != ExpiryReason.NOT_EXPIRED && !recordStore.isLocked(key)) {
+                // add key and expiryReason to list to evict them later
+                batchOfExpired.add(key);
+                batchOfExpired.add(expiryReason);
+                // ignore further copies of the key which are due as well
+                expiryMetadata.setRawScheduledExpirationTime(Integer.MAX_VALUE);
+            } else {
+                scheduleExpiration(key, expiryMetadata, nextCheckTick(expiryMetadata, expiryReason, nowTick, backup));
+            }
+        }
+        return checkedCount;
+    }
+
+    /**
+     * Returns the tick to check a due but not expired key again at.
+     */
+    private long nextCheckTick(ExpiryMetadata expiryMetadata, ExpiryReason expiryReason,
+                               long nowTick, boolean backup) {
+        if (expiryReason != ExpiryReason.NOT_EXPIRED) {
+            // expired but locked
+            return nowTick + 1;
+        }
+
+        long dueTick = expiryMetadata.getRawExpirationTime() + (backup ? backupExpiryDelayTicks : 0);
+        if (dueTick > nowTick) {
+            // idle time was extended or key is due on backups later
+            return dueTick;
+        }
+
+        // max-idle expiry of backups is driven by the primary,
+        // the entry can't become idle before its max-idle passes
+        return nowTick + Math.max(1, expiryMetadata.getRawMaxIdle());
+    }
+
+    private void rescheduleIfEarlier(Data key, ExpiryMetadata expiryMetadata) {
+        int scheduledExpirationTime = expiryMetadata.getRawScheduledExpirationTime();
+        int expirationTime = expiryMetadata.getRawExpirationTime();
+        if (scheduledExpirationTime == UNSET || expirationTime < scheduledExpirationTime) {
+            // the copy at the later tick is ignored when it becomes due
+            scheduleExpiration(recordStore.getStorage().toBackingDataKeyFormat(key), expiryMetadata, expirationTime);
+        }
+    }
+
+    private void scheduleExpiration(Data key, ExpiryMetadata expiryMetadata, long tick) {
+        long scheduledTick = expirationWheel.schedule(key, tick);
+        expiryMetadata.setRawScheduledExpirationTime((int) scheduledTick);
+    }
+
+    /**
+     * Removed keys are left in the wheel until they become due, rebuilds
+     * the wheel once they outnumber the expirable keys.
+     */
+    private void compactExpirationWheelIfNeeded() {
+        Map<Data, ExpiryMetadata> expireTimeByKey = getOrCreateExpireTimeByKeyMap(false);
+        int expirableKeyCount = expireTimeByKey.size();
+        if (expirationWheel.size() <= WHEEL_COMPACTION_FACTOR * expirableKeyCount + MIN_TOTAL_NUMBER_OF_KEYS_TO_SCAN) {
+            return;
+        }
+
+        expirationWheel.clear();
+        for (Map.Entry<Data, ExpiryMetadata> entry : expireTimeByKey.entrySet()) {
+            ExpiryMetadata expiryMetadata = entry.getValue();
+            scheduleExpiration(entry.getKey(), expiryMetadata, expiryMetadata.getRawExpirationTime());
+        }
+    }
+
+    private static long toTick(long millis) {
+        return MILLISECONDS.toSeconds(millis - EPOCH_TIME);
+    }
+
     private void logProgress(int maxScannableCount, int scannedCount, int expiredCount) {
         logger.finest(String.format("mapName: %s, partitionId: %d, partitionSize: %d, "
                         + "remainingKeyCountToExpire: %d, maxScannableKeyCount: %d, "
@@ -369,6 +534,9 @@ public class ExpirySystem {
     // this method is overridden
     public void destroy() {
         getOrCreateExpireTimeByKeyMap(false).clear();
+        if (expirationWheel != null) {
+            expirationWheel.clear();
+        }
     }
 
     public final void accumulateOrSendExpiredKey(Data dataKey, long valueHashCode) {
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Provides means for reading compact fields from binary data. Every field is read directly from
+ * its position described by the schema, so fields can be read in any order.
+ *
+ * @see CompactSerializer
+ */
+@Beta
+public interface CompactReader {
+
+    /**
+     * Reads a primitive boolean.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    boolean readBoolean(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive byte.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    byte readByte(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive char.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    char readChar(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive short.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    short readShort(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an primitive int.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    int readInt(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive long.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    long readLong(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive float.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    float readFloat(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive double.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    double readDouble(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a string.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    String readString(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads a nested object. If the class of the object is not registered with a compact serializer,
+     * a {@link GenericRecord} is returned.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    <T> T readObject(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive booleans.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    boolean[] readBooleanArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive bytes.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    byte[] readByteArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive chars.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    char[] readCharArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive shorts.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    short[] readShortArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive ints.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    int[] readIntArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive longs.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    long[] readLongArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive floats.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    float[] readFloatArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of primitive doubles.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    double[] readDoubleArray(@Nonnull String fieldName) throws IOException;
+
+    /**
+     * Reads an array of strings.
+     *
+     * @param fieldName name of the field
+     * @return the value read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nullable
+    String[] readStringArray(@Nonnull String fieldName) throws IOException;
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Defines the contract of serializers for the compact serialization format.
+ * <p>
+ * Unlike {@link IdentifiedDataSerializable} and {@link Portable}, compact serialization does not require
+ * factories or class definitions. The schema of a class is derived from the fields written by its
+ * serializer and the serialized form of an object contains the schema, so individual fields can be
+ * read by the query engine and through {@link GenericRecord} without deserializing the whole object.
+ * <p>
+ * Compact serializers are registered with
+ * {@link com.hazelcast.config.SerializationConfig#addCompactSerializerConfig(com.hazelcast.config.CompactSerializerConfig)}.
+ *
+ * @param <T> type of the serialized objects
+ */
+@Beta
+public interface CompactSerializer<T> {
+
+    /**
+     * Reads an object from the given reader.
+     *
+     * @param in reader to read fields of the object from
+     * @return the object read
+     * @throws IOException in case of any exceptional case
+     */
+    @Nonnull
+    T read(@Nonnull CompactReader in) throws IOException;
+
+    /**
+     * Writes the fields of the given object to the writer.
+     *
+     * @param out    writer to write fields of the object to
+     * @param object the object to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void write(@Nonnull CompactWriter out, @Nonnull T object) throws IOException;
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Provides means for writing compact fields to binary data. Fixed size fields are written
+ * to known offsets, variable size fields are written after them and located through an offset table.
+ * <p>
+ * The same fields must be written in every invocation of {@link CompactSerializer#write(CompactWriter, Object)}
+ * for a given class, since the written fields make up the schema of the class.
+ *
+ * @see CompactSerializer
+ */
+@Beta
+public interface CompactWriter {
+
+    /**
+     * Writes a primitive boolean.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeBoolean(@Nonnull String fieldName, boolean value) throws IOException;
+
+    /**
+     * Writes a primitive byte.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeByte(@Nonnull String fieldName, byte value) throws IOException;
+
+    /**
+     * Writes a primitive char.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeChar(@Nonnull String fieldName, char value) throws IOException;
+
+    /**
+     * Writes a primitive short.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeShort(@Nonnull String fieldName, short value) throws IOException;
+
+    /**
+     * Writes an primitive int.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeInt(@Nonnull String fieldName, int value) throws IOException;
+
+    /**
+     * Writes a primitive long.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeLong(@Nonnull String fieldName, long value) throws IOException;
+
+    /**
+     * Writes a primitive float.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeFloat(@Nonnull String fieldName, float value) throws IOException;
+
+    /**
+     * Writes a primitive double.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeDouble(@Nonnull String fieldName, double value) throws IOException;
+
+    /**
+     * Writes a string.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeString(@Nonnull String fieldName, @Nullable String value) throws IOException;
+
+    /**
+     * Writes a nested object whose class is registered with a compact serializer.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeObject(@Nonnull String fieldName, @Nullable Object value) throws IOException;
+
+    /**
+     * Writes an array of primitive booleans.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeBooleanArray(@Nonnull String fieldName, @Nullable boolean[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive bytes.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeByteArray(@Nonnull String fieldName, @Nullable byte[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive chars.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeCharArray(@Nonnull String fieldName, @Nullable char[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive shorts.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeShortArray(@Nonnull String fieldName, @Nullable short[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive ints.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeIntArray(@Nonnull String fieldName, @Nullable int[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive longs.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeLongArray(@Nonnull String fieldName, @Nullable long[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive floats.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeFloatArray(@Nonnull String fieldName, @Nullable float[] value) throws IOException;
+
+    /**
+     * Writes an array of primitive doubles.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeDoubleArray(@Nonnull String fieldName, @Nullable double[] value) throws IOException;
+
+    /**
+     * Writes an array of strings.
+     *
+     * @param fieldName name of the field
+     * @param value     value to be written
+     * @throws IOException in case of any exceptional case
+     */
+    void writeStringArray(@Nonnull String fieldName, @Nullable String[] value) throws IOException;
+}
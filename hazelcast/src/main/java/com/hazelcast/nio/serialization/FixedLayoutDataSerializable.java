@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+/**
+ * Marks an {@link IdentifiedDataSerializable} class whose {@code readData}
+ * method reads the same sequence of fields for every object, without any
+ * conditional, optional or variable length field before its primitive
+ * fields.
+ * <p>
+ * Queries read primitive attributes of such objects directly from their
+ * serialized form when the {@code
+ * hazelcast.query.data.serializable.navigation.enabled} property is
+ * enabled, instead of deserializing every object. The attributes of the
+ * classes not implementing this interface are always read from the
+ * deserialized objects.
+ *
+ * @since 5.0
+ */
+public interface FixedLayoutDataSerializable extends IdentifiedDataSerializable {
+}
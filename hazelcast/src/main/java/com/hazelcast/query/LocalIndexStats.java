@@ -111,4 +111,50 @@ public interface LocalIndexStats extends LocalInstanceStats {
      */
     long getMemoryCost();
 
+    /**
+     * Returns the number of partitions owned by the member the index is
+     * maintained for.
+     */
+    long getPartitionCount();
+
+    /**
+     * Returns the number of the owned partitions which are fully indexed.
+     * <p>
+     * The index is populated in the background when it's added to a map
+     * already holding entries or when partitions migrate to the member. Until
+     * the returned value reaches the value returned by {@link
+     * #getPartitionCount()} the index may be bypassed by queries.
+     */
+    long getIndexedPartitionCount();
+
+    /**
+     * Returns the number of the equality lookups which consulted the value
+     * filters of a partitioned index.
+     * <p>
+     * Partitioned indexes are probed for every partition while a value is
+     * usually present only in a few of them. The value filters let such
+     * lookups skip the partitions not having the looked up value, the ratio of
+     * {@link #getValueFilterSkipCount()} to this count is the share of the
+     * skipped partition probes. Always 0 for global indexes.
+     */
+    long getValueFilterLookupCount();
+
+    /**
+     * Returns the number of the equality lookups for which the value filters
+     * of a partitioned index have shown that the index doesn't need to be
+     * probed, see {@link #getValueFilterLookupCount()}.
+     */
+    long getValueFilterSkipCount();
+
+    /**
+     * Returns the number of the query predicates for which the cost-based
+     * query optimizer decided not to use the index, because a full scan or a
+     * lookup in another index was estimated to be cheaper. Always 0 unless
+     * the {@code COST} optimizer is selected with the {@code
+     * hazelcast.query.optimizer.type} property.
+     */
+    default long getOptimizerSkipCount() {
+        return 0;
+    }
+
 }
@@ -63,6 +63,8 @@ public abstract class AbstractIndex implements InternalIndex {
     private final PerIndexStats stats;
 
     private volatile TypeConverter converter;
+    private volatile IndexStatistics statistics;
+    private volatile boolean valueFilterEnabled;
 
     @SuppressFBWarnings("EI_EXPOSE_REP2")
     public AbstractIndex(
@@ -109,6 +111,40 @@ public abstract class AbstractIndex implements InternalIndex {
         return converter;
     }
 
+    @Override
+    public void enableValueFilter(int expectedValueCount) {
+        valueFilterEnabled = indexStore.enableValueFilter(expectedValueCount);
+    }
+
+    @Override
+    public void enableStatistics() {
+        if (components.length == 1) {
+            // composite values are not sampled
+            statistics = new IndexStatistics();
+        }
+    }
+
+    @Override
+    public double estimateSelectivity(Comparable value) {
+        TypeConverter converter = this.converter;
+        IndexStatistics statistics = this.statistics;
+        if (converter == null || statistics == null) {
+            return IndexStatistics.UNKNOWN;
+        }
+        return statistics.estimateEqual(converter.convert(value));
+    }
+
+    @Override
+    public double estimateSelectivity(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        TypeConverter converter = this.converter;
+        IndexStatistics statistics = this.statistics;
+        if (converter == null || statistics == null) {
+            return IndexStatistics.UNKNOWN;
+        }
+        return statistics.estimateRange(from == null ? null : converter.convert(from), fromInclusive,
+                to == null ? null : converter.convert(to), toInclusive);
+    }
+
     @Override
     public void putEntry(CachedQueryEntry newEntry, CachedQueryEntry oldEntry, QueryableEntry entryToStore,
                          OperationSource operationSource) {
@@ -129,10 +165,16 @@ public abstract class AbstractIndex implements InternalIndex {
         Object newAttributeValue = extractAttributeValue(newEntry);
         if (oldEntry == null) {
             indexStore.insert(newAttributeValue, newEntry, entryToStore, operationStats);
+            if (statistics != null) {
+                statistics.onInsert(newAttributeValue, converter);
+            }
             stats.onInsert(timestamp, operationStats, operationSource);
         } else {
             Object oldAttributeValue = extractAttributeValue(oldEntry);
             indexStore.update(oldAttributeValue, newAttributeValue, newEntry, entryToStore, operationStats);
+            if (statistics != null) {
+                statistics.onUpdate(oldAttributeValue, newAttributeValue, converter);
+            }
             stats.onUpdate(timestamp, operationStats, operationSource);
         }
     }
@@ -144,6 +186,9 @@ public abstract class AbstractIndex implements InternalIndex {
 
         Object attributeValue = extractAttributeValue(entry);
         indexStore.remove(attributeValue, entry, operationStats);
+        if (statistics != null) {
+            statistics.onRemove(attributeValue, converter);
+        }
         stats.onRemove(timestamp, operationStats, operationSource);
     }
 
@@ -261,7 +306,17 @@ public abstract class AbstractIndex implements InternalIndex {
             return emptySet();
         }
 
-        Set<QueryableEntry> result = indexStore.getRecords(convert(value));
+        Comparable convertedValue = convert(value);
+        if (valueFilterEnabled) {
+            boolean skipped = !indexStore.mightContain(convertedValue);
+            stats.onValueFilterLookup(skipped);
+            if (skipped) {
+                stats.onIndexHit(timestamp, 0);
+                return emptySet();
+            }
+        }
+
+        Set<QueryableEntry> result = indexStore.getRecords(convertedValue);
         stats.onIndexHit(timestamp, result.size());
         return result;
     }
@@ -282,7 +337,17 @@ public abstract class AbstractIndex implements InternalIndex {
         Set<Comparable> convertedValues = createHashSet(values.length);
         for (Comparable value : values) {
             Comparable converted = convert(value);
-            convertedValues.add(canonicalizeQueryArgumentScalar(converted));
+            if (!valueFilterEnabled || indexStore.mightContain(converted)) {
+                convertedValues.add(canonicalizeQueryArgumentScalar(converted));
+            }
+        }
+        if (valueFilterEnabled) {
+            boolean skipped = convertedValues.isEmpty();
+            stats.onValueFilterLookup(skipped);
+            if (skipped) {
+                stats.onIndexHit(timestamp, 0);
+                return emptySet();
+            }
         }
         Set<QueryableEntry> result = indexStore.getRecords(convertedValues);
         stats.onIndexHit(timestamp, result.size());
@@ -321,6 +386,10 @@ public abstract class AbstractIndex implements InternalIndex {
     public void clear() {
         indexStore.clear();
         converter = null;
+        IndexStatistics statistics = this.statistics;
+        if (statistics != null) {
+            statistics.clear();
+        }
         stats.onClear();
     }
 
@@ -0,0 +1,748 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+
+/**
+ * Sorted map from {@link Comparable} keys, ordered by
+ * {@link Comparables#compare}, to values, laid out as a B+tree.
+ * <p>
+ * Keys and values of a leaf are kept side by side in two arrays and
+ * leaves are linked left to right, so that a range scan walks a few
+ * dense arrays instead of chasing a node per key.
+ * <p>
+ * The tree supports a single writer and any number of concurrent
+ * readers. Callers must serialize {@link #put}, {@link #remove} and
+ * {@link #clear}. Readers never block writers for long:
+ * <ul>
+ * <li>Inner nodes are immutable. A split or a leaf removal copies the
+ * inner nodes on the path to the root and publishes a new root.
+ * <li>Leaves are modified in place under their {@link StampedLock}. A
+ * split only ever moves the upper half of a leaf into a new right
+ * sibling, so a reader which reached a leaf through an outdated root
+ * finds the moved keys by following the right links.
+ * <li>Leaves which become empty are unlinked, but keep their right link,
+ * so readers positioned on them continue with the rest of the leaves.
+ * The leftmost leaf is never removed.
+ * </ul>
+ * Iterators are weakly consistent. They never return a key twice, but
+ * may or may not reflect modifications done after their creation.
+ *
+ * @param <V> the type of the values
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class BPlusTree<V> {
+
+    /**
+     * Default maximum number of keys in a leaf and of children in an inner node.
+     */
+    static final int DEFAULT_NODE_CAPACITY = 64;
+
+    private static final int MIN_NODE_CAPACITY = 4;
+
+    private final int capacity;
+    private final Leaf head;
+
+    private volatile Node root;
+
+    BPlusTree() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    BPlusTree(int capacity) {
+        checkTrue(capacity >= MIN_NODE_CAPACITY, "capacity must be at least " + MIN_NODE_CAPACITY);
+        this.capacity = capacity;
+        this.head = new Leaf(capacity);
+        this.root = head;
+    }
+
+    /**
+     * @return the value associated with the given key or {@code null}
+     */
+    V get(Comparable key) {
+        Leaf leaf = findLeaf(key, true);
+        while (leaf != null) {
+            Leaf next;
+            long stamp = leaf.lock.readLock();
+            try {
+                int index = leaf.search(key);
+                if (index >= 0) {
+                    return (V) leaf.values[index];
+                }
+                if (-index - 1 < leaf.count) {
+                    return null;
+                }
+                next = leaf.next;
+            } finally {
+                leaf.lock.unlockRead(stamp);
+            }
+            // the key may have been moved to a right sibling by a concurrent split
+            leaf = next;
+        }
+        return null;
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @return the value previously associated with the key or {@code null}
+     */
+    V put(Comparable key, V value) {
+        Path path = new Path();
+        Leaf leaf = descend(key, path);
+        int index = leaf.search(key);
+        if (index >= 0) {
+            V oldValue = (V) leaf.values[index];
+            long stamp = leaf.lock.writeLock();
+            try {
+                leaf.values[index] = value;
+            } finally {
+                leaf.lock.unlockWrite(stamp);
+            }
+            return oldValue;
+        }
+
+        int insertionPoint = -index - 1;
+        if (leaf.count < capacity) {
+            long stamp = leaf.lock.writeLock();
+            try {
+                leaf.insert(insertionPoint, key, value);
+            } finally {
+                leaf.lock.unlockWrite(stamp);
+            }
+        } else {
+            Leaf right = leaf.split(insertionPoint, key, value);
+            propagateSplit(path, leaf, right.keys[0], right);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @return the value previously associated with the key or {@code null}
+     */
+    V remove(Comparable key) {
+        Path path = new Path();
+        Leaf leaf = descend(key, path);
+        int index = leaf.search(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V oldValue = (V) leaf.values[index];
+        long stamp = leaf.lock.writeLock();
+        try {
+            leaf.delete(index);
+        } finally {
+            leaf.lock.unlockWrite(stamp);
+        }
+        if (leaf.count == 0 && leaf != head) {
+            unlinkLeaf(path, leaf);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    void clear() {
+        long stamp = head.lock.writeLock();
+        try {
+            head.clear();
+        } finally {
+            head.lock.unlockWrite(stamp);
+        }
+        root = head;
+    }
+
+    /**
+     * Returns an iterator over the mappings with keys in the given range.
+     *
+     * @param from          the lower bound or {@code null} if unbounded
+     * @param fromInclusive {@code true} if the lower bound is inclusive
+     * @param to            the upper bound or {@code null} if unbounded
+     * @param toInclusive   {@code true} if the upper bound is inclusive
+     * @param descending    {@code true} to iterate from the highest key down
+     */
+    Iterator<Map.Entry<Comparable, V>> iterator(Comparable from, boolean fromInclusive,
+                                                  Comparable to, boolean toInclusive, boolean descending) {
+        return descending
+                ? new DescendingCursor(from, fromInclusive, to, toInclusive)
+                : new AscendingCursor(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * @return the number of levels of the tree, {@code 1} if it consists of a single leaf
+     */
+    int height() {
+        int height = 1;
+        Node node = root;
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[0];
+            height++;
+        }
+        return height;
+    }
+
+    private Leaf descend(Comparable key, Path path) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int childIndex = inner.childIndex(key, true);
+            path.push(inner, childIndex);
+            node = inner.children[childIndex];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Finds the leaf whose key range covers the given key.
+     *
+     * @param key       the key or {@code null} for the leftmost leaf
+     * @param inclusive {@code true} to route a key equal to a separator to
+     *                  the right of it, {@code false} to the left of it
+     */
+    private Leaf findLeaf(Comparable key, boolean inclusive) {
+        if (key == null) {
+            return head;
+        }
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.childIndex(key, inclusive)];
+        }
+        return (Leaf) node;
+    }
+
+    private void propagateSplit(Path path, Node left, Comparable separator, Node right) {
+        Node replacement = left;
+        for (int level = path.depth - 1; level >= 0; level--) {
+            Inner parent = path.nodes[level];
+            int childIndex = path.childIndexes[level];
+            if (right == null) {
+                replacement = parent.withChild(childIndex, replacement);
+                continue;
+            }
+            Inner expanded = parent.withSplitChild(childIndex, replacement, separator, right);
+            if (expanded.children.length <= capacity) {
+                replacement = expanded;
+                right = null;
+            } else {
+                int mid = expanded.keys.length / 2;
+                separator = expanded.keys[mid];
+                replacement = expanded.slice(0, mid);
+                right = expanded.slice(mid + 1, expanded.keys.length);
+            }
+        }
+        root = right == null
+                ? replacement
+                : new Inner(new Comparable[]{separator}, new Node[]{replacement, right});
+    }
+
+    private void unlinkLeaf(Path path, Leaf leaf) {
+        Leaf predecessor = predecessorOf(path);
+        long stamp = predecessor.lock.writeLock();
+        try {
+            predecessor.next = leaf.next;
+        } finally {
+            predecessor.lock.unlockWrite(stamp);
+        }
+
+        Node replacement = null;
+        for (int level = path.depth - 1; level >= 0; level--) {
+            Inner parent = path.nodes[level];
+            int childIndex = path.childIndexes[level];
+            if (replacement == null) {
+                replacement = parent.children.length == 1 ? null : parent.withoutChild(childIndex);
+            } else {
+                replacement = parent.withChild(childIndex, replacement);
+            }
+        }
+        // the leftmost leaf is never removed, so the root cannot vanish
+        assert replacement != null;
+        while (replacement instanceof Inner && ((Inner) replacement).children.length == 1) {
+            replacement = ((Inner) replacement).children[0];
+        }
+        root = replacement;
+    }
+
+    private static Leaf predecessorOf(Path path) {
+        int level = path.depth - 1;
+        while (path.childIndexes[level] == 0) {
+            level--;
+        }
+        Node node = path.nodes[level].children[path.childIndexes[level] - 1];
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.children.length - 1];
+        }
+        return (Leaf) node;
+    }
+
+    private abstract static class Node {
+    }
+
+    /**
+     * Immutable inner node. The child at index {@code i} holds the keys
+     * greater than or equal to {@code keys[i - 1]} and less than
+     * {@code keys[i]}.
+     */
+    private static final class Inner extends Node {
+
+        final Comparable[] keys;
+        final Node[] children;
+
+        Inner(Comparable[] keys, Node[] children) {
+            this.keys = keys;
+            this.children = children;
+        }
+
+        int childIndex(Comparable key, boolean inclusive) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = Comparables.compare(keys[mid], key);
+                if (order < 0 || order == 0 && inclusive) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        Inner withChild(int index, Node child) {
+            Node[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new Inner(keys, newChildren);
+        }
+
+        Inner withSplitChild(int index, Node left, Comparable separator, Node right) {
+            Comparable[] newKeys = new Comparable[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            newKeys[index] = separator;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = left;
+            newChildren[index + 1] = right;
+            System.arraycopy(children, index + 1, newChildren, index + 2, children.length - index - 1);
+            return new Inner(newKeys, newChildren);
+        }
+
+        Inner withoutChild(int index) {
+            int keyIndex = index == 0 ? 0 : index - 1;
+            Comparable[] newKeys = new Comparable[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, keyIndex);
+            System.arraycopy(keys, keyIndex + 1, newKeys, keyIndex, keys.length - keyIndex - 1);
+
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new Inner(newKeys, newChildren);
+        }
+
+        /**
+         * @return a node with the keys in {@code [fromKey, toKey)} and the children between them
+         */
+        Inner slice(int fromKey, int toKey) {
+            Comparable[] newKeys = new Comparable[toKey - fromKey];
+            System.arraycopy(keys, fromKey, newKeys, 0, newKeys.length);
+            Node[] newChildren = new Node[newKeys.length + 1];
+            System.arraycopy(children, fromKey, newChildren, 0, newChildren.length);
+            return new Inner(newKeys, newChildren);
+        }
+    }
+
+    /**
+     * Leaf holding up to {@code capacity} sorted keys and their values.
+     * Fields are written only by the writer under the write lock.
+     */
+    private static final class Leaf extends Node {
+
+        final StampedLock lock = new StampedLock();
+        final Comparable[] keys;
+        final Object[] values;
+        int count;
+        Leaf next;
+
+        Leaf(int capacity) {
+            this.keys = new Comparable[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /**
+         * Has to be called by the writer or under the read lock.
+         *
+         * @see java.util.Arrays#binarySearch(Object[], int, int, Object)
+         */
+        int search(Comparable key) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = Comparables.compare(keys[mid], key);
+                if (order < 0) {
+                    low = mid + 1;
+                } else if (order > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insert(int index, Comparable key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(values, index, values, index + 1, count - index);
+            keys[index] = key;
+            values[index] = value;
+            count++;
+        }
+
+        void delete(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            System.arraycopy(values, index + 1, values, index, count - index - 1);
+            count--;
+            keys[count] = null;
+            values[count] = null;
+        }
+
+        void clear() {
+            for (int i = 0; i < count; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            count = 0;
+            next = null;
+        }
+
+        /**
+         * Moves the upper half of this full leaf, with the given mapping
+         * inserted at the given position, into a new right sibling.
+         */
+        Leaf split(int insertionPoint, Comparable key, Object value) {
+            int total = count + 1;
+            Comparable[] allKeys = new Comparable[total];
+            Object[] allValues = new Object[total];
+            System.arraycopy(keys, 0, allKeys, 0, insertionPoint);
+            System.arraycopy(values, 0, allValues, 0, insertionPoint);
+            allKeys[insertionPoint] = key;
+            allValues[insertionPoint] = value;
+            System.arraycopy(keys, insertionPoint, allKeys, insertionPoint + 1, count - insertionPoint);
+            System.arraycopy(values, insertionPoint, allValues, insertionPoint + 1, count - insertionPoint);
+
+            int leftCount = total / 2;
+            Leaf right = new Leaf(keys.length);
+            right.count = total - leftCount;
+            System.arraycopy(allKeys, leftCount, right.keys, 0, right.count);
+            System.arraycopy(allValues, leftCount, right.values, 0, right.count);
+            right.next = next;
+
+            long stamp = lock.writeLock();
+            try {
+                System.arraycopy(allKeys, 0, keys, 0, leftCount);
+                System.arraycopy(allValues, 0, values, 0, leftCount);
+                for (int i = leftCount; i < count; i++) {
+                    keys[i] = null;
+                    values[i] = null;
+                }
+                count = leftCount;
+                next = right;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            return right;
+        }
+
+        /**
+         * Copies a consistent view of this leaf into the given snapshot.
+         */
+        void readInto(Snapshot snapshot) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                copyInto(snapshot);
+                if (lock.validate(stamp)) {
+                    return;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                copyInto(snapshot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void copyInto(Snapshot snapshot) {
+            // the count may be inconsistent under an optimistic read, the copy is validated afterwards
+            int n = Math.max(0, Math.min(count, keys.length));
+            System.arraycopy(keys, 0, snapshot.keys, 0, n);
+            System.arraycopy(values, 0, snapshot.values, 0, n);
+            snapshot.count = n;
+            snapshot.next = next;
+        }
+    }
+
+    /**
+     * Reusable copy of the contents of a leaf.
+     */
+    private static final class Snapshot {
+
+        final Comparable[] keys;
+        final Object[] values;
+        int count;
+        Leaf next;
+
+        Snapshot(int capacity) {
+            this.keys = new Comparable[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    /**
+     * Inner nodes visited by the writer on the way down to a leaf.
+     */
+    private static final class Path {
+
+        private static final int INITIAL_DEPTH = 8;
+
+        Inner[] nodes = new Inner[INITIAL_DEPTH];
+        int[] childIndexes = new int[INITIAL_DEPTH];
+        int depth;
+
+        void push(Inner node, int childIndex) {
+            if (depth == nodes.length) {
+                Inner[] newNodes = new Inner[depth << 1];
+                System.arraycopy(nodes, 0, newNodes, 0, depth);
+                nodes = newNodes;
+                int[] newChildIndexes = new int[depth << 1];
+                System.arraycopy(childIndexes, 0, newChildIndexes, 0, depth);
+                childIndexes = newChildIndexes;
+            }
+            nodes[depth] = node;
+            childIndexes[depth++] = childIndex;
+        }
+    }
+
+    /**
+     * Walks the leaves left to right, one leaf snapshot at a time.
+     */
+    private final class AscendingCursor implements Iterator<Map.Entry<Comparable, V>> {
+
+        private final Comparable to;
+        private final boolean toInclusive;
+        private final Snapshot snapshot = new Snapshot(capacity);
+
+        private Comparable lowerBound;
+        private boolean lowerBoundInclusive;
+        private int position;
+        private boolean exhausted;
+        private Map.Entry<Comparable, V> next;
+
+        AscendingCursor(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            this.lowerBound = from;
+            this.lowerBoundInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            findLeaf(from, true).readInto(snapshot);
+        }
+
+        @Override
+        @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+        public boolean hasNext() {
+            while (next == null && !exhausted) {
+                if (position == snapshot.count) {
+                    if (snapshot.next == null) {
+                        exhausted = true;
+                        break;
+                    }
+                    snapshot.next.readInto(snapshot);
+                    position = 0;
+                    continue;
+                }
+                Comparable key = snapshot.keys[position];
+                Object value = snapshot.values[position++];
+                if (lowerBound != null) {
+                    int order = Comparables.compare(key, lowerBound);
+                    if (order < 0 || order == 0 && !lowerBoundInclusive) {
+                        continue;
+                    }
+                }
+                if (to != null) {
+                    int order = Comparables.compare(key, to);
+                    if (order > 0 || order == 0 && !toInclusive) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                lowerBound = key;
+                lowerBoundInclusive = false;
+                next = new AbstractMap.SimpleImmutableEntry<>(key, (V) value);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Comparable, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Comparable, V> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    /**
+     * Walks the leaves right to left. Since leaves are linked only to
+     * the right, the leaf preceding the last returned key is looked up
+     * from the root each time a leaf is exhausted.
+     */
+    private final class DescendingCursor implements Iterator<Map.Entry<Comparable, V>> {
+
+        private final Comparable from;
+        private final boolean fromInclusive;
+        private final Snapshot snapshot = new Snapshot(capacity);
+        private final Snapshot lookahead = new Snapshot(capacity);
+
+        private Comparable upperBound;
+        private boolean upperBoundInclusive;
+        private int position;
+        private boolean exhausted;
+        private Map.Entry<Comparable, V> next;
+
+        DescendingCursor(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.upperBound = to;
+            this.upperBoundInclusive = toInclusive;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !exhausted) {
+                if (position == 0 && !loadPrecedingLeaf()) {
+                    exhausted = true;
+                    break;
+                }
+                Comparable key = snapshot.keys[--position];
+                Object value = snapshot.values[position];
+                if (from != null) {
+                    int order = Comparables.compare(key, from);
+                    if (order < 0 || order == 0 && !fromInclusive) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                next = new AbstractMap.SimpleImmutableEntry<>(key, (V) value);
+                if (position == 0) {
+                    upperBound = key;
+                    upperBoundInclusive = false;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Comparable, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Comparable, V> entry = next;
+            next = null;
+            return entry;
+        }
+
+        /**
+         * Loads the keys below the upper bound of the rightmost leaf having
+         * any, sets the position past the last of them.
+         */
+        @SuppressWarnings({"checkstyle:cyclomaticcomplexity", "checkstyle:npathcomplexity"})
+        private boolean loadPrecedingLeaf() {
+            Comparable seekKey = upperBound;
+            boolean seekInclusive = upperBoundInclusive;
+            while (true) {
+                Node node = root;
+                Comparable leafLowerBound = null;
+                if (seekKey == null) {
+                    while (node instanceof Inner) {
+                        Inner inner = (Inner) node;
+                        leafLowerBound = inner.keys.length == 0 ? leafLowerBound : inner.keys[inner.keys.length - 1];
+                        node = inner.children[inner.children.length - 1];
+                    }
+                } else {
+                    while (node instanceof Inner) {
+                        Inner inner = (Inner) node;
+                        int childIndex = inner.childIndex(seekKey, seekInclusive);
+                        leafLowerBound = childIndex == 0 ? leafLowerBound : inner.keys[childIndex - 1];
+                        node = inner.children[childIndex];
+                    }
+                }
+                Leaf leaf = (Leaf) node;
+                leaf.readInto(snapshot);
+                // keys below the bound may have been moved to right siblings by concurrent splits
+                while (snapshot.next != null) {
+                    snapshot.next.readInto(lookahead);
+                    if (lookahead.count == 0 || !isBelowUpperBound(lookahead.keys[0])) {
+                        break;
+                    }
+                    copy(lookahead, snapshot);
+                }
+                position = 0;
+                while (position < snapshot.count && isBelowUpperBound(snapshot.keys[position])) {
+                    position++;
+                }
+                if (position > 0) {
+                    return true;
+                }
+                if (leafLowerBound == null) {
+                    return false;
+                }
+                // all keys of the leaf are above the bound, continue left of it
+                seekKey = leafLowerBound;
+                seekInclusive = false;
+            }
+        }
+
+        private boolean isBelowUpperBound(Comparable key) {
+            if (upperBound == null) {
+                return true;
+            }
+            int order = Comparables.compare(key, upperBound);
+            return order < 0 || order == 0 && upperBoundInclusive;
+        }
+
+        private void copy(Snapshot source, Snapshot target) {
+            System.arraycopy(source.keys, 0, target.keys, 0, source.count);
+            System.arraycopy(source.values, 0, target.values, 0, source.count);
+            target.count = source.count;
+            target.next = source.next;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.Predicate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.emptySet;
+
+/**
+ * Ordered index store backed by a {@link BPlusTree}.
+ * <p>
+ * Compared to {@link OrderedIndexStore}, an attribute value does not cost
+ * a skip list node and a map of its own: values are kept in dense leaf
+ * arrays and a value associated with a single record, the common case
+ * for attributes with high cardinality, references that record directly.
+ * A map of records is created only once a value is shared by more than
+ * one record.
+ * <p>
+ * Updates are serialized by the global write lock of the store, the tree
+ * itself allows lock-free range scans concurrent with them.
+ */
+@SuppressWarnings("rawtypes")
+public class BPlusTreeIndexStore extends BaseSingleValueIndexStore {
+
+    private final BPlusTree<Object> recordTree = new BPlusTree<>();
+
+    private final IndexFunctor<Comparable, QueryableEntry> addFunctor;
+    private final IndexFunctor<Comparable, Data> removeFunctor;
+
+    private volatile Map<Data, QueryableEntry> recordsWithNullValue;
+
+    public BPlusTreeIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn, true);
+        assert copyOn != null;
+        if (copyOn == IndexCopyBehavior.COPY_ON_WRITE) {
+            addFunctor = new CopyOnWriteAddFunctor();
+            removeFunctor = new CopyOnWriteRemoveFunctor();
+            recordsWithNullValue = Collections.emptyMap();
+        } else {
+            addFunctor = new AddFunctor();
+            removeFunctor = new RemoveFunctor();
+            recordsWithNullValue = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        return addFunctor.invoke(value, record);
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        return removeFunctor.invoke(value, recordKey);
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // We still need to canonicalize query arguments for ordered indexes to
+        // support InPredicate queries.
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // Returning the original value since ordered indexes are not supporting
+        // hash lookups on their stored values, so there is no need in providing
+        // canonical representations.
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            recordTree.clear();
+            clearValueFilter();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(boolean descending) {
+        return new OrderedIndexStore.IteratorFromBatch(getSqlRecordIteratorBatch(descending));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        return new OrderedIndexStore.IteratorFromBatch(getSqlRecordIteratorBatch(value));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable searchedValue, boolean descending) {
+        return new OrderedIndexStore.IteratorFromBatch(getSqlRecordIteratorBatch(comparison, searchedValue, descending));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(
+        Comparable from,
+        boolean fromInclusive,
+        Comparable to,
+        boolean toInclusive,
+        boolean descending
+    ) {
+        return new OrderedIndexStore.IteratorFromBatch(
+                getSqlRecordIteratorBatch(from, fromInclusive, to, toInclusive, descending));
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparable value) {
+        if (value == NULL) {
+            return Stream.of(new IndexKeyEntries(value, recordsWithNullValue.values())).iterator();
+        } else {
+            Object records = recordTree.get(value);
+
+            if (records == null) {
+                return Collections.emptyIterator();
+            } else {
+                return Stream.of(new IndexKeyEntries(value, toCollection(records))).iterator();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(boolean descending) {
+        Stream<IndexKeyEntries> nullStream = Stream.of(new IndexKeyEntries(null, recordsWithNullValue.values()));
+        Stream<IndexKeyEntries> nonNullStream = toIndexKeyEntries(recordTree.iterator(null, false, null, false, descending));
+
+        if (descending) {
+            return Stream.concat(nonNullStream, nullStream).iterator();
+        } else {
+            return Stream.concat(nullStream, nonNullStream).iterator();
+        }
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(
+            Comparison comparison,
+            Comparable searchedValue,
+            boolean descending
+    ) {
+        return toIndexKeyEntries(rangeIterator(comparison, searchedValue, descending)).iterator();
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(
+            Comparable from,
+            boolean fromInclusive,
+            Comparable to,
+            boolean toInclusive,
+            boolean descending
+    ) {
+        int order = Comparables.compare(from, to);
+
+        if (order == 0) {
+            if (!fromInclusive || !toInclusive) {
+                return emptyIterator();
+            }
+            return getSqlRecordIteratorBatch(from);
+        } else if (order > 0) {
+            return emptyIterator();
+        }
+
+        return toIndexKeyEntries(recordTree.iterator(from, fromInclusive, to, toInclusive, descending)).iterator();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            if (value == NULL) {
+                return toSingleResultSet(recordsWithNullValue);
+            } else {
+                return toSingleResultSet(toMap(recordTree.get(value)));
+            }
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            for (Comparable value : values) {
+                Map<Data, QueryableEntry> records;
+                if (value == NULL) {
+                    records = recordsWithNullValue;
+                } else {
+                    records = toMap(recordTree.get(value));
+                }
+                if (records != null) {
+                    copyToMultiResultSet(results, records);
+                }
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            Iterator<Map.Entry<Comparable, Object>> iterator = rangeIterator(comparison, searchedValue, false);
+            while (iterator.hasNext()) {
+                copyToMultiResultSet(results, toMap(iterator.next().getValue()));
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            int order = Comparables.compare(from, to);
+            if (order == 0) {
+                if (!fromInclusive || !toInclusive) {
+                    return emptySet();
+                }
+                return toSingleResultSet(toMap(recordTree.get(from)));
+            } else if (order > 0) {
+                return emptySet();
+            }
+            MultiResultSet results = createMultiResultSet();
+            Iterator<Map.Entry<Comparable, Object>> iterator = recordTree.iterator(from, fromInclusive, to, toInclusive, false);
+            while (iterator.hasNext()) {
+                copyToMultiResultSet(results, toMap(iterator.next().getValue()));
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private Iterator<Map.Entry<Comparable, Object>> rangeIterator(Comparison comparison, Comparable searchedValue,
+                                                                  boolean descending) {
+        switch (comparison) {
+            case LESS:
+                return recordTree.iterator(null, false, searchedValue, false, descending);
+            case LESS_OR_EQUAL:
+                return recordTree.iterator(null, false, searchedValue, true, descending);
+            case GREATER:
+                return recordTree.iterator(searchedValue, false, null, false, descending);
+            case GREATER_OR_EQUAL:
+                return recordTree.iterator(searchedValue, true, null, false, descending);
+            default:
+                throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+        }
+    }
+
+    private static Stream<IndexKeyEntries> toIndexKeyEntries(Iterator<Map.Entry<Comparable, Object>> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .map(entry -> new IndexKeyEntries(entry.getKey(), toCollection(entry.getValue())));
+    }
+
+    /**
+     * @param records a single {@link QueryableEntry} or a map of them, may be {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Data, QueryableEntry> toMap(Object records) {
+        if (records instanceof QueryableEntry) {
+            QueryableEntry entry = (QueryableEntry) records;
+            return Collections.singletonMap(entry.getKeyData(), entry);
+        }
+        return (Map<Data, QueryableEntry>) records;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<QueryableEntry> toCollection(Object records) {
+        if (records instanceof QueryableEntry) {
+            return Collections.singletonList((QueryableEntry) records);
+        }
+        return ((Map<Data, QueryableEntry>) records).values();
+    }
+
+    /**
+     * Adds entry to the given index map without copying it.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class AddFunctor implements IndexFunctor<Comparable, QueryableEntry> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Comparable value, QueryableEntry entry) {
+            if (value == NULL) {
+                return recordsWithNullValue.put(entry.getKeyData(), entry);
+            }
+            Object records = recordTree.get(value);
+            if (records == null) {
+                recordTree.put(value, entry);
+                return null;
+            }
+            if (records instanceof QueryableEntry) {
+                QueryableEntry existing = (QueryableEntry) records;
+                if (existing.getKeyData().equals(entry.getKeyData())) {
+                    recordTree.put(value, entry);
+                    return existing;
+                }
+                Map<Data, QueryableEntry> map = new ConcurrentHashMap<>(2, LOAD_FACTOR, 1);
+                map.put(existing.getKeyData(), existing);
+                map.put(entry.getKeyData(), entry);
+                recordTree.put(value, map);
+                return null;
+            }
+            return ((Map<Data, QueryableEntry>) records).put(entry.getKeyData(), entry);
+        }
+
+    }
+
+    /**
+     * Adds entry to the given index map copying it to secure exclusive access.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class CopyOnWriteAddFunctor implements IndexFunctor<Comparable, QueryableEntry> {
+
+        @Override
+        public Object invoke(Comparable value, QueryableEntry entry) {
+            Object oldValue;
+            if (value == NULL) {
+                HashMap<Data, QueryableEntry> copy = new HashMap<>(recordsWithNullValue);
+                oldValue = copy.put(entry.getKeyData(), entry);
+                recordsWithNullValue = copy;
+            } else {
+                Map<Data, QueryableEntry> records = toMap(recordTree.get(value));
+                if (records == null) {
+                    recordTree.put(value, entry);
+                    return null;
+                }
+                if (records.size() == 1 && records.containsKey(entry.getKeyData())) {
+                    recordTree.put(value, entry);
+                    return records.get(entry.getKeyData());
+                }
+
+                records = new HashMap<>(records);
+                oldValue = records.put(entry.getKeyData(), entry);
+
+                recordTree.put(value, records);
+            }
+            return oldValue;
+        }
+
+    }
+
+    /**
+     * Removes entry from the given index map without copying it.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class RemoveFunctor implements IndexFunctor<Comparable, Data> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Comparable value, Data indexKey) {
+            if (value == NULL) {
+                return recordsWithNullValue.remove(indexKey);
+            }
+            Object records = recordTree.get(value);
+            if (records == null) {
+                return null;
+            }
+            if (records instanceof QueryableEntry) {
+                QueryableEntry existing = (QueryableEntry) records;
+                if (existing.getKeyData().equals(indexKey)) {
+                    recordTree.remove(value);
+                    return existing;
+                }
+                return null;
+            }
+            Map<Data, QueryableEntry> map = (Map<Data, QueryableEntry>) records;
+            Object oldValue = map.remove(indexKey);
+            if (map.isEmpty()) {
+                recordTree.remove(value);
+            }
+            return oldValue;
+        }
+
+    }
+
+    /**
+     * Removes entry from the given index map copying it to secure exclusive access.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class CopyOnWriteRemoveFunctor implements IndexFunctor<Comparable, Data> {
+
+        @Override
+        public Object invoke(Comparable value, Data indexKey) {
+            Object oldValue;
+            if (value == NULL) {
+                HashMap<Data, QueryableEntry> copy = new HashMap<>(recordsWithNullValue);
+                oldValue = copy.remove(indexKey);
+                recordsWithNullValue = copy;
+            } else {
+                Map<Data, QueryableEntry> records = toMap(recordTree.get(value));
+                if (records != null) {
+                    records = new HashMap<>(records);
+                    oldValue = records.remove(indexKey);
+
+                    if (records.isEmpty()) {
+                        recordTree.remove(value);
+                    } else {
+                        recordTree.put(value, records);
+                    }
+                } else {
+                    oldValue = null;
+                }
+            }
+
+            return oldValue;
+        }
+
+    }
+}
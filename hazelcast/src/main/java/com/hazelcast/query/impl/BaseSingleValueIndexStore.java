@@ -43,6 +43,8 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
      */
     private volatile boolean multiResultHasToDetectDuplicates;
 
+    private volatile CountingBloomFilter valueFilter;
+
     BaseSingleValueIndexStore(IndexCopyBehavior copyOn, boolean enableGlobalLock) {
         super(copyOn, enableGlobalLock);
     }
@@ -74,6 +76,29 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
      */
     abstract Object removeInternal(Comparable value, Data recordKey);
 
+    @Override
+    public boolean enableValueFilter(int expectedValueCount) {
+        valueFilter = new CountingBloomFilter(expectedValueCount);
+        return true;
+    }
+
+    @Override
+    public boolean mightContain(Comparable value) {
+        CountingBloomFilter filter = valueFilter;
+        return filter == null || filter.mightContain(value);
+    }
+
+    /**
+     * Clears the value filter, if any. Invoked by the subclasses while
+     * clearing the store.
+     */
+    final void clearValueFilter() {
+        CountingBloomFilter filter = valueFilter;
+        if (filter != null) {
+            filter.clear();
+        }
+    }
+
     final MultiResultSet createMultiResultSet() {
         return multiResultHasToDetectDuplicates ? new DuplicateDetectingMultiResult() : new FastMultiResultSet();
     }
@@ -122,12 +147,16 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
             List<Object> results = ((MultiResult) newValue).getResults();
             for (Object o : results) {
                 Comparable sanitizedValue = sanitizeValue(o);
+                addToValueFilter(sanitizedValue);
                 Object oldValue = insertInternal(sanitizedValue, queryableEntry);
+                onInsertedToIndex(sanitizedValue, oldValue);
                 operationStats.onEntryAdded(oldValue, newValue);
             }
         } else {
             Comparable sanitizedValue = sanitizeValue(newValue);
+            addToValueFilter(sanitizedValue);
             Object oldValue = insertInternal(sanitizedValue, queryableEntry);
+            onInsertedToIndex(sanitizedValue, oldValue);
             operationStats.onEntryAdded(oldValue, newValue);
         }
     }
@@ -142,13 +171,41 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
             for (Object o : results) {
                 Comparable sanitizedValue = sanitizeValue(o);
                 Object removedValue = removeInternal(sanitizedValue, indexKey);
+                onRemovedFromIndex(sanitizedValue, removedValue);
                 operationStats.onEntryRemoved(removedValue);
             }
         } else {
             Comparable sanitizedValue = sanitizeValue(oldValue);
             Object removedValue = removeInternal(sanitizedValue, indexKey);
+            onRemovedFromIndex(sanitizedValue, removedValue);
             operationStats.onEntryRemoved(removedValue);
         }
     }
 
+    /**
+     * Accounts the value before the record is inserted, so that concurrent
+     * lookups of global indexes never miss an inserted record.
+     */
+    private void addToValueFilter(Comparable value) {
+        CountingBloomFilter filter = valueFilter;
+        if (filter != null) {
+            filter.add(value);
+        }
+    }
+
+    private void onInsertedToIndex(Comparable value, Object replacedRecord) {
+        CountingBloomFilter filter = valueFilter;
+        // replacing a record doesn't change the number of records having the value
+        if (filter != null && replacedRecord != null) {
+            filter.remove(value);
+        }
+    }
+
+    private void onRemovedFromIndex(Comparable value, Object removedRecord) {
+        CountingBloomFilter filter = valueFilter;
+        if (filter != null && removedRecord != null) {
+            filter.remove(value);
+        }
+    }
+
 }
@@ -20,7 +20,6 @@ import com.hazelcast.config.IndexConfig;
 import com.hazelcast.core.TypeConverter;
 import com.hazelcast.internal.json.NonTerminalJsonValue;
 import com.hazelcast.internal.monitor.impl.IndexOperationStats;
-import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.collection.Long2LongHashMap;
 import com.hazelcast.internal.util.collection.Object2LongHashMap;
 import com.hazelcast.query.Predicate;
@@ -33,10 +32,10 @@ import com.hazelcast.query.impl.predicates.NotEqualPredicate;
 import com.hazelcast.query.impl.predicates.NotPredicate;
 import com.hazelcast.query.impl.predicates.OrPredicate;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -305,7 +304,7 @@ public final class BitmapIndexStore extends BaseIndexStore {
     public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
         takeReadLock();
         try {
-            return toSingleResultSet(toMap(bitmap.evaluate(predicate, new CanonicalizingConverter(converter))));
+            return toResultSet(bitmap.evaluate(predicate, new CanonicalizingConverter(converter)));
         } finally {
             releaseReadLock();
         }
@@ -422,13 +421,13 @@ public final class BitmapIndexStore extends BaseIndexStore {
         return value;
     }
 
-    private Map<Data, QueryableEntry> toMap(Iterator<QueryableEntry> iterator) {
-        Map<Data, QueryableEntry> map = new HashMap<>();
+    private static Set<QueryableEntry> toResultSet(Iterator<QueryableEntry> iterator) {
+        // the entries are materialized while the read lock is held
+        List<QueryableEntry> entries = new ArrayList<>();
         while (iterator.hasNext()) {
-            QueryableEntry entry = iterator.next();
-            map.put(entry.getKeyData(), entry);
+            entries.add(iterator.next());
         }
-        return map;
+        return new BitmapResultSet(entries);
     }
 
     private long extractLongKey(QueryableEntry entry) {
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.Data;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.internal.util.MapUtil.calculateInitialCapacity;
+
+/**
+ * Result set of a bitmap index query.
+ * <p>
+ * The entries matched by the bitmap are already distinct, so the result set
+ * keeps them in a list and knows its exact size without hashing the keys. The
+ * lookup map is built on the first {@link #contains} call only, that is when
+ * the set is combined with other result sets by {@link AndResultSet} and some
+ * other set turned out to be the smallest one.
+ * <p>
+ * Not thread-safe, like other result sets it is consumed by a single query.
+ */
+final class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private final List<QueryableEntry> entries;
+
+    private Map<Data, QueryableEntry> entriesByKey;
+
+    BitmapResultSet(List<QueryableEntry> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public boolean contains(Object mapEntry) {
+        Map<Data, QueryableEntry> entriesByKey = this.entriesByKey;
+        if (entriesByKey == null) {
+            entriesByKey = new HashMap<>(calculateInitialCapacity(entries.size()));
+            for (QueryableEntry entry : entries) {
+                entriesByKey.put(entry.getKeyData(), entry);
+            }
+            this.entriesByKey = entriesByKey;
+        }
+
+        Data keyData = ((QueryableEntry) mapEntry).getKeyData();
+        return entriesByKey.containsKey(keyData);
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return Collections.unmodifiableList(entries).iterator();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+}
@@ -166,7 +166,7 @@ public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> implements Iden
         Object targetObject;
         if (key) {
             // keyData is never null
-            if (keyData.isPortable() || keyData.isJson()) {
+            if (keyData.isPortable() || keyData.isCompact() || keyData.isJson()) {
                 targetObject = keyData;
             } else {
                 targetObject = getKey();
@@ -179,7 +179,7 @@ public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> implements Iden
                     return null;
                 }
 
-                if (valueData.isPortable() || valueData.isJson()) {
+                if (valueData.isPortable() || valueData.isCompact() || valueData.isJson()) {
                     targetObject = valueData;
                 } else {
                     targetObject = getValue();
@@ -199,6 +199,14 @@ public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> implements Iden
         return targetObject;
     }
 
+    @Override
+    protected Data getSerializedTarget(boolean key) {
+        if (key) {
+            return keyObject == null ? keyData : null;
+        }
+        return valueObject == null ? valueData : null;
+    }
+
     @Override
     public V setValue(V value) {
         throw new UnsupportedOperationException();
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.QueryException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch of map entries whose numeric attributes are extracted into primitive
+ * columns, used to evaluate predicates and aggregations on many entries at
+ * once.
+ * <p>
+ * Every column holds the values of a single attribute. The values of a
+ * column in a batch are all of the class of the attribute value of the first
+ * entry added to the batch: {@code long} columns hold {@link Long}, {@link
+ * Integer}, {@link Short} or {@link Byte} values, {@code double} columns hold
+ * {@link Double} or {@link Float} values. Entries whose attribute values are
+ * {@code null}, multi-valued, of another class or not numeric are not added
+ * and have to be processed entry by entry, as well as the entries whose
+ * attributes can't be extracted.
+ * <p>
+ * The rows of a batch are selected by bitmaps of {@link #SELECTION_LENGTH}
+ * words: the bit {@code i % 64} of the word {@code i / 64} is set if the
+ * row {@code i} is selected. Bits of the rows after the {@link #size()} of
+ * the batch are never set.
+ * <p>
+ * The batch is not thread-safe.
+ */
+public final class ColumnBatch {
+
+    /**
+     * The maximum number of rows of a batch.
+     */
+    public static final int CAPACITY = 1024;
+
+    /**
+     * The number of words of a selection bitmap.
+     */
+    public static final int SELECTION_LENGTH = CAPACITY / Long.SIZE;
+
+    /**
+     * The shift turning the index of a selection word into the index of
+     * its first row.
+     */
+    public static final int WORD_SHIFT = 6;
+
+    private final List<String> attributes = new ArrayList<>();
+
+    private Object[] row;
+    private Class<?>[] classes;
+    private Comparable[] samples;
+    private boolean[] floatingPoint;
+    private long[][] longColumns;
+    private double[][] doubleColumns;
+    private int size;
+
+    /**
+     * Adds a column for the given attribute, unless the batch already has
+     * one. Columns may only be added before the first row is added.
+     *
+     * @param attribute the attribute whose values are kept in the column
+     * @return the index of the column of the attribute
+     */
+    public int addColumn(String attribute) {
+        if (row != null) {
+            throw new IllegalStateException("Columns can't be added once rows are added");
+        }
+        int column = attributes.indexOf(attribute);
+        if (column < 0) {
+            column = attributes.size();
+            attributes.add(attribute);
+        }
+        return column;
+    }
+
+    /**
+     * Extracts the attribute values of the given entry into the next row
+     * of the batch.
+     *
+     * @param entry the entry to add
+     * @return {@code true} if the entry was added, {@code false} if any of
+     * its attribute values can't be kept in the columns of this batch
+     */
+    public boolean add(Extractable entry) {
+        if (row == null) {
+            allocate();
+        }
+
+        int columnCount = attributes.size();
+        for (int column = 0; column < columnCount; column++) {
+            Object value;
+            try {
+                value = entry.getAttributeValue(attributes.get(column));
+            } catch (QueryException e) {
+                // the entry by entry processing may not need the attribute
+                // at all, e.g. if it is read by the second operand of an OR
+                return false;
+            }
+            if (value == null || (size == 0 ? !isSupported(value.getClass()) : value.getClass() != classes[column])) {
+                return false;
+            }
+            row[column] = value;
+        }
+
+        for (int column = 0; column < columnCount; column++) {
+            Object value = row[column];
+            row[column] = null;
+            if (size == 0) {
+                startColumn(column, value);
+            }
+            if (floatingPoint[column]) {
+                doubleColumns[column][size] = ((Number) value).doubleValue();
+            } else {
+                longColumns[column][size] = ((Number) value).longValue();
+            }
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes all rows of the batch, the columns are kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of rows of the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the batch has {@link #CAPACITY} rows
+     */
+    public boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    /**
+     * @return the number of columns of the batch
+     */
+    public int getColumnCount() {
+        return attributes.size();
+    }
+
+    /**
+     * @return the class of all the values of the given column, {@code null}
+     * if the batch is empty
+     */
+    public Class<?> getColumnClass(int column) {
+        return size == 0 ? null : classes[column];
+    }
+
+    /**
+     * @return the attribute value of the first row in the given column as
+     * it was extracted, {@code null} if the batch is empty
+     */
+    public Comparable getSampleValue(int column) {
+        return size == 0 ? null : samples[column];
+    }
+
+    /**
+     * @return {@code true} if the given column holds {@link Double} or
+     * {@link Float} values in a {@code double} column
+     */
+    public boolean isDoubleColumn(int column) {
+        return size != 0 && floatingPoint[column];
+    }
+
+    /**
+     * @return the values of the given {@code long} column, valid up to the
+     * {@link #size()} of the batch
+     */
+    public long[] getLongColumn(int column) {
+        return longColumns[column];
+    }
+
+    /**
+     * @return the values of the given {@code double} column, valid up to the
+     * {@link #size()} of the batch
+     */
+    public double[] getDoubleColumn(int column) {
+        return doubleColumns[column];
+    }
+
+    /**
+     * @return the number of words of a selection bitmap covering the given
+     * number of rows
+     */
+    public static int selectionLength(int size) {
+        return (size + Long.SIZE - 1) >>> WORD_SHIFT;
+    }
+
+    /**
+     * @return the mask of the rows in the given word of a selection
+     * bitmap covering the given number of rows
+     */
+    public static long selectionMask(int size, int word) {
+        int rows = size - (word << WORD_SHIFT);
+        return rows >= Long.SIZE ? -1L : (1L << rows) - 1;
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public static int count(long[] selection, int size) {
+        int count = 0;
+        for (int word = selectionLength(size) - 1; word >= 0; word--) {
+            count += Long.bitCount(selection[word]);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the selected values, overflowing silently
+     */
+    public static long sum(long[] values, long[] selection, int size) {
+        long sum = 0;
+        int length = selectionLength(size);
+        for (int word = 0; word < length; word++) {
+            long bits = selection[word];
+            int base = word << WORD_SHIFT;
+            while (bits != 0) {
+                sum += values[base + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the selected values to the given sum one by one in the order of
+     * the rows, so the rounding is the same as if they were added to the
+     * sum by the caller.
+     *
+     * @return the given sum plus the selected values
+     */
+    public static double sum(double sum, double[] values, long[] selection, int size) {
+        int length = selectionLength(size);
+        for (int word = 0; word < length; word++) {
+            long bits = selection[word];
+            int base = word << WORD_SHIFT;
+            while (bits != 0) {
+                sum += values[base + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the selected values converted to {@code double} to the given sum
+     * one by one in the order of the rows.
+     *
+     * @return the given sum plus the selected values
+     */
+    public static double sum(double sum, long[] values, long[] selection, int size) {
+        int length = selectionLength(size);
+        for (int word = 0; word < length; word++) {
+            long bits = selection[word];
+            int base = word << WORD_SHIFT;
+            while (bits != 0) {
+                sum += values[base + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return {@code true} if the given class is integral
+     * and kept in {@code long} columns
+     */
+    public static boolean isLongColumnClass(Class<?> clazz) {
+        return clazz == Long.class || clazz == Integer.class || clazz == Short.class || clazz == Byte.class;
+    }
+
+    private static boolean isSupported(Class<?> clazz) {
+        return isLongColumnClass(clazz) || clazz == Double.class || clazz == Float.class;
+    }
+
+    private void allocate() {
+        int columnCount = attributes.size();
+        row = new Object[columnCount];
+        classes = new Class<?>[columnCount];
+        samples = new Comparable[columnCount];
+        floatingPoint = new boolean[columnCount];
+        longColumns = new long[columnCount][];
+        doubleColumns = new double[columnCount][];
+    }
+
+    private void startColumn(int column, Object value) {
+        Class<?> clazz = value.getClass();
+        classes[column] = clazz;
+        samples[column] = (Comparable) value;
+        floatingPoint[column] = !isLongColumnClass(clazz);
+        if (floatingPoint[column] && doubleColumns[column] == null) {
+            doubleColumns[column] = new double[CAPACITY];
+        } else if (!floatingPoint[column] && longColumns[column] == null) {
+            longColumns[column] = new long[CAPACITY];
+        }
+    }
+}
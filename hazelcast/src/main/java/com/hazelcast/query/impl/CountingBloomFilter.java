@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.hazelcast.internal.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * Counting Bloom filter of the attribute values indexed by an index store.
+ * <p>
+ * Each value is mapped to {@link #HASH_COUNT} 4-bit counters which are
+ * incremented when a record having the value is added to the store and
+ * decremented when the record is removed, so the filter follows the store
+ * without being rebuilt. Saturated counters are never decremented, an
+ * overloaded filter just becomes less selective but never reports an indexed
+ * value as absent.
+ * <p>
+ * Values are hashed in their canonical form for hash lookups, so values which
+ * are considered equal by the index, like {@code 1} and {@code 1L}, share
+ * their counters.
+ * <p>
+ * The filter is thread-safe: global indexes are updated by all the
+ * partition threads. The counters are packed into ints which are updated
+ * as a whole with compare-and-set.
+ */
+@SuppressWarnings("rawtypes")
+final class CountingBloomFilter {
+
+    /**
+     * The number of counters a value is mapped to.
+     */
+    static final int HASH_COUNT = 4;
+
+    /**
+     * The number of counters allocated per expected value, gives around 2%
+     * false positive rate when the filter holds the expected number of
+     * values.
+     */
+    static final int COUNTERS_PER_VALUE = 8;
+
+    private static final int MIN_COUNTER_COUNT = 64;
+    private static final int MAX_COUNTER_COUNT = 1 << 30;
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+    private static final int COUNTERS_PER_INT_SHIFT = 3;
+    private static final int COUNTER_INDEX_MASK = (1 << COUNTERS_PER_INT_SHIFT) - 1;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final AtomicIntegerArray counters;
+    private final int mask;
+
+    /**
+     * @param expectedValueCount the number of records the filter is sized for.
+     */
+    CountingBloomFilter(int expectedValueCount) {
+        long desiredCounterCount = (long) expectedValueCount * COUNTERS_PER_VALUE;
+        int counterCount = (int) Math.max(MIN_COUNTER_COUNT, Math.min(MAX_COUNTER_COUNT, desiredCounterCount));
+        counterCount = nextPowerOfTwo(counterCount);
+        this.counters = new AtomicIntegerArray(counterCount >>> COUNTERS_PER_INT_SHIFT);
+        this.mask = counterCount - 1;
+    }
+
+    /**
+     * Accounts a record having the given value.
+     */
+    void add(Comparable value) {
+        int hash = hash(value);
+        int step = step(hash);
+        for (int i = 0; i < HASH_COUNT; ++i) {
+            int counter = (hash + i * step) & mask;
+            int slot = counter >>> COUNTERS_PER_INT_SHIFT;
+            int shift = (counter & COUNTER_INDEX_MASK) * COUNTER_BITS;
+            int word;
+            do {
+                word = counters.get(slot);
+            } while (((word >>> shift) & COUNTER_MAX) != COUNTER_MAX
+                    && !counters.compareAndSet(slot, word, word + (1 << shift)));
+        }
+    }
+
+    /**
+     * Discounts a record having the given value, the record must have been
+     * accounted by {@link #add} before.
+     */
+    void remove(Comparable value) {
+        int hash = hash(value);
+        int step = step(hash);
+        for (int i = 0; i < HASH_COUNT; ++i) {
+            int counter = (hash + i * step) & mask;
+            int slot = counter >>> COUNTERS_PER_INT_SHIFT;
+            int shift = (counter & COUNTER_INDEX_MASK) * COUNTER_BITS;
+            int word;
+            int count;
+            do {
+                word = counters.get(slot);
+                count = (word >>> shift) & COUNTER_MAX;
+                // saturated counters lost track of the actual count
+                assert count > 0;
+            } while (count != COUNTER_MAX && !counters.compareAndSet(slot, word, word - (1 << shift)));
+        }
+    }
+
+    /**
+     * @return {@code false} if no record having the given value is accounted
+     * by this filter, {@code true} if such a record might be accounted.
+     */
+    boolean mightContain(Comparable value) {
+        int hash = hash(value);
+        int step = step(hash);
+        for (int i = 0; i < HASH_COUNT; ++i) {
+            int counter = (hash + i * step) & mask;
+            int shift = (counter & COUNTER_INDEX_MASK) * COUNTER_BITS;
+            if (((counters.get(counter >>> COUNTERS_PER_INT_SHIFT) >>> shift) & COUNTER_MAX) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discounts all the records.
+     */
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * @return the number of the counters of this filter.
+     */
+    int counterCount() {
+        return mask + 1;
+    }
+
+    private static int hash(Comparable value) {
+        if (value instanceof CompositeValue) {
+            int hash = 1;
+            for (Comparable component : ((CompositeValue) value).getComponents()) {
+                hash = HASH_MULTIPLIER * hash + canonicalHash(component);
+            }
+            return fastIntMix(hash);
+        }
+        return fastIntMix(canonicalHash(value));
+    }
+
+    private static int canonicalHash(Comparable value) {
+        return value == null ? 0 : Comparables.canonicalizeForHashLookup(value).hashCode();
+    }
+
+    private static int step(int hash) {
+        // odd steps visit distinct counters of a power of two sized table
+        return MurmurHash3_fmix(hash) | 1;
+    }
+
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.query.impl.getters.Extractors;
@@ -25,6 +26,30 @@ import com.hazelcast.query.impl.getters.Extractors;
  * Provides on-heap indexes.
  */
 public class DefaultIndexProvider implements IndexProvider {
+
+    private final boolean bplusTreeEnabled;
+    private final boolean flatHashEnabled;
+
+    public DefaultIndexProvider() {
+        this(false, false);
+    }
+
+    /**
+     * @param bplusTreeEnabled {@code true} if sorted indexes should be backed
+     *                         by {@link BPlusTreeIndexStore}
+     * @param flatHashEnabled  {@code true} if hash indexes should be backed
+     *                         by {@link FlatHashIndexStore}
+     */
+    public DefaultIndexProvider(boolean bplusTreeEnabled, boolean flatHashEnabled) {
+        this.bplusTreeEnabled = bplusTreeEnabled;
+        this.flatHashEnabled = flatHashEnabled;
+    }
+
+    @Override
+    public boolean isFlatHashIndexStoreEnabled() {
+        return flatHashEnabled;
+    }
+
     @Override
     public InternalIndex createIndex(
             IndexConfig config,
@@ -33,6 +58,12 @@ public class DefaultIndexProvider implements IndexProvider {
             IndexCopyBehavior copyBehavior,
             PerIndexStats stats,
             int partitionCount) {
+        if (bplusTreeEnabled && config.getType() == IndexType.SORTED) {
+            return new BPlusTreeIndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount);
+        }
+        if (flatHashEnabled && config.getType() == IndexType.HASH) {
+            return new FlatHashIndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount);
+        }
         return new IndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount);
     }
 }
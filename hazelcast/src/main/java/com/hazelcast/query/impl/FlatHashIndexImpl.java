@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.query.impl.getters.Extractors;
+
+/**
+ * On-heap index which backs {@link IndexType#HASH hash} indexes by a
+ * {@link FlatHashIndexStore}, other index types are handled the same way
+ * as by {@link IndexImpl}.
+ */
+public class FlatHashIndexImpl extends IndexImpl {
+
+    public FlatHashIndexImpl(
+            IndexConfig config,
+            InternalSerializationService ss,
+            Extractors extractors,
+            IndexCopyBehavior copyBehavior,
+            PerIndexStats stats,
+            int partitionCount
+    ) {
+        super(config, ss, extractors, copyBehavior, stats, partitionCount);
+    }
+
+    @Override
+    protected IndexStore createIndexStore(IndexConfig config, PerIndexStats stats) {
+        if (config.getType() == IndexType.HASH) {
+            return new FlatHashIndexStore(copyBehavior);
+        }
+        return super.createIndexStore(config, stats);
+    }
+}
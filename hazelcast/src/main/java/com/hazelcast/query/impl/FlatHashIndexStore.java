@@ -0,0 +1,748 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.Predicate;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+
+/**
+ * Hash index store backed by a single flat open addressing table.
+ * <p>
+ * Each slot of the table holds an attribute value along with a single record
+ * having the value, so records are referenced inline instead of costing a
+ * node of the value map and a node of a per-value record map as in {@link
+ * UnorderedIndexStore}. Slots are probed linearly starting from the slot
+ * designated by the attribute value hash, so all the records of a value are
+ * found in the probe run of the value.
+ * <p>
+ * To keep the probe runs short for values shared by many records, once a
+ * value is associated with more than {@link #MAX_INLINE_RECORDS} records its
+ * records are moved to a single slot holding a map of them.
+ * <p>
+ * Updates are serialized by the global lock of the store, while reads don't
+ * take it, like the reads of the concurrent maps of {@link
+ * UnorderedIndexStore}. Slots are published by writing their value last and
+ * a table is replaced as a whole when it is resized, so readers see either
+ * the old or the new state of a slot.
+ */
+@SuppressWarnings({"rawtypes", "checkstyle:methodcount"})
+public class FlatHashIndexStore extends BaseSingleValueIndexStore {
+
+    /**
+     * The maximum ratio of occupied slots to the table capacity.
+     */
+    static final float TABLE_LOAD_FACTOR = 0.6f;
+
+    /**
+     * The maximum number of records of a single value stored inline.
+     */
+    static final int MAX_INLINE_RECORDS = 8;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Object TOMBSTONE = new Object();
+
+    private final boolean copyOnWrite;
+
+    private volatile Table table;
+
+    private volatile Map<Data, QueryableEntry> recordsWithNullValue;
+
+    public FlatHashIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn, true);
+        this.copyOnWrite = copyOn == IndexCopyBehavior.COPY_ON_WRITE;
+        this.recordsWithNullValue = copyOnWrite ? Collections.emptyMap() : new ConcurrentHashMap<>();
+        this.table = new Table(INITIAL_CAPACITY);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:npathcomplexity")
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        if (value == NULL) {
+            return putRecordWithNullValue(record);
+        }
+
+        Table table = this.table;
+        Data recordKey = record.getKeyData();
+        int hash = hash(value);
+        int freeSlot = -1;
+        int inlineRecords = 0;
+        for (int slot = hash & table.mask; ; slot = (slot + 1) & table.mask) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue == null || slotValue == TOMBSTONE) {
+                if (freeSlot == -1) {
+                    freeSlot = slot;
+                }
+                if (slotValue == null) {
+                    break;
+                }
+                continue;
+            }
+            if (table.hashes[slot] != hash || !slotValue.equals(value)) {
+                continue;
+            }
+
+            Object slotRecords = table.records.get(slot);
+            if (!(slotRecords instanceof QueryableEntry)) {
+                return putToBucket(table, slot, recordKey, record);
+            }
+            QueryableEntry existing = (QueryableEntry) slotRecords;
+            if (existing.getKeyData().equals(recordKey)) {
+                table.records.set(slot, record);
+                return existing;
+            }
+            ++inlineRecords;
+        }
+
+        if (inlineRecords == MAX_INLINE_RECORDS) {
+            moveToBucket(table, freeSlot, value, hash, record);
+        } else {
+            occupy(table, freeSlot, value, hash, record);
+        }
+        return null;
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        if (value == NULL) {
+            return removeRecordWithNullValue(recordKey);
+        }
+
+        Table table = this.table;
+        int hash = hash(value);
+        for (int slot = hash & table.mask; ; slot = (slot + 1) & table.mask) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue == null) {
+                return null;
+            }
+            if (slotValue == TOMBSTONE || table.hashes[slot] != hash || !slotValue.equals(value)) {
+                continue;
+            }
+
+            Object slotRecords = table.records.get(slot);
+            if (!(slotRecords instanceof QueryableEntry)) {
+                return removeFromBucket(table, slot, recordKey);
+            }
+            QueryableEntry existing = (QueryableEntry) slotRecords;
+            if (existing.getKeyData().equals(recordKey)) {
+                free(table, slot);
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // Using a storage representation for arguments here to save on
+        // conversions later.
+        return canonicalizeScalarForStorage(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        return UnorderedIndexStore.canonicalizeScalar(value);
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            table = new Table(INITIAL_CAPACITY);
+            clearValueFilter();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(boolean descending) {
+        Table table = this.table;
+        List<QueryableEntry> result = new ArrayList<>(recordsWithNullValue.values());
+        for (int slot = 0; slot < table.capacity(); ++slot) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue != null && slotValue != TOMBSTONE) {
+                addRecords(result, table.records.get(slot));
+            }
+        }
+        return result.iterator();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        if (value == NULL) {
+            return recordsWithNullValue.values().iterator();
+        }
+
+        Map<Data, QueryableEntry> result = lookup(UnorderedIndexStore.canonicalize(value));
+        if (result == null) {
+            return Collections.emptyIterator();
+        }
+        return result.values().iterator();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable value, boolean descending) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(
+            Comparable from,
+            boolean fromInclusive,
+            Comparable to,
+            boolean toInclusive,
+            boolean descending
+    ) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparable value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(boolean descending) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparison comparison, Comparable value, boolean descending) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(
+            Comparable from,
+            boolean fromInclusive,
+            Comparable to,
+            boolean toInclusive,
+            boolean descending
+    ) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        if (value == NULL) {
+            return toSingleResultSet(recordsWithNullValue);
+        } else {
+            return toSingleResultSet(lookup(UnorderedIndexStore.canonicalize(value)));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        MultiResultSet results = createMultiResultSet();
+        for (Comparable value : values) {
+            Map<Data, QueryableEntry> records;
+            if (value == NULL) {
+                records = recordsWithNullValue;
+            } else {
+                // value is already canonicalized by the associated index
+                records = lookup(value);
+            }
+            if (records != null) {
+                copyToMultiResultSet(results, records);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable value) {
+        Table table = this.table;
+        MultiResultSet results = createMultiResultSet();
+        Map<Data, QueryableEntry> inlineRecords = new HashMap<>();
+        for (int slot = 0; slot < table.capacity(); ++slot) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue != null && slotValue != TOMBSTONE
+                    && matches(comparison, Comparables.compare(value, (Comparable) slotValue))) {
+                collect(results, inlineRecords, table.records.get(slot));
+            }
+        }
+        copyToMultiResultSet(results, inlineRecords);
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:npathcomplexity")
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        MultiResultSet results = createMultiResultSet();
+        if (Comparables.compare(from, to) == 0) {
+            if (!fromInclusive || !toInclusive) {
+                return results;
+            }
+
+            Map<Data, QueryableEntry> records = lookup(UnorderedIndexStore.canonicalize(from));
+            if (records != null) {
+                copyToMultiResultSet(results, records);
+            }
+            return results;
+        }
+
+        Table table = this.table;
+        int fromBound = fromInclusive ? 0 : +1;
+        int toBound = toInclusive ? 0 : -1;
+        Map<Data, QueryableEntry> inlineRecords = new HashMap<>();
+        for (int slot = 0; slot < table.capacity(); ++slot) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue == null || slotValue == TOMBSTONE) {
+                continue;
+            }
+            Comparable value = (Comparable) slotValue;
+            if (Comparables.compare(value, from) >= fromBound && Comparables.compare(value, to) <= toBound) {
+                collect(results, inlineRecords, table.records.get(slot));
+            }
+        }
+        copyToMultiResultSet(results, inlineRecords);
+        return results;
+    }
+
+    /**
+     * @return the current number of slots of the table, for testing
+     */
+    int capacity() {
+        return table.capacity();
+    }
+
+    /**
+     * Finds the records associated with the given value.
+     *
+     * @return the bucket of the value, a view of its inline records or
+     * {@code null} if there are none
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Data, QueryableEntry> lookup(Comparable value) {
+        Table table = this.table;
+        int hash = hash(value);
+        for (int slot = hash & table.mask; ; slot = (slot + 1) & table.mask) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue == null) {
+                return null;
+            }
+            if (slotValue == TOMBSTONE || table.hashes[slot] != hash || !slotValue.equals(value)) {
+                continue;
+            }
+
+            Object slotRecords = table.records.get(slot);
+            if (slotRecords instanceof QueryableEntry) {
+                return new InlineRecords(table, slot, value, hash);
+            } else if (slotRecords != null) {
+                // the bucket holds all the records of the value
+                return (Map<Data, QueryableEntry>) slotRecords;
+            }
+        }
+    }
+
+    private static boolean matches(Comparison comparison, int order) {
+        switch (comparison) {
+            case LESS:
+                return order > 0;
+            case LESS_OR_EQUAL:
+                return order >= 0;
+            case GREATER:
+                return order < 0;
+            case GREATER_OR_EQUAL:
+                return order <= 0;
+            default:
+                throw new IllegalStateException("Unrecognized comparison: " + comparison);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(MultiResultSet results, Map<Data, QueryableEntry> inlineRecords, Object slotRecords) {
+        if (slotRecords instanceof QueryableEntry) {
+            QueryableEntry record = (QueryableEntry) slotRecords;
+            inlineRecords.put(record.getKeyData(), record);
+        } else if (slotRecords != null) {
+            copyToMultiResultSet(results, (Map<Data, QueryableEntry>) slotRecords);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addRecords(List<QueryableEntry> result, Object slotRecords) {
+        if (slotRecords instanceof QueryableEntry) {
+            result.add((QueryableEntry) slotRecords);
+        } else if (slotRecords != null) {
+            result.addAll(((Map<Data, QueryableEntry>) slotRecords).values());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object putToBucket(Table table, int slot, Data recordKey, QueryableEntry record) {
+        Map<Data, QueryableEntry> bucket = (Map<Data, QueryableEntry>) table.records.get(slot);
+        if (copyOnWrite) {
+            bucket = new HashMap<>(bucket);
+            Object oldValue = bucket.put(recordKey, record);
+            table.records.set(slot, bucket);
+            return oldValue;
+        }
+        return bucket.put(recordKey, record);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object removeFromBucket(Table table, int slot, Data recordKey) {
+        Map<Data, QueryableEntry> bucket = (Map<Data, QueryableEntry>) table.records.get(slot);
+        Object oldValue;
+        if (copyOnWrite) {
+            bucket = new HashMap<>(bucket);
+            oldValue = bucket.remove(recordKey);
+            table.records.set(slot, bucket);
+        } else {
+            oldValue = bucket.remove(recordKey);
+        }
+        if (bucket.isEmpty()) {
+            free(table, slot);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Moves the inline records of the given value along with the given new
+     * record to a single bucket slot. The bucket is published before the
+     * inline records are removed, so readers don't miss any of them.
+     */
+    private void moveToBucket(Table table, int freeSlot, Comparable value, int hash, QueryableEntry record) {
+        Map<Data, QueryableEntry> bucket = copyOnWrite
+                ? new HashMap<>() : new ConcurrentHashMap<>(MAX_INLINE_RECORDS * 2, LOAD_FACTOR, 1);
+        bucket.put(record.getKeyData(), record);
+        for (int slot = hash & table.mask; table.values.get(slot) != null; slot = (slot + 1) & table.mask) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue != TOMBSTONE && table.hashes[slot] == hash && slotValue.equals(value)) {
+                QueryableEntry inlineRecord = (QueryableEntry) table.records.get(slot);
+                bucket.put(inlineRecord.getKeyData(), inlineRecord);
+            }
+        }
+
+        // the table may be replaced by a bigger one while occupying the slot
+        occupy(table, freeSlot, value, hash, bucket);
+        table = this.table;
+        for (int slot = hash & table.mask; table.values.get(slot) != null; slot = (slot + 1) & table.mask) {
+            Object slotValue = table.values.get(slot);
+            if (slotValue != TOMBSTONE && table.hashes[slot] == hash && slotValue.equals(value)
+                    && table.records.get(slot) instanceof QueryableEntry) {
+                free(table, slot);
+            }
+        }
+    }
+
+    private void occupy(Table table, int slot, Comparable value, int hash, Object slotRecords) {
+        if (table.values.get(slot) == null) {
+            ++table.occupied;
+        }
+        table.hashes[slot] = hash;
+        table.records.set(slot, slotRecords);
+        // publishes the slot
+        table.values.set(slot, value);
+        ++table.size;
+
+        if (table.occupied > table.capacity() * TABLE_LOAD_FACTOR) {
+            // grow if the table is mostly occupied by values, purge tombstones otherwise
+            rehash(table, table.size > table.capacity() * TABLE_LOAD_FACTOR / 2 ? table.capacity() << 1 : table.capacity());
+        }
+    }
+
+    private static void free(Table table, int slot) {
+        --table.size;
+        if (table.values.get((slot + 1) & table.mask) == null) {
+            // no probe run continues past the slot, so it may be freed completely
+            table.values.set(slot, null);
+            --table.occupied;
+        } else {
+            table.values.set(slot, TOMBSTONE);
+        }
+        table.records.set(slot, null);
+    }
+
+    private void rehash(Table oldTable, int capacity) {
+        Table newTable = new Table(capacity);
+        for (int oldSlot = 0; oldSlot < oldTable.capacity(); ++oldSlot) {
+            Object value = oldTable.values.get(oldSlot);
+            if (value == null || value == TOMBSTONE) {
+                continue;
+            }
+            int hash = oldTable.hashes[oldSlot];
+            int slot = hash & newTable.mask;
+            while (newTable.values.get(slot) != null) {
+                slot = (slot + 1) & newTable.mask;
+            }
+            newTable.hashes[slot] = hash;
+            newTable.records.lazySet(slot, oldTable.records.get(oldSlot));
+            newTable.values.lazySet(slot, value);
+            ++newTable.occupied;
+            ++newTable.size;
+        }
+        // publishes the new table along with all of its slots
+        table = newTable;
+    }
+
+    private Object putRecordWithNullValue(QueryableEntry record) {
+        if (copyOnWrite) {
+            HashMap<Data, QueryableEntry> copy = new HashMap<>(recordsWithNullValue);
+            Object oldValue = copy.put(record.getKeyData(), record);
+            recordsWithNullValue = copy;
+            return oldValue;
+        }
+        return recordsWithNullValue.put(record.getKeyData(), record);
+    }
+
+    private Object removeRecordWithNullValue(Data recordKey) {
+        if (copyOnWrite) {
+            HashMap<Data, QueryableEntry> copy = new HashMap<>(recordsWithNullValue);
+            Object oldValue = copy.remove(recordKey);
+            recordsWithNullValue = copy;
+            return oldValue;
+        }
+        return recordsWithNullValue.remove(recordKey);
+    }
+
+    private static int hash(Object value) {
+        return fastIntMix(value.hashCode());
+    }
+
+    /**
+     * The slots of the store. The slot counters are accessed by the writers
+     * only.
+     */
+    private static final class Table {
+
+        /**
+         * Attribute values, {@code null} for a free slot and {@link #TOMBSTONE}
+         * for a slot of a removed record.
+         */
+        final AtomicReferenceArray<Object> values;
+
+        /**
+         * A {@link QueryableEntry} or a map of them for each value.
+         */
+        final AtomicReferenceArray<Object> records;
+
+        /**
+         * Spread hashes of the attribute values.
+         */
+        final int[] hashes;
+
+        final int mask;
+
+        /**
+         * The number of the slots holding values or tombstones.
+         */
+        int occupied;
+
+        /**
+         * The number of the slots holding values.
+         */
+        int size;
+
+        Table(int capacity) {
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.records = new AtomicReferenceArray<>(capacity);
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    /**
+     * A view of the inline records of a value which spares copying them to
+     * a map on every lookup. Like the views of the concurrent maps, it
+     * reflects the concurrent updates of the probe run of the value.
+     */
+    private static final class InlineRecords extends AbstractMap<Data, QueryableEntry> {
+
+        private final Table table;
+        private final int firstSlot;
+        private final Comparable value;
+        private final int hash;
+
+        InlineRecords(Table table, int firstSlot, Comparable value, int hash) {
+            this.table = table;
+            this.firstSlot = firstSlot;
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        public QueryableEntry get(Object key) {
+            for (Iterator<QueryableEntry> iterator = new RecordIterator(); iterator.hasNext(); ) {
+                QueryableEntry record = iterator.next();
+                if (record.getKeyData().equals(key)) {
+                    return record;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Iterator<QueryableEntry> iterator = new RecordIterator(); iterator.hasNext(); iterator.next()) {
+                ++size;
+            }
+            return size;
+        }
+
+        @Override
+        public Collection<QueryableEntry> values() {
+            return new AbstractCollection<QueryableEntry>() {
+                @Override
+                public Iterator<QueryableEntry> iterator() {
+                    return new RecordIterator();
+                }
+
+                @Override
+                public int size() {
+                    return InlineRecords.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<Data, QueryableEntry>> entrySet() {
+            return new AbstractSet<Entry<Data, QueryableEntry>>() {
+                @Override
+                public Iterator<Entry<Data, QueryableEntry>> iterator() {
+                    RecordIterator records = new RecordIterator();
+                    return new Iterator<Entry<Data, QueryableEntry>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return records.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Data, QueryableEntry> next() {
+                            QueryableEntry record = records.next();
+                            return new SimpleImmutableEntry<>(record.getKeyData(), record);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return InlineRecords.this.size();
+                }
+            };
+        }
+
+        /**
+         * Iterates the records of the value in its probe run.
+         */
+        private final class RecordIterator implements Iterator<QueryableEntry> {
+
+            private int slot = firstSlot;
+            private Iterator<QueryableEntry> bucket;
+            private QueryableEntry next;
+
+            RecordIterator() {
+                advance();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public QueryableEntry next() {
+                QueryableEntry record = next;
+                if (record == null) {
+                    throw new NoSuchElementException();
+                }
+                advance();
+                return record;
+            }
+
+            @SuppressWarnings({"unchecked", "checkstyle:cyclomaticcomplexity"})
+            private void advance() {
+                next = null;
+                if (bucket != null && bucket.hasNext()) {
+                    next = bucket.next();
+                    return;
+                }
+                while (slot != -1) {
+                    int current = slot;
+                    Object slotValue = table.values.get(current);
+                    slot = (current + 1) & table.mask;
+                    if (slotValue == null || slot == firstSlot) {
+                        // the probe run ended or wrapped around the table
+                        slot = -1;
+                    }
+                    if (slotValue == null || slotValue == TOMBSTONE || table.hashes[current] != hash
+                            || !slotValue.equals(value)) {
+                        continue;
+                    }
+                    Object slotRecords = table.records.get(current);
+                    if (slotRecords instanceof QueryableEntry) {
+                        next = (QueryableEntry) slotRecords;
+                        return;
+                    } else if (slotRecords != null) {
+                        // the records have been moved to a bucket concurrently
+                        bucket = ((Map<Data, QueryableEntry>) slotRecords).values().iterator();
+                        if (bucket.hasNext()) {
+                            next = bucket.next();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -297,6 +297,16 @@ public class GlobalQueryContextWithStats extends QueryContext {
         public boolean validatePartitionStamp(long stamp) {
             return delegate.validatePartitionStamp(stamp);
         }
+
+        @Override
+        public double estimateSelectivity(Comparable value) {
+            return delegate.estimateSelectivity(value);
+        }
+
+        @Override
+        public double estimateSelectivity(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            return delegate.estimateSelectivity(from, fromInclusive, to, toInclusive);
+        }
     }
 
 }
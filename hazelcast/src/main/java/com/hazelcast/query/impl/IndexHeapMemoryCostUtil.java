@@ -47,6 +47,10 @@ public final class IndexHeapMemoryCostUtil {
     private static final int CONCURRENT_SKIP_LIST_MAP_ENTRY_COST = 24;
     private static final int QUERY_ENTRY_COST = 32;
     private static final int CACHED_QUERYABLE_ENTRY_COST = 40;
+    // a value reference, a record reference and an int hash
+    private static final int FLAT_HASH_TABLE_SLOT_COST = 12;
+    // the average ratio of occupied slots to the capacity of a flat hash table
+    private static final float FLAT_HASH_TABLE_AVERAGE_LOAD = FlatHashIndexStore.TABLE_LOAD_FACTOR * 0.75F;
 
     private static final Map<Class, Integer> KNOWN_FINAL_CLASSES_COSTS;
 
@@ -150,4 +154,29 @@ public final class IndexHeapMemoryCostUtil {
         return mapCost + queryableEntriesCost;
     }
 
+    /**
+     * Estimates the on-heap memory cost of a {@link FlatHashIndexStore} table
+     * backing an index.
+     *
+     * @param size                       the number of records in the table to
+     *                                   estimate the cost of.
+     * @param usesCachedQueryableEntries {@code true} if queryable entries indexed
+     *                                   by the associated index are cached, {@code
+     *                                   false} otherwise.
+     * @return the estimated table cost.
+     */
+    public static long estimateFlatHashTableCost(long size, boolean usesCachedQueryableEntries) {
+        long slots = (long) (size / FLAT_HASH_TABLE_AVERAGE_LOAD);
+        long tableCost = 3 * BASE_ARRAY_COST + slots * FLAT_HASH_TABLE_SLOT_COST;
+
+        long queryableEntriesCost;
+        if (usesCachedQueryableEntries) {
+            queryableEntriesCost = size * CACHED_QUERYABLE_ENTRY_COST;
+        } else {
+            queryableEntriesCost = size * QUERY_ENTRY_COST;
+        }
+
+        return tableCost + queryableEntriesCost;
+    }
+
 }
@@ -48,4 +48,12 @@ public interface IndexProvider {
             IndexCopyBehavior copyBehavior,
             PerIndexStats stats,
             int partitionCount);
+
+    /**
+     * @return {@code true} if the hash indexes created by this provider are
+     * backed by {@link FlatHashIndexStore}, {@code false} otherwise.
+     */
+    default boolean isFlatHashIndexStoreEnabled() {
+        return false;
+    }
 }
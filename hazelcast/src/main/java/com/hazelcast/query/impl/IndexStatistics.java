@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
+/**
+ * Maintains cheap statistics of the values indexed by an index which allow
+ * a query optimizer to estimate the selectivity of index lookups without
+ * running them.
+ * <p>
+ * The statistics consist of the number of indexed entries and a uniform
+ * random sample of the indexed values maintained using reservoir sampling.
+ * Since the sample is uniform, it represents an equi-depth histogram of the
+ * indexed values: the fraction of the sampled values matching a lookup
+ * estimates the fraction of the indexed entries matching it, including
+ * heavily skewed distributions.
+ * <p>
+ * Once the sample is full, most of the insertions don't touch it and cost
+ * just a couple of atomic increments. Removals and updates are handled by
+ * random pairing: a removed value is evicted from the sample with the
+ * probability it was sampled with, and each of the following insertions
+ * compensates one removal, refilling the freed slots with the probability
+ * which keeps the sample uniform.
+ */
+@SuppressWarnings("rawtypes")
+public final class IndexStatistics {
+
+    /**
+     * Denotes a selectivity which can't be estimated, for instance, because
+     * nothing has been indexed yet.
+     */
+    public static final double UNKNOWN = -1.0;
+
+    /**
+     * The maximum number of the sampled values.
+     */
+    static final int SAMPLE_SIZE = 256;
+
+    private static final double MIN_MATCHES = 0.5;
+
+    private static final AtomicLongFieldUpdater<IndexStatistics> ENTRY_COUNT = newUpdater(IndexStatistics.class,
+            "entryCount");
+    private static final AtomicLongFieldUpdater<IndexStatistics> VALUE_COUNT = newUpdater(IndexStatistics.class,
+            "valueCount");
+
+    private final Comparable[] sample = new Comparable[SAMPLE_SIZE];
+    private volatile int sampleCount;
+    // the removals not compensated by insertions yet, guarded by this
+    private long sampledRemovals;
+    private long unsampledRemovals;
+    private volatile boolean removalsPending;
+
+    private volatile long entryCount;
+    private volatile long valueCount;
+
+    /**
+     * Accounts the given newly inserted value.
+     *
+     * @param value     the extracted attribute value, may be a {@link MultiResult}.
+     * @param converter the converter of the index.
+     */
+    public void onInsert(Object value, TypeConverter converter) {
+        ENTRY_COUNT.incrementAndGet(this);
+        offer(value, converter);
+    }
+
+    /**
+     * Accounts the given updated value replacing the given old one.
+     *
+     * @param oldValue  the old extracted attribute value, may be a {@link MultiResult}.
+     * @param newValue  the new extracted attribute value, may be a {@link MultiResult}.
+     * @param converter the converter of the index.
+     */
+    public void onUpdate(Object oldValue, Object newValue, TypeConverter converter) {
+        evict(oldValue, converter);
+        offer(newValue, converter);
+    }
+
+    /**
+     * Accounts a removal of an entry having the given value.
+     *
+     * @param value     the removed extracted attribute value, may be a {@link MultiResult}.
+     * @param converter the converter of the index.
+     */
+    public void onRemove(Object value, TypeConverter converter) {
+        ENTRY_COUNT.decrementAndGet(this);
+        evict(value, converter);
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public synchronized void clear() {
+        ENTRY_COUNT.set(this, 0);
+        VALUE_COUNT.set(this, 0);
+        for (int i = 0; i < sampleCount; ++i) {
+            sample[i] = null;
+        }
+        sampleCount = 0;
+        sampledRemovals = 0;
+        unsampledRemovals = 0;
+        removalsPending = false;
+    }
+
+    /**
+     * @return the number of the currently indexed entries.
+     */
+    public long getEntryCount() {
+        return Math.max(entryCount, 0);
+    }
+
+    /**
+     * Estimates the fraction of the indexed entries having the given value.
+     *
+     * @param value the converted value to look up.
+     * @return the estimated selectivity in the range (0, 1] or {@link
+     * #UNKNOWN} if it can't be estimated.
+     */
+    public synchronized double estimateEqual(Comparable value) {
+        if (sampleCount == 0) {
+            return UNKNOWN;
+        }
+
+        int matches = 0;
+        for (int i = 0; i < sampleCount; ++i) {
+            if (Comparables.equal(value, sample[i])) {
+                ++matches;
+            }
+        }
+        return Math.max(matches, MIN_MATCHES) / sampleCount;
+    }
+
+    /**
+     * Estimates the fraction of the indexed entries having values in the
+     * given range.
+     *
+     * @param from          the converted lower bound or {@code null} if unbounded.
+     * @param fromInclusive {@code true} if the lower bound is inclusive.
+     * @param to            the converted upper bound or {@code null} if unbounded.
+     * @param toInclusive   {@code true} if the upper bound is inclusive.
+     * @return the estimated selectivity in the range (0, 1] or {@link
+     * #UNKNOWN} if it can't be estimated.
+     */
+    public synchronized double estimateRange(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (sampleCount == 0) {
+            return UNKNOWN;
+        }
+
+        int matches = 0;
+        try {
+            for (int i = 0; i < sampleCount; ++i) {
+                if (inRange(sample[i], from, fromInclusive, to, toInclusive)) {
+                    ++matches;
+                }
+            }
+        } catch (ClassCastException e) {
+            // the query value is not comparable with the indexed ones
+            return UNKNOWN;
+        }
+        return Math.max(matches, MIN_MATCHES) / sampleCount;
+    }
+
+    private static boolean inRange(Comparable value, Comparable from, boolean fromInclusive, Comparable to,
+                                   boolean toInclusive) {
+        if (value == AbstractIndex.NULL) {
+            // nulls never match range lookups
+            return false;
+        }
+        if (from != null) {
+            int order = Comparables.compare(value, from);
+            if (order < 0 || order == 0 && !fromInclusive) {
+                return false;
+            }
+        }
+        if (to != null) {
+            int order = Comparables.compare(value, to);
+            return order < 0 || order == 0 && toInclusive;
+        }
+        return true;
+    }
+
+    private void offer(Object value, TypeConverter converter) {
+        if (value instanceof MultiResult) {
+            for (Object result : ((MultiResult) value).getResults()) {
+                offerSingle(result, converter);
+            }
+        } else {
+            offerSingle(value, converter);
+        }
+    }
+
+    private void offerSingle(Object value, TypeConverter converter) {
+        if (value != null && !(value instanceof Comparable) || value instanceof CompositeValue) {
+            return;
+        }
+
+        long count = VALUE_COUNT.incrementAndGet(this);
+        if (removalsPending && compensate(convert(value, converter))) {
+            return;
+        }
+        if (count > SAMPLE_SIZE) {
+            // the value replaces a sampled one with the probability of SAMPLE_SIZE / count
+            long slot = ThreadLocalRandom.current().nextLong(count);
+            if (slot >= SAMPLE_SIZE) {
+                return;
+            }
+            store((int) slot, convert(value, converter));
+        } else {
+            store(-1, convert(value, converter));
+        }
+    }
+
+    private void evict(Object value, TypeConverter converter) {
+        if (value instanceof MultiResult) {
+            for (Object result : ((MultiResult) value).getResults()) {
+                evictSingle(result, converter);
+            }
+        } else {
+            evictSingle(value, converter);
+        }
+    }
+
+    private void evictSingle(Object value, TypeConverter converter) {
+        if (value != null && !(value instanceof Comparable) || value instanceof CompositeValue || converter == null) {
+            return;
+        }
+
+        long count = VALUE_COUNT.getAndDecrement(this);
+        if (count <= 0) {
+            // the statistics have been cleared since the value was offered
+            VALUE_COUNT.incrementAndGet(this);
+            return;
+        }
+        remove(count, convert(value, converter));
+    }
+
+    private synchronized void remove(long count, Comparable value) {
+        removalsPending = true;
+        // the removed value was sampled with the probability of sampleCount / count
+        int sampled = sampleCount;
+        if (sampled < count && ThreadLocalRandom.current().nextLong(count) >= sampled) {
+            ++unsampledRemovals;
+            return;
+        }
+        for (int i = 0; i < sampled; ++i) {
+            if (Comparables.equal(value, sample[i])) {
+                sample[i] = sample[sampled - 1];
+                sample[sampled - 1] = null;
+                sampleCount = sampled - 1;
+                ++sampledRemovals;
+                return;
+            }
+        }
+        ++unsampledRemovals;
+    }
+
+    private synchronized boolean compensate(Comparable value) {
+        long removals = sampledRemovals + unsampledRemovals;
+        if (removals == 0) {
+            return false;
+        }
+        // the value takes the slot of a sampled removed value with the
+        // probability of sampledRemovals / removals
+        if (ThreadLocalRandom.current().nextLong(removals) < sampledRemovals) {
+            --sampledRemovals;
+            store(-1, value);
+        } else {
+            --unsampledRemovals;
+        }
+        removalsPending = removals > 1;
+        return true;
+    }
+
+    private static Comparable convert(Object value, TypeConverter converter) {
+        return value == null ? AbstractIndex.NULL : converter.convert((Comparable) value);
+    }
+
+    private synchronized void store(int slot, Comparable value) {
+        int sampled = sampleCount;
+        if (sampled < SAMPLE_SIZE) {
+            sample[sampled] = value;
+            sampleCount = sampled + 1;
+        } else if (slot >= 0) {
+            sample[slot] = value;
+        }
+    }
+}
@@ -259,4 +259,29 @@ public interface IndexStore {
      * @see Index#getRecords(Comparable, boolean, Comparable, boolean)
      */
     Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive);
+
+    /**
+     * Makes this index store maintain a filter of the indexed values allowing
+     * to tell that a value is not indexed without looking it up, see {@link
+     * #mightContain}. Must be invoked before any value is inserted.
+     *
+     * @param expectedValueCount the number of records the filter is sized for.
+     * @return {@code true} if the filter is maintained, {@code false} if this
+     * index store doesn't support value filters.
+     */
+    default boolean enableValueFilter(int expectedValueCount) {
+        return false;
+    }
+
+    /**
+     * Checks the value filter of this index store for the given value.
+     *
+     * @param value the value to check.
+     * @return {@code false} if no entry having the given value is indexed,
+     * {@code true} if such entries might be indexed or if the value filter is
+     * not {@link #enableValueFilter enabled}.
+     */
+    default boolean mightContain(Comparable value) {
+        return true;
+    }
 }
@@ -43,6 +43,7 @@ import java.util.function.Supplier;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_VALUE_FILTER_CAPACITY;
 
 /**
  * Contains all indexes for a data-structure, e.g. an IMap.
@@ -78,10 +79,13 @@ public class Indexes {
     private final Map<String, IndexConfig> definitions = new ConcurrentHashMap<>();
 
     private final int partitionCount;
+    private final int valueFilterCapacity;
+    private final boolean indexStatisticsEnabled;
 
     private volatile InternalIndex[] indexes = EMPTY_INDEXES;
     private volatile InternalIndex[] compositeIndexes = EMPTY_INDEXES;
 
+    @SuppressWarnings("checkstyle:parameternumber")
     private Indexes(InternalSerializationService serializationService,
                     IndexCopyBehavior indexCopyBehavior,
                     Extractors extractors,
@@ -91,6 +95,8 @@ public class Indexes {
                     boolean global,
                     InMemoryFormat inMemoryFormat,
                     int partitionCount,
+                    int valueFilterCapacity,
+                    boolean indexStatisticsEnabled,
                     Supplier<java.util.function.Predicate<QueryableEntry>> resultFilterFactory) {
         this.global = global;
         this.indexCopyBehavior = indexCopyBehavior;
@@ -101,6 +107,8 @@ public class Indexes {
         this.indexProvider = indexProvider == null ? new DefaultIndexProvider() : indexProvider;
         this.queryContextProvider = createQueryContextProvider(this, global, statisticsEnabled);
         this.partitionCount = partitionCount;
+        this.valueFilterCapacity = valueFilterCapacity;
+        this.indexStatisticsEnabled = indexStatisticsEnabled;
         this.resultFilterFactory = resultFilterFactory;
     }
 
@@ -161,8 +169,20 @@ public class Indexes {
                 extractors,
                 serializationService,
                 indexCopyBehavior,
-                stats.createPerIndexStats(indexConfig.getType() == IndexType.SORTED, usesCachedQueryableEntries),
+                stats.createPerIndexStats(indexConfig.getType() == IndexType.SORTED,
+                        indexConfig.getType() == IndexType.HASH && indexProvider.isFlatHashIndexStoreEnabled(),
+                        usesCachedQueryableEntries),
                 partitionCount);
+        if (valueFilterCapacity > 0) {
+            // a global index holds the entries of all the partitions, a
+            // partitioned one is probed for every partition and skips the
+            // probes of the partitions not having the looked up value
+            long expectedValueCount = global ? (long) valueFilterCapacity * Math.max(partitionCount, 1) : valueFilterCapacity;
+            index.enableValueFilter((int) Math.min(expectedValueCount, Integer.MAX_VALUE));
+        }
+        if (indexStatisticsEnabled) {
+            index.enableStatistics();
+        }
 
         indexesByName.put(name, index);
         if (index.isEvaluateOnly()) {
@@ -573,6 +593,8 @@ public class Indexes {
         private boolean statsEnabled;
         private boolean usesCachedQueryableEntries;
         private int partitionCount;
+        private int valueFilterCapacity = Integer.parseInt(INDEX_VALUE_FILTER_CAPACITY.getDefaultValue());
+        private boolean indexStatisticsEnabled;
         private Extractors extractors;
         private IndexProvider indexProvider;
         private InMemoryFormat inMemoryFormat;
@@ -651,13 +673,40 @@ public class Indexes {
             return this;
         }
 
+        /**
+         * @param valueFilterCapacity the number of entries per partition the value
+         *                            filters of the indexes are sized for, {@code 0}
+         *                            disables the filters. Default value is the
+         *                            default of {@code hazelcast.index.value.filter.capacity}.
+         * @return this builder instance
+         * @see InternalIndex#enableValueFilter
+         */
+        public Builder valueFilterCapacity(int valueFilterCapacity) {
+            this.valueFilterCapacity = valueFilterCapacity;
+            return this;
+        }
+
+        /**
+         * @param indexStatisticsEnabled set {@code true} if the indexes have to
+         *                               maintain the statistics of their values
+         *                               for a cost-based query optimizer,
+         *                               otherwise set {@code false}. Default
+         *                               value is false.
+         * @return this builder instance
+         * @see InternalIndex#enableStatistics()
+         */
+        public Builder indexStatisticsEnabled(boolean indexStatisticsEnabled) {
+            this.indexStatisticsEnabled = indexStatisticsEnabled;
+            return this;
+        }
+
         /**
          * @return a new instance of Indexes
          */
         public Indexes build() {
             return new Indexes(serializationService, indexCopyBehavior, extractors,
                 indexProvider, usesCachedQueryableEntries, statsEnabled, global,
-                inMemoryFormat, partitionCount, resultFilterFactory);
+                inMemoryFormat, partitionCount, valueFilterCapacity, indexStatisticsEnabled, resultFilterFactory);
         }
     }
 }
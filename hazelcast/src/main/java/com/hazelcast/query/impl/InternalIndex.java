@@ -112,4 +112,60 @@ public interface InternalIndex extends Index {
      * @return {@code true} if the stamp is still valid, {@code false} otherwise
      */
     boolean validatePartitionStamp(long stamp);
+
+    /**
+     * Makes this index maintain a filter of the indexed values which allows
+     * equality lookups of values having no entries in this index to skip
+     * probing the index. Partitioned indexes are probed for every partition
+     * while a value is usually present only in a few of them, so the filter
+     * saves the majority of the probes for such lookups. Global indexes skip
+     * the lookups of absent values, e.g. the traversal of a sorted index.
+     * <p>
+     * Must be invoked before any entry is indexed. Does nothing if the index
+     * doesn't support value filters.
+     *
+     * @param expectedValueCount the number of entries the filter is sized for.
+     */
+    default void enableValueFilter(int expectedValueCount) {
+        // do nothing
+    }
+
+    /**
+     * Makes this index maintain the {@link IndexStatistics statistics} of the
+     * indexed values which are needed to {@link #estimateSelectivity
+     * estimate} the selectivity of lookups. Without them, the estimates are
+     * {@link IndexStatistics#UNKNOWN}.
+     * <p>
+     * Must be invoked before any entry is indexed. Does nothing if the index
+     * doesn't support statistics.
+     */
+    default void enableStatistics() {
+        // do nothing
+    }
+
+    /**
+     * Estimates the fraction of the indexed entries having the given value.
+     *
+     * @param value the value to look up, not converted yet.
+     * @return the estimated selectivity in the range (0, 1] or {@link
+     * IndexStatistics#UNKNOWN} if the index can't estimate it.
+     */
+    default double estimateSelectivity(Comparable value) {
+        return IndexStatistics.UNKNOWN;
+    }
+
+    /**
+     * Estimates the fraction of the indexed entries having values in the
+     * given range.
+     *
+     * @param from          the lower bound, not converted yet, or {@code null} if unbounded.
+     * @param fromInclusive {@code true} if the lower bound is inclusive.
+     * @param to            the upper bound, not converted yet, or {@code null} if unbounded.
+     * @param toInclusive   {@code true} if the upper bound is inclusive.
+     * @return the estimated selectivity in the range (0, 1] or {@link
+     * IndexStatistics#UNKNOWN} if the index can't estimate it.
+     */
+    default double estimateSelectivity(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        return IndexStatistics.UNKNOWN;
+    }
 }
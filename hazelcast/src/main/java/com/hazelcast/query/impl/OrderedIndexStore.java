@@ -97,6 +97,7 @@ public class OrderedIndexStore extends BaseSingleValueIndexStore {
         try {
             recordsWithNullValue.clear();
             recordMap.clear();
+            clearValueFilter();
         } finally {
             releaseWriteLock();
         }
@@ -480,11 +481,11 @@ public class OrderedIndexStore extends BaseSingleValueIndexStore {
 
     }
 
-    private static final class IteratorFromBatch implements Iterator<QueryableEntry> {
+    static final class IteratorFromBatch implements Iterator<QueryableEntry> {
         private final Iterator<IndexKeyEntries> iterator;
         private Iterator<QueryableEntry> indexKeyIterator;
 
-        private IteratorFromBatch(@Nonnull Iterator<IndexKeyEntries> iterator) {
+        IteratorFromBatch(@Nonnull Iterator<IndexKeyEntries> iterator) {
             this.iterator = iterator;
             this.indexKeyIterator = iterator.hasNext() ? iterator.next().getEntries().iterator() : null;
         }
@@ -121,6 +121,14 @@ public class QueryEntry extends QueryableEntry {
         return key ? this.key : this.value;
     }
 
+    @Override
+    protected Data getSerializedTarget(boolean key) {
+        if (key) {
+            return this.key;
+        }
+        return value instanceof Data ? (Data) value : null;
+    }
+
     @Override
     public Object setValue(Object value) {
         throw new UnsupportedOperationException();
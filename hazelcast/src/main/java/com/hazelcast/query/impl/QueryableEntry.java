@@ -74,6 +74,17 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
 
     protected abstract Object getTargetObject(boolean key);
 
+    /**
+     * Returns the serialized key or value if it's present and not
+     * deserialized yet, so its attributes may be read without deserializing
+     * it, see {@link Extractors#extractFromSerializedForm(Data, String)}.
+     *
+     * @return the serialized key or value, or {@code null} if not present
+     */
+    protected Data getSerializedTarget(boolean key) {
+        return null;
+    }
+
     /**
      * Returns a converter corresponding to the attribute with the given name.
      * Never {@code null}, but may return {@link TypeConverters#NULL_CONVERTER}
@@ -105,9 +116,12 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
         if (result == null) {
             boolean isKey = startsWithKeyConstant(attributeName);
             attributeName = getAttributeName(isKey, attributeName);
-            Object target = getTargetObject(isKey);
-            Object metadata = getMetadataOrNull(isKey);
-            result = extractors.extract(target, attributeName, metadata);
+            result = extractFromSerializedForm(isKey, attributeName);
+            if (result == Extractors.NOT_NAVIGABLE) {
+                Object target = getTargetObject(isKey);
+                Object metadata = getMetadataOrNull(isKey);
+                result = extractors.extract(target, attributeName, metadata);
+            }
         }
         if (result instanceof HazelcastJsonValue) {
             return Json.parse(result.toString());
@@ -115,6 +129,14 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
         return result;
     }
 
+    private Object extractFromSerializedForm(boolean isKey, String attributeName) {
+        if (!extractors.isDataSerializableNavigationEnabled()) {
+            return Extractors.NOT_NAVIGABLE;
+        }
+        Data target = getSerializedTarget(isKey);
+        return target == null ? Extractors.NOT_NAVIGABLE : extractors.extractFromSerializedForm(target, attributeName);
+    }
+
     /**
      * Optimized version of the other extractAttributeValueIfAttributeQueryConstant() method that uses getKey() and
      * getValue() calls that may cache their results internally - like in CachedQueryEntry.
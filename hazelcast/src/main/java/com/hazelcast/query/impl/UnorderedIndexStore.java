@@ -76,6 +76,13 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
 
     @Override
     public Comparable canonicalizeScalarForStorage(Comparable value) {
+        return canonicalizeScalar(value);
+    }
+
+    /**
+     * Canonicalizes the given scalar value for storing it in a hash index store.
+     */
+    static Comparable canonicalizeScalar(Comparable value) {
         // Assuming on-heap overhead of 12 bytes for the object header and
         // allocation granularity by modulo 8, there is no point in trying to
         // represent a value in less than 4 bytes.
@@ -119,6 +126,7 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
         try {
             recordsWithNullValue.clear();
             recordMap.clear();
+            clearValueFilter();
         } finally {
             releaseWriteLock();
         }
@@ -436,15 +444,19 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
 
     }
 
-    private Comparable canonicalize(Comparable value) {
+    /**
+     * Canonicalizes the given scalar or composite value for a lookup in a hash
+     * index store.
+     */
+    static Comparable canonicalize(Comparable value) {
         if (value instanceof CompositeValue) {
             Comparable[] components = ((CompositeValue) value).getComponents();
             for (int i = 0; i < components.length; ++i) {
-                components[i] = canonicalizeScalarForStorage(components[i]);
+                components[i] = canonicalizeScalar(components[i]);
             }
             return value;
         } else {
-            return canonicalizeScalarForStorage(value);
+            return canonicalizeScalar(value);
         }
     }
 
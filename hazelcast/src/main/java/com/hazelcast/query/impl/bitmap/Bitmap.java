@@ -26,6 +26,8 @@ import com.hazelcast.query.impl.predicates.NotEqualPredicate;
 import com.hazelcast.query.impl.predicates.NotPredicate;
 import com.hazelcast.query.impl.predicates.OrPredicate;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -38,6 +40,11 @@ import java.util.Map;
  * Internally, each bitmap manages a set of sparse bit sets, one for each
  * possible attribute value, and a sparse array to map from unique {@code long}
  * entry keys back to entries.
+ * <p>
+ * Predicates are evaluated eagerly on {@link ContainerBitSet container bit
+ * sets} exported from the sparse bit sets: the operands of {@link
+ * AndPredicate} are intersected starting from the smallest one and negations
+ * are evaluated against the set of all the indexed entry keys.
  *
  * @param <E> the type of entries being indexed.
  */
@@ -48,6 +55,9 @@ public final class Bitmap<E> {
 
     private final SparseArray<E> entries = new SparseArray<>();
 
+    // the keys of all the indexed entries, the universe for negations
+    private SparseBitSet keys = new SparseBitSet();
+
     // Note! At the moment bitmap index doesn't support memory statistics,
     // because we cannot produce precise memory estimate.
     // Instead, we provide zero memory consumption estimation.
@@ -75,6 +85,7 @@ public final class Bitmap<E> {
             bitSet.add(key);
         }
 
+        keys.add(key);
         entries.set(key, entry);
     }
 
@@ -112,6 +123,8 @@ public final class Bitmap<E> {
             bitSet.add(key);
         }
 
+        // the entry may have been unknown so far
+        keys.add(key);
         entries.set(key, entry);
     }
 
@@ -136,6 +149,7 @@ public final class Bitmap<E> {
             operationStats.onEntryRemoved(ZeroCost.ZERO_COST);
         }
 
+        keys.remove(key);
         entries.clear(key);
     }
 
@@ -144,6 +158,7 @@ public final class Bitmap<E> {
      */
     public void clear() {
         bitSets.clear();
+        keys = new SparseBitSet();
         entries.clear();
     }
 
@@ -161,18 +176,18 @@ public final class Bitmap<E> {
      * @return an iterator containing entries matching the given predicate.
      */
     public Iterator<E> evaluate(Predicate predicate, TypeConverter converter) {
-        return new EntryIterator<>(predicateIterator(predicate, converter), entries.iterator());
+        return new EntryIterator<>(predicateBitSet(predicate, converter).iterator(), entries.iterator());
     }
 
     @SuppressWarnings("checkstyle:npathcomplexity")
-    private AscendingLongIterator predicateIterator(Predicate predicate, TypeConverter converter) {
+    private ContainerBitSet predicateBitSet(Predicate predicate, TypeConverter converter) {
         if (predicate instanceof AndPredicate) {
             Predicate[] predicates = ((AndPredicate) predicate).getPredicates();
             assert predicates.length > 0;
             if (predicates.length == 1) {
-                return predicateIterator(predicates[0], converter);
+                return predicateBitSet(predicates[0], converter);
             } else {
-                return BitmapAlgorithms.and(predicateIterators(predicates, converter));
+                return and(predicateBitSets(predicates, converter));
             }
         }
 
@@ -180,54 +195,72 @@ public final class Bitmap<E> {
             Predicate[] predicates = ((OrPredicate) predicate).getPredicates();
             assert predicates.length > 0;
             if (predicates.length == 1) {
-                return predicateIterator(predicates[0], converter);
+                return predicateBitSet(predicates[0], converter);
             } else {
-                return BitmapAlgorithms.or(predicateIterators(predicates, converter));
+                return or(predicateBitSets(predicates, converter));
             }
         }
 
         if (predicate instanceof NotPredicate) {
             Predicate subPredicate = ((NotPredicate) predicate).getPredicate();
-            return BitmapAlgorithms.not(predicateIterator(subPredicate, converter), entries);
+            return ContainerBitSet.andNot(keys.toContainerBitSet(), predicateBitSet(subPredicate, converter));
         }
 
         if (predicate instanceof NotEqualPredicate) {
             Comparable value = ((NotEqualPredicate) predicate).getValue();
-            return BitmapAlgorithms.not(valueIterator(value, converter), entries);
+            return ContainerBitSet.andNot(keys.toContainerBitSet(), valueBitSet(value, converter));
         }
 
         if (predicate instanceof EqualPredicate) {
             Comparable value = ((EqualPredicate) predicate).getFrom();
-            return valueIterator(value, converter);
+            return valueBitSet(value, converter);
         }
 
         if (predicate instanceof InPredicate) {
             Comparable[] values = ((InPredicate) predicate).getValues();
-            return BitmapAlgorithms.or(valueIterators(values, converter));
+            return or(valueBitSets(values, converter));
         }
 
         throw new IllegalArgumentException("unexpected predicate: " + predicate);
     }
 
-    private AscendingLongIterator[] predicateIterators(Predicate[] predicates, TypeConverter converter) {
-        AscendingLongIterator[] iterators = new AscendingLongIterator[predicates.length];
+    private ContainerBitSet[] predicateBitSets(Predicate[] predicates, TypeConverter converter) {
+        ContainerBitSet[] results = new ContainerBitSet[predicates.length];
         for (int i = 0; i < predicates.length; ++i) {
-            iterators[i] = predicateIterator(predicates[i], converter);
+            results[i] = predicateBitSet(predicates[i], converter);
         }
-        return iterators;
+        return results;
     }
 
-    private AscendingLongIterator valueIterator(Comparable value, TypeConverter converter) {
+    private ContainerBitSet valueBitSet(Comparable value, TypeConverter converter) {
         SparseBitSet bitSet = bitSets.get(converter.convert(value));
-        return bitSet == null ? AscendingLongIterator.EMPTY : bitSet.iterator();
+        return bitSet == null ? ContainerBitSet.EMPTY : bitSet.toContainerBitSet();
     }
 
-    private AscendingLongIterator[] valueIterators(Comparable[] values, TypeConverter converter) {
-        AscendingLongIterator[] iterators = new AscendingLongIterator[values.length];
+    private ContainerBitSet[] valueBitSets(Comparable[] values, TypeConverter converter) {
+        ContainerBitSet[] results = new ContainerBitSet[values.length];
         for (int i = 0; i < values.length; ++i) {
-            iterators[i] = valueIterator(values[i], converter);
+            results[i] = valueBitSet(values[i], converter);
+        }
+        return results;
+    }
+
+    private static ContainerBitSet and(ContainerBitSet[] operands) {
+        // the smallest set bounds the result, intersect starting from it
+        Arrays.sort(operands, Comparator.comparingLong(ContainerBitSet::cardinality));
+        ContainerBitSet result = operands[0];
+        for (int i = 1; i < operands.length && !result.isEmpty(); ++i) {
+            result = ContainerBitSet.and(result, operands[i]);
+        }
+        return result;
+    }
+
+    private static ContainerBitSet or(ContainerBitSet[] operands) {
+        ContainerBitSet result = ContainerBitSet.EMPTY;
+        for (ContainerBitSet operand : operands) {
+            result = ContainerBitSet.or(result, operand);
         }
-        return iterators;
+        return result;
     }
 
     /**
@@ -0,0 +1,925 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.bitmap;
+
+import static com.hazelcast.query.impl.bitmap.BitmapUtils.toUnsignedInt;
+import static com.hazelcast.query.impl.bitmap.BitmapUtils.unsignedBinarySearch;
+import static java.lang.Long.bitCount;
+import static java.lang.Long.numberOfTrailingZeros;
+import static java.util.Arrays.binarySearch;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Immutable set of non-negative {@code long} members split into 64K chunks,
+ * each chunk is represented by a container specialized for its density:
+ * <ul>
+ * <li>{@link ArrayContainer ArrayContainer} which holds a sorted short array
+ * of up to {@value #ARRAY_CONTAINER_MAX_SIZE} members.
+ * <li>{@link BitmapContainer BitmapContainer} which holds directly indexable
+ * long array of bits.
+ * <li>{@link RunContainer RunContainer} which holds a sorted array of
+ * {@code [start, end]} runs of consecutive members.
+ * </ul>
+ * <p>
+ * Unlike iterating members one at a time, set operations of this class
+ * work on a whole chunk at once: bitmap containers are combined
+ * a 64-bit word at a time and array containers are filtered against the
+ * containers of the other operand. The cardinality of a set is known from the
+ * cardinalities of its containers, no iteration is required.
+ * <p>
+ * Containers may share their arrays with the {@link SparseBitSet} they were
+ * exported from, so the set must not be used after the sparse bit set is
+ * modified.
+ */
+final class ContainerBitSet {
+
+    /**
+     * The empty container bit set.
+     */
+    static final ContainerBitSet EMPTY = new ContainerBitSet(new long[0], new Container[0], 0);
+
+    /**
+     * The maximum number of members stored by {@link ArrayContainer}, the same
+     * as for {@link SparseBitSet} array storages.
+     */
+    static final int ARRAY_CONTAINER_MAX_SIZE = SparseBitSet.ARRAY_STORAGE_16_MAX_SIZE;
+
+    /**
+     * The maximum number of runs stored by {@link RunContainer}. At this
+     * number of runs the memory cost of runs is equal to the cost of having
+     * directly indexable long array of bits.
+     */
+    static final int RUN_CONTAINER_MAX_RUNS = 2048;
+
+    /**
+     * The number of members a single container may hold.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of longs in a bitmap of a single chunk.
+     */
+    static final int WORDS = CHUNK_SIZE / Long.SIZE;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = 0xFFFF;
+    private static final int WORD_SHIFT = 6;
+
+    private static final Container FULL = new RunContainer(new short[]{0, (short) CHUNK_MASK}, 1, CHUNK_SIZE);
+
+    private final long[] keys;
+    private final Container[] containers;
+    private final int size;
+
+    private ContainerBitSet(long[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of members in this set.
+     */
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; ++i) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return {@code true} if this set has no members, {@code false}
+     * otherwise.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return {@code true} if the given member is a member of this set,
+     * {@code false} otherwise.
+     */
+    boolean contains(long member) {
+        assert member >= 0;
+        int position = binarySearch(keys, 0, size, member >>> CHUNK_SHIFT);
+        return position >= 0 && containers[position].contains((int) member & CHUNK_MASK);
+    }
+
+    /**
+     * @return an iterator over the members of this set.
+     */
+    AscendingLongIterator iterator() {
+        return new IteratorImpl();
+    }
+
+    /**
+     * @return the intersection of the given sets.
+     */
+    static ContainerBitSet and(ContainerBitSet a, ContainerBitSet b) {
+        Builder builder = new Builder(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            long keyA = a.keys[i];
+            long keyB = b.keys[j];
+            if (keyA < keyB) {
+                ++i;
+            } else if (keyA > keyB) {
+                ++j;
+            } else {
+                builder.append(keyA, and(a.containers[i++], b.containers[j++]));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the union of the given sets.
+     */
+    static ContainerBitSet or(ContainerBitSet a, ContainerBitSet b) {
+        Builder builder = new Builder(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            long keyA = a.keys[i];
+            long keyB = b.keys[j];
+            if (keyA < keyB) {
+                builder.append(keyA, a.containers[i++]);
+            } else if (keyA > keyB) {
+                builder.append(keyB, b.containers[j++]);
+            } else {
+                builder.append(keyA, or(a.containers[i++], b.containers[j++]));
+            }
+        }
+        for (; i < a.size; ++i) {
+            builder.append(a.keys[i], a.containers[i]);
+        }
+        for (; j < b.size; ++j) {
+            builder.append(b.keys[j], b.containers[j]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the members of the first given set which are not members of
+     * the second given set.
+     */
+    static ContainerBitSet andNot(ContainerBitSet a, ContainerBitSet b) {
+        Builder builder = new Builder(a.size);
+        int j = 0;
+        for (int i = 0; i < a.size; ++i) {
+            long key = a.keys[i];
+            while (j < b.size && b.keys[j] < key) {
+                ++j;
+            }
+            if (j < b.size && b.keys[j] == key) {
+                builder.append(key, andNot(a.containers[i], b.containers[j]));
+            } else {
+                builder.append(key, a.containers[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Container and(Container a, Container b) {
+        if (a.isFull()) {
+            return b;
+        }
+        if (b.isFull()) {
+            return a;
+        }
+        if (a instanceof ArrayContainer) {
+            return ((ArrayContainer) a).and(b);
+        }
+        if (b instanceof ArrayContainer) {
+            return ((ArrayContainer) b).and(a);
+        }
+
+        long[] words = new long[WORDS];
+        a.orInto(words);
+        b.andInto(words);
+        return fromWords(words);
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a.isFull() || b.isFull()) {
+            return FULL;
+        }
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                && a.cardinality() + b.cardinality() <= ARRAY_CONTAINER_MAX_SIZE) {
+            return ((ArrayContainer) a).or((ArrayContainer) b);
+        }
+
+        long[] words = new long[WORDS];
+        a.orInto(words);
+        b.orInto(words);
+        return fromWords(words);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (b.isFull()) {
+            return null;
+        }
+        if (a instanceof ArrayContainer) {
+            return ((ArrayContainer) a).andNot(b);
+        }
+
+        long[] words = new long[WORDS];
+        a.orInto(words);
+        b.andNotInto(words);
+        return fromWords(words);
+    }
+
+    /**
+     * Converts the given bits into the most suitable container.
+     *
+     * @return the container or {@code null} if no bits are set.
+     */
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += bitCount(word);
+        }
+
+        if (cardinality == 0) {
+            return null;
+        } else if (cardinality == CHUNK_SIZE) {
+            return FULL;
+        } else if (cardinality <= ARRAY_CONTAINER_MAX_SIZE) {
+            return ArrayContainer.fromWords(words, cardinality);
+        } else {
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        // both ends are inclusive
+        int fromWord = from >>> WORD_SHIFT;
+        int toWord = to >>> WORD_SHIFT;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> -(to + 1);
+        if (fromWord == toWord) {
+            words[fromWord] |= fromMask & toMask;
+            return;
+        }
+        words[fromWord] |= fromMask;
+        for (int i = fromWord + 1; i < toWord; ++i) {
+            words[i] = -1L;
+        }
+        words[toWord] |= toMask;
+    }
+
+    private static void clearRange(long[] words, int from, int to) {
+        // both ends are inclusive
+        int fromWord = from >>> WORD_SHIFT;
+        int toWord = to >>> WORD_SHIFT;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> -(to + 1);
+        if (fromWord == toWord) {
+            words[fromWord] &= ~(fromMask & toMask);
+            return;
+        }
+        words[fromWord] &= ~fromMask;
+        for (int i = fromWord + 1; i < toWord; ++i) {
+            words[i] = 0;
+        }
+        words[toWord] &= ~toMask;
+    }
+
+    /**
+     * Assembles container bit sets from containers appended in ascending
+     * order of their chunk keys.
+     */
+    static final class Builder {
+
+        private long[] keys;
+        private Container[] containers;
+        private int size;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            this.keys = new long[capacity];
+            this.containers = new Container[capacity];
+        }
+
+        /**
+         * Appends the given container having the given chunk key. The key
+         * must be greater than any key appended before.
+         *
+         * @param key       the chunk key, that is, the members of the
+         *                  container shifted right by 16 bits.
+         * @param container the container to append, {@code null} and empty
+         *                  containers are ignored.
+         */
+        void append(long key, Container container) {
+            if (container == null || container.cardinality() == 0) {
+                return;
+            }
+            assert size == 0 || keys[size - 1] < key;
+
+            if (size == keys.length) {
+                int newCapacity = size + (size >>> 1) + 1;
+                keys = copyOf(keys, newCapacity);
+                containers = copyOf(containers, newCapacity);
+            }
+            keys[size] = key;
+            containers[size] = container;
+            ++size;
+        }
+
+        ContainerBitSet build() {
+            return size == 0 ? EMPTY : new ContainerBitSet(keys, containers, size);
+        }
+
+    }
+
+    /**
+     * Holds the members of a single 64K chunk, the members are represented by
+     * their low 16 bits.
+     */
+    abstract static class Container {
+
+        /**
+         * @return the number of members in this container.
+         */
+        abstract int cardinality();
+
+        /**
+         * @return {@code true} if the given value is a member of this
+         * container, {@code false} otherwise.
+         */
+        abstract boolean contains(int value);
+
+        /**
+         * Sets the bits of the members of this container in the given words.
+         */
+        abstract void orInto(long[] words);
+
+        /**
+         * Clears the bits of non-members of this container in the given words.
+         */
+        abstract void andInto(long[] words);
+
+        /**
+         * Clears the bits of the members of this container in the given words.
+         */
+        abstract void andNotInto(long[] words);
+
+        /**
+         * @return a new iterator over the members of this container.
+         */
+        abstract ContainerIterator iterator();
+
+        final boolean isFull() {
+            return cardinality() == CHUNK_SIZE;
+        }
+
+    }
+
+    /**
+     * Iterates over the members of a container in ascending order.
+     */
+    abstract static class ContainerIterator {
+
+        /**
+         * Identifies an iterator end.
+         */
+        static final int END = -1;
+
+        /**
+         * @return the next member or {@link #END} if no members left.
+         */
+        abstract int next();
+
+        /**
+         * Skips the members less than the given value and returns the next
+         * member. The value must be greater than any member returned before.
+         *
+         * @return the next member or {@link #END} if no members left.
+         */
+        abstract int nextAtLeast(int value);
+
+    }
+
+    /**
+     * Holds a sorted short array of members.
+     */
+    static final class ArrayContainer extends Container {
+
+        private final short[] members;
+        private final int cardinality;
+
+        ArrayContainer(short[] members, int cardinality) {
+            assert cardinality <= members.length;
+            this.members = members;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer fromWords(long[] words, int cardinality) {
+            short[] members = new short[cardinality];
+            int index = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long word = words[i];
+                int base = i << WORD_SHIFT;
+                while (word != 0) {
+                    members[index++] = (short) (base + numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            assert index == cardinality;
+            return new ArrayContainer(members, cardinality);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return unsignedBinarySearch(members, cardinality, value) >= 0;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < cardinality; ++i) {
+                int value = toUnsignedInt(members[i]);
+                words[value >>> WORD_SHIFT] |= 1L << value;
+            }
+        }
+
+        @Override
+        void andInto(long[] words) {
+            long[] mask = new long[WORDS];
+            orInto(mask);
+            for (int i = 0; i < WORDS; ++i) {
+                words[i] &= mask[i];
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < cardinality; ++i) {
+                int value = toUnsignedInt(members[i]);
+                words[value >>> WORD_SHIFT] &= ~(1L << value);
+            }
+        }
+
+        @Override
+        ContainerIterator iterator() {
+            return new ArrayIterator();
+        }
+
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return intersect((ArrayContainer) other);
+            }
+            return filter(other, true);
+        }
+
+        Container andNot(Container other) {
+            return filter(other, false);
+        }
+
+        Container or(ArrayContainer other) {
+            short[] result = new short[cardinality + other.cardinality];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < cardinality && j < other.cardinality) {
+                int a = toUnsignedInt(members[i]);
+                int b = toUnsignedInt(other.members[j]);
+                if (a < b) {
+                    result[k++] = members[i++];
+                } else if (a > b) {
+                    result[k++] = other.members[j++];
+                } else {
+                    result[k++] = members[i++];
+                    ++j;
+                }
+            }
+            while (i < cardinality) {
+                result[k++] = members[i++];
+            }
+            while (j < other.cardinality) {
+                result[k++] = other.members[j++];
+            }
+            return new ArrayContainer(result, k);
+        }
+
+        private Container intersect(ArrayContainer other) {
+            short[] result = new short[Math.min(cardinality, other.cardinality)];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < cardinality && j < other.cardinality) {
+                int a = toUnsignedInt(members[i]);
+                int b = toUnsignedInt(other.members[j]);
+                if (a < b) {
+                    ++i;
+                } else if (a > b) {
+                    ++j;
+                } else {
+                    result[k++] = members[i];
+                    ++i;
+                    ++j;
+                }
+            }
+            return k == 0 ? null : new ArrayContainer(result, k);
+        }
+
+        private Container filter(Container other, boolean keep) {
+            short[] result = new short[cardinality];
+            int k = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                short member = members[i];
+                if (other.contains(toUnsignedInt(member)) == keep) {
+                    result[k++] = member;
+                }
+            }
+            return k == 0 ? null : new ArrayContainer(result, k);
+        }
+
+        private final class ArrayIterator extends ContainerIterator {
+
+            private int position;
+
+            @Override
+            int next() {
+                return position < cardinality ? toUnsignedInt(members[position++]) : END;
+            }
+
+            @Override
+            int nextAtLeast(int value) {
+                if (position == cardinality) {
+                    return END;
+                }
+                int found = unsignedBinarySearch(members, position, cardinality, value);
+                position = found >= 0 ? found : -(found + 1);
+                return next();
+            }
+
+        }
+
+    }
+
+    /**
+     * Holds directly indexable long array of bits.
+     */
+    static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            assert words.length == WORDS;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return (words[value >>> WORD_SHIFT] & 1L << value) != 0;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < WORDS; ++i) {
+                words[i] |= this.words[i];
+            }
+        }
+
+        @Override
+        void andInto(long[] words) {
+            for (int i = 0; i < WORDS; ++i) {
+                words[i] &= this.words[i];
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < WORDS; ++i) {
+                words[i] &= ~this.words[i];
+            }
+        }
+
+        @Override
+        ContainerIterator iterator() {
+            return new BitmapIterator();
+        }
+
+        private final class BitmapIterator extends ContainerIterator {
+
+            private int position;
+            // the not yet consumed bits of the word at the current position
+            private long word = words[0];
+
+            @Override
+            int next() {
+                long current = word;
+                while (current == 0) {
+                    if (position == WORDS - 1) {
+                        return END;
+                    }
+                    current = words[++position];
+                }
+                word = current & current - 1;
+                return position << WORD_SHIFT | numberOfTrailingZeros(current);
+            }
+
+            @Override
+            int nextAtLeast(int value) {
+                int wordPosition = value >>> WORD_SHIFT;
+                if (wordPosition > position) {
+                    position = wordPosition;
+                    word = words[wordPosition];
+                }
+                // consume all preceding bits by zeroing them out
+                word &= -1L << value;
+                return next();
+            }
+
+        }
+
+    }
+
+    /**
+     * Holds a sorted array of {@code [start, end]} runs of consecutive
+     * members, both ends are inclusive.
+     */
+    static final class RunContainer extends Container {
+
+        private final short[] runs;
+        private final int runCount;
+        private final int cardinality;
+
+        RunContainer(short[] runs, int runCount, int cardinality) {
+            assert runCount * 2 <= runs.length;
+            this.runs = runs;
+            this.runCount = runCount;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * @return the number of runs of consecutive set bits in the given
+         * words.
+         */
+        static int runCount(long[] words) {
+            int runCount = 0;
+            long previous = 0;
+            for (long word : words) {
+                // count the bits starting a run
+                runCount += bitCount(word & ~(word << 1 | previous >>> (Long.SIZE - 1)));
+                previous = word;
+            }
+            return runCount;
+        }
+
+        static RunContainer fromWords(long[] words, int runCount, int cardinality) {
+            short[] runs = new short[runCount * 2];
+            int index = 0;
+            int position = 0;
+            long word = words[0];
+            while (true) {
+                while (word == 0 && position < WORDS - 1) {
+                    word = words[++position];
+                }
+                if (word == 0) {
+                    break;
+                }
+                int start = position << WORD_SHIFT | numberOfTrailingZeros(word);
+
+                // fill the trailing zeros to find the end of the run
+                long ones = word | word - 1;
+                while (ones == -1L && position < WORDS - 1) {
+                    ones = words[++position];
+                }
+                runs[index++] = (short) start;
+                if (ones == -1L) {
+                    runs[index++] = (short) CHUNK_MASK;
+                    break;
+                }
+                runs[index++] = (short) ((position << WORD_SHIFT | numberOfTrailingZeros(~ones)) - 1);
+                // zero out the consumed run
+                word = ones & ones + 1;
+            }
+            assert index == runCount * 2;
+            return new RunContainer(runs, runCount, cardinality);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int value) {
+            int run = floorRun(value, 0);
+            return run >= 0 && value <= end(run);
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < runCount; ++i) {
+                setRange(words, start(i), end(i));
+            }
+        }
+
+        @Override
+        void andInto(long[] words) {
+            int from = 0;
+            for (int i = 0; i < runCount; ++i) {
+                int start = start(i);
+                if (start > from) {
+                    clearRange(words, from, start - 1);
+                }
+                from = end(i) + 1;
+            }
+            if (from < CHUNK_SIZE) {
+                clearRange(words, from, CHUNK_MASK);
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < runCount; ++i) {
+                clearRange(words, start(i), end(i));
+            }
+        }
+
+        @Override
+        ContainerIterator iterator() {
+            return new RunIterator();
+        }
+
+        private int start(int run) {
+            return toUnsignedInt(runs[run << 1]);
+        }
+
+        private int end(int run) {
+            return toUnsignedInt(runs[(run << 1) + 1]);
+        }
+
+        /**
+         * @return the last run starting at or before the given value, or
+         * {@code -1} if there is no such run among the runs starting from the
+         * given one.
+         */
+        private int floorRun(int value, int from) {
+            int left = from;
+            int right = runCount - 1;
+            while (left <= right) {
+                int middle = (left + right) >>> 1;
+                if (start(middle) <= value) {
+                    left = middle + 1;
+                } else {
+                    right = middle - 1;
+                }
+            }
+            return left - 1;
+        }
+
+        private final class RunIterator extends ContainerIterator {
+
+            private int run;
+            // the member to return next
+            private int current = runCount == 0 ? 0 : start(0);
+
+            @Override
+            int next() {
+                if (run == runCount) {
+                    return END;
+                }
+                int member = current;
+                if (member < end(run)) {
+                    current = member + 1;
+                } else if (++run < runCount) {
+                    current = start(run);
+                }
+                return member;
+            }
+
+            @Override
+            int nextAtLeast(int value) {
+                if (run == runCount) {
+                    return END;
+                }
+                if (value > end(run)) {
+                    int floor = floorRun(value, run);
+                    run = value <= end(floor) ? floor : floor + 1;
+                    if (run == runCount) {
+                        return END;
+                    }
+                    current = start(run);
+                }
+                current = Math.max(current, value);
+                return next();
+            }
+
+        }
+
+    }
+
+    /**
+     * Iterates over container bit sets.
+     */
+    private final class IteratorImpl implements AscendingLongIterator {
+
+        // the position of the current container
+        private int position;
+        private ContainerIterator iterator;
+
+        private long index;
+
+        IteratorImpl() {
+            iterate(0);
+        }
+
+        @Override
+        public long getIndex() {
+            return index;
+        }
+
+        @Override
+        public long advance() {
+            long current = index;
+            if (current == END) {
+                return END;
+            }
+
+            int member = iterator.next();
+            if (member == ContainerIterator.END) {
+                iterate(position + 1);
+            } else {
+                index = keys[position] << CHUNK_SHIFT | member;
+            }
+            return current;
+        }
+
+        @Override
+        public long advanceAtLeastTo(long member) {
+            assert member >= 0;
+            long current = index;
+            if (current == END || current >= member) {
+                return current;
+            }
+
+            long key = member >>> CHUNK_SHIFT;
+            int position = this.position;
+            if (key != keys[position]) {
+                position = binarySearch(keys, position + 1, size, key);
+                if (position < 0) {
+                    // no such chunk: iterate the one following it
+                    return iterate(-(position + 1));
+                }
+                this.position = position;
+                iterator = containers[position].iterator();
+            }
+
+            int found = iterator.nextAtLeast((int) member & CHUNK_MASK);
+            if (found == ContainerIterator.END) {
+                return iterate(position + 1);
+            }
+            index = key << CHUNK_SHIFT | found;
+            return index;
+        }
+
+        /**
+         * Positions this iterator to the first member of the container at the
+         * given position, containers are never empty.
+         */
+        private long iterate(int position) {
+            if (position == size) {
+                index = END;
+                return END;
+            }
+            this.position = position;
+            iterator = containers[position].iterator();
+            index = keys[position] << CHUNK_SHIFT | iterator.next();
+            return index;
+        }
+
+    }
+
+}
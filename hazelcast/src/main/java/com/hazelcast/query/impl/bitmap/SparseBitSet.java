@@ -54,6 +54,11 @@ import static java.util.Arrays.copyOf;
  * various storage flavors once certain thresholds on storage size are reached.
  * <p>
  * Empty storages are never stored by the implementation.
+ * <p>
+ * For set operations, the bit set is exported into a {@link ContainerBitSet}
+ * which shares the storage arrays with this bit set. A bitmap storage which is
+ * cheaper to represent as runs of consecutive members is exported as a run
+ * container. The exported set is cached until this bit set is modified.
  */
 final class SparseBitSet {
 
@@ -84,6 +89,10 @@ final class SparseBitSet {
     private int lastPrefix = -1;
     private Storage32 lastStorage;
 
+    // the cached export of this bit set, reset on every modification; exports
+    // are built by concurrent readers, the volatile write publishes them safely
+    private volatile ContainerBitSet containers;
+
     /**
      * Adds the given member to this bit set.
      *
@@ -91,6 +100,7 @@ final class SparseBitSet {
      */
     public void add(long member) {
         assert member >= 0;
+        invalidateContainers();
         int prefix = (int) (member >>> Integer.SIZE);
 
         if (prefix == lastPrefix) {
@@ -129,6 +139,7 @@ final class SparseBitSet {
      */
     public boolean remove(long member) {
         assert member >= 0;
+        invalidateContainers();
         int prefix = (int) (member >>> Integer.SIZE);
 
         if (prefix == lastPrefix) {
@@ -156,6 +167,13 @@ final class SparseBitSet {
         }
     }
 
+    private void invalidateContainers() {
+        // avoids a volatile write per modification while nothing is cached
+        if (containers != null) {
+            containers = null;
+        }
+    }
+
     /**
      * @return an iterator that iterates over all the indexes of bits set in
      * this sparse bit set.
@@ -164,6 +182,29 @@ final class SparseBitSet {
         return new IteratorImpl(storages);
     }
 
+    /**
+     * @return the members of this bit set as a container bit set. The returned
+     * set shares the storage arrays with this bit set, so it must not be used
+     * after this bit set is modified.
+     */
+    public ContainerBitSet toContainerBitSet() {
+        ContainerBitSet containers = this.containers;
+        if (containers != null) {
+            return containers;
+        }
+
+        ContainerBitSet.Builder builder = new ContainerBitSet.Builder(1);
+        SparseIntArray.Iterator<Storage32> iterator = new SparseIntArray.Iterator<>();
+        long prefix = storages.iterate(iterator);
+        while (prefix != SparseIntArray.Iterator.END) {
+            iterator.getValue().export(prefix << Short.SIZE, builder);
+            prefix = storages.advance((int) prefix, iterator);
+        }
+        containers = builder.build();
+        this.containers = containers;
+        return containers;
+    }
+
     /**
      * Defines internal contract of storages responsible for storing of 32-bit
      * postfixes.
@@ -234,6 +275,15 @@ final class SparseBitSet {
          */
         boolean advanceAtLeastTo(int member, IteratorImpl iterator);
 
+        /**
+         * Appends the members of this storage to the given builder.
+         *
+         * @param chunkKeyBase the chunk key of the first 64K chunk covered by
+         *                     this storage.
+         * @param builder      the builder to append to.
+         */
+        void export(long chunkKeyBase, ContainerBitSet.Builder builder);
+
     }
 
     /**
@@ -376,6 +426,26 @@ final class SparseBitSet {
             return true;
         }
 
+        @Override
+        public void export(long chunkKeyBase, ContainerBitSet.Builder builder) {
+            // group the members by their 16-bit prefixes
+            int from = 0;
+            while (from < size) {
+                int prefix = members[from] >>> Short.SIZE;
+                int to = from + 1;
+                while (to < size && members[to] >>> Short.SIZE == prefix) {
+                    ++to;
+                }
+
+                short[] postfixes = new short[to - from];
+                for (int i = from; i < to; ++i) {
+                    postfixes[i - from] = (short) members[i];
+                }
+                builder.append(chunkKeyBase | prefix, new ContainerBitSet.ArrayContainer(postfixes, postfixes.length));
+                from = to;
+            }
+        }
+
     }
 
     /**
@@ -648,6 +718,13 @@ final class SparseBitSet {
             return iterateAtLeastFrom(member, position, iterator);
         }
 
+        @Override
+        public void export(long chunkKeyBase, ContainerBitSet.Builder builder) {
+            for (int i = 0; i < size; ++i) {
+                builder.append(chunkKeyBase | toUnsignedInt(prefixes[i]), storages[i].toContainer());
+            }
+        }
+
         private void append(int member) {
             short prefix = (short) (member >>> Short.SIZE);
 
@@ -780,6 +857,11 @@ final class SparseBitSet {
          */
         boolean advanceAtLeastTo(short member, IteratorImpl iterator);
 
+        /**
+         * @return the members of this storage as a container.
+         */
+        ContainerBitSet.Container toContainer();
+
     }
 
     /**
@@ -946,6 +1028,11 @@ final class SparseBitSet {
             return true;
         }
 
+        @Override
+        public ContainerBitSet.Container toContainer() {
+            return new ContainerBitSet.ArrayContainer(members, size);
+        }
+
         /**
          * Appends the given member to this storage. The given member must be
          * greater than any member already known by this storage.
@@ -1095,6 +1182,16 @@ final class SparseBitSet {
             return advance(iterator);
         }
 
+        @Override
+        public ContainerBitSet.Container toContainer() {
+            int runCount = ContainerBitSet.RunContainer.runCount(members);
+            if (runCount < ContainerBitSet.RUN_CONTAINER_MAX_RUNS) {
+                return ContainerBitSet.RunContainer.fromWords(members, runCount, size);
+            } else {
+                return new ContainerBitSet.BitmapContainer(members, size);
+            }
+        }
+
         private void append(short member) {
             int bitIndex = toUnsignedInt(member);
             members[bitIndex >>> BIT_SET_LONG_SHIFT] |= 1L << bitIndex;
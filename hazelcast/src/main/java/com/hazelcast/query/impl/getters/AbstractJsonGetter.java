@@ -24,6 +24,7 @@ import com.hazelcast.internal.json.JsonValue;
 import com.hazelcast.internal.json.NonTerminalJsonValue;
 import com.hazelcast.internal.serialization.impl.NavigableJsonInputAdapter;
 import com.hazelcast.internal.util.collection.WeightedEvictableList.WeightedItem;
+import com.hazelcast.json.internal.JsonBinaryDocument;
 import com.hazelcast.json.internal.JsonPattern;
 import com.hazelcast.json.internal.JsonSchemaHelper;
 import com.hazelcast.json.internal.JsonSchemaNode;
@@ -46,6 +47,8 @@ public abstract class AbstractJsonGetter extends Getter {
      */
     private static final int PATTERN_TRY_COUNT = 2;
 
+    private static final String ANY_PATH = "[any]";
+
     private final JsonGetterContextCache contextCache =
             new JsonGetterContextCache(QUERY_CONTEXT_CACHE_MAX_SIZE, QUERY_CONTEXT_CACHE_CLEANUP_SIZE);
 
@@ -149,6 +152,9 @@ public abstract class AbstractJsonGetter extends Getter {
         if (metadata == null) {
             return getValue(obj, attributePath);
         }
+        if (metadata instanceof JsonBinaryDocument) {
+            return getValue(obj, attributePath, (JsonBinaryDocument) metadata);
+        }
         JsonSchemaNode schemaNode = (JsonSchemaNode) metadata;
 
         NavigableJsonInputAdapter adapter = annotate(obj);
@@ -179,6 +185,14 @@ public abstract class AbstractJsonGetter extends Getter {
         return null;
     }
 
+    private Object getValue(Object obj, String attributePath, JsonBinaryDocument document) {
+        if (attributePath.contains(ANY_PATH)) {
+            return getValue(obj, attributePath);
+        }
+        JsonPathCursor pathCursor = contextCache.getContext(attributePath).newJsonPathCursor();
+        return document.find(pathCursor);
+    }
+
     @Override
     Class getReturnType() {
         throw new IllegalArgumentException("Non applicable for Json getters");
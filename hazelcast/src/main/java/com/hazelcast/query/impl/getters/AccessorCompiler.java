@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Compiles the fields and methods read by {@link FieldGetter} and {@link
+ * MethodGetter} into accessors which don't go through the reflection API
+ * on every read.
+ * <p>
+ * Methods are compiled with the {@link LambdaMetafactory} into a {@link
+ * Function} calling the method directly, which the JIT can inline into the
+ * getter. This requires the method and its declaring classes to be public
+ * and the declaring class to be visible from the class loader of Hazelcast,
+ * other methods are not compiled. Fields are compiled into a {@link
+ * MethodHandle} reading the field. The getters fall back to the reflective
+ * access if an accessor can't be compiled.
+ * <p>
+ * The compilation can be disabled by setting the {@code
+ * hazelcast.query.disableCompiledGetters} system property to {@code true}.
+ */
+final class AccessorCompiler {
+
+    private static final boolean COMPILATION_ENABLED = !Boolean.getBoolean("hazelcast.query.disableCompiledGetters");
+
+    private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType FUNCTION_FACTORY_TYPE = MethodType.methodType(Function.class);
+
+    private AccessorCompiler() {
+    }
+
+    /**
+     * @return a function calling the given method on its argument, or
+     * {@code null} if the method can't be compiled
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> compile(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!COMPILATION_ENABLED || Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+                || !isPublic(declaringClass) || !isVisible(declaringClass)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", FUNCTION_FACTORY_TYPE, READER_TYPE, handle,
+                    MethodType.methodType(Object.class, declaringClass));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a method handle of type {@code (Object)Object} reading the
+     * given field, or {@code null} if the field can't be compiled
+     */
+    static MethodHandle compile(Field field) {
+        if (!COMPILATION_ENABLED || Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().unreflectGetter(field).asType(READER_TYPE);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPublic(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The function is defined in the class loader of this class, so the
+     * class declaring the method must be resolvable from it.
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, AccessorCompiler.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
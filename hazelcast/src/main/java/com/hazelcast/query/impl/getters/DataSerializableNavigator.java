@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.instance.BuildInfoProvider;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.FixedLayoutDataSerializable;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.version.Version;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.internal.nio.Bits.readChar;
+import static com.hazelcast.internal.nio.Bits.readInt;
+import static com.hazelcast.internal.nio.Bits.readLong;
+import static com.hazelcast.internal.nio.Bits.readShort;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_DATA_SERIALIZABLE;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.BOOLEAN;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.BYTE;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.CHAR;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.DOUBLE;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.FLOAT;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.INT;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.LONG;
+import static com.hazelcast.query.impl.getters.RecordingDataInput.SHORT;
+
+/**
+ * Reads primitive attributes of {@link FixedLayoutDataSerializable} objects
+ * directly from their serialized form, without deserializing them.
+ * <p>
+ * An {@link IdentifiedDataSerializable} doesn't describe its fields, so
+ * their offsets are learned per class and attribute from the first
+ * entries queried: these are deserialized as usual to get the value of the
+ * attribute and their fields are then read once more from the serialized
+ * form, recording the offsets and values of the leading primitives (see
+ * {@link RecordingDataInput}). The attribute is mapped to the only recorded
+ * primitive of the same type which had the value of the attribute in all
+ * of the {@value #LEARNED_SAMPLE_COUNT} sampled entries. Attributes which
+ * can't be mapped in {@value #MAX_SAMPLE_COUNT} samples, as well as nested
+ * attributes, are always read from the deserialized objects.
+ * <p>
+ * The learned offsets are only valid if the {@code readData} method of the
+ * class reads the same sequence of primitives, up to the attribute, for all
+ * of the objects. A few samples can't prove that and a wrong offset would
+ * feed wrong values to the predicates and indexes, so only the classes
+ * declaring such a fixed layout by implementing {@link
+ * FixedLayoutDataSerializable} are learned. The attributes of the other
+ * classes are always read from the deserialized objects. Objects of a
+ * class serialized with different versions are learned separately.
+ */
+final class DataSerializableNavigator {
+
+    /**
+     * Returned when the attribute can't be read from the serialized form.
+     */
+    static final Object NOT_NAVIGABLE = new Object();
+
+    private static final int LEARNED_SAMPLE_COUNT = 8;
+    private static final int MAX_SAMPLE_COUNT = 64;
+    private static final int MAX_ATTRIBUTES = 100;
+    private static final int MAX_CLASSES_PER_ATTRIBUTE = 16;
+    // the header flags of DataSerializableSerializer
+    private static final byte IDS_FLAG = 1;
+    private static final byte EE_FLAG = 1 << 1;
+    // the header flags, the factory ID and the class ID
+    private static final int HEADER_LENGTH = 9;
+    // the major and minor version of a versioned object
+    private static final int VERSION_LENGTH = 2;
+    private static final int UNVERSIONED = -1;
+    private static final int BYTE_MASK = 0xFF;
+
+    // the version DataSerializableSerializer reads objects with
+    private static final Version SERIALIZER_VERSION = Version.of(BuildInfoProvider.getBuildInfo().getVersion());
+
+    private final InternalSerializationService ss;
+    private final Extractors extractors;
+    private final boolean bigEndian;
+    private final ConcurrentMap<String, AttributeLayouts> layouts = new ConcurrentHashMap<>();
+
+    DataSerializableNavigator(InternalSerializationService ss, Extractors extractors) {
+        this.ss = ss;
+        this.extractors = extractors;
+        this.bigEndian = ss.getByteOrder() == ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * @return the value of the attribute, or {@link #NOT_NAVIGABLE} if it
+     * has to be read from the deserialized object
+     */
+    Object read(Data data, String attributeName) {
+        if (!(data instanceof HeapData) || data.getType() != CONSTANT_TYPE_DATA_SERIALIZABLE
+                || data.dataSize() < HEADER_LENGTH || !isSimpleAttributeName(attributeName)) {
+            return NOT_NAVIGABLE;
+        }
+        byte[] bytes = data.toByteArray();
+        byte header = bytes[HeapData.DATA_OFFSET];
+        if ((header & IDS_FLAG) == 0) {
+            return NOT_NAVIGABLE;
+        }
+        int factoryId = readInt(bytes, HeapData.DATA_OFFSET + 1, bigEndian);
+        int classId = readInt(bytes, HeapData.DATA_OFFSET + Integer.BYTES + 1, bigEndian);
+        int fieldsStart = HeapData.DATA_OFFSET + HEADER_LENGTH;
+        int version = UNVERSIONED;
+        if ((header & EE_FLAG) != 0) {
+            if (data.dataSize() < HEADER_LENGTH + VERSION_LENGTH) {
+                return NOT_NAVIGABLE;
+            }
+            // the version the object was serialized with, as major and minor byte
+            version = (bytes[fieldsStart] & BYTE_MASK) << Byte.SIZE | (bytes[fieldsStart + 1] & BYTE_MASK);
+            fieldsStart += VERSION_LENGTH;
+        }
+
+        AttributeLayout layout = getLayout(attributeName, factoryId, classId, version);
+        return layout == null ? NOT_NAVIGABLE : layout.read(data, bytes, fieldsStart);
+    }
+
+    private AttributeLayout getLayout(String attributeName, int factoryId, int classId, int version) {
+        AttributeLayouts attributeLayouts = layouts.get(attributeName);
+        if (attributeLayouts == null) {
+            if (layouts.size() >= MAX_ATTRIBUTES) {
+                return null;
+            }
+            attributeLayouts = layouts.computeIfAbsent(attributeName, AttributeLayouts::new);
+        }
+        return attributeLayouts.get(factoryId, classId, version);
+    }
+
+    private static boolean isSimpleAttributeName(String attributeName) {
+        if (attributeName.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < attributeName.length(); i++) {
+            if (!Character.isJavaIdentifierPart(attributeName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The layouts of an attribute in the classes it was read from.
+     */
+    private final class AttributeLayouts {
+
+        private final String attributeName;
+        private volatile AttributeLayout[] layouts = new AttributeLayout[0];
+
+        AttributeLayouts(String attributeName) {
+            this.attributeName = attributeName;
+        }
+
+        AttributeLayout get(int factoryId, int classId, int version) {
+            for (AttributeLayout layout : layouts) {
+                if (layout.is(factoryId, classId, version)) {
+                    return layout;
+                }
+            }
+            return add(factoryId, classId, version);
+        }
+
+        private synchronized AttributeLayout add(int factoryId, int classId, int version) {
+            AttributeLayout[] current = layouts;
+            for (AttributeLayout layout : current) {
+                if (layout.is(factoryId, classId, version)) {
+                    return layout;
+                }
+            }
+            if (current.length == MAX_CLASSES_PER_ATTRIBUTE) {
+                return null;
+            }
+            AttributeLayout layout = new AttributeLayout(attributeName, factoryId, classId, version);
+            AttributeLayout[] updated = new AttributeLayout[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = layout;
+            layouts = updated;
+            return layout;
+        }
+    }
+
+    /**
+     * The offset of an attribute in the serialized form of a class and
+     * version, learned from the first entries read.
+     */
+    private final class AttributeLayout {
+
+        private static final int LEARNING = 0;
+        private static final int NAVIGABLE = 1;
+        private static final int NOT_NAVIGABLE_STATE = 2;
+
+        private final String attributeName;
+        private final int factoryId;
+        private final int classId;
+        // the version of versioned objects, UNVERSIONED otherwise
+        private final int version;
+
+        private volatile int state = LEARNING;
+        private int offset;
+        private byte kind;
+
+        // the recorded reads matching the attribute in all samples so far
+        private int[] candidateOffsets;
+        private byte[] candidateKinds;
+        private int candidateCount;
+        private int sampleCount;
+
+        AttributeLayout(String attributeName, int factoryId, int classId, int version) {
+            this.attributeName = attributeName;
+            this.factoryId = factoryId;
+            this.classId = classId;
+            this.version = version;
+        }
+
+        boolean is(int factoryId, int classId, int version) {
+            return this.factoryId == factoryId && this.classId == classId && this.version == version;
+        }
+
+        Object read(Data data, byte[] bytes, int fieldsStart) {
+            int state = this.state;
+            if (state == NAVIGABLE) {
+                int position = fieldsStart + offset;
+                if (position + RecordingDataInput.size(kind) > bytes.length) {
+                    return NOT_NAVIGABLE;
+                }
+                return readValue(bytes, position);
+            }
+            if (state == NOT_NAVIGABLE_STATE) {
+                return NOT_NAVIGABLE;
+            }
+            return learn(data, bytes, fieldsStart);
+        }
+
+        private Object readValue(byte[] bytes, int position) {
+            switch (kind) {
+                case BOOLEAN:
+                    return bytes[position] != 0;
+                case BYTE:
+                    return bytes[position];
+                case CHAR:
+                    return readChar(bytes, position, bigEndian);
+                case SHORT:
+                    return readShort(bytes, position, bigEndian);
+                case INT:
+                    return readInt(bytes, position, bigEndian);
+                case FLOAT:
+                    return Float.intBitsToFloat(readInt(bytes, position, bigEndian));
+                case LONG:
+                    return readLong(bytes, position, bigEndian);
+                case DOUBLE:
+                    return Double.longBitsToDouble(readLong(bytes, position, bigEndian));
+                default:
+                    throw new IllegalStateException("Unknown kind " + kind);
+            }
+        }
+
+        /**
+         * Reads the attribute from the deserialized object and matches its
+         * value with the primitives read from the serialized form.
+         */
+        private synchronized Object learn(Data data, byte[] bytes, int fieldsStart) {
+            Object object = ss.toObject(data);
+            Object value = extractors.extract(object, attributeName, null);
+            if (state != LEARNING) {
+                return value;
+            }
+
+            RecordingDataInput recording = record(object, bytes, fieldsStart);
+            if (recording == null || !isPrimitiveWrapper(value)) {
+                state = NOT_NAVIGABLE_STATE;
+                return value;
+            }
+            match(recording, value);
+            sampleCount++;
+            if (candidateCount == 0 || (candidateCount > 1 && sampleCount == MAX_SAMPLE_COUNT)) {
+                state = NOT_NAVIGABLE_STATE;
+            } else if (candidateCount == 1 && sampleCount >= LEARNED_SAMPLE_COUNT) {
+                offset = candidateOffsets[0];
+                kind = candidateKinds[0];
+                candidateOffsets = null;
+                candidateKinds = null;
+                // publishes the offset and the kind
+                state = NAVIGABLE;
+            }
+            return value;
+        }
+
+        /**
+         * Reads the fields of the already deserialized object once more
+         * from the serialized form, recording the primitives read.
+         */
+        private RecordingDataInput record(Object object, byte[] bytes, int fieldsStart) {
+            if (!(object instanceof FixedLayoutDataSerializable)) {
+                return null;
+            }
+            BufferObjectDataInput in = ss.createObjectDataInput(bytes, fieldsStart);
+            // the version the object was serialized with, unversioned objects
+            // get the one DataSerializableSerializer deserializes them with
+            in.setVersion(version == UNVERSIONED
+                    ? SERIALIZER_VERSION : Version.of(version >>> Byte.SIZE, version & BYTE_MASK));
+            RecordingDataInput recording = new RecordingDataInput(in, fieldsStart);
+            try {
+                ((FixedLayoutDataSerializable) object).readData(recording);
+            } catch (Exception e) {
+                return null;
+            }
+            return recording;
+        }
+
+        private void match(RecordingDataInput recording, Object value) {
+            if (candidateOffsets == null) {
+                candidateOffsets = new int[recording.count()];
+                candidateKinds = new byte[recording.count()];
+                for (int i = 0; i < recording.count(); i++) {
+                    if (recording.value(i).equals(value)) {
+                        candidateOffsets[candidateCount] = recording.offset(i);
+                        candidateKinds[candidateCount] = recording.kind(i);
+                        candidateCount++;
+                    }
+                }
+                return;
+            }
+
+            int retained = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                for (int i = 0; i < recording.count(); i++) {
+                    if (recording.offset(i) == candidateOffsets[c] && recording.kind(i) == candidateKinds[c]
+                            && recording.value(i).equals(value)) {
+                        candidateOffsets[retained] = candidateOffsets[c];
+                        candidateKinds[retained] = candidateKinds[c];
+                        retained++;
+                        break;
+                    }
+                }
+            }
+            candidateCount = retained;
+        }
+
+        private boolean isPrimitiveWrapper(Object value) {
+            return value != null && RecordingDataInput.kindOf(value) >= 0;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.config.AttributeConfig;
 import com.hazelcast.core.HazelcastJsonValue;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.compact.CompactInternalGenericRecord;
 import com.hazelcast.internal.serialization.impl.portable.PortableGenericRecord;
 import com.hazelcast.nio.serialization.HazelcastSerializationException;
 import com.hazelcast.nio.serialization.Portable;
@@ -39,6 +40,12 @@ import static com.hazelcast.query.impl.getters.ExtractorHelper.instantiateExtrac
 // one instance per MapContainer
 public final class Extractors {
 
+    /**
+     * Returned by {@link #extractFromSerializedForm(Data, String)} when the
+     * attribute has to be read from the deserialized object.
+     */
+    public static final Object NOT_NAVIGABLE = DataSerializableNavigator.NOT_NAVIGABLE;
+
     private static final int MAX_CLASSES_IN_CACHE = 1000;
     private static final int MAX_GETTERS_PER_CLASS_IN_CACHE = 100;
     private static final float EVICTION_PERCENTAGE = 0.2f;
@@ -56,9 +63,11 @@ public final class Extractors {
     private final InternalSerializationService ss;
     private final EvictableGetterCache getterCache;
     private final DefaultArgumentParser argumentsParser;
+    private final DataSerializableNavigator dataSerializableNavigator;
 
     private Extractors(List<AttributeConfig> attributeConfigs,
-                       ClassLoader classLoader, InternalSerializationService ss) {
+                       ClassLoader classLoader, InternalSerializationService ss,
+                       boolean dataSerializableNavigationEnabled) {
         this.extractors = attributeConfigs == null
                 ? Collections.<String, ValueExtractor>emptyMap()
                 : instantiateExtractors(attributeConfigs, classLoader);
@@ -66,6 +75,7 @@ public final class Extractors {
                 MAX_GETTERS_PER_CLASS_IN_CACHE, EVICTION_PERCENTAGE, false);
         this.argumentsParser = new DefaultArgumentParser();
         this.ss = ss;
+        this.dataSerializableNavigator = dataSerializableNavigationEnabled ? new DataSerializableNavigator(ss, this) : null;
     }
 
     public Object extract(Object target, String attributeName, Object metadata) {
@@ -85,11 +95,36 @@ public final class Extractors {
         return null;
     }
 
+    /**
+     * @return {@code true} if primitive attributes of {@code
+     * IdentifiedDataSerializable} objects may be read from their serialized
+     * form, see {@link #extractFromSerializedForm(Data, String)}
+     */
+    public boolean isDataSerializableNavigationEnabled() {
+        return dataSerializableNavigator != null;
+    }
+
+    /**
+     * Reads the attribute directly from the serialized form of an {@code
+     * IdentifiedDataSerializable} object, without deserializing it.
+     *
+     * @return the value of the attribute, or {@link #NOT_NAVIGABLE} if the
+     * attribute has to be read from the deserialized object
+     * @see DataSerializableNavigator
+     */
+    public Object extractFromSerializedForm(Data target, String attributeName) {
+        if (dataSerializableNavigator == null || extractors.containsKey(attributeName)) {
+            return NOT_NAVIGABLE;
+        }
+        return dataSerializableNavigator.read(target, attributeName);
+    }
+
     /**
      * Returns the form of this data that is queryable.
      * Returns {@link Data} if {@code target} is
      * <ul>
      *     <li>a portable object either in Data form or Object form</li>
+     *     <li>a compact object in Data form</li>
      *     <li>a {@link HazelcastJsonValue} in Data form</li>
      * </ul>
      * Otherwise, returns object form.
@@ -106,7 +141,7 @@ public final class Extractors {
         }
         if (target instanceof Data) {
             targetData = (Data) target;
-            if (targetData.isPortable() || targetData.isJson()) {
+            if (targetData.isPortable() || targetData.isCompact() || targetData.isJson()) {
                 return targetData;
             } else {
                 // convert non-portable Data to object
@@ -136,7 +171,7 @@ public final class Extractors {
             return new ExtractorGetter(ss, valueExtractor, arguments);
         } else {
             if (targetObject instanceof Data) {
-                if (((Data) targetObject).isPortable()) {
+                if (((Data) targetObject).isPortable() || ((Data) targetObject).isCompact()) {
                     if (genericPortableGetter == null) {
                         // will be initialised a couple of times in the worst case
                         genericPortableGetter = new PortableGetter(ss);
@@ -153,7 +188,8 @@ public final class Extractors {
                 }
             } else if (targetObject instanceof HazelcastJsonValue) {
                 return JsonGetter.INSTANCE;
-            } else if (targetObject instanceof PortableGenericRecord) {
+            } else if (targetObject instanceof PortableGenericRecord
+                    || targetObject instanceof CompactInternalGenericRecord) {
                 if (genericPortableGetter == null) {
                     // will be initialised a couple of times in the worst case
                     genericPortableGetter = new PortableGetter(ss);
@@ -175,6 +211,7 @@ public final class Extractors {
     public static final class Builder {
         private ClassLoader classLoader;
         private List<AttributeConfig> attributeConfigs;
+        private boolean dataSerializableNavigationEnabled;
 
         private final InternalSerializationService ss;
 
@@ -192,11 +229,20 @@ public final class Extractors {
             return this;
         }
 
+        /**
+         * Enables reading primitive attributes of {@code IdentifiedDataSerializable}
+         * objects from their serialized form, see {@link DataSerializableNavigator}.
+         */
+        public Builder setDataSerializableNavigationEnabled(boolean dataSerializableNavigationEnabled) {
+            this.dataSerializableNavigationEnabled = dataSerializableNavigationEnabled;
+            return this;
+        }
+
         /**
          * @return a new instance of Extractors
          */
         public Extractors build() {
-            return new Extractors(attributeConfigs, classLoader, ss);
+            return new Extractors(attributeConfigs, classLoader, ss, dataSerializableNavigationEnabled);
         }
     }
 }
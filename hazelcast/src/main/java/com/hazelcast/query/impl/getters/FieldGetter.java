@@ -16,11 +16,16 @@
 
 package com.hazelcast.query.impl.getters;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+
 public final class FieldGetter extends AbstractMultiValueGetter {
 
     private final Field field;
+    // null if the field is read reflectively, see AccessorCompiler
+    private final MethodHandle compiledField;
 
     // for testing purposes only
     public FieldGetter(Getter parent, Field field, String modifier, Class elementType) {
@@ -30,10 +35,14 @@ public final class FieldGetter extends AbstractMultiValueGetter {
     public FieldGetter(Getter parent, Field field, String modifier, Class type, Class elementType) {
         super(parent, modifier, type, elementType);
         this.field = field;
+        this.compiledField = AccessorCompiler.compile(field);
     }
 
     @Override
     protected Object extractFrom(Object object) throws IllegalAccessException {
+        if (compiledField != null) {
+            return readCompiled(object);
+        }
         try {
             return field.get(object);
         } catch (IllegalArgumentException e) {
@@ -41,6 +50,17 @@ public final class FieldGetter extends AbstractMultiValueGetter {
         }
     }
 
+    private Object readCompiled(Object object) {
+        try {
+            return (Object) compiledField.invokeExact(object);
+        } catch (ClassCastException e) {
+            // the object doesn't declare the field
+            throw new IllegalArgumentException(composeAttributeValueExtractionFailedMessage(field), e);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
     @Override
     boolean isCacheable() {
         return true;
@@ -18,10 +18,13 @@ package com.hazelcast.query.impl.getters;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Function;
 
 public final class MethodGetter extends AbstractMultiValueGetter {
 
     private final Method method;
+    // null if the method is invoked reflectively, see AccessorCompiler
+    private final Function<Object, Object> compiledMethod;
 
     // for testing purposes only
     public MethodGetter(Getter parent, Method method, String modifier, Class elementType) {
@@ -31,10 +34,14 @@ public final class MethodGetter extends AbstractMultiValueGetter {
     public MethodGetter(Getter parent, Method method, String modifier, Class type, Class elementType) {
         super(parent, modifier, type, elementType);
         this.method = method;
+        this.compiledMethod = AccessorCompiler.compile(method);
     }
 
     @Override
     protected Object extractFrom(Object object) throws IllegalAccessException, InvocationTargetException {
+        if (compiledMethod != null) {
+            return invokeCompiled(object);
+        }
         try {
             return method.invoke(object);
         } catch (IllegalArgumentException e) {
@@ -42,6 +49,18 @@ public final class MethodGetter extends AbstractMultiValueGetter {
         }
     }
 
+    private Object invokeCompiled(Object object) throws InvocationTargetException {
+        try {
+            return compiledMethod.apply(object);
+        } catch (Throwable t) {
+            if (!method.getDeclaringClass().isInstance(object)) {
+                throw new IllegalArgumentException(composeAttributeValueExtractionFailedMessage(method), t);
+            }
+            // wrapped the same way as by Method.invoke
+            throw new InvocationTargetException(t);
+        }
+    }
+
     @Override
     boolean isCacheable() {
         return true;
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.version.Version;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+/**
+ * Input recording the positions and values of the primitives read by an
+ * {@code IdentifiedDataSerializable} from its serialized form, used by the
+ * {@link DataSerializableNavigator} to find the offsets of the fields.
+ * <p>
+ * Only the leading primitives read back to back are recorded: the recording
+ * stops at the first read of a string, an array, a nested object or any
+ * other value whose length isn't fixed, since the positions of the values
+ * following it depend on its length.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+final class RecordingDataInput implements ObjectDataInput {
+
+    static final byte BOOLEAN = 0;
+    static final byte BYTE = 1;
+    static final byte CHAR = 2;
+    static final byte SHORT = 3;
+    static final byte INT = 4;
+    static final byte FLOAT = 5;
+    static final byte LONG = 6;
+    static final byte DOUBLE = 7;
+
+    private static final int[] SIZES = {1, 1, 2, 2, 4, 4, 8, 8};
+    private static final int MAX_RECORDED_READS = 64;
+
+    private final BufferObjectDataInput in;
+    private final int start;
+    private final int[] offsets = new int[MAX_RECORDED_READS];
+    private final byte[] kinds = new byte[MAX_RECORDED_READS];
+    private final Object[] values = new Object[MAX_RECORDED_READS];
+    private int count;
+    private int nextOffset;
+    private boolean stopped;
+
+    /**
+     * @param in    the input positioned at the first field of the object
+     * @param start the position of the first field of the object
+     */
+    RecordingDataInput(BufferObjectDataInput in, int start) {
+        this.in = in;
+        this.start = start;
+    }
+
+    /**
+     * @return the number of recorded reads
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the offset of the given read from the first field of the object
+     */
+    int offset(int read) {
+        return offsets[read];
+    }
+
+    byte kind(int read) {
+        return kinds[read];
+    }
+
+    Object value(int read) {
+        return values[read];
+    }
+
+    static int size(byte kind) {
+        return SIZES[kind];
+    }
+
+    /**
+     * @return the kind of primitive boxed by the given value, {@code -1} if
+     * the value isn't a boxed primitive
+     */
+    @SuppressWarnings("checkstyle:returncount")
+    static byte kindOf(Object value) {
+        if (value instanceof Integer) {
+            return INT;
+        } else if (value instanceof Long) {
+            return LONG;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Float) {
+            return FLOAT;
+        } else if (value instanceof Short) {
+            return SHORT;
+        } else if (value instanceof Byte) {
+            return BYTE;
+        } else if (value instanceof Character) {
+            return CHAR;
+        }
+        return -1;
+    }
+
+    private void record(int position, byte kind, Object value) {
+        int offset = position - start;
+        if (stopped || offset != nextOffset || count == MAX_RECORDED_READS) {
+            stopped = true;
+            return;
+        }
+        offsets[count] = offset;
+        kinds[count] = kind;
+        values[count] = value;
+        count++;
+        nextOffset = offset + SIZES[kind];
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        int position = in.position();
+        boolean value = in.readBoolean();
+        record(position, BOOLEAN, value);
+        return value;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        int position = in.position();
+        byte value = in.readByte();
+        record(position, BYTE, value);
+        return value;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        int position = in.position();
+        char value = in.readChar();
+        record(position, CHAR, value);
+        return value;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        int position = in.position();
+        short value = in.readShort();
+        record(position, SHORT, value);
+        return value;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        int position = in.position();
+        int value = in.readInt();
+        record(position, INT, value);
+        return value;
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        int position = in.position();
+        float value = in.readFloat();
+        record(position, FLOAT, value);
+        return value;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        int position = in.position();
+        long value = in.readLong();
+        record(position, LONG, value);
+        return value;
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        int position = in.position();
+        double value = in.readDouble();
+        record(position, DOUBLE, value);
+        return value;
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        stopped = true;
+        return in.readUnsignedByte();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        stopped = true;
+        return in.readUnsignedShort();
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        stopped = true;
+        in.readFully(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        stopped = true;
+        in.readFully(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        stopped = true;
+        return in.skipBytes(n);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        stopped = true;
+        return in.readLine();
+    }
+
+    @Override
+    @Deprecated
+    public String readUTF() throws IOException {
+        stopped = true;
+        return in.readUTF();
+    }
+
+    @Override
+    public String readString() throws IOException {
+        stopped = true;
+        return in.readString();
+    }
+
+    @Override
+    public byte[] readByteArray() throws IOException {
+        stopped = true;
+        return in.readByteArray();
+    }
+
+    @Override
+    public boolean[] readBooleanArray() throws IOException {
+        stopped = true;
+        return in.readBooleanArray();
+    }
+
+    @Override
+    public char[] readCharArray() throws IOException {
+        stopped = true;
+        return in.readCharArray();
+    }
+
+    @Override
+    public int[] readIntArray() throws IOException {
+        stopped = true;
+        return in.readIntArray();
+    }
+
+    @Override
+    public long[] readLongArray() throws IOException {
+        stopped = true;
+        return in.readLongArray();
+    }
+
+    @Override
+    public double[] readDoubleArray() throws IOException {
+        stopped = true;
+        return in.readDoubleArray();
+    }
+
+    @Override
+    public float[] readFloatArray() throws IOException {
+        stopped = true;
+        return in.readFloatArray();
+    }
+
+    @Override
+    public short[] readShortArray() throws IOException {
+        stopped = true;
+        return in.readShortArray();
+    }
+
+    @Override
+    @Deprecated
+    public String[] readUTFArray() throws IOException {
+        stopped = true;
+        return in.readUTFArray();
+    }
+
+    @Override
+    public String[] readStringArray() throws IOException {
+        stopped = true;
+        return in.readStringArray();
+    }
+
+    @Override
+    public <T> T readObject() throws IOException {
+        stopped = true;
+        return in.readObject();
+    }
+
+    @Override
+    public <T> T readObject(Class aClass) throws IOException {
+        stopped = true;
+        return in.readObject(aClass);
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return in.getClassLoader();
+    }
+
+    @Override
+    public ByteOrder getByteOrder() {
+        return in.getByteOrder();
+    }
+
+    @Override
+    public Version getVersion() {
+        return in.getVersion();
+    }
+
+    @Override
+    public void setVersion(Version version) {
+        in.setVersion(version);
+    }
+
+    @Override
+    public Version getWanProtocolVersion() {
+        return in.getWanProtocolVersion();
+    }
+
+    @Override
+    public void setWanProtocolVersion(Version version) {
+        in.setWanProtocolVersion(version);
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.ColumnBatch;
+
+import java.util.Arrays;
+
+import static com.hazelcast.query.impl.predicates.PredicateUtils.isNull;
+
+/**
+ * Predicate evaluated on the columns of a {@link ColumnBatch}, producing a
+ * selection bitmap of the matching rows in a tight loop per column instead
+ * of applying the predicate entry by entry.
+ * <p>
+ * Compiled from {@link EqualPredicate}, {@link NotEqualPredicate}, {@link
+ * GreaterLessPredicate}, {@link BetweenPredicate}, {@link InPredicate} and
+ * their combinations by {@link AndPredicate}, {@link OrPredicate} and {@link
+ * NotPredicate}. The given values of the predicates are converted to the
+ * class of the column values of every batch the same way the predicates
+ * convert them on {@link Predicate#apply}. If any of the converted values
+ * is not of the class of its column, the batch can't be evaluated on its
+ * columns and its entries have to be processed entry by entry.
+ * <p>
+ * Since the values of a column are all of the same class and never {@code
+ * null}, {@link Comparable#equals} and {@link Comparable#compareTo} used by
+ * the predicates are equivalent to the comparisons of the primitive values,
+ * {@link Double#doubleToLongBits} is used to compare floating point values
+ * for equality.
+ */
+public abstract class ColumnPredicate {
+
+    private static final int EQUAL = 0;
+    private static final int LESS = 1;
+    private static final int LESS_EQUAL = 2;
+    private static final int GREATER = 3;
+    private static final int GREATER_EQUAL = 4;
+    private static final int BETWEEN = 5;
+    private static final int IN = 6;
+
+    ColumnPredicate() {
+    }
+
+    /**
+     * Compiles the given predicate, adding the attributes it reads as
+     * columns of the given batch.
+     *
+     * @param predicate the predicate to compile
+     * @param batch     the batch the predicate is evaluated on
+     * @return the compiled predicate or {@code null} if the predicate can't
+     * be evaluated on columns
+     */
+    @SuppressWarnings({"checkstyle:cyclomaticcomplexity", "checkstyle:npathcomplexity", "checkstyle:returncount"})
+    public static ColumnPredicate compile(Predicate predicate, ColumnBatch batch) {
+        if (predicate instanceof SqlPredicate) {
+            return compile(((SqlPredicate) predicate).getPredicate(), batch);
+        }
+        Class<?> predicateClass = predicate.getClass();
+        if (predicateClass == TruePredicate.class) {
+            return new Constant(true);
+        } else if (predicateClass == FalsePredicate.class) {
+            return new Constant(false);
+        } else if (predicateClass == EqualPredicate.class) {
+            EqualPredicate equal = (EqualPredicate) predicate;
+            return comparison(equal, EQUAL, batch, equal.value);
+        } else if (predicateClass == NotEqualPredicate.class) {
+            NotEqualPredicate notEqual = (NotEqualPredicate) predicate;
+            ColumnPredicate equal = comparison(notEqual, EQUAL, batch, notEqual.value);
+            return equal == null ? null : new Not(equal);
+        } else if (predicateClass == GreaterLessPredicate.class) {
+            GreaterLessPredicate greaterLess = (GreaterLessPredicate) predicate;
+            int operator = greaterLess.less
+                    ? (greaterLess.equal ? LESS_EQUAL : LESS)
+                    : (greaterLess.equal ? GREATER_EQUAL : GREATER);
+            return comparison(greaterLess, operator, batch, greaterLess.value);
+        } else if (predicateClass == BetweenPredicate.class) {
+            BetweenPredicate between = (BetweenPredicate) predicate;
+            return comparison(between, BETWEEN, batch, between.from, between.to);
+        } else if (predicateClass == InPredicate.class) {
+            InPredicate in = (InPredicate) predicate;
+            return comparison(in, IN, batch, in.values);
+        } else if (predicateClass == AndPredicate.class) {
+            ColumnPredicate[] operands = compile(((AndPredicate) predicate).predicates, batch);
+            return operands == null ? null : new And(operands);
+        } else if (predicateClass == OrPredicate.class) {
+            ColumnPredicate[] operands = compile(((OrPredicate) predicate).predicates, batch);
+            return operands == null ? null : new Or(operands);
+        } else if (predicateClass == NotPredicate.class) {
+            ColumnPredicate operand = compile(((NotPredicate) predicate).predicate, batch);
+            return operand == null ? null : new Not(operand);
+        }
+        return null;
+    }
+
+    /**
+     * Prepares the predicate for the evaluation on the current rows of the
+     * batch, converting the given values of the predicates to the classes of
+     * the columns.
+     *
+     * @return {@code true} if the predicate can be evaluated on the batch,
+     * {@code false} if the entries of the batch have to be processed entry by
+     * entry
+     */
+    public abstract boolean bind(ColumnBatch batch);
+
+    /**
+     * Evaluates the predicate bound to the batch.
+     *
+     * @param batch     the batch to evaluate the predicate on
+     * @param selection the selection bitmap the matching rows are written to,
+     *                  of {@link ColumnBatch#SELECTION_LENGTH} words
+     */
+    public abstract void evaluate(ColumnBatch batch, long[] selection);
+
+    private static ColumnPredicate[] compile(Predicate[] predicates, ColumnBatch batch) {
+        if (predicates == null || predicates.length == 0) {
+            return null;
+        }
+        ColumnPredicate[] compiled = new ColumnPredicate[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            compiled[i] = compile(predicates[i], batch);
+            if (compiled[i] == null) {
+                return null;
+            }
+        }
+        return compiled;
+    }
+
+    private static ColumnPredicate comparison(AbstractPredicate predicate, int operator, ColumnBatch batch,
+                                              Comparable... values) {
+        if (values == null || values.length == 0 || predicate.attributeName == null) {
+            return null;
+        }
+        for (Comparable value : values) {
+            if (isNull(value)) {
+                // comparisons with nulls never match the non-null values of columns
+                return null;
+            }
+        }
+        return new Comparison(predicate, operator, batch.addColumn(predicate.attributeName), values);
+    }
+
+    private static final class Comparison extends ColumnPredicate {
+
+        private final AbstractPredicate predicate;
+        private final int operator;
+        private final int column;
+        private final Comparable[] values;
+        private final long[] longValues;
+        private final double[] doubleValues;
+        private boolean doubleColumn;
+
+        Comparison(AbstractPredicate predicate, int operator, int column, Comparable[] values) {
+            this.predicate = predicate;
+            this.operator = operator;
+            this.column = column;
+            this.values = values;
+            this.longValues = new long[values.length];
+            this.doubleValues = new double[values.length];
+        }
+
+        @Override
+        public boolean bind(ColumnBatch batch) {
+            Class<?> columnClass = batch.getColumnClass(column);
+            Comparable sample = batch.getSampleValue(column);
+            doubleColumn = batch.isDoubleColumn(column);
+            for (int i = 0; i < values.length; i++) {
+                Comparable converted = predicate.convert(sample, values[i]);
+                if (converted == null || converted.getClass() != columnClass) {
+                    return false;
+                }
+                if (doubleColumn) {
+                    doubleValues[i] = ((Number) converted).doubleValue();
+                    // the values of IN are looked up by their bits
+                    longValues[i] = Double.doubleToLongBits(doubleValues[i]);
+                } else {
+                    longValues[i] = ((Number) converted).longValue();
+                }
+            }
+            if (operator == IN) {
+                Arrays.sort(longValues);
+            }
+            return true;
+        }
+
+        @Override
+        public void evaluate(ColumnBatch batch, long[] selection) {
+            int size = batch.size();
+            int length = ColumnBatch.selectionLength(size);
+            if (doubleColumn) {
+                double[] columnValues = batch.getDoubleColumn(column);
+                for (int word = 0; word < length; word++) {
+                    int offset = word << ColumnBatch.WORD_SHIFT;
+                    selection[word] = evaluate(columnValues, offset, Math.min(size - offset, Long.SIZE));
+                }
+            } else {
+                long[] columnValues = batch.getLongColumn(column);
+                for (int word = 0; word < length; word++) {
+                    int offset = word << ColumnBatch.WORD_SHIFT;
+                    selection[word] = evaluate(columnValues, offset, Math.min(size - offset, Long.SIZE));
+                }
+            }
+        }
+
+        @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+        private long evaluate(long[] columnValues, int offset, int count) {
+            long first = longValues[0];
+            long bits = 0;
+            switch (operator) {
+                case EQUAL:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (columnValues[offset + i] == first ? 1L : 0L) << i;
+                    }
+                    break;
+                case LESS:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (columnValues[offset + i] < first ? 1L : 0L) << i;
+                    }
+                    break;
+                case LESS_EQUAL:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (columnValues[offset + i] <= first ? 1L : 0L) << i;
+                    }
+                    break;
+                case GREATER:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (columnValues[offset + i] > first ? 1L : 0L) << i;
+                    }
+                    break;
+                case GREATER_EQUAL:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (columnValues[offset + i] >= first ? 1L : 0L) << i;
+                    }
+                    break;
+                case BETWEEN:
+                    long last = longValues[1];
+                    for (int i = 0; i < count; i++) {
+                        long value = columnValues[offset + i];
+                        bits |= (value >= first && value <= last ? 1L : 0L) << i;
+                    }
+                    break;
+                case IN:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Arrays.binarySearch(longValues, columnValues[offset + i]) >= 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected operator: " + operator);
+            }
+            return bits;
+        }
+
+        @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+        private long evaluate(double[] columnValues, int offset, int count) {
+            double first = doubleValues[0];
+            long bits = 0;
+            switch (operator) {
+                case EQUAL:
+                    long firstBits = longValues[0];
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Double.doubleToLongBits(columnValues[offset + i]) == firstBits ? 1L : 0L) << i;
+                    }
+                    break;
+                case LESS:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Double.compare(columnValues[offset + i], first) < 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                case LESS_EQUAL:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Double.compare(columnValues[offset + i], first) <= 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                case GREATER:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Double.compare(columnValues[offset + i], first) > 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                case GREATER_EQUAL:
+                    for (int i = 0; i < count; i++) {
+                        bits |= (Double.compare(columnValues[offset + i], first) >= 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                case BETWEEN:
+                    double last = doubleValues[1];
+                    for (int i = 0; i < count; i++) {
+                        double value = columnValues[offset + i];
+                        bits |= (Double.compare(value, first) >= 0 && Double.compare(value, last) <= 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                case IN:
+                    for (int i = 0; i < count; i++) {
+                        long valueBits = Double.doubleToLongBits(columnValues[offset + i]);
+                        bits |= (Arrays.binarySearch(longValues, valueBits) >= 0 ? 1L : 0L) << i;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected operator: " + operator);
+            }
+            return bits;
+        }
+    }
+
+    private static final class And extends ColumnPredicate {
+
+        private final ColumnPredicate[] operands;
+        private final long[] operandSelection = new long[ColumnBatch.SELECTION_LENGTH];
+
+        And(ColumnPredicate[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean bind(ColumnBatch batch) {
+            for (ColumnPredicate operand : operands) {
+                if (!operand.bind(batch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void evaluate(ColumnBatch batch, long[] selection) {
+            int length = ColumnBatch.selectionLength(batch.size());
+            operands[0].evaluate(batch, selection);
+            for (int i = 1; i < operands.length; i++) {
+                operands[i].evaluate(batch, operandSelection);
+                for (int word = 0; word < length; word++) {
+                    selection[word] &= operandSelection[word];
+                }
+            }
+        }
+    }
+
+    private static final class Or extends ColumnPredicate {
+
+        private final ColumnPredicate[] operands;
+        private final long[] operandSelection = new long[ColumnBatch.SELECTION_LENGTH];
+
+        Or(ColumnPredicate[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean bind(ColumnBatch batch) {
+            for (ColumnPredicate operand : operands) {
+                if (!operand.bind(batch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void evaluate(ColumnBatch batch, long[] selection) {
+            int length = ColumnBatch.selectionLength(batch.size());
+            operands[0].evaluate(batch, selection);
+            for (int i = 1; i < operands.length; i++) {
+                operands[i].evaluate(batch, operandSelection);
+                for (int word = 0; word < length; word++) {
+                    selection[word] |= operandSelection[word];
+                }
+            }
+        }
+    }
+
+    private static final class Not extends ColumnPredicate {
+
+        private final ColumnPredicate operand;
+
+        Not(ColumnPredicate operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean bind(ColumnBatch batch) {
+            return operand.bind(batch);
+        }
+
+        @Override
+        public void evaluate(ColumnBatch batch, long[] selection) {
+            int size = batch.size();
+            operand.evaluate(batch, selection);
+            for (int word = ColumnBatch.selectionLength(size) - 1; word >= 0; word--) {
+                selection[word] = ~selection[word] & ColumnBatch.selectionMask(size, word);
+            }
+        }
+    }
+
+    private static final class Constant extends ColumnPredicate {
+
+        private final boolean value;
+
+        Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean bind(ColumnBatch batch) {
+            return true;
+        }
+
+        @Override
+        public void evaluate(ColumnBatch batch, long[] selection) {
+            int size = batch.size();
+            for (int word = ColumnBatch.selectionLength(size) - 1; word >= 0; word--) {
+                selection[word] = value ? ColumnBatch.selectionMask(size, word) : 0L;
+            }
+        }
+    }
+}
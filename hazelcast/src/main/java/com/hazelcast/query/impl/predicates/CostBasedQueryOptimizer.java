@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryContext.IndexMatchHint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.query.impl.IndexStatistics.UNKNOWN;
+import static com.hazelcast.query.impl.Indexes.SKIP_PARTITIONS_COUNT_CHECK;
+
+/**
+ * Cost based optimizer. It applies the {@link RuleBasedQueryOptimizer} rules
+ * first and then decides which of the indexes the rewritten query should
+ * use based on the selectivities estimated from the {@link IndexStatistics}
+ * of the indexes:
+ * <ul>
+ * <li>Conjuncts of {@link AndPredicate}s matching more than {@value
+ * #SKIP_RATIO} times as many entries as the most selective indexed conjunct
+ * are evaluated on the entries matched by the other conjuncts instead of
+ * being looked up in their indexes. Such conjuncts are ordered by their
+ * estimated selectivity, so the most selective ones are evaluated first.
+ * <li>If the index lookups of the whole query are estimated to match more
+ * than the configured fraction of the entries, the query runs as a full scan.
+ * </ul>
+ * The decisions are expressed by wrapping the affected predicates into
+ * {@link SkipIndexPredicate}s and counted in the stats of the skipped
+ * indexes. Predicates which selectivity can't be estimated are left as is.
+ */
+public final class CostBasedQueryOptimizer implements QueryOptimizer {
+
+    /**
+     * The ratio of the estimated selectivity of an indexed conjunct to the
+     * estimated selectivity of the most selective one above which the former
+     * conjunct doesn't use its index.
+     */
+    static final double SKIP_RATIO = 10.0;
+
+    private final QueryOptimizer rules = new RuleBasedQueryOptimizer();
+    private final double scanSelectivity;
+
+    /**
+     * @param scanSelectivity the estimated fraction of the entries matched by
+     *                        the index lookups of a query above which the
+     *                        query runs as a full scan.
+     */
+    public CostBasedQueryOptimizer(double scanSelectivity) {
+        this.scanSelectivity = scanSelectivity;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean usesIndexStatistics() {
+        return true;
+    }
+
+    @Override
+    public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
+        Predicate optimized = rules.optimize(predicate, indexes);
+        if (!indexes.haveAtLeastOneIndex()) {
+            return optimized;
+        }
+
+        Estimate estimate = estimate(optimized, indexes);
+        if (estimate.cost != UNKNOWN && estimate.cost > scanSelectivity) {
+            estimate.onSkip();
+            return new SkipIndexPredicate(optimized);
+        }
+        return estimate.predicate;
+    }
+
+    private static Estimate estimate(Predicate predicate, Indexes indexes) {
+        if (predicate instanceof AndPredicate) {
+            return estimateAnd((AndPredicate) predicate, indexes);
+        } else if (predicate instanceof OrPredicate) {
+            return estimateOr((OrPredicate) predicate, indexes);
+        } else if (predicate instanceof EqualPredicate) {
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            InternalIndex index = indexes.matchIndex(equalPredicate.attributeName, IndexMatchHint.PREFER_UNORDERED,
+                    SKIP_PARTITIONS_COUNT_CHECK);
+            return index == null ? Estimate.unindexed(predicate)
+                    : Estimate.leaf(predicate, index, index.estimateSelectivity(equalPredicate.value));
+        } else if (predicate instanceof InPredicate) {
+            return estimateIn((InPredicate) predicate, indexes);
+        } else if (predicate instanceof RangePredicate) {
+            RangePredicate range = (RangePredicate) predicate;
+            InternalIndex index = indexes.matchIndex(range.getAttribute(), IndexMatchHint.PREFER_ORDERED,
+                    SKIP_PARTITIONS_COUNT_CHECK);
+            return index == null ? Estimate.unindexed(predicate) : Estimate.leaf(predicate, index,
+                    index.estimateSelectivity(range.getFrom(), range.isFromInclusive(), range.getTo(), range.isToInclusive()));
+        } else if (predicate instanceof IndexAwarePredicate) {
+            // might be served by an index, but its selectivity is unknown
+            return new Estimate(predicate, true, UNKNOWN, UNKNOWN, Collections.emptyList());
+        } else {
+            return Estimate.unindexed(predicate);
+        }
+    }
+
+    private static Estimate estimateIn(InPredicate predicate, Indexes indexes) {
+        InternalIndex index = indexes.matchIndex(predicate.attributeName, IndexMatchHint.PREFER_UNORDERED,
+                SKIP_PARTITIONS_COUNT_CHECK);
+        if (index == null) {
+            return Estimate.unindexed(predicate);
+        }
+
+        double selectivity = 0.0;
+        for (Comparable value : predicate.getValues()) {
+            double valueSelectivity = index.estimateSelectivity(value);
+            if (valueSelectivity == UNKNOWN) {
+                return Estimate.leaf(predicate, index, UNKNOWN);
+            }
+            selectivity += valueSelectivity;
+        }
+        return Estimate.leaf(predicate, index, Math.min(selectivity, 1.0));
+    }
+
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
+    private static Estimate estimateAnd(AndPredicate andPredicate, Indexes indexes) {
+        Predicate[] predicates = andPredicate.predicates;
+        Estimate[] estimates = new Estimate[predicates.length];
+        boolean changed = false;
+        double minCost = Double.MAX_VALUE;
+        for (int i = 0; i < predicates.length; ++i) {
+            Estimate estimate = estimate(predicates[i], indexes);
+            estimates[i] = estimate;
+            changed |= estimate.predicate != predicates[i];
+            if (estimate.indexed && estimate.cost != UNKNOWN) {
+                minCost = Math.min(minCost, estimate.cost);
+            }
+        }
+
+        // Keep the indexed conjuncts which are comparable to the most
+        // selective one, evaluate the rest on the entries matched by them.
+
+        List<Predicate> output = new ArrayList<>(predicates.length);
+        List<Estimate> skipped = null;
+        List<InternalIndex> usedIndexes = new ArrayList<>();
+        boolean indexed = false;
+        boolean unknownCost = false;
+        double selectivity = UNKNOWN;
+        for (Estimate estimate : estimates) {
+            if (estimate.selectivity != UNKNOWN) {
+                // assume the conjuncts are independent
+                selectivity = selectivity == UNKNOWN ? estimate.selectivity : selectivity * estimate.selectivity;
+            }
+            if (!estimate.indexed) {
+                continue;
+            }
+            if (estimate.cost != UNKNOWN && estimate.cost > SKIP_RATIO * minCost) {
+                estimate.onSkip();
+                skipped = skipped == null ? new ArrayList<>() : skipped;
+                skipped.add(estimate);
+                continue;
+            }
+            indexed = true;
+            unknownCost |= estimate.cost == UNKNOWN;
+            usedIndexes.addAll(estimate.indexes);
+            output.add(estimate.predicate);
+        }
+
+        if (skipped != null) {
+            skipped.sort((lhs, rhs) -> Double.compare(lhs.selectivity, rhs.selectivity));
+            for (Estimate estimate : skipped) {
+                output.add(new SkipIndexPredicate(estimate.predicate));
+            }
+            changed = true;
+        }
+        for (Estimate estimate : estimates) {
+            if (!estimate.indexed) {
+                output.add(estimate.predicate);
+            }
+        }
+
+        Predicate predicate = changed ? new AndPredicate(output.toArray(new Predicate[0])) : andPredicate;
+        if (!indexed) {
+            return Estimate.unindexed(predicate);
+        }
+        return new Estimate(predicate, true, selectivity, unknownCost ? UNKNOWN : minCost, usedIndexes);
+    }
+
+    private static Estimate estimateOr(OrPredicate orPredicate, Indexes indexes) {
+        Predicate[] predicates = orPredicate.predicates;
+        Predicate[] output = new Predicate[predicates.length];
+        List<InternalIndex> usedIndexes = new ArrayList<>();
+        boolean changed = false;
+        boolean indexed = true;
+        double cost = 0.0;
+        double unmatched = 1.0;
+        for (int i = 0; i < predicates.length; ++i) {
+            Estimate estimate = estimate(predicates[i], indexes);
+            output[i] = estimate.predicate;
+            changed |= estimate.predicate != predicates[i];
+            // the disjunction uses the indexes only if all of its disjuncts do
+            indexed &= estimate.indexed;
+            usedIndexes.addAll(estimate.indexes);
+            if (cost != UNKNOWN) {
+                cost = estimate.cost == UNKNOWN ? UNKNOWN : cost + estimate.cost;
+            }
+            if (unmatched != UNKNOWN) {
+                unmatched = estimate.selectivity == UNKNOWN ? UNKNOWN : unmatched * (1.0 - estimate.selectivity);
+            }
+        }
+
+        Predicate predicate = changed ? new OrPredicate(output) : orPredicate;
+        if (!indexed) {
+            return Estimate.unindexed(predicate);
+        }
+        return new Estimate(predicate, true, unmatched == UNKNOWN ? UNKNOWN : 1.0 - unmatched, cost, usedIndexes);
+    }
+
+    /**
+     * The estimate of a predicate.
+     */
+    private static final class Estimate {
+
+        /**
+         * The predicate, possibly rewritten to skip some indexes.
+         */
+        final Predicate predicate;
+
+        /**
+         * Whether the predicate is served by the indexes.
+         */
+        final boolean indexed;
+
+        /**
+         * The estimated fraction of the entries matching the predicate.
+         */
+        final double selectivity;
+
+        /**
+         * The estimated fraction of the entries the index lookups of the
+         * predicate produce.
+         */
+        final double cost;
+
+        /**
+         * The indexes the predicate is served by.
+         */
+        final List<InternalIndex> indexes;
+
+        Estimate(Predicate predicate, boolean indexed, double selectivity, double cost, List<InternalIndex> indexes) {
+            this.predicate = predicate;
+            this.indexed = indexed;
+            this.selectivity = selectivity;
+            this.cost = cost;
+            this.indexes = indexes;
+        }
+
+        static Estimate leaf(Predicate predicate, InternalIndex index, double selectivity) {
+            return new Estimate(predicate, true, selectivity, selectivity, Collections.singletonList(index));
+        }
+
+        static Estimate unindexed(Predicate predicate) {
+            return new Estimate(predicate, false, UNKNOWN, UNKNOWN, Collections.emptyList());
+        }
+
+        void onSkip() {
+            for (InternalIndex index : indexes) {
+                index.getPerIndexStats().onOptimizerSkip();
+            }
+        }
+    }
+}
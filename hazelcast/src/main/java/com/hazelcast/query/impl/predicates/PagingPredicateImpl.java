@@ -19,6 +19,7 @@ package com.hazelcast.query.impl.predicates;
 import com.hazelcast.internal.serialization.BinaryInterface;
 import com.hazelcast.internal.util.IterationType;
 import com.hazelcast.internal.util.SortingUtil;
+import com.hazelcast.internal.util.collection.TopNCollector;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
@@ -192,16 +193,16 @@ public class PagingPredicateImpl<K, V>
         if (set == null || set.isEmpty()) {
             return set;
         }
-        List<QueryableEntry<K, V>> resultList = new ArrayList<QueryableEntry<K, V>>();
         Map.Entry<Integer, Map.Entry> nearestAnchorEntry = getNearestAnchorEntry();
+        TopNCollector<QueryableEntry> collector =
+                new TopNCollector<>(SortingUtil.newComparator(this), SortingUtil.getPageLimit(this, nearestAnchorEntry));
         for (QueryableEntry<K, V> queryableEntry : set) {
             if (SortingUtil.compareAnchor(this, queryableEntry, nearestAnchorEntry)) {
-                resultList.add(queryableEntry);
+                collector.add(queryableEntry);
             }
         }
 
-        List<QueryableEntry<K, V>> sortedSubList =
-                (List) SortingUtil.getSortedSubList((List) resultList, this, nearestAnchorEntry);
+        List<QueryableEntry<K, V>> sortedSubList = (List) collector.toSortedList();
         return new LinkedHashSet<QueryableEntry<K, V>>(sortedSubList);
     }
 
@@ -26,4 +26,13 @@ import com.hazelcast.query.impl.Indexes;
 */
 public interface QueryOptimizer {
     <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes);
+
+    /**
+     * @return {@code true} if this optimizer estimates the selectivity of
+     * index lookups, so the indexes have to maintain their statistics.
+     * @see com.hazelcast.query.impl.InternalIndex#enableStatistics()
+     */
+    default boolean usesIndexStatistics() {
+        return false;
+    }
 }
@@ -29,7 +29,8 @@ public final class QueryOptimizerFactory {
 
     public enum Type {
         NONE,
-        RULES
+        RULES,
+        COST
     }
 
     private QueryOptimizerFactory() {
@@ -50,6 +51,9 @@ public final class QueryOptimizerFactory {
         switch (type) {
             case RULES:
                 return new RuleBasedQueryOptimizer();
+            case COST:
+                double scanSelectivity = properties.getDouble(ClusterProperty.QUERY_OPTIMIZER_COST_SCAN_SELECTIVITY);
+                return new CostBasedQueryOptimizer(scanSelectivity);
             default:
                 return new EmptyOptimizer();
         }
@@ -308,6 +308,44 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.io.write.through", true);
 
+    /**
+     * The minimum payload size in bytes of the member to member packets
+     * written to the socket straight from their byte arrays with gathering
+     * writes. Smaller packets are copied into the send buffer of the
+     * connection, so a burst of them is sent with a single write. Copying is
+     * cheap for small payloads, but large values would be copied for every
+     * connection they are sent over.
+     * <p>
+     * The JDK copies a heap buffer into a temporary direct buffer before
+     * writing it to a socket, so gathering writes only save a copy if the
+     * socket buffers are on the heap, see {@link #SOCKET_BUFFER_DIRECT}. The
+     * payload is written in chunks no larger than the send buffer to bound
+     * the size of that temporary buffer.
+     * <p>
+     * Gathering writes are not used if TLS is enabled, the encrypting
+     * handler needs the plain bytes in its buffer.
+     * <p>
+     * The default is 0, which disables gathering writes.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.write.gathering.threshold", 0);
+
+    /**
+     * Enables returning the direct receive buffers of the member and client
+     * connections to a pool shared by all connections of the member as soon
+     * as the received bytes have been decoded. A connection borrows a buffer
+     * from the pool again on its next read, so idle connections don't pin
+     * direct memory. This lowers the memory footprint of members with many
+     * mostly idle connections.
+     * <p>
+     * Only has effect if the socket buffers are direct, see
+     * {@link #SOCKET_BUFFER_DIRECT}.
+     * <p>
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_RECEIVE_BUFFER_POOL_ENABLED
+            = new HazelcastProperty("hazelcast.io.receive.buffer.pool.enabled", false);
+
     /**
      * Property needed for concurrency detection so that write through can be
      * done correctly.
@@ -908,6 +946,76 @@ public final class ClusterProperty {
     public static final HazelcastProperty AGGREGATION_ACCUMULATION_PARALLEL_EVALUATION
             = new HazelcastProperty("hazelcast.aggregation.accumulation.parallel.evaluation", true);
 
+    /**
+     * Run the full partition scans of aggregations on multiple threads.
+     * <p>
+     * The member executing an aggregation scans its partitions on the calling
+     * thread and up to as many query threads as there are available
+     * processors. Each thread claims partitions one by one and accumulates
+     * them into its own aggregator, the aggregators of the threads are
+     * combined once all partitions are scanned. Other queries are not
+     * affected, see {@link #QUERY_PREDICATE_PARALLEL_EVALUATION}.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty AGGREGATION_SCAN_PARALLEL_EVALUATION
+            = new HazelcastProperty("hazelcast.aggregation.scan.parallel.evaluation", false);
+
+    /**
+     * Enables the columnar evaluation of aggregations on full partition
+     * scans. The numeric attributes read by the predicate and the aggregator
+     * are extracted from batches of entries into primitive columns, the
+     * predicate is evaluated on the columns and the matching values are
+     * accumulated without boxing.
+     * <p>
+     * Applies to the count, sum and average aggregators whose predicates
+     * consist of equality, comparison, between and in predicates combined
+     * with and, or and not predicates. Entries whose attributes are not
+     * numeric, are {@code null} or are of a different class than in other
+     * entries are evaluated entry by entry. Maps with {@code NATIVE}
+     * in-memory format are not affected.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty QUERY_COLUMNAR_SCAN_ENABLED
+            = new HazelcastProperty("hazelcast.query.columnar.scan.enabled", false);
+
+    /**
+     * Read primitive attributes of {@code IdentifiedDataSerializable} keys
+     * and values of maps directly from their serialized form in queries,
+     * instead of deserializing the whole object to read a single attribute.
+     * <p>
+     * The offsets of the attributes are learned per class from the first
+     * entries queried. They are only correct if the {@code readData} method
+     * of the class reads the same sequence of primitive fields, up to the
+     * attribute, for every object, so only the classes declaring such a
+     * layout by implementing {@link
+     * com.hazelcast.nio.serialization.FixedLayoutDataSerializable} are read
+     * from their serialized form. Attributes following strings, arrays or
+     * nested objects, nested attributes and attributes with custom
+     * extractors are always read from deserialized objects.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty QUERY_DATA_SERIALIZABLE_NAVIGATION_ENABLED
+            = new HazelcastProperty("hazelcast.query.data.serializable.navigation.enabled", false);
+
+    /**
+     * Store the metadata of JSON keys and values of maps with
+     * {@link com.hazelcast.config.MetadataPolicy#CREATE_ON_UPDATE} in a
+     * pre-parsed binary form, in which objects and arrays hold the offsets
+     * of their members and numbers, booleans and strings are already
+     * decoded. Predicates and indexes then read JSON attributes by following
+     * these offsets instead of parsing the JSON text of every entry.
+     * <p>
+     * The binary form usually takes more memory than the JSON text itself,
+     * the default metadata only keeps the structure of the documents.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty QUERY_JSON_BINARY_METADATA_ENABLED
+            = new HazelcastProperty("hazelcast.query.json.binary.metadata.enabled", false);
+
     /**
      * Enables use of the concurrent HD index introduced in 4.1 for the IMDG
      * predicate API (old query engine) and reverts to using the per-partition
@@ -974,6 +1082,9 @@ public final class ClusterProperty {
      * Valid Values:
      * <ul>
      * <li>RULES - for optimizations based on static rules</li>
+     * <li>COST - for the RULES optimizations followed by choosing between
+     * the available indexes and a full scan based on the selectivities
+     * estimated from the index statistics</li>
      * <li>NONE - optimization are disabled</li>
      * </ul>
      * <p>
@@ -982,6 +1093,49 @@ public final class ClusterProperty {
     public static final HazelcastProperty QUERY_OPTIMIZER_TYPE
             = new HazelcastProperty("hazelcast.query.optimizer.type", QueryOptimizerFactory.Type.RULES.toString());
 
+    /**
+     * The estimated fraction of the entries above which the COST query
+     * optimizer prefers a full scan to the index lookups of a predicate,
+     * since materializing a large index result usually costs more than
+     * scanning the entries and applying the predicate to them.
+     * <p>
+     * Default: 0.5
+     *
+     * @see #QUERY_OPTIMIZER_TYPE
+     */
+    public static final HazelcastProperty QUERY_OPTIMIZER_COST_SCAN_SELECTIVITY
+            = new HazelcastProperty("hazelcast.query.optimizer.cost.scan.selectivity", 0.5d);
+
+    /**
+     * Cache the results of the predicate queries of maps on the members
+     * running them. The cache of a map is keyed by the serialized predicate
+     * and projection of the queries. A cached result is served as long as
+     * none of the queried partitions was mutated since the result was
+     * computed, results of partitions with expirable entries are never
+     * cached.
+     * <p>
+     * Enable it only if the same queries are repeated against rarely
+     * changing maps, otherwise the cache only adds the cost of serializing
+     * the predicates.
+     * <p>
+     * Default: false
+     *
+     * @see #QUERY_RESULT_CACHE_MAX_ENTRIES
+     */
+    public static final HazelcastProperty QUERY_RESULT_CACHE_ENABLED
+            = new HazelcastProperty("hazelcast.query.result.cache.enabled", false);
+
+    /**
+     * The maximum number of query results cached per map, the least
+     * recently used results are dropped above this limit.
+     * <p>
+     * Default: 256
+     *
+     * @see #QUERY_RESULT_CACHE_ENABLED
+     */
+    public static final HazelcastProperty QUERY_RESULT_CACHE_MAX_ENTRIES
+            = new HazelcastProperty("hazelcast.query.result.cache.max.entries", 256);
+
     /**
      * Type of Query Index result copying behavior. Defines the behavior for
      * index copying on index read/write.
@@ -1046,6 +1200,61 @@ public final class ClusterProperty {
     public static final HazelcastProperty INDEX_COPY_BEHAVIOR
             = new HazelcastProperty("hazelcast.index.copy.behavior", IndexCopyBehavior.COPY_ON_READ.toString());
 
+    /**
+     * Enables the B+tree backed store for {@link com.hazelcast.config.IndexType#SORTED}
+     * indexes of maps. The B+tree keeps attribute values in dense leaf arrays
+     * instead of skip list nodes which reduces the memory footprint of sorted
+     * indexes and improves the locality of range scans.
+     * <p>
+     * Applies to the indexes created after a member starts.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty INDEX_BPLUS_TREE_ENABLED
+            = new HazelcastProperty("hazelcast.index.bplustree.enabled", false);
+
+    /**
+     * Enables the flat open addressing store for {@link com.hazelcast.config.IndexType#HASH}
+     * indexes of maps. The store keeps attribute values and the records
+     * having them in parallel arrays instead of nested hash maps which
+     * reduces the memory footprint of hash indexes and the cost of their
+     * updates.
+     * <p>
+     * Applies to the indexes created after a member starts.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty INDEX_FLAT_HASH_ENABLED
+            = new HazelcastProperty("hazelcast.index.flat.hash.enabled", false);
+
+    /**
+     * The number of entries per partition the value filters of indexes are
+     * sized for. A value filter is a counting Bloom filter of the indexed
+     * values which lets equality lookups of absent values skip probing the
+     * index. Partitioned indexes skip the partitions not having the looked up
+     * value, global indexes are sized for this number of entries in every
+     * partition. The filter costs 4 bytes per entry of the capacity and
+     * becomes less selective when the index holds more entries. Setting it
+     * to 0 disables the filters.
+     * <p>
+     * Default: 1024
+     */
+    public static final HazelcastProperty INDEX_VALUE_FILTER_CAPACITY
+            = new HazelcastProperty("hazelcast.index.value.filter.capacity", 1024);
+
+    /**
+     * The maximum number of entries indexed at once when an index is
+     * populated from the entries of a partition, e.g. when an index is added
+     * to a map already holding entries or when a partition migrates to the
+     * member. Other operations on the partition are executed between the
+     * batches, so lower values shorten the pauses they may experience at the
+     * cost of a longer overall population.
+     * <p>
+     * Default: 1000
+     */
+    public static final HazelcastProperty INDEX_POPULATION_BATCH_SIZE
+            = new HazelcastProperty("hazelcast.index.population.batch.size", 1000);
+
     /**
      * The number of threads that the client engine has available for processing
      * requests that are related to the query engine.
@@ -1141,6 +1350,25 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_EXPIRY_DELAY_SECONDS
             = new HazelcastProperty("hazelcast.map.expiry.delay.seconds", 10, SECONDS);
 
+    /**
+     * Enables the expiration wheel of IMap partitions. When enabled, keys
+     * with a time-to-live or max-idle are kept in a hierarchical timing
+     * wheel ordered by their expiration time, and the periodic expiration
+     * task removes exactly the entries which became due since its previous
+     * run instead of sampling a percentage of all expirable entries. This
+     * removes expired entries in time regardless of the number of
+     * expirable entries and makes the cost of the expiration task
+     * proportional to the number of expired entries.
+     * <p>
+     * The wheel keeps an additional reference and expiration second for
+     * each expirable entry. Maps with {@code NATIVE} in-memory format are
+     * not affected.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_EXPIRY_WHEEL_ENABLED
+            = new HazelcastProperty("hazelcast.map.expiry.wheel.enabled", false);
+
     /**
      * Maximum number of IMap entries Hazelcast will evict during a
      * single eviction cycle. Eviction cycle is triggered by a map
@@ -1157,6 +1385,102 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_EVICTION_BATCH_SIZE
             = new HazelcastProperty("hazelcast.map.eviction.batch.size", 1);
 
+    /**
+     * Enables evicting IMap entries in the background for maps with
+     * {@code PER_NODE} or {@code PER_PARTITION} max-size policies. A
+     * periodic task looks for map partitions whose size exceeds the
+     * {@link #MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE high watermark} and
+     * evicts them down to the {@link #MAP_EVICTION_LOW_WATERMARK_PERCENTAGE
+     * low watermark} on their partition threads. Mutations then only need to
+     * evict when a partition is filled up faster than the task keeps up with.
+     * <p>
+     * Maps with other max-size policies are always evicted by mutations.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_BACKGROUND_EVICTION_ENABLED
+            = new HazelcastProperty("hazelcast.map.eviction.background.enabled", false);
+
+    /**
+     * Period of the background eviction task in milliseconds, see
+     * {@link #MAP_BACKGROUND_EVICTION_ENABLED}.
+     * <p>
+     * Default: 100
+     */
+    public static final HazelcastProperty MAP_BACKGROUND_EVICTION_PERIOD_MILLIS
+            = new HazelcastProperty("hazelcast.map.eviction.background.period.millis", 100, MILLISECONDS);
+
+    /**
+     * Maximum number of entries evicted from a single map partition in one
+     * background eviction batch, see {@link #MAP_BACKGROUND_EVICTION_ENABLED}.
+     * Partitions which are further above their low watermark are evicted
+     * in multiple batches.
+     * <p>
+     * Default: 1000
+     */
+    public static final HazelcastProperty MAP_BACKGROUND_EVICTION_MAX_BATCH_SIZE
+            = new HazelcastProperty("hazelcast.map.eviction.background.max.batch.size", 1000);
+
+    /**
+     * Percentage of the per-partition max size of a map above which the
+     * background eviction starts evicting the partition, see {@link
+     * #MAP_BACKGROUND_EVICTION_ENABLED}.
+     * <p>
+     * Default: 95
+     */
+    public static final HazelcastProperty MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE
+            = new HazelcastProperty("hazelcast.map.eviction.high.watermark.percentage", 95);
+
+    /**
+     * Percentage of the per-partition max size of a map down to which the
+     * background eviction evicts a partition, see {@link
+     * #MAP_BACKGROUND_EVICTION_ENABLED}. Must be lower than the {@link
+     * #MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE high watermark}.
+     * <p>
+     * Default: 85
+     */
+    public static final HazelcastProperty MAP_EVICTION_LOW_WATERMARK_PERCENTAGE
+            = new HazelcastProperty("hazelcast.map.eviction.low.watermark.percentage", 85);
+
+    /**
+     * Enables the off-heap storage backend for IMap partitions. When
+     * enabled, entries of maps with {@code BINARY} in-memory format keep
+     * their keys, values and record metadata in slab-allocated off-heap
+     * memory instead of on-heap record objects, which takes them out of
+     * the reach of the garbage collector. The storage footprint is
+     * reported as the owned entry memory cost of the map.
+     * <p>
+     * Like {@code NATIVE} maps, such maps are only scanned on partition
+     * threads: queries which cannot be answered by an index run on the
+     * partition threads and SQL queries require the map to be indexed.
+     * <p>
+     * Maps with {@code OBJECT} in-memory format are not affected. The
+     * backend requires {@code sun.misc.Unsafe}, if it is not available
+     * the on-heap storage is used.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_OFF_HEAP_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.offheap.storage.enabled", false);
+
+    /**
+     * Enables the primitive-keyed storage for IMap partitions. When
+     * enabled, partitions of maps with {@code BINARY} or {@code OBJECT}
+     * in-memory format keep records whose keys are {@code Long} or
+     * {@code Integer} in a primitive open-addressing table, so that the
+     * serialized keys are neither retained nor hashed by the member.
+     * <p>
+     * A partition falls back to the regular storage once it receives a key
+     * of any other type, so the option only pays off for maps whose keys
+     * are all of a single primitive wrapper type. It has no effect if the
+     * off-heap storage is enabled with
+     * {@link #MAP_OFF_HEAP_STORAGE_ENABLED}.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_PRIMITIVE_KEY_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.primitive.key.storage.enabled", false);
+
     /**
      * Defines Near Cache invalidation event batch sending is enabled or not.
      */
@@ -101,8 +101,8 @@ public class GenericQueryTarget implements QueryTarget, GenericTargetAccessor {
         } else {
             assert serialized != null;
 
-            if (serialized.isPortable()) {
-                // Return Portable as Data.
+            if (serialized.isPortable() || serialized.isCompact()) {
+                // Return Portable and Compact as Data.
                 return serialized;
             } else {
                 // Deserialize otherwise.
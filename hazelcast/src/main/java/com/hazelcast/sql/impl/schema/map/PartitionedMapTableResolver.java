@@ -110,7 +110,10 @@ public class PartitionedMapTableResolver extends AbstractMapTableResolver {
                 return null;
             }
 
-            boolean hd = mapContainer.getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE;
+            // Off-heap storage may only be accessed on partition threads like NATIVE
+            // memory, so the map is resolved and scanned through its indexes as well.
+            boolean nativeMemory = mapContainer.getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE;
+            boolean hd = nativeMemory || mapContainer.isOffHeapStorageEnabled();
 
             FieldsMetadata fieldsMetadata;
 
@@ -123,7 +126,7 @@ public class PartitionedMapTableResolver extends AbstractMapTableResolver {
             if (fieldsMetadata.emptyError) {
                 return emptyError(name);
             } else if (fieldsMetadata.hdError) {
-                return hdError(name);
+                return nativeMemory ? hdError(name) : offHeapStorageError(name);
             }
 
             MapSampleMetadata keyMetadata = fieldsMetadata.keyMetadata;
@@ -185,7 +188,8 @@ public class PartitionedMapTableResolver extends AbstractMapTableResolver {
 
     @SuppressWarnings("rawtypes")
     private FieldsMetadata getHdMapFields(MapContainer mapContainer) {
-        if (!nodeEngine.getProperties().getBoolean(GLOBAL_HD_INDEX_ENABLED)) {
+        if (mapContainer.getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE
+            && !nodeEngine.getProperties().getBoolean(GLOBAL_HD_INDEX_ENABLED)) {
             // Cannot resolve fields when concurrent indexes are disabled
             return FieldsMetadata.HD_ERROR;
         }
@@ -229,6 +233,16 @@ public class PartitionedMapTableResolver extends AbstractMapTableResolver {
         return new PartitionedMapTable(mapName, error);
     }
 
+    private static PartitionedMapTable offHeapStorageError(String mapName) {
+        QueryException error = QueryException.error("Cannot query the IMap \"" + mapName
+            + "\" with off-heap storage because it does not have indexes "
+            + "(please make sure that the IMap has at least one index or disable the property \""
+            + ClusterProperty.MAP_OFF_HEAP_STORAGE_ENABLED.getName() + "\")"
+        );
+
+        return new PartitionedMapTable(mapName, error);
+    }
+
     private FieldsMetadata getFieldMetadata(Object key, Object value) {
         InternalSerializationService ss = (InternalSerializationService) nodeEngine.getSerializationService();
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.RuntimeAvailableProcessors;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.AGGREGATION_SCAN_PARALLEL_EVALUATION;
+
+/**
+ * Compares the sequential and the partition-parallel evaluation of
+ * aggregations on members of different sizes. The number of cores of the
+ * member is simulated with {@link RuntimeAvailableProcessors#override(int)},
+ * which sizes the query thread pool and the parallelism of the scan, so the
+ * machine running the benchmark should have at least as many cores as the
+ * largest simulated member.
+ * <p>
+ * The {@code fullScanSum} benchmark aggregates all entries by scanning the
+ * partitions, the {@code indexedSum} benchmark aggregates the entries
+ * returned by an index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, warmups = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ParallelAggregationBenchmark {
+
+    private static final int ENTRY_COUNT = 1_000_000;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"4", "8", "16"})
+    public int cores;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private IMap<Integer, Long> map;
+
+    @Setup
+    public void prepare() {
+        RuntimeAvailableProcessors.override(cores);
+        Config config = new Config()
+                .setProperty(AGGREGATION_SCAN_PARALLEL_EVALUATION.getName(), String.valueOf(parallel));
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(config);
+        map = hz.getMap("values");
+        map.addIndex(IndexType.SORTED, "this");
+
+        Map<Integer, Long> batch = new HashMap<>();
+        for (int k = 0; k < ENTRY_COUNT; k++) {
+            batch.put(k, (long) k);
+            if (batch.size() == BATCH_SIZE) {
+                map.putAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+        RuntimeAvailableProcessors.resetOverride();
+    }
+
+    @Benchmark
+    public Long fullScanSum() {
+        return map.aggregate(Aggregators.longSum());
+    }
+
+    @Benchmark
+    public Long indexedSum() {
+        return map.aggregate(Aggregators.longSum(), Predicates.greaterEqual("this", 0L));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelAggregationBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
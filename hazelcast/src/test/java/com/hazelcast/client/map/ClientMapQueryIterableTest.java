@@ -51,4 +51,14 @@ public class ClientMapQueryIterableTest extends AbstractMapQueryIterableTest {
     ) {
         return ((ClientMapProxy<K, V>) map).iterable(fetchSize, projection, predicate);
     }
+
+    @Override
+    protected <K, V> Iterable<Entry<K, V>> getEntrySetIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate) {
+        return ((ClientMapProxy<K, V>) map).entrySetIterable(fetchSize, predicate);
+    }
+
+    @Override
+    protected <K, V> Iterable<V> getValuesIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate) {
+        return ((ClientMapProxy<K, V>) map).valuesIterable(fetchSize, predicate);
+    }
 }
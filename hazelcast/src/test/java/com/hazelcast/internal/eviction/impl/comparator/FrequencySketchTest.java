@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FrequencySketchTest {
+
+    @Test
+    public void testTableLength() {
+        assertEquals(8, new FrequencySketch(0).tableLength());
+        assertEquals(16, new FrequencySketch(16).tableLength());
+        assertEquals(1024, new FrequencySketch(1000).tableLength());
+        assertEquals(1 << 20, new FrequencySketch(Integer.MAX_VALUE).tableLength());
+    }
+
+    @Test
+    public void testFrequencyOfUnknownKey() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        assertEquals(0, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 1; i <= 5; i++) {
+            sketch.increment("key");
+            assertEquals(i, sketch.frequency("key"));
+        }
+    }
+
+    @Test
+    public void testIncrement_saturates() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 2 * FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testCollisionsOnlyOverestimate() {
+        int keyCount = 1000;
+        FrequencySketch sketch = new FrequencySketch(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            for (int j = 0; j < i % 4; j++) {
+                sketch.increment(i);
+            }
+        }
+
+        int exact = 0;
+        for (int i = 0; i < keyCount; i++) {
+            int frequency = sketch.frequency(i);
+            assertTrue(frequency >= i % 4);
+            if (frequency == i % 4) {
+                exact++;
+            }
+        }
+        assertTrue("only " + exact + " exact estimates", exact > keyCount * 9 / 10);
+    }
+
+    @Test
+    public void testAging() {
+        int keyCount = 100;
+        FrequencySketch sketch = new FrequencySketch(keyCount);
+        for (int i = 0; i < 4; i++) {
+            sketch.increment("hot");
+        }
+
+        // twenty increments for every expected key trigger the halving,
+        // the last one is the next increment of the hot key
+        for (int i = 0; i < 20 * keyCount - 5; i++) {
+            sketch.increment(i);
+        }
+        int frequency = sketch.frequency("hot");
+        assertTrue(frequency >= 4);
+
+        sketch.increment("hot");
+        int agedFrequency = sketch.frequency("hot");
+        assertTrue(agedFrequency >= frequency / 2);
+        assertTrue(agedFrequency <= (frequency + 1) / 2);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap.SamplingEntry;
+import com.hazelcast.spi.eviction.EvictableEntryView;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TinyLFUEvictionPolicyComparatorTest {
+
+    private final TinyLFUEvictionPolicyComparator comparator = new TinyLFUEvictionPolicyComparator(100);
+
+    @Test
+    public void testLessFrequentlyAccessedEntryIsEvictedFirst() {
+        TestEntryView frequent = new TestEntryView("frequent", 0, 0);
+        TestEntryView rare = new TestEntryView("rare", 10, 10);
+        for (int i = 0; i < 3; i++) {
+            comparator.recordAccess("frequent");
+        }
+        comparator.recordAccess("rare");
+
+        assertTrue(comparator.compare(rare, frequent) < 0);
+        assertTrue(comparator.compare(frequent, rare) > 0);
+    }
+
+    @Test
+    public void testEqualFrequenciesFallBackToLRU() {
+        TestEntryView older = new TestEntryView("older", 0, 5);
+        TestEntryView newer = new TestEntryView("newer", 10, 10);
+        comparator.recordAccess("older");
+        comparator.recordAccess("newer");
+
+        assertTrue(comparator.compare(older, newer) < 0);
+        assertTrue(comparator.compare(newer, older) > 0);
+    }
+
+    @Test
+    public void testSampledEntriesAreComparedByStoredKey() {
+        comparator.recordAccess("frequent");
+        comparator.recordAccess("frequent");
+
+        assertEquals(2, comparator.frequency("frequent"));
+        assertTrue(comparator.compare(new TestSamplingEntry("rare"), new TestSamplingEntry("frequent")) < 0);
+    }
+
+    @Test
+    public void testProviderCreatesComparatorPerStore() {
+        EvictionConfig evictionConfig = new EvictionConfig().setEvictionPolicy(EvictionPolicy.TINY_LFU);
+        ClassLoader classLoader = getClass().getClassLoader();
+
+        EvictionPolicyComparator first = getEvictionPolicyComparator(evictionConfig, classLoader, 1000);
+        EvictionPolicyComparator second = getEvictionPolicyComparator(evictionConfig, classLoader, 1000);
+
+        assertTrue(first instanceof TinyLFUEvictionPolicyComparator);
+        assertNotSame(first, second);
+    }
+
+    private static class TestEntryView implements EvictableEntryView<Object, Object> {
+
+        private final Object key;
+        private final long creationTime;
+        private final long lastAccessTime;
+
+        TestEntryView(Object key, long creationTime, long lastAccessTime) {
+            this.key = key;
+            this.creationTime = creationTime;
+            this.lastAccessTime = lastAccessTime;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        @Override
+        public long getHits() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class TestSamplingEntry extends SamplingEntry<Object, Object>
+            implements EvictableEntryView<Object, Object> {
+
+        TestSamplingEntry(Object key) {
+            super(key, null);
+        }
+
+        @Override
+        public Object getKey() {
+            // sampled entries must not be deserialized for the comparison
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getCreationTime() {
+            return 0;
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return 0;
+        }
+
+        @Override
+        public long getHits() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
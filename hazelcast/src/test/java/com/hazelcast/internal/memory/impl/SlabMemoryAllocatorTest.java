@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SlabMemoryAllocatorTest {
+
+    private static final int SLAB_SIZE = 1 << 12;
+
+    @Rule
+    public final TestIgnoreRuleAccordingToUnsafeAvailability unsafeRule = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private SlabMemoryAllocator malloc;
+
+    @Before
+    public void setUp() {
+        malloc = new SlabMemoryAllocator(SLAB_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        malloc.dispose();
+    }
+
+    @Test
+    public void testAllocate_returnsZeroedBlock() {
+        long address = malloc.allocate(40);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(0, MEM.getByte(address + i));
+        }
+    }
+
+    @Test
+    public void testAllocate_roundsUpToSizeClass() {
+        malloc.allocate(1);
+        assertEquals(SlabMemoryAllocator.MIN_BLOCK_SIZE, malloc.getUsedMemory());
+        malloc.allocate(SlabMemoryAllocator.SMALL_BLOCK_LIMIT + 1);
+        assertEquals(SlabMemoryAllocator.MIN_BLOCK_SIZE + 2 * SlabMemoryAllocator.SMALL_BLOCK_LIMIT,
+                malloc.getUsedMemory());
+        assertEquals(SLAB_SIZE, malloc.getCommittedMemory());
+    }
+
+    @Test
+    public void testFree_blockIsReused() {
+        long address = malloc.allocate(100);
+        MEM.putLong(address, 42L);
+        malloc.free(address, 100);
+        assertEquals(0, malloc.getUsedMemory());
+
+        long reused = malloc.allocate(97);
+        assertEquals(address, reused);
+        assertEquals(0, MEM.getLong(reused));
+    }
+
+    @Test
+    public void testReallocate_withinSizeClass_keepsAddress() {
+        long address = malloc.allocate(20);
+        MEM.putInt(address, 7);
+        long reallocated = malloc.reallocate(address, 20, 30);
+        assertEquals(address, reallocated);
+        assertEquals(7, MEM.getInt(reallocated));
+    }
+
+    @Test
+    public void testReallocate_toLargerSizeClass_copiesContents() {
+        long address = malloc.allocate(16);
+        MEM.putLong(address, 13L);
+        MEM.putLong(address + 8, 17L);
+        long reallocated = malloc.reallocate(address, 16, 64);
+        assertNotEquals(address, reallocated);
+        assertEquals(13L, MEM.getLong(reallocated));
+        assertEquals(17L, MEM.getLong(reallocated + 8));
+        assertEquals(0L, MEM.getLong(reallocated + 16));
+        assertEquals(64, malloc.getUsedMemory());
+    }
+
+    @Test
+    public void testAllocate_largeBlock() {
+        int size = SLAB_SIZE * 2;
+        long address = malloc.allocate(size);
+        MEM.putLong(address + size - 8, 1L);
+        assertEquals(size, malloc.getUsedMemory());
+        assertEquals(size, malloc.getCommittedMemory());
+
+        malloc.free(address, size);
+        assertEquals(0, malloc.getUsedMemory());
+        assertEquals(0, malloc.getCommittedMemory());
+    }
+
+    @Test
+    public void testAllocate_manyBlocks_spanSeveralSlabs() {
+        int count = 4 * SLAB_SIZE / 64;
+        long[] addresses = new long[count];
+        for (int i = 0; i < count; i++) {
+            addresses[i] = malloc.allocate(64);
+            MEM.putInt(addresses[i], i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, MEM.getInt(addresses[i]));
+        }
+        assertEquals(4 * SLAB_SIZE, malloc.getCommittedMemory());
+    }
+
+    @Test
+    public void testDispose_releasesEverything() {
+        malloc.allocate(64);
+        malloc.allocate(SLAB_SIZE);
+        malloc.dispose();
+        assertEquals(0, malloc.getUsedMemory());
+        assertEquals(0, malloc.getCommittedMemory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_slabSizeNotPowerOfTwo() {
+        new SlabMemoryAllocator(SLAB_SIZE + 1);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and the latency of member-to-member round trips
+ * over the loopback interface for each {@link SelectorMode}. Every
+ * operation is a get of a key owned by the other member, so it costs a
+ * request and a response packet going through the NIO threads of both
+ * members.
+ * <p>
+ * Run it with several threads to see the effect of concurrent writers
+ * sharing the same connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NetworkingLoopbackBenchmark {
+
+    @Param({SelectorMode.SELECT_STRING, SelectorMode.SELECT_NOW_STRING, SelectorMode.SELECT_WITH_FIX_STRING})
+    public String selectorMode;
+
+    @Param({"16", "4096"})
+    public int valueSize;
+
+    private HazelcastInstance local;
+    private HazelcastInstance remote;
+    private IMap<Integer, byte[]> map;
+    private int remoteKey;
+
+    @Setup
+    public void setup() {
+        // the networking of both members reads the mode when it is created
+        System.setProperty("hazelcast.io.selectorMode", selectorMode);
+
+        local = Hazelcast.newHazelcastInstance(newConfig());
+        remote = Hazelcast.newHazelcastInstance(newConfig());
+        map = local.getMap("map");
+
+        while (!remote.getPartitionService().getPartition(remoteKey).getOwner().localMember()) {
+            remoteKey++;
+        }
+        map.set(remoteKey, new byte[valueSize]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        local.shutdown();
+        remote.shutdown();
+        System.clearProperty("hazelcast.io.selectorMode");
+    }
+
+    @Benchmark
+    public byte[] remoteGet() {
+        return map.get(remoteKey);
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(NetworkingLoopbackBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .threads(4)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.networking.ChannelHandler;
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.server.MockServerContext;
+import com.hazelcast.internal.server.tcp.PacketDecoder;
+import com.hazelcast.internal.server.tcp.TcpServerConnection;
+import com.hazelcast.internal.server.tcp.TcpServerConnectionChannelErrorHandler;
+import com.hazelcast.internal.server.tcp.TcpServerConnection_AbstractTest;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.OverridePropertyRule;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static com.hazelcast.internal.server.ServerContext.KILO_BYTE;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_INTERVAL_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_BUFFER_DIRECT;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_RECEIVE_BUFFER_SIZE;
+import static com.hazelcast.test.OverridePropertyRule.set;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link NioInboundPipeline} of member connections with direct receive
+ * buffers taken from a {@link ReceiveBufferPool}.
+ * <p>
+ * The receive buffers are 1 KB, so most of the messages are split across reads.
+ */
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NioInboundPipeline_ReceiveBufferPoolTest extends TcpServerConnection_AbstractTest {
+
+    // a packet payload is either empty or holds at least the heap data header
+    private static final int MIN_PAYLOAD_SIZE = HEAP_DATA_OVERHEAD;
+    private static final int[] PAYLOAD_SIZES = {0, MIN_PAYLOAD_SIZE, KILO_BYTE - 1, KILO_BYTE, KILO_BYTE + 1, 5 * KILO_BYTE, 100 * KILO_BYTE};
+
+    @Rule
+    public final OverridePropertyRule directBuffers = set(SOCKET_BUFFER_DIRECT.getName(), "true");
+    @Rule
+    public final OverridePropertyRule receiveBufferSize = set(SOCKET_RECEIVE_BUFFER_SIZE.getName(), "1");
+
+    private final Map<Address, NioNetworking> networkings = new ConcurrentHashMap<>();
+    private final BlockingQueue<Packet> receivedPackets = new LinkedBlockingQueue<>();
+    private final Random random = new Random();
+
+    private TcpServerConnection connection;
+    private ReceiveBufferPool receiveBufferPool;
+
+    @Before
+    public void setup() throws Exception {
+        networkingFactory = (serverContext, metricsRegistry) -> {
+            NioNetworking networking = newNetworking(serverContext, metricsRegistry);
+            networkings.put(serverContext.getThisAddress(), networking);
+            return networking;
+        };
+        super.setup();
+        startAllTcpServers();
+
+        serverContextB.packetConsumer = receivedPackets::add;
+        connection = connect(tcpServerA, addressB);
+        receiveBufferPool = networkings.get(addressB).getReceiveBufferPool();
+    }
+
+    @Test
+    public void testProtocolSwitch() throws Exception {
+        sendAndReceive(newPayload(MIN_PAYLOAD_SIZE));
+
+        NioInboundPipeline pipeline = inboundPipeline(connect(tcpServerB, addressA));
+        List<ChannelHandler> handlers = new ArrayList<>();
+        pipeline.handlers().forEach(handlers::add);
+        assertEquals(1, handlers.size());
+        assertTrue(handlers.get(0) instanceof PacketDecoder);
+        // the protocol decoder reads into a buffer of its own, the packet decoder's buffer is pooled
+        assertTrueEventually(() -> assertEquals(1, receiveBufferPool.pooledBuffers()));
+    }
+
+    @Test
+    public void testMessagesSplitAcrossReads() throws Exception {
+        for (int payloadSize : PAYLOAD_SIZES) {
+            sendAndReceive(newPayload(payloadSize));
+        }
+
+        assertTrue(receiveBufferPool.borrowedBuffers() >= PAYLOAD_SIZES.length);
+    }
+
+    @Test
+    public void testBuffersAreReturnedBetweenMessages() throws Exception {
+        for (int payloadSize : PAYLOAD_SIZES) {
+            sendAndReceive(newPayload(payloadSize));
+
+            long borrowedBuffers = receiveBufferPool.borrowedBuffers();
+            assertTrueEventually(() -> assertEquals(1, receiveBufferPool.pooledBuffers()));
+            sendAndReceive(newPayload(MIN_PAYLOAD_SIZE));
+            assertTrue(receiveBufferPool.borrowedBuffers() > borrowedBuffers);
+        }
+
+        // the single connection always finds the buffer it returned in the pool
+        assertEquals(0, receiveBufferPool.allocatedBuffers());
+    }
+
+    @Test
+    public void testBurstOfMessages() throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            byte[] payload = newPayload(MIN_PAYLOAD_SIZE + random.nextInt(3 * KILO_BYTE));
+            payloads.add(payload);
+            connection.getChannel().write(new Packet(payload));
+        }
+
+        for (byte[] payload : payloads) {
+            assertArrayEquals(payload, receive().toByteArray());
+        }
+        assertTrueEventually(() -> assertEquals(1, receiveBufferPool.pooledBuffers()));
+        assertEquals(0, receiveBufferPool.allocatedBuffers());
+    }
+
+    private void sendAndReceive(byte[] payload) throws InterruptedException {
+        connection.getChannel().write(new Packet(payload));
+
+        assertArrayEquals(payload, receive().toByteArray());
+    }
+
+    private Packet receive() throws InterruptedException {
+        Packet packet = receivedPackets.poll(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS);
+        assertNotNull("no packet received", packet);
+        return packet;
+    }
+
+    private byte[] newPayload(int size) {
+        byte[] payload = new byte[size];
+        random.nextBytes(payload);
+        return payload;
+    }
+
+    private static NioInboundPipeline inboundPipeline(TcpServerConnection connection) {
+        return ((NioChannel) connection.getChannel()).inboundPipeline();
+    }
+
+    private static NioNetworking newNetworking(MockServerContext serverContext,
+                                               MetricsRegistry metricsRegistry) {
+        HazelcastProperties properties = serverContext.properties();
+        LoggingService loggingService = serverContext.loggingService;
+        return new NioNetworking(
+                new NioNetworking.Context()
+                        .loggingService(loggingService)
+                        .metricsRegistry(metricsRegistry)
+                        .threadNamePrefix(serverContext.getHazelcastName())
+                        .errorHandler(
+                                new TcpServerConnectionChannelErrorHandler(
+                                        loggingService.getLogger(TcpServerConnectionChannelErrorHandler.class)))
+                        .inputThreadCount(properties.getInteger(IO_INPUT_THREAD_COUNT))
+                        .outputThreadCount(properties.getInteger(IO_OUTPUT_THREAD_COUNT))
+                        .balancerIntervalSeconds(properties.getInteger(IO_BALANCER_INTERVAL_SECONDS))
+                        .selectorMode(SelectorMode.SELECT)
+                        .receiveBufferPoolEnabled(true));
+    }
+}
@@ -35,6 +35,7 @@ import java.nio.channels.spi.SelectorProvider;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -174,6 +175,21 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
         verify(errorHandler).onError((Channel) isNull(), any(OutOfMemoryError.class));
     }
 
+    @Test
+    public void whenThreadNotSelecting_thenAddTaskAndWakeupDoesNotWakeupSelector() {
+        thread = new NioThread("foo", logger, errorHandler, selectorMode(), selector, null);
+        final CountDownLatch executed = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            thread.addTaskAndWakeup(executed::countDown);
+        }
+        assertEquals(0, selector.actionQueue.size());
+
+        thread.start();
+
+        assertOpenEventually(executed);
+        assertStillRunning();
+    }
+
     @Test
     public void testToString() {
         startThread();
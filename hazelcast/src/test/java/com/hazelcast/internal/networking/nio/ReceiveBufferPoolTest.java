@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReceiveBufferPoolTest {
+
+    private final ReceiveBufferPool pool = new ReceiveBufferPool(2);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMaxPooledBuffersNotPositive() {
+        new ReceiveBufferPool(0);
+    }
+
+    @Test
+    public void take_whenPoolEmpty_thenAllocated() {
+        ByteBuffer buffer = pool.take(1024);
+
+        assertTrue(buffer.isDirect());
+        assertEquals(1024, buffer.capacity());
+        assertEquals(0, buffer.position());
+        assertEquals(1024, buffer.limit());
+        assertEquals(1, pool.allocatedBuffers());
+        assertEquals(1, pool.borrowedBuffers());
+    }
+
+    @Test
+    public void take_whenReleased_thenReusedAndCleared() {
+        ByteBuffer buffer = pool.take(1024);
+        buffer.putInt(1);
+        buffer.flip();
+        pool.release(buffer);
+        assertEquals(1, pool.pooledBuffers());
+
+        ByteBuffer reused = pool.take(1024);
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(1024, reused.limit());
+        assertEquals(0, pool.pooledBuffers());
+        assertEquals(1, pool.allocatedBuffers());
+        assertEquals(2, pool.borrowedBuffers());
+    }
+
+    @Test
+    public void take_whenOnlyOtherCapacityPooled_thenAllocated() {
+        ByteBuffer buffer = pool.take(1024);
+        pool.release(buffer);
+
+        ByteBuffer other = pool.take(2048);
+
+        assertNotSame(buffer, other);
+        assertEquals(2048, other.capacity());
+        assertEquals(1, pool.pooledBuffers());
+        assertEquals(2, pool.allocatedBuffers());
+    }
+
+    @Test
+    public void release_whenPoolFull_thenBufferDropped() {
+        ByteBuffer buffer1 = pool.take(1024);
+        ByteBuffer buffer2 = pool.take(1024);
+        ByteBuffer buffer3 = pool.take(1024);
+
+        pool.release(buffer1);
+        pool.release(buffer2);
+        pool.release(buffer3);
+
+        assertEquals(2, pool.pooledBuffers());
+        assertSame(buffer1, pool.take(1024));
+        assertSame(buffer2, pool.take(1024));
+        assertNotSame(buffer3, pool.take(1024));
+    }
+}
@@ -113,4 +113,30 @@ public class LoadMigrationStrategyTest extends HazelcastTestSupport {
         MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
         assertEquals(pipeline3, pipelineToMigrate);
     }
+
+    @Test
+    public void testFindPipelineToMigrate_comparesPredictedLoad() {
+        ItemCounter<MigratablePipeline> predictedLoadCounter = new ItemCounter<MigratablePipeline>();
+        imbalance = new LoadImbalance(ownerToPipelines, loadCounter, predictedLoadCounter);
+
+        NioThread srcOwner = mock(NioThread.class);
+        NioThread dstOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = dstOwner;
+        imbalance.minimumLoad = 100;
+        imbalance.maximumLoad = 500;
+        ownerToPipelines.put(dstOwner, singleton(mock(MigratablePipeline.class)));
+
+        // pipeline1 had a single burst, pipeline2 is steadily busy
+        MigratablePipeline pipeline1 = mock(MigratablePipeline.class);
+        MigratablePipeline pipeline2 = mock(MigratablePipeline.class);
+        loadCounter.set(pipeline1, 300L);
+        predictedLoadCounter.set(pipeline1, 150L);
+        loadCounter.set(pipeline2, 200L);
+        predictedLoadCounter.set(pipeline2, 200L);
+        ownerToPipelines.put(srcOwner, setOf(pipeline1, pipeline2));
+
+        MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
+        assertEquals(pipeline2, pipelineToMigrate);
+    }
 }
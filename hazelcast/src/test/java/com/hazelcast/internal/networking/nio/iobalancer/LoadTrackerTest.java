@@ -115,4 +115,31 @@ public class LoadTrackerTest {
         assertEquals(owner2, loadImbalance.dstOwner);
         assertEquals(owner2, loadImbalance.srcOwner);
     }
+
+    @Test
+    public void testUpdateImbalance_predictedLoad() {
+        MigratablePipeline pipeline = mock(MigratablePipeline.class);
+        when(pipeline.load())
+                .thenReturn(1000L)
+                .thenReturn(1000L)
+                .thenReturn(1400L);
+        when(pipeline.owner()).thenReturn(owner1);
+        loadTracker.addPipeline(pipeline);
+
+        // a new pipeline starts with its first load
+        loadTracker.updateImbalance();
+        assertEquals(1000, loadTracker.getPipelinePredictedLoad().get(pipeline));
+
+        // an idle interval halves the prediction
+        loadTracker.updateImbalance();
+        assertEquals(0, loadTracker.getPipelineLoadCount().get(pipeline));
+        assertEquals(500, loadTracker.getPipelinePredictedLoad().get(pipeline));
+
+        loadTracker.updateImbalance();
+        assertEquals(400, loadTracker.getPipelineLoadCount().get(pipeline));
+        assertEquals(450, loadTracker.getPipelinePredictedLoad().get(pipeline));
+
+        loadTracker.removePipeline(pipeline);
+        assertEquals(0, loadTracker.getPipelinePredictedLoad().get(pipeline));
+    }
 }
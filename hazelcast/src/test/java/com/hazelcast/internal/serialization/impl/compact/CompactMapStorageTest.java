@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.compact.CompactStreamSerializerTest.Address;
+import com.hazelcast.internal.serialization.impl.compact.CompactStreamSerializerTest.Person;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompactMapStorageTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "compact";
+    private static final int KEY_COUNT = 100;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Person> map;
+
+    @Before
+    public void setUp() {
+        Config config = smallInstanceConfig()
+                .setSerializationConfig(CompactStreamSerializerTest.createSerializationConfig());
+        config.getMapConfig(MAP_NAME).setInMemoryFormat(InMemoryFormat.BINARY);
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, person(i));
+        }
+    }
+
+    @Test
+    public void testValuesAreStoredWithSharedSchemaTable() {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        Data key = getSerializationService(instance).toData(1);
+        int partitionId = instance.getPartitionService().getPartition(1).getPartitionId();
+        RecordStore recordStore = mapService.getMapServiceContext().getRecordStore(partitionId, MAP_NAME);
+
+        assertInstanceOf(CompactStoredData.class, recordStore.getRecord(key).getValue());
+    }
+
+    @Test
+    public void testGet() {
+        assertEquals(person(1), map.get(1));
+    }
+
+    @Test
+    public void testReplace() {
+        map.replace(1, person(2));
+
+        assertEquals(person(2), map.get(1));
+        assertTrue(map.replace(1, person(2), person(1)));
+        assertEquals(person(1), map.get(1));
+    }
+
+    @Test
+    public void testValues() {
+        Collection<Person> values = map.values(Predicates.equal("address.zip", 7));
+
+        assertEquals(1, values.size());
+        assertEquals(person(7), values.iterator().next());
+    }
+
+    private static Person person(int i) {
+        return new Person(i, "name-" + i, i % 2 == 0, i, new int[]{i}, new String[]{"tag-" + i}, new Address("city", i));
+    }
+}
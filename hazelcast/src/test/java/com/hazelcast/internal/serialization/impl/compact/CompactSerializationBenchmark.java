@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.config.CompactSerializerConfig;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.CompactReader;
+import com.hazelcast.nio.serialization.CompactSerializer;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Compares the compact serialization format with {@link Portable} and
+ * {@link IdentifiedDataSerializable} for serializing, deserializing and
+ * reading a single field from the serialized form of the same object.
+ * <p>
+ * Compact and Portable read the field through a generic record without
+ * deserializing the object, IdentifiedDataSerializable has to deserialize it.
+ * <p>
+ * Since the compact serialized form carries the schemas it uses, it is larger
+ * than the other two. Map values share the schema table through
+ * {@link CompactStoredData}, so only the record is stored per value. {@link #main}
+ * prints the serialized sizes, the size of the schema table and the heap cost of
+ * a stored value for each format before running the benchmarks.
+ */
+@State(Scope.Benchmark)
+public class CompactSerializationBenchmark {
+
+    private static final int FACTORY_ID = 1;
+    private static final int CLASS_ID = 1;
+
+    @Param({"COMPACT", "PORTABLE", "IDS"})
+    public String format;
+
+    private InternalSerializationService ss;
+    private Object object;
+    private Data data;
+
+    @Setup
+    public void setup() {
+        ss = createSerializationService();
+        object = createObject(format);
+        data = ss.toData(object);
+    }
+
+    private static InternalSerializationService createSerializationService() {
+        SerializationConfig config = new SerializationConfig()
+                .addCompactSerializerConfig(new CompactSerializerConfig()
+                        .setTypeClass(CompactEmployee.class)
+                        .setImplementation(new CompactEmployeeSerializer()))
+                .addPortableFactory(FACTORY_ID, classId -> new PortableEmployee())
+                .addDataSerializableFactory(FACTORY_ID, typeId -> new IdsEmployee());
+        return new DefaultSerializationServiceBuilder().setConfig(config).build();
+    }
+
+    private static Object createObject(String format) {
+        String[] skills = {"java", "sql", "networking"};
+        switch (format) {
+            case "COMPACT":
+                return new CompactEmployee(1L, "Joe", 30, 1_000d, skills);
+            case "PORTABLE":
+                return new PortableEmployee(1L, "Joe", 30, 1_000d, skills);
+            case "IDS":
+                return new IdsEmployee(1L, "Joe", 30, 1_000d, skills);
+            default:
+                throw new IllegalArgumentException(format);
+        }
+    }
+
+    @Benchmark
+    public Data serialize() {
+        return ss.toData(object);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return ss.toObject(data);
+    }
+
+    @Benchmark
+    public double readSingleField() throws IOException {
+        if (data.isCompact() || data.isPortable()) {
+            return ss.readAsInternalGenericRecord(data).getDouble("salary");
+        }
+        IdsEmployee employee = ss.toObject(data);
+        return employee.salary;
+    }
+
+    private static void printSizes() {
+        InternalSerializationService ss = createSerializationService();
+        for (String format : new String[]{"COMPACT", "PORTABLE", "IDS"}) {
+            Data data = ss.toData(createObject(format));
+            Data storedData = ss.toStoredData(data);
+            int schemaTableSize = storedData instanceof CompactStoredData
+                    ? ((CompactStoredData) storedData).getSchemaTable().getBytes().length : 0;
+            System.out.println(format + ": serialized size " + data.totalSize()
+                    + ", schema table size " + schemaTableSize
+                    + ", heap cost " + data.getHeapCost()
+                    + ", stored heap cost " + storedData.getHeapCost());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printSizes();
+
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(CompactSerializationBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+
+    static class CompactEmployee {
+
+        final long id;
+        final String name;
+        final int age;
+        final double salary;
+        final String[] skills;
+
+        CompactEmployee(long id, String name, int age, double salary, String[] skills) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.salary = salary;
+            this.skills = skills;
+        }
+    }
+
+    static class CompactEmployeeSerializer implements CompactSerializer<CompactEmployee> {
+
+        @Nonnull
+        @Override
+        public CompactEmployee read(@Nonnull CompactReader in) throws IOException {
+            return new CompactEmployee(in.readLong("id"), in.readString("name"), in.readInt("age"),
+                    in.readDouble("salary"), in.readStringArray("skills"));
+        }
+
+        @Override
+        public void write(@Nonnull CompactWriter out, @Nonnull CompactEmployee object) throws IOException {
+            out.writeLong("id", object.id);
+            out.writeString("name", object.name);
+            out.writeInt("age", object.age);
+            out.writeDouble("salary", object.salary);
+            out.writeStringArray("skills", object.skills);
+        }
+    }
+
+    public static class PortableEmployee implements Portable {
+
+        private long id;
+        private String name;
+        private int age;
+        private double salary;
+        private String[] skills;
+
+        public PortableEmployee() {
+        }
+
+        PortableEmployee(long id, String name, int age, double salary, String[] skills) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.salary = salary;
+            this.skills = skills;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeLong("id", id);
+            writer.writeString("name", name);
+            writer.writeInt("age", age);
+            writer.writeDouble("salary", salary);
+            writer.writeStringArray("skills", skills);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            id = reader.readLong("id");
+            name = reader.readString("name");
+            age = reader.readInt("age");
+            salary = reader.readDouble("salary");
+            skills = reader.readStringArray("skills");
+        }
+    }
+
+    public static class IdsEmployee implements IdentifiedDataSerializable {
+
+        private long id;
+        private String name;
+        private int age;
+        private double salary;
+        private String[] skills;
+
+        public IdsEmployee() {
+        }
+
+        IdsEmployee(long id, String name, int age, double salary, String[] skills) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.salary = salary;
+            this.skills = skills;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeLong(id);
+            out.writeString(name);
+            out.writeInt(age);
+            out.writeDouble(salary);
+            out.writeStringArray(skills);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            id = in.readLong();
+            name = in.readString();
+            age = in.readInt();
+            salary = in.readDouble();
+            skills = in.readStringArray();
+        }
+    }
+}
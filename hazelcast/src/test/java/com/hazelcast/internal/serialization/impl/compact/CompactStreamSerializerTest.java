@@ -0,0 +1,502 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl.compact;
+
+import com.hazelcast.config.CompactSerializerConfig;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.nio.Bits;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.GenericRecordQueryReader;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.serialization.impl.InternalGenericRecord;
+import com.hazelcast.nio.serialization.CompactReader;
+import com.hazelcast.nio.serialization.CompactSerializer;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.FieldType;
+import com.hazelcast.nio.serialization.GenericRecord;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static com.hazelcast.test.HazelcastTestSupport.assertInstanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompactStreamSerializerTest {
+
+    private static final Person PERSON = new Person(42L, "Joe", true, 1.5d,
+            new int[]{1, 2, 3}, new String[]{"a", "b"}, new Address("Istanbul", 34000));
+
+    private InternalSerializationService ss;
+
+    @Before
+    public void setup() {
+        ss = createSerializationService();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Data data = ss.toData(PERSON);
+
+        assertTrue(data.isCompact());
+        assertFalse(data.isPortable());
+        assertEquals(PERSON, ss.toObject(data));
+    }
+
+    @Test
+    public void testRoundTrip_withNullVariableFields() {
+        Person person = new Person(1L, null, false, 0d, null, null, null);
+
+        assertEquals(person, ss.toObject(ss.toData(person)));
+    }
+
+    @Test
+    public void testRoundTrip_insideOtherObjects() {
+        List<Object> list = new ArrayList<>();
+        list.add(PERSON);
+        list.add("after");
+
+        assertEquals(list, ss.toObject(ss.toData(list)));
+    }
+
+    @Test
+    public void testRoundTrip_allFieldTypes() {
+        AllTypes allTypes = new AllTypes();
+
+        assertEquals(allTypes, ss.toObject(ss.toData(allTypes)));
+    }
+
+    @Test
+    public void testSchemaId_isStableAcrossSerializationServices() {
+        byte[] bytes = ss.toData(PERSON).toByteArray();
+        byte[] otherBytes = createSerializationService().toData(PERSON).toByteArray();
+
+        assertArrayEquals(bytes, otherBytes);
+    }
+
+    @Test
+    public void testReadAsInternalGenericRecord() throws IOException {
+        InternalGenericRecord record = ss.readAsInternalGenericRecord(ss.toData(PERSON));
+
+        assertEquals(42L, record.getLong("id"));
+        assertEquals("Joe", record.getString("name"));
+        assertTrue(record.getBoolean("active"));
+        assertEquals(1.5d, record.getDouble("salary"), 0d);
+        assertEquals(2, (int) record.getIntFromArray("scores", 1));
+        assertNull(record.getIntFromArray("scores", 3));
+        assertEquals("b", record.getStringFromArray("tags", 1));
+        assertEquals(FieldType.PORTABLE, record.getFieldType("address"));
+        assertEquals("Istanbul", record.getGenericRecord("address").getString("city"));
+        assertEquals(PERSON.address, record.getObject("address"));
+    }
+
+    @Test
+    public void testReadAsInternalGenericRecord_fieldsInAnyOrder() throws IOException {
+        InternalGenericRecord record = ss.readAsInternalGenericRecord(ss.toData(PERSON));
+
+        assertArrayEquals(new String[]{"a", "b"}, record.getStringArray("tags"));
+        assertEquals(42L, record.getLong("id"));
+        assertArrayEquals(new int[]{1, 2, 3}, record.getIntArray("scores"));
+        assertEquals("Joe", record.getString("name"));
+    }
+
+    @Test
+    public void testQueryReader() throws IOException {
+        InternalGenericRecord record = ss.readAsInternalGenericRecord(ss.toData(PERSON));
+        GenericRecordQueryReader reader = new GenericRecordQueryReader(record);
+
+        assertEquals("Istanbul", reader.read("address.city"));
+        assertEquals(34000, reader.read("address.zip"));
+        assertEquals(3, reader.read("scores[2]"));
+        assertNull(reader.read("unknown"));
+    }
+
+    @Test(expected = HazelcastSerializationException.class)
+    public void testUnknownField() throws IOException {
+        ss.readAsInternalGenericRecord(ss.toData(PERSON)).getInt("unknown");
+    }
+
+    @Test(expected = HazelcastSerializationException.class)
+    public void testWrongFieldType() throws IOException {
+        ss.readAsInternalGenericRecord(ss.toData(PERSON)).getInt("id");
+    }
+
+    @Test
+    public void testUnregisteredType_isReadAsGenericRecord() {
+        InternalSerializationService otherSs = new DefaultSerializationServiceBuilder().build();
+        Data data = ss.toData(PERSON);
+
+        GenericRecord record = otherSs.toObject(data);
+
+        assertEquals("Joe", record.getString("name"));
+        assertEquals(34000, record.getGenericRecord("address").getInt("zip"));
+        assertEquals(record, otherSs.toObject(data));
+        // written back as is, so it can be deserialized where the class is registered
+        assertEquals(PERSON, ss.toObject(otherSs.toData(record)));
+    }
+
+    @Test
+    public void testGenericRecord_isWrittenInCanonicalForm() {
+        InternalSerializationService otherSs = new DefaultSerializationServiceBuilder().build();
+        Data data = ss.toData(PERSON);
+
+        Data writtenBack = otherSs.toData(otherSs.toObject(data));
+
+        assertArrayEquals(data.toByteArray(), writtenBack.toByteArray());
+        assertEquals(data.getPartitionHash(), writtenBack.getPartitionHash());
+    }
+
+    @Test
+    public void testSchemaTable_isOrderedBySchemaId() {
+        ByteBuffer buffer = ByteBuffer.wrap(ss.toData(PERSON).toByteArray());
+        buffer.position(HeapData.DATA_OFFSET + buffer.getInt(HeapData.DATA_OFFSET + Bits.LONG_SIZE_IN_BYTES));
+
+        int schemaCount = buffer.getInt();
+        assertEquals(2, schemaCount);
+        long previousSchemaId = Long.MIN_VALUE;
+        for (int i = 0; i < schemaCount; i++) {
+            long schemaId = buffer.getLong();
+            assertTrue(schemaId > previousSchemaId);
+            previousSchemaId = schemaId;
+            buffer.position(buffer.getInt() + buffer.position());
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testSchemaCache_isBounded() throws IOException {
+        InternalSerializationService otherSs = new DefaultSerializationServiceBuilder().build();
+        CompactStreamSerializer serializer = new CompactStreamSerializer(otherSs, Collections.emptyList());
+
+        int typeCount = CompactStreamSerializer.MAX_CACHED_SCHEMAS + 10;
+        for (int i = 0; i < typeCount; i++) {
+            SerializationConfig config = new SerializationConfig()
+                    .addCompactSerializerConfig(new CompactSerializerConfig()
+                            .setTypeClass(Address.class)
+                            .setTypeName("address-" + i)
+                            .setImplementation(new AddressSerializer()));
+            Data data = new DefaultSerializationServiceBuilder().setConfig(config).build().toData(new Address("Izmir", i));
+
+            GenericRecord record = (GenericRecord) serializer.read(otherSs.createObjectDataInput(data));
+
+            assertEquals(i, record.getInt("zip"));
+        }
+        assertEquals(CompactStreamSerializer.MAX_CACHED_SCHEMAS, serializer.getCachedSchemaCount());
+    }
+
+    @Test
+    public void testStoredData_hasSameSerializedForm() {
+        Data data = ss.toData(PERSON);
+
+        Data storedData = ss.toStoredData(data);
+
+        assertInstanceOf(CompactStoredData.class, storedData);
+        assertArrayEquals(data.toByteArray(), storedData.toByteArray());
+        assertEquals(data, storedData);
+        assertEquals(storedData, data);
+        assertEquals(data.hashCode(), storedData.hashCode());
+        assertEquals(data.hash64(), storedData.hash64());
+        assertEquals(data.getPartitionHash(), storedData.getPartitionHash());
+        assertEquals(data.totalSize(), storedData.totalSize());
+        assertTrue(storedData.isCompact());
+        assertEquals(PERSON, ss.toObject(storedData));
+    }
+
+    @Test
+    public void testStoredData_sharesSchemaTable() {
+        Person otherPerson = new Person(43L, "Jane", false, 2.5d, null, null, new Address("Ankara", 6000));
+        Data data = ss.toData(PERSON);
+
+        CompactStoredData storedData = (CompactStoredData) ss.toStoredData(data);
+        CompactStoredData otherStoredData = (CompactStoredData) ss.toStoredData(ss.toData(otherPerson));
+
+        assertSame(storedData.getSchemaTable(), otherStoredData.getSchemaTable());
+        assertNotEquals(storedData, otherStoredData);
+        assertEquals(storedData, ss.toStoredData(data));
+        assertTrue(storedData.getHeapCost() < data.getHeapCost());
+    }
+
+    @Test
+    public void testStoredData_readAsInternalGenericRecord() throws IOException {
+        InternalGenericRecord record = ss.readAsInternalGenericRecord(ss.toStoredData(ss.toData(PERSON)));
+
+        assertEquals(42L, record.getLong("id"));
+        assertEquals("b", record.getStringFromArray("tags", 1));
+        assertEquals("Istanbul", record.getGenericRecord("address").getString("city"));
+        assertEquals(PERSON.address, record.getObject("address"));
+    }
+
+    @Test
+    public void testStoredData_ofNonCompactData() {
+        Data data = ss.toData("value");
+
+        assertSame(data, ss.toStoredData(data));
+    }
+
+    @Test(expected = HazelcastSerializationException.class)
+    public void testDuplicateField() {
+        SerializationConfig config = new SerializationConfig()
+                .addCompactSerializerConfig(new CompactSerializerConfig()
+                        .setTypeClass(Address.class)
+                        .setImplementation(new CompactSerializer<Address>() {
+                            @Nonnull
+                            @Override
+                            public Address read(@Nonnull CompactReader in) {
+                                throw new UnsupportedOperationException();
+                            }
+
+                            @Override
+                            public void write(@Nonnull CompactWriter out, @Nonnull Address object) throws IOException {
+                                out.writeString("city", object.city);
+                                out.writeInt("city", object.zip);
+                            }
+                        }));
+        new DefaultSerializationServiceBuilder().setConfig(config).build().toData(PERSON.address);
+    }
+
+    private static InternalSerializationService createSerializationService() {
+        return new DefaultSerializationServiceBuilder().setConfig(createSerializationConfig()).build();
+    }
+
+    static SerializationConfig createSerializationConfig() {
+        return new SerializationConfig()
+                .addCompactSerializerConfig(new CompactSerializerConfig()
+                        .setTypeClass(Person.class)
+                        .setTypeName("person")
+                        .setImplementation(new PersonSerializer()))
+                .addCompactSerializerConfig(new CompactSerializerConfig()
+                        .setTypeClass(Address.class)
+                        .setTypeName("address")
+                        .setImplementation(new AddressSerializer()))
+                .addCompactSerializerConfig(new CompactSerializerConfig()
+                        .setTypeClass(AllTypes.class)
+                        .setImplementation(new AllTypesSerializer()));
+    }
+
+    static class Person {
+
+        final long id;
+        final String name;
+        final boolean active;
+        final double salary;
+        final int[] scores;
+        final String[] tags;
+        final Address address;
+
+        Person(long id, String name, boolean active, double salary, int[] scores, String[] tags, Address address) {
+            this.id = id;
+            this.name = name;
+            this.active = active;
+            this.salary = salary;
+            this.scores = scores;
+            this.tags = tags;
+            this.address = address;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Person that = (Person) o;
+            return id == that.id
+                    && active == that.active
+                    && Double.compare(that.salary, salary) == 0
+                    && Objects.equals(name, that.name)
+                    && Arrays.equals(scores, that.scores)
+                    && Arrays.equals(tags, that.tags)
+                    && Objects.equals(address, that.address);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    static class Address {
+
+        final String city;
+        final int zip;
+
+        Address(String city, int zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Address that = (Address) o;
+            return zip == that.zip && Objects.equals(city, that.city);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(city, zip);
+        }
+    }
+
+    static class PersonSerializer implements CompactSerializer<Person> {
+
+        @Nonnull
+        @Override
+        public Person read(@Nonnull CompactReader in) throws IOException {
+            return new Person(in.readLong("id"), in.readString("name"), in.readBoolean("active"), in.readDouble("salary"),
+                    in.readIntArray("scores"), in.readStringArray("tags"), in.readObject("address"));
+        }
+
+        @Override
+        public void write(@Nonnull CompactWriter out, @Nonnull Person object) throws IOException {
+            out.writeLong("id", object.id);
+            out.writeString("name", object.name);
+            out.writeBoolean("active", object.active);
+            out.writeDouble("salary", object.salary);
+            out.writeIntArray("scores", object.scores);
+            out.writeStringArray("tags", object.tags);
+            out.writeObject("address", object.address);
+        }
+    }
+
+    static class AddressSerializer implements CompactSerializer<Address> {
+
+        @Nonnull
+        @Override
+        public Address read(@Nonnull CompactReader in) throws IOException {
+            return new Address(in.readString("city"), in.readInt("zip"));
+        }
+
+        @Override
+        public void write(@Nonnull CompactWriter out, @Nonnull Address object) throws IOException {
+            out.writeString("city", object.city);
+            out.writeInt("zip", object.zip);
+        }
+    }
+
+    static class AllTypes {
+
+        byte b = 1;
+        char c = 'c';
+        short s = 2;
+        int i = 3;
+        long l = 4L;
+        float f = 5.5f;
+        double d = 6.5d;
+        boolean[] booleans = {true, false};
+        byte[] bytes = {1, 2};
+        char[] chars = {'a', 'b'};
+        short[] shorts = {3, 4};
+        long[] longs = {5L, 6L};
+        float[] floats = {7.5f};
+        double[] doubles = {8.5d};
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AllTypes)) {
+                return false;
+            }
+            AllTypes that = (AllTypes) o;
+            return b == that.b && c == that.c && s == that.s && i == that.i && l == that.l
+                    && f == that.f && d == that.d
+                    && Arrays.equals(booleans, that.booleans)
+                    && Arrays.equals(bytes, that.bytes)
+                    && Arrays.equals(chars, that.chars)
+                    && Arrays.equals(shorts, that.shorts)
+                    && Arrays.equals(longs, that.longs)
+                    && Arrays.equals(floats, that.floats)
+                    && Arrays.equals(doubles, that.doubles);
+        }
+
+        @Override
+        public int hashCode() {
+            return i;
+        }
+    }
+
+    static class AllTypesSerializer implements CompactSerializer<AllTypes> {
+
+        @Nonnull
+        @Override
+        public AllTypes read(@Nonnull CompactReader in) throws IOException {
+            AllTypes allTypes = new AllTypes();
+            allTypes.b = in.readByte("b");
+            allTypes.c = in.readChar("c");
+            allTypes.s = in.readShort("s");
+            allTypes.i = in.readInt("i");
+            allTypes.l = in.readLong("l");
+            allTypes.f = in.readFloat("f");
+            allTypes.d = in.readDouble("d");
+            allTypes.booleans = in.readBooleanArray("booleans");
+            allTypes.bytes = in.readByteArray("bytes");
+            allTypes.chars = in.readCharArray("chars");
+            allTypes.shorts = in.readShortArray("shorts");
+            allTypes.longs = in.readLongArray("longs");
+            allTypes.floats = in.readFloatArray("floats");
+            allTypes.doubles = in.readDoubleArray("doubles");
+            return allTypes;
+        }
+
+        @Override
+        public void write(@Nonnull CompactWriter out, @Nonnull AllTypes object) throws IOException {
+            out.writeByte("b", object.b);
+            out.writeChar("c", object.c);
+            out.writeShort("s", object.s);
+            out.writeInt("i", object.i);
+            out.writeLong("l", object.l);
+            out.writeFloat("f", object.f);
+            out.writeDouble("d", object.d);
+            out.writeBooleanArray("booleans", object.booleans);
+            out.writeByteArray("bytes", object.bytes);
+            out.writeCharArray("chars", object.chars);
+            out.writeShortArray("shorts", object.shorts);
+            out.writeLongArray("longs", object.longs);
+            out.writeFloatArray("floats", object.floats);
+            out.writeDoubleArray("doubles", object.doubles);
+        }
+    }
+}
@@ -38,6 +38,8 @@ import java.util.function.Supplier;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -90,6 +92,77 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         assertEquals(DIRTY, result);
     }
 
+    @Test
+    public void whenGatheringWritesEnabled_thenLargePayloadNotCopied() {
+        final Packet largePacket = new Packet(serializationService.toBytes(new byte[2000]));
+        final Packet smallPacket = new Packet(serializationService.toBytes("foobar"));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(largePacket);
+        src.queue.add(smallPacket);
+
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringWritesEnabled(true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(DIRTY, encoder.onWrite());
+        ByteBuffer payload = encoder.payload();
+        assertSame(largePacket.toByteArray(), payload.array());
+
+        // the header in the dst followed by the payload make up the packet
+        ByteBuffer written = ByteBuffer.allocate(dst.remaining() + payload.remaining());
+        written.put(dst).put(payload).flip();
+        assertEquals(largePacket, new PacketIOHelper().readFrom(written));
+
+        // once the payload is written, the next packets are encoded
+        assertEquals(CLEAN, encoder.onWrite());
+        assertNull(encoder.payload());
+        assertEquals(smallPacket, new PacketIOHelper().readFrom(dst));
+    }
+
+    @Test
+    public void whenGatheringWritesEnabled_andPayloadNotWritten_thenNothingEncoded() {
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(new Packet(serializationService.toBytes(new byte[2000])));
+        src.queue.add(new Packet(serializationService.toBytes("foobar")));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringWritesEnabled(true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(DIRTY, encoder.onWrite());
+        // the header stays in the dst, the payload is still pending
+        dst.position(dst.limit());
+
+        assertEquals(DIRTY, encoder.onWrite());
+        assertEquals(0, dst.remaining());
+        assertEquals(1, src.queue.size());
+    }
+
+    @Test
+    public void whenGatheringWritesDisabled_thenLargePayloadCopied() {
+        final Packet packet = new Packet(serializationService.toBytes(new byte[500]));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(packet);
+
+        encoder = new PacketEncoder(100);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertNull(encoder.payload());
+        assertEquals(packet, new PacketIOHelper().readFrom(dst));
+    }
+
     static class PacketSupplier implements Supplier<Packet> {
         Queue<Packet> queue = new LinkedBlockingQueue<Packet>();
 
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.server.tcp;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_GATHERING_THRESHOLD;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_BUFFER_DIRECT;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_SEND_BUFFER_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TcpServerConnection_GatheringWritesTest extends HazelcastTestSupport {
+
+    @Test
+    public void whenPayloadLargerThanSendBuffer_thenWrittenInChunks() {
+        Config config = smallInstanceConfig()
+                .setProperty(IO_WRITE_GATHERING_THRESHOLD.getName(), "1024")
+                .setProperty(SOCKET_SEND_BUFFER_SIZE.getName(), "32")
+                .setProperty(SOCKET_BUFFER_DIRECT.getName(), "false");
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(config);
+
+        byte[] value = new byte[1024 * 1024];
+        new Random().nextBytes(value);
+        IMap<String, byte[]> map = instances[0].getMap(randomMapName());
+        String key = generateKeyOwnedBy(instances[1]);
+        map.put(key, value);
+
+        IMap<String, byte[]> remoteMap = instances[1].getMap(map.getName());
+        assertArrayEquals(value, remoteMap.get(key));
+        assertArrayEquals(value, map.get(key));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TopNCollectorTest {
+
+    @Test
+    public void testCollectsSmallest() {
+        TopNCollector<Integer> collector = new TopNCollector<>(Comparator.naturalOrder(), 3);
+        for (int value : asList(5, 1, 9, 3, 7, 2, 8)) {
+            collector.add(value);
+        }
+
+        assertEquals(3, collector.size());
+        assertEquals(asList(1, 2, 3), collector.toSortedList());
+    }
+
+    @Test
+    public void testFewerElementsThanLimit() {
+        TopNCollector<Integer> collector = new TopNCollector<>(Comparator.naturalOrder(), 10);
+        collector.add(2);
+        collector.add(1);
+
+        assertEquals(asList(1, 2), collector.toSortedList());
+    }
+
+    @Test
+    public void testCandidates() {
+        TopNCollector<Integer> collector = new TopNCollector<>(Comparator.naturalOrder(), 2);
+        assertTrue(collector.add(5));
+        assertTrue(collector.add(3));
+
+        assertFalse(collector.isCandidate(5));
+        assertFalse(collector.add(6));
+        assertTrue(collector.isCandidate(4));
+        assertTrue(collector.add(4));
+        assertEquals(asList(3, 4), collector.toSortedList());
+    }
+
+    @Test
+    public void testZeroLimit() {
+        TopNCollector<Integer> collector = new TopNCollector<>(Comparator.naturalOrder(), 0);
+
+        assertFalse(collector.isCandidate(1));
+        assertFalse(collector.add(1));
+        assertEquals(0, collector.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new TopNCollector<>(Comparator.<Integer>naturalOrder(), -1);
+    }
+
+    @Test
+    public void testMatchesSorting() {
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        TopNCollector<Integer> collector = new TopNCollector<>(Comparator.reverseOrder(), 100);
+        for (int i = 0; i < 10_000; ++i) {
+            int value = random.nextInt(1000);
+            values.add(value);
+            collector.add(value);
+        }
+
+        values.sort(Collections.reverseOrder());
+        assertEquals(values.subList(0, 100), collector.toSortedList());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.json;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MetadataPolicy;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.Random;
+
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_JSON_BINARY_METADATA_ENABLED;
+
+/**
+ * Measures predicate queries over JSON values of about 1 KB, comparing
+ * the text metadata of {@link MetadataPolicy#CREATE_ON_UPDATE} with the
+ * pre-parsed binary metadata enabled by
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_JSON_BINARY_METADATA_ENABLED}
+ * and with no metadata at all.
+ */
+@State(Scope.Benchmark)
+public class JsonPredicateBenchmark {
+
+    private static final int ENTRY_COUNT = 100_000;
+    private static final int PADDING_FIELD_COUNT = 24;
+
+    @Param({"OFF", "TEXT", "BINARY"})
+    public String metadata;
+
+    @Param({"BINARY", "OBJECT"})
+    public InMemoryFormat inMemoryFormat;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, HazelcastJsonValue> map;
+
+    @Setup
+    public void setup() {
+        Config config = new Config()
+                .setProperty(QUERY_JSON_BINARY_METADATA_ENABLED.getName(), String.valueOf("BINARY".equals(metadata)));
+        config.getMapConfig("json")
+                .setInMemoryFormat(inMemoryFormat)
+                .setMetadataPolicy("OFF".equals(metadata) ? MetadataPolicy.OFF : MetadataPolicy.CREATE_ON_UPDATE);
+
+        instance = Hazelcast.newHazelcastInstance(config);
+        map = instance.getMap("json");
+        Random random = new Random(1409);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.set(i, new HazelcastJsonValue(createDocument(i, random).toString()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public Collection<HazelcastJsonValue> topLevelAttribute() {
+        return map.values(Predicates.lessThan("age", 2));
+    }
+
+    @Benchmark
+    public Collection<HazelcastJsonValue> nestedAttribute() {
+        return map.values(Predicates.equal("address.zip", "zip-7"));
+    }
+
+    @Benchmark
+    public Collection<HazelcastJsonValue> arrayElement() {
+        return map.values(Predicates.greaterThan("scores[2]", 0.99));
+    }
+
+    private static JsonObject createDocument(int id, Random random) {
+        JsonObject document = Json.object();
+        // fields before the queried ones, so that the text getters have to skip them
+        for (int i = 0; i < PADDING_FIELD_COUNT; i++) {
+            document.add("field" + i, "value-" + random.nextInt(1_000_000));
+        }
+        return document
+                .add("id", id)
+                .add("age", random.nextInt(100))
+                .add("active", random.nextBoolean())
+                .add("address", Json.object()
+                        .add("street", "street-" + random.nextInt(1000))
+                        .add("city", "city-" + random.nextInt(100))
+                        .add("zip", "zip-" + random.nextInt(1000)))
+                .add("scores", Json.array(random.nextDouble(), random.nextDouble(), random.nextDouble()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(JsonPredicateBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .threads(1)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+}
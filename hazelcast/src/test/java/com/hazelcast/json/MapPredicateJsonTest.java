@@ -43,6 +43,7 @@ import org.junit.runners.Parameterized.UseParametersRunnerFactory;
 import java.util.Collection;
 import java.util.Map;
 
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_JSON_BINARY_METADATA_ENABLED;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -61,13 +62,18 @@ public class MapPredicateJsonTest extends HazelcastTestSupport {
     @Parameter(1)
     public MetadataPolicy metadataPolicy;
 
-    @Parameterized.Parameters(name = "inMemoryFormat: {0}, metadataPolicy: {1}")
+    @Parameter(2)
+    public boolean binaryMetadata;
+
+    @Parameterized.Parameters(name = "inMemoryFormat: {0}, metadataPolicy: {1}, binaryMetadata: {2}")
     public static Collection<Object[]> parameters() {
         return asList(new Object[][]{
-                {InMemoryFormat.BINARY, MetadataPolicy.OFF},
-                {InMemoryFormat.BINARY, MetadataPolicy.CREATE_ON_UPDATE},
-                {InMemoryFormat.OBJECT, MetadataPolicy.OFF},
-                {InMemoryFormat.OBJECT, MetadataPolicy.CREATE_ON_UPDATE},
+                {InMemoryFormat.BINARY, MetadataPolicy.OFF, false},
+                {InMemoryFormat.BINARY, MetadataPolicy.CREATE_ON_UPDATE, false},
+                {InMemoryFormat.BINARY, MetadataPolicy.CREATE_ON_UPDATE, true},
+                {InMemoryFormat.OBJECT, MetadataPolicy.OFF, false},
+                {InMemoryFormat.OBJECT, MetadataPolicy.CREATE_ON_UPDATE, false},
+                {InMemoryFormat.OBJECT, MetadataPolicy.CREATE_ON_UPDATE, true},
         });
     }
 
@@ -81,6 +87,7 @@ public class MapPredicateJsonTest extends HazelcastTestSupport {
     @Override
     protected Config getConfig() {
         Config config = super.getConfig();
+        config.setProperty(QUERY_JSON_BINARY_METADATA_ENABLED.getName(), String.valueOf(binaryMetadata));
         config.getMapConfig("default")
                 .setInMemoryFormat(inMemoryFormat)
                 .setMetadataPolicy(metadataPolicy);
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.json.internal;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.NonTerminalJsonValue;
+import com.hazelcast.query.impl.getters.JsonPathCursor;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class JsonBinaryDocumentTest {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String NESTED_OBJECT = Json.object()
+            .add("a", 1)
+            .add("b", Json.object()
+                    .add("ba", "text")
+                    .add("bb", 2.5)
+                    .add("bc", Json.NULL))
+            .add("c", Json.array()
+                    .add(31)
+                    .add(Json.object().add("ca", true))
+                    .add(Json.array(new int[]{331, 332})))
+            .add("d", false)
+            .add("\u00e9t\u00e9", "\u00e9t\u00e9")
+            .toString();
+
+    @Test
+    public void testTerminalValues() throws IOException {
+        JsonBinaryDocument document = create(NESTED_OBJECT);
+
+        assertEquals(1L, find(document, "a"));
+        assertEquals("text", find(document, "b.ba"));
+        assertEquals(2.5, find(document, "b.bb"));
+        assertNull(find(document, "b.bc"));
+        assertEquals(31L, find(document, "c[0]"));
+        assertEquals(true, find(document, "c[1].ca"));
+        assertEquals(332L, find(document, "c[2][1]"));
+        assertEquals(false, find(document, "d"));
+        assertEquals("\u00e9t\u00e9", find(document, "\u00e9t\u00e9"));
+    }
+
+    @Test
+    public void testNonTerminalValues() throws IOException {
+        JsonBinaryDocument document = create(NESTED_OBJECT);
+
+        assertSame(NonTerminalJsonValue.INSTANCE, find(document, "b"));
+        assertSame(NonTerminalJsonValue.INSTANCE, find(document, "c"));
+        assertSame(NonTerminalJsonValue.INSTANCE, find(document, "c[2]"));
+    }
+
+    @Test
+    public void testMissingPaths() throws IOException {
+        JsonBinaryDocument document = create(NESTED_OBJECT);
+
+        assertNull(find(document, "x"));
+        assertNull(find(document, "a.x"));
+        assertNull(find(document, "a[0]"));
+        assertNull(find(document, "b[0]"));
+        assertNull(find(document, "c.x"));
+        assertNull(find(document, "c[3]"));
+        assertNull(find(document, "c[1].x"));
+    }
+
+    @Test
+    public void testDuplicateNames_firstMemberFound() throws IOException {
+        JsonBinaryDocument document = create("{\"a\":1,\"a\":2}");
+
+        assertEquals(1L, find(document, "a"));
+    }
+
+    @Test
+    public void testIntegerNotFittingInLong_isNull() throws IOException {
+        JsonBinaryDocument document = create("{\"a\":12345678901234567890,\"b\":1}");
+
+        assertNull(find(document, "a"));
+        assertEquals(1L, find(document, "b"));
+    }
+
+    @Test
+    public void testTerminalRoot() throws IOException {
+        assertNull(find(create("5"), "a"));
+        assertNull(find(create("[1, 2]"), "a"));
+        assertEquals(2L, find(create("[1, 2]"), "[1]"));
+    }
+
+    @Test
+    public void testLargeObject() throws IOException {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < 1000; i++) {
+            builder.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":").append(i);
+        }
+        JsonBinaryDocument document = create(builder.append('}').toString());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals((long) i, find(document, "k" + i));
+        }
+    }
+
+    @Test
+    public void testEmptyInput_returnsNull() throws IOException {
+        assertNull(create(""));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidInput_throws() throws IOException {
+        create("{\"a\":[1, 2");
+    }
+
+    private static JsonBinaryDocument create(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return JsonBinaryDocument.create(parser);
+        }
+    }
+
+    private static Object find(JsonBinaryDocument document, String path) {
+        return document.find(JsonPathCursor.createCursor(path));
+    }
+}
@@ -26,12 +26,17 @@ import com.hazelcast.test.HazelcastTestSupport;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Set;
 
 import static com.hazelcast.query.Predicates.and;
 import static com.hazelcast.query.Predicates.greaterEqual;
@@ -57,6 +62,10 @@ public abstract class AbstractMapQueryIterableTest extends HazelcastTestSupport
             Predicate<K, V> predicate
     );
 
+    protected abstract <K, V> Iterable<Entry<K, V>> getEntrySetIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate);
+
+    protected abstract <K, V> Iterable<V> getValuesIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate);
+
     @Test(expected = NoSuchElementException.class)
     public void test_next_throws_exception_on_empty_map() {
         IMap<String, String> map = instanceProxy.getMap(randomMapName());
@@ -221,6 +230,51 @@ public abstract class AbstractMapQueryIterableTest extends HazelcastTestSupport
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    public void test_entrySetIterable_returnsMatchingEntries() {
+        IMap<Integer, Integer> map = instanceProxy.getMap(randomMapName());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Predicate<Integer, Integer> predicate = greaterEqual("this", 500);
+
+        Set<Entry<Integer, Integer>> streamed = new HashSet<>();
+        for (Entry<Integer, Integer> entry : getEntrySetIterable(map, 7, predicate)) {
+            assertTrue(streamed.add(new SimpleEntry<>(entry.getKey(), entry.getValue())));
+        }
+
+        assertEquals(map.entrySet(predicate), streamed);
+    }
+
+    @Test
+    public void test_valuesIterable_returnsMatchingValues() {
+        IMap<Integer, Integer> map = instanceProxy.getMap(randomMapName());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i % 10);
+        }
+        Predicate<Integer, Integer> predicate = lessEqual("this", 4);
+
+        List<Integer> streamed = collectAll(getValuesIterable(map, 7, predicate).iterator());
+        List<Integer> expected = new ArrayList<>(map.values(predicate));
+        Collections.sort(streamed);
+        Collections.sort(expected);
+
+        assertEquals(500, streamed.size());
+        assertEquals(expected, streamed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_valuesIterable_pagingPredicate_throwsException() {
+        IMap<Integer, Integer> map = instanceProxy.getMap(randomMapName());
+        getValuesIterable(map, 10, Predicates.pagingPredicate(10));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void test_entrySetIterable_nullPredicate_throwsException() {
+        IMap<Integer, Integer> map = instanceProxy.getMap(randomMapName());
+        getEntrySetIterable(map, 10, null);
+    }
+
     private void fillMap(IMap<String, String> map, int partitionId, int count, String value) {
         for (int i = 0; i < count; i++) {
             String key = generateKeyForPartition(instanceProxy, partitionId);
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static com.hazelcast.map.impl.eviction.MapClearExpiredRecordsTask.PROP_TASK_PERIOD_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EXPIRY_WHEEL_ENABLED;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BackupExpirationWithWheelTest extends BackupExpirationTest {
+
+    @Override
+    protected Config getConfig() {
+        return super.getConfig()
+                .setProperty(MAP_EXPIRY_WHEEL_ENABLED.getName(), "true");
+    }
+
+    @Test
+    public void shortened_ttl_expires_entry_at_new_expiration_time() {
+        Config config = getConfig().setProperty(PROP_TASK_PERIOD_SECONDS, "1");
+        config.getMapConfig("test").setInMemoryFormat(inMemoryFormat);
+        HazelcastInstance node = createHazelcastInstance(config);
+
+        IMap<Integer, Integer> map = node.getMap("test");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i, 1, HOURS);
+            map.put(i, i, 1, SECONDS);
+        }
+
+        assertTrueEventually(() -> assertEquals(0, getTotalEntryCount(map.getLocalMapStats())));
+    }
+}
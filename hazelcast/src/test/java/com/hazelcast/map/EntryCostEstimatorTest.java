@@ -62,14 +62,14 @@ public class EntryCostEstimatorTest extends HazelcastTestSupport {
     // perEntryStatsEnabled is false(default value).
     private static int getExpectedCostInBytes(boolean perEntryStatsEnabled) {
         if (JVMUtil.is32bitJVM() && JVMUtil.isCompressedOops()) {
-            return perEntryStatsEnabled ? 140 : 116;
+            return perEntryStatsEnabled ? 136 : 112;
         }
 
         if (JVMUtil.isCompressedOops()) {
-            return perEntryStatsEnabled ? 152 : 128;
+            return perEntryStatsEnabled ? 148 : 124;
         }
 
-        return perEntryStatsEnabled ? 196 : 172;
+        return perEntryStatsEnabled ? 188 : 164;
     }
 
     private long getExpectedCost() {
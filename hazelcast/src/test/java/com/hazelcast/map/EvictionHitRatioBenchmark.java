@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+
+/**
+ * Compares the hit ratios of the LRU, LFU and TinyLFU eviction policies
+ * of a map used as a read-through cache. Keys are drawn from a Zipfian
+ * distribution, optionally interrupted by scans over keys which are never
+ * read again. Misses are followed by a put of the key, as the application
+ * would do after loading the value from the backing system.
+ * <p>
+ * The hit ratio of each trial is printed at the end of the trial, the
+ * throughput reported by JMH includes the cost of the eviction.
+ */
+@State(Scope.Benchmark)
+public class EvictionHitRatioBenchmark {
+
+    private static final int KEY_SPACE = 100_000;
+    private static final int CACHE_SIZE = 5_000;
+    private static final int SCAN_INTERVAL = 50_000;
+    private static final int SCAN_LENGTH = 10_000;
+
+    @Param({"LRU", "LFU", "TINY_LFU"})
+    public EvictionPolicy evictionPolicy;
+
+    @Param({"0.8", "1.0"})
+    public double zipfExponent;
+
+    @Param({"false", "true"})
+    public boolean scans;
+
+    private final Random random = new Random(1607);
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+    private double[] cumulativeProbabilities;
+    private int operations;
+    private int nextScanKey = KEY_SPACE;
+    private long hits;
+    private long misses;
+
+    @Setup
+    public void setup() {
+        MapConfig mapConfig = new MapConfig("cache");
+        mapConfig.getEvictionConfig()
+                .setEvictionPolicy(evictionPolicy)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(CACHE_SIZE);
+
+        // a single partition makes the per-node max size exact
+        Config config = new Config()
+                .setProperty(PARTITION_COUNT.getName(), "1")
+                .addMapConfig(mapConfig);
+
+        instance = Hazelcast.newHazelcastInstance(config);
+        map = instance.getMap("cache");
+        cumulativeProbabilities = zipfDistribution(KEY_SPACE, zipfExponent);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHitRatio() {
+        System.out.printf("%n%s, zipf %.1f, scans %b: hit ratio %.2f%%%n",
+                evictionPolicy, zipfExponent, scans, 100.0 * hits / (hits + misses));
+    }
+
+    @TearDown
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public Integer getOrLoad() {
+        int key = nextKey();
+        Integer value = map.get(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        misses++;
+        map.set(key, key);
+        return key;
+    }
+
+    private int nextKey() {
+        if (scans && ++operations % SCAN_INTERVAL < SCAN_LENGTH) {
+            return nextScanKey++;
+        }
+        int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1);
+    }
+
+    private static double[] zipfDistribution(int keyCount, double exponent) {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int rank = 1; rank <= keyCount; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(EvictionHitRatioBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .threads(1)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+}
@@ -28,6 +28,7 @@ import com.hazelcast.core.EntryAdapter;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -669,6 +670,91 @@ public class EvictionTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testEvictionTinyLFU_keepsFrequentlyReadEntriesDuringScan() {
+        int size = 10000;
+        String mapName = randomMapName("testEvictionTinyLFU");
+
+        MapConfig mapConfig = newMapConfig(mapName);
+
+        EvictionConfig evictionConfig = mapConfig.getEvictionConfig();
+        evictionConfig
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(size);
+
+        Config config = getConfig()
+                .setProperty(ClusterProperty.PARTITION_COUNT.getName(), "1")
+                .addMapConfig(mapConfig);
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Object, Object> map = node.getMap(mapName);
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+            if (i < 100) {
+                for (int j = 0; j < 3; j++) {
+                    map.get(i);
+                }
+            }
+        }
+
+        // scan through keys which are never read again
+        for (int i = size; i < 2 * size; i++) {
+            map.put(i, i);
+        }
+
+        assertTrue(map.size() <= size);
+        for (int j = 0; j < 100; j++) {
+            assertNotNull(map.get(j));
+        }
+    }
+
+    @Test
+    public void testBackgroundEviction_evictsFromHighToLowWatermark() {
+        String mapName = randomMapName("testBackgroundEviction");
+
+        MapConfig mapConfig = newMapConfig(mapName);
+        mapConfig.getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(1000);
+
+        Config config = getConfig()
+                .setProperty(ClusterProperty.PARTITION_COUNT.getName(), "1")
+                .setProperty(ClusterProperty.MAP_BACKGROUND_EVICTION_ENABLED.getName(), "true")
+                .setProperty(ClusterProperty.MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE.getName(), "95")
+                .setProperty(ClusterProperty.MAP_EVICTION_LOW_WATERMARK_PERCENTAGE.getName(), "85")
+                .addMapConfig(mapConfig);
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = node.getMap(mapName);
+        // stays below the max size, so puts don't evict themselves
+        for (int i = 0; i < 990; i++) {
+            map.put(i, i);
+        }
+
+        assertSizeEventually(850, map);
+        if (statisticsEnabled) {
+            LocalMapStatsImpl stats = (LocalMapStatsImpl) map.getLocalMapStats();
+            assertTrue(stats.getBackgroundEvictionBatchCount() > 0);
+            // at least 140, the task may already run while the map is filled
+            assertTrue(stats.getBackgroundEvictionCount() >= 140);
+        }
+    }
+
+    @Test
+    public void testBackgroundEvictionDisabled_watermarksNotValidated() {
+        Config config = getConfig()
+                .setProperty(ClusterProperty.MAP_EVICTION_HIGH_WATERMARK_PERCENTAGE.getName(), "50")
+                .setProperty(ClusterProperty.MAP_EVICTION_LOW_WATERMARK_PERCENTAGE.getName(), "90");
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = node.getMap(randomMapName());
+        map.put(1, 1);
+
+        assertEquals(1, map.size());
+    }
+
     @Test(timeout = 5 * 60 * 1000)
     public void testMapRecordEviction() {
         String mapName = randomMapName();
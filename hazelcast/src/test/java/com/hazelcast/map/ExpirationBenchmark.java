@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static com.hazelcast.map.impl.eviction.MapClearExpiredRecordsTask.PROP_TASK_PERIOD_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_EXPIRY_WHEEL_ENABLED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares the sampling based expiration of map entries with the
+ * expiration wheel. The map is filled with entries with time-to-lives
+ * spread over a minute, the benchmark keeps overwriting random keys with
+ * new time-to-lives, so a steady fraction of the entries expires all the
+ * time.
+ * <p>
+ * At the end of each iteration the number of entries which are expired
+ * but still stored and the CPU time spent by the partition threads during
+ * the iteration are printed. Both modes run the same puts on the partition
+ * threads, the difference of their CPU times is the cost of the expiration.
+ */
+@State(Scope.Benchmark)
+public class ExpirationBenchmark {
+
+    private static final int KEY_SPACE = 2_000_000;
+    private static final int MAX_TTL_MILLIS = 60_000;
+
+    @Param({"false", "true"})
+    public boolean wheel;
+
+    private final Random random = new Random(1607);
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final long[] expirationTimes = new long[KEY_SPACE];
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+    private long iterationStartCpuNanos;
+
+    @Setup
+    public void setup() {
+        Config config = new Config()
+                .setProperty(MAP_EXPIRY_WHEEL_ENABLED.getName(), Boolean.toString(wheel))
+                .setProperty(PROP_TASK_PERIOD_SECONDS, "1");
+        instance = Hazelcast.newHazelcastInstance(config);
+        map = instance.getMap("expiring");
+        for (int i = 0; i < KEY_SPACE / 2; i++) {
+            putWithRandomTtl(random.nextInt(KEY_SPACE));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStartCpuNanos = partitionThreadCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printExpirationStats() {
+        long cpuMillis = NANOSECONDS.toMillis(partitionThreadCpuNanos() - iterationStartCpuNanos);
+
+        long now = System.currentTimeMillis();
+        long liveCount = 0;
+        for (long expirationTime : expirationTimes) {
+            if (expirationTime > now) {
+                liveCount++;
+            }
+        }
+        long storedCount = map.getLocalMapStats().getOwnedEntryCount();
+
+        System.out.printf("%nwheel %b: expired but not removed %d of %d stored entries, partition thread CPU %d ms%n",
+                wheel, storedCount - liveCount, storedCount, cpuMillis);
+    }
+
+    @TearDown
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public Integer put() {
+        return putWithRandomTtl(random.nextInt(KEY_SPACE));
+    }
+
+    private Integer putWithRandomTtl(int key) {
+        int ttlMillis = 1 + random.nextInt(MAX_TTL_MILLIS);
+        expirationTimes[key] = System.currentTimeMillis() + ttlMillis;
+        return map.put(key, key, ttlMillis, MILLISECONDS);
+    }
+
+    private long partitionThreadCpuNanos() {
+        long cpuNanos = 0;
+        for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+            if (threadInfo != null && threadInfo.getThreadName().contains("partition-operation")) {
+                cpuNanos += Math.max(0, threadMXBean.getThreadCpuTime(threadInfo.getThreadId()));
+            }
+        }
+        return cpuNanos;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(ExpirationBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(10))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(10))
+                .forks(1)
+                .threads(1)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+}
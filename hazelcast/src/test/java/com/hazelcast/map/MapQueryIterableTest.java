@@ -48,4 +48,14 @@ public class MapQueryIterableTest extends AbstractMapQueryIterableTest {
     ) {
         return ((MapProxyImpl<K, V>) map).iterable(fetchSize, projection, predicate);
     }
+
+    @Override
+    protected <K, V> Iterable<Entry<K, V>> getEntrySetIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate) {
+        return ((MapProxyImpl<K, V>) map).entrySetIterable(fetchSize, predicate);
+    }
+
+    @Override
+    protected <K, V> Iterable<V> getValuesIterable(IMap<K, V> map, int fetchSize, Predicate<K, V> predicate) {
+        return ((MapProxyImpl<K, V>) map).valuesIterable(fetchSize, predicate);
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.LocalIndexStats;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_POPULATION_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexPopulationTaskTest extends HazelcastTestSupport {
+
+    private static final int PARTITIONS = 7;
+    private static final int ENTRIES = 1000;
+
+    private final String mapName = randomMapName();
+
+    @Test
+    public void testIndexAddedToPopulatedMap() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRIES; ++i) {
+            map.put(i, i);
+        }
+
+        map.addIndex(new IndexConfig(IndexType.SORTED, "this").setName("this"));
+
+        assertTrueEventually(() -> {
+            LocalIndexStats stats = map.getLocalMapStats().getIndexStats().get("this");
+            assertEquals(PARTITIONS, stats.getPartitionCount());
+            assertEquals(PARTITIONS, stats.getIndexedPartitionCount());
+        });
+        assertEquals(100, map.keySet(Predicates.lessThan("this", 100)).size());
+        assertEquals(1, map.getLocalMapStats().getIndexedQueryCount());
+    }
+
+    @Test
+    public void testMutationsDuringPopulationAreIndexed() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRIES; ++i) {
+            map.put(i, i);
+        }
+
+        map.addIndex(new IndexConfig(IndexType.HASH, "this").setName("this"));
+        for (int i = 0; i < ENTRIES; i += 2) {
+            map.put(i, -1);
+        }
+        for (int i = 1; i < ENTRIES; i += 4) {
+            map.remove(i);
+        }
+        for (int i = ENTRIES; i < ENTRIES + 100; ++i) {
+            map.put(i, -1);
+        }
+
+        assertTrueEventually(() -> assertEquals(PARTITIONS,
+                map.getLocalMapStats().getIndexStats().get("this").getIndexedPartitionCount()));
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < ENTRIES; i += 2) {
+            expected.add(i);
+        }
+        for (int i = ENTRIES; i < ENTRIES + 100; ++i) {
+            expected.add(i);
+        }
+        assertEquals(expected, map.keySet(Predicates.equal("this", -1)));
+        assertEquals(ENTRIES / 4, map.keySet(Predicates.in("this", oddKeysNotRemoved())).size());
+    }
+
+    @Test
+    public void testIndexesPopulatedOnMigration() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance first = factory.newHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = first.getMap(mapName);
+        map.addIndex(new IndexConfig(IndexType.SORTED, "this").setName("this"));
+        for (int i = 0; i < ENTRIES; ++i) {
+            map.put(i, i);
+        }
+
+        HazelcastInstance second = factory.newHazelcastInstance(getConfig());
+        Collection<HazelcastInstance> instances = asList(first, second);
+        waitAllForSafeState(instances);
+
+        assertTrueEventually(() -> {
+            long indexedPartitions = 0;
+            for (HazelcastInstance instance : instances) {
+                LocalIndexStats stats = instance.getMap(mapName).getLocalMapStats().getIndexStats().get("this");
+                assertEquals(stats.getPartitionCount(), stats.getIndexedPartitionCount());
+                indexedPartitions += stats.getIndexedPartitionCount();
+            }
+            assertEquals(PARTITIONS, indexedPartitions);
+        });
+        assertEquals(500, second.getMap(mapName).keySet(Predicates.greaterEqual("this", 500)).size());
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.setProperty(PARTITION_COUNT.getName(), Integer.toString(PARTITIONS));
+        config.setProperty(INDEX_POPULATION_BATCH_SIZE.getName(), "10");
+        return config;
+    }
+
+    private static Comparable[] oddKeysNotRemoved() {
+        Comparable[] values = new Comparable[ENTRIES / 4];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = 3 + i * 4;
+        }
+        return values;
+    }
+}
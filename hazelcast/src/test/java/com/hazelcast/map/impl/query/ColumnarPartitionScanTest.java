@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_COLUMNAR_SCAN_ENABLED;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnarPartitionScanTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 5000;
+
+    @Parameterized.Parameters(name = "format:{0}")
+    public static Collection<Object[]> parameters() {
+        return asList(new Object[][]{{InMemoryFormat.OBJECT}, {InMemoryFormat.BINARY}});
+    }
+
+    @Parameterized.Parameter
+    public InMemoryFormat inMemoryFormat;
+
+    private IMap<Integer, Person> expected;
+    private IMap<Integer, Person> actual;
+
+    @Before
+    public void before() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        expected = factory.newHazelcastInstance(createConfig(false)).getMap("persons");
+        actual = factory.newHazelcastInstance(createConfig(true)).getMap("persons");
+
+        Random random = new Random(1107);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            // some entries have null ages, the mixed attribute alternates between
+            // integers and longs, so some of the batches are evaluated entry by entry
+            Integer age = random.nextInt(20) == 0 ? null : random.nextInt(80);
+            Comparable mixed = i % 1500 < 1000 ? (Comparable) (i % 7) : (Comparable) (long) (i % 7);
+            Person person = new Person(age, i, random.nextInt(400) / 4.0, mixed);
+            expected.set(i, person);
+            actual.set(i, person);
+        }
+    }
+
+    @Test
+    public void testAggregations() {
+        Predicate[] predicates = {
+                Predicates.alwaysTrue(),
+                Predicates.sql("age > 30"),
+                Predicates.sql("age between 20 and 40 and score < 50"),
+                and(between("age", 20, 40), lessThan("score", 50.0)),
+                in("id", 1L, 5L, 7L, 4999L),
+                or(equal("age", 25), not(lessThan("score", 10.0))),
+                notEqual("mixed", 3),
+                // can't be converted to integers, compared as numbers entry by entry
+                greaterEqual("age", 20.5),
+                // not supported by columns at all
+                Predicates.like("name", "a%"),
+        };
+
+        for (Predicate predicate : predicates) {
+            // the sum and average aggregators reject null values
+            Predicate withAge = and(predicate, greaterEqual("age", 0));
+            assertSameAggregation(Aggregators.count(), predicate);
+            assertSameAggregation(Aggregators.count("age"), predicate);
+            assertSameAggregation(Aggregators.integerSum("age"), withAge);
+            assertSameAggregation(Aggregators.integerAvg("age"), withAge);
+            assertSameAggregation(Aggregators.doubleSum("age"), withAge);
+            assertSameAggregation(Aggregators.longSum("id"), predicate);
+            assertSameAggregation(Aggregators.longAvg("id"), predicate);
+            assertSameAggregation(Aggregators.doubleSum("score"), predicate);
+            assertSameAggregation(Aggregators.doubleAvg("score"), predicate);
+            assertSameAggregation(Aggregators.integerSum("mixed"), predicate);
+            assertSameAggregation(Aggregators.longSum("mixed"), predicate);
+            assertSameAggregation(Aggregators.longMax("id"), predicate);
+        }
+    }
+
+    private <R> void assertSameAggregation(Aggregator<Object, R> aggregator, Predicate predicate) {
+        @SuppressWarnings("unchecked")
+        Aggregator<Map.Entry<Integer, Person>, R> entryAggregator = (Aggregator) aggregator;
+        assertEquals(aggregator + " " + predicate,
+                expected.aggregate(entryAggregator, predicate), actual.aggregate(entryAggregator, predicate));
+    }
+
+    private Config createConfig(boolean columnarScanEnabled) {
+        // the members form separate clusters, each one owns all the entries of its map
+        Config config = smallInstanceConfig()
+                .setClusterName("columnar-" + columnarScanEnabled)
+                .setProperty(PARTITION_COUNT.getName(), "3")
+                .setProperty(QUERY_COLUMNAR_SCAN_ENABLED.getName(), String.valueOf(columnarScanEnabled));
+        config.getMapConfig("persons").setInMemoryFormat(inMemoryFormat);
+        return config;
+    }
+
+    public static class Person implements Serializable {
+
+        private final Integer age;
+        private final long id;
+        private final double score;
+        private final Comparable mixed;
+        private final String name;
+
+        Person(Integer age, long id, double score, Comparable mixed) {
+            this.age = age;
+            this.id = id;
+            this.score = score;
+            this.mixed = mixed;
+            this.name = "a" + id;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Comparable getMixed() {
+            return mixed;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.internal.util.executor.NamedThreadPoolExecutor;
+import com.hazelcast.internal.util.executor.PoolExecutorThreadFactory;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.QueryException;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.test.HazelcastTestSupport.assertOpenEventually;
+import static java.lang.Thread.currentThread;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ForkJoinPartitionScanExecutorTest {
+
+    private static final int PARTITION_COUNT = 271;
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final Predicate predicate = Predicates.equal("attribute", 1);
+
+    private NamedThreadPoolExecutor pool;
+    private PartitionScanRunner runner;
+    private PartitionScanExecutor delegate;
+
+    @Before
+    public void setup() {
+        PoolExecutorThreadFactory threadFactory = new PoolExecutorThreadFactory(UUID.randomUUID().toString(),
+                currentThread().getContextClassLoader());
+        pool = new NamedThreadPoolExecutor(UUID.randomUUID().toString(), 3, 3, 100, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(100), threadFactory);
+        runner = mock(PartitionScanRunner.class);
+        delegate = mock(PartitionScanExecutor.class);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private ForkJoinPartitionScanExecutor executor(int parallelism) {
+        return new ForkJoinPartitionScanExecutor(delegate, runner, pool, PARTITION_COUNT, parallelism, 60000);
+    }
+
+    private AggregationResult aggregationResult() {
+        return new AggregationResult(new CountAggregator<>(), serializationService);
+    }
+
+    @Test
+    public void execute_aggregation_scansEveryPartitionOnce() {
+        Thread callerThread = currentThread();
+        CountDownLatch forkScanning = new CountDownLatch(1);
+        AtomicBoolean executeReturned = new AtomicBoolean();
+        List<Integer> scannedPartitions = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            if (currentThread() == callerThread) {
+                // let the fork claim a partition before the caller claims all others
+                assertOpenEventually(forkScanning);
+            } else {
+                forkScanning.countDown();
+                // hold the fork inside its scan until the caller ran out of
+                // partitions and either waits for the fork or returned
+                while (scannedPartitions.size() < PARTITION_COUNT - 1
+                        || !(executeReturned.get() || isWaiting(callerThread))) {
+                    LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+                }
+            }
+            scannedPartitions.add((Integer) invocation.getArguments()[2]);
+            ((AggregationResult) invocation.getArguments()[3]).add(mock(QueryableEntry.class));
+            return null;
+        }).when(runner).run(anyString(), eq(predicate), anyInt(), isA(AggregationResult.class));
+
+        List<Integer> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            partitions.add(i);
+        }
+        AggregationResult result = aggregationResult();
+        executor(2).execute("Map", predicate, partitions, result);
+        executeReturned.set(true);
+
+        assertEquals(PARTITION_COUNT, (long) result.<Long>getAggregator().aggregate());
+        assertEquals(new PartitionIdSet(PARTITION_COUNT, partitions), result.getPartitionIds());
+        Collections.sort(scannedPartitions);
+        assertEquals(partitions, scannedPartitions);
+    }
+
+    private static boolean isWaiting(Thread thread) {
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+
+    @Test
+    public void execute_queryResult_delegates() {
+        QueryResult queryResult = new QueryResult(IterationType.ENTRY, null, null, Long.MAX_VALUE, false);
+
+        executor(4).execute("Map", predicate, asList(1, 2, 3), queryResult);
+
+        verify(delegate).execute("Map", predicate, asList(1, 2, 3), queryResult);
+    }
+
+    @Test
+    public void execute_singleThread_delegates() {
+        AggregationResult result = aggregationResult();
+
+        executor(1).execute("Map", predicate, asList(1, 2, 3), result);
+
+        verify(delegate).execute("Map", predicate, asList(1, 2, 3), result);
+    }
+
+    @Test(expected = QueryException.class)
+    public void execute_fail() {
+        doThrow(new QueryException()).when(runner).run(anyString(), eq(predicate), anyInt(), any(AggregationResult.class));
+
+        executor(4).execute("Map", predicate, asList(1, 2, 3), aggregationResult());
+    }
+
+    @Test(expected = RetryableHazelcastException.class)
+    public void execute_fail_retryable() {
+        doThrow(new RetryableHazelcastException()).when(runner)
+                .run(anyString(), eq(predicate), anyInt(), any(AggregationResult.class));
+
+        executor(4).execute("Map", predicate, asList(1, 2, 3), aggregationResult());
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_MAX_ENTRIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class QueryResultCacheTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 4;
+
+    private QueryResultCache cache;
+    private PartitionIdSet partitions;
+
+    @Before
+    public void setUp() {
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        cache = new QueryResultCache(serializationService, PARTITION_COUNT, 2);
+        partitions = new PartitionIdSet(PARTITION_COUNT, Arrays.asList(0, 1));
+    }
+
+    @Test
+    public void testHit() {
+        Object key = cache.createKey(query(Predicates.equal("this", 1)));
+        assertNull(cache.get(key, partitions));
+
+        QueryResult result = putResult(key);
+
+        Object sameKey = cache.createKey(query(Predicates.equal("this", 1)));
+        assertSame(result, cache.get(sameKey, partitions));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getInvalidations());
+    }
+
+    @Test
+    public void testDifferentQueries_doNotShareResults() {
+        putResult(cache.createKey(query(Predicates.equal("this", 1))));
+
+        assertNull(cache.get(cache.createKey(query(Predicates.equal("this", 2))), partitions));
+        Query keyQuery = Query.of().mapName("map").predicate(Predicates.equal("this", 1)).iterationType(IterationType.KEY)
+                .build();
+        assertNull(cache.get(cache.createKey(keyQuery), partitions));
+    }
+
+    @Test
+    public void testDifferentPartitions_miss() {
+        Object key = cache.createKey(query(Predicates.equal("this", 1)));
+        putResult(key);
+
+        assertNull(cache.get(key, new PartitionIdSet(PARTITION_COUNT, Arrays.asList(0, 1, 2))));
+        assertEquals(0, cache.getInvalidations());
+    }
+
+    @Test
+    public void testMutationOfQueriedPartition_invalidates() {
+        Object key = cache.createKey(query(Predicates.equal("this", 1)));
+        putResult(key);
+
+        cache.onMutation(1);
+
+        assertNull(cache.get(key, partitions));
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMutationOfOtherPartition_doesNotInvalidate() {
+        Object key = cache.createKey(query(Predicates.equal("this", 1)));
+        QueryResult result = putResult(key);
+
+        cache.onMutation(3);
+
+        assertSame(result, cache.get(key, partitions));
+    }
+
+    @Test
+    public void testMutationWhileQueryRuns_resultNotCached() {
+        Object key = cache.createKey(query(Predicates.equal("this", 1)));
+        long[] versions = cache.readVersions(partitions);
+        cache.onMutation(0);
+        cache.put(key, partitions, versions, newResult());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultDropped() {
+        Object key1 = cache.createKey(query(Predicates.equal("this", 1)));
+        Object key2 = cache.createKey(query(Predicates.equal("this", 2)));
+        Object key3 = cache.createKey(query(Predicates.equal("this", 3)));
+        putResult(key1);
+        putResult(key2);
+        assertNotNull(cache.get(key1, partitions));
+
+        putResult(key3);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(key1, partitions));
+        assertNull(cache.get(key2, partitions));
+    }
+
+    @Test
+    public void testAggregationNotCached() {
+        Query query = Query.of().mapName("map").predicate(Predicates.alwaysTrue())
+                .iterationType(IterationType.ENTRY).aggregator(Aggregators.count()).build();
+        assertNull(cache.createKey(query));
+    }
+
+    @Test
+    public void testQueries_servedFromCacheUntilMutation() {
+        IMap<Integer, Integer> map = createMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 10);
+        assertEquals(10, map.values(predicate).size());
+        assertEquals(10, map.values(predicate).size());
+        assertEquals(1, map.getLocalMapStats().getQueryResultCacheHits());
+
+        map.put(5, 50);
+        assertEquals(9, map.values(predicate).size());
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(1, stats.getQueryResultCacheHits());
+        assertEquals(2, stats.getQueryResultCacheMisses());
+        assertEquals(1, stats.getQueryResultCacheInvalidations());
+    }
+
+    @Test
+    public void testQueries_notCachedWithExpirableEntries() {
+        IMap<Integer, Integer> map = createMap();
+        map.put(1, 1, 1, TimeUnit.HOURS);
+
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 10);
+        assertEquals(1, map.values(predicate).size());
+        assertEquals(1, map.values(predicate).size());
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(0, stats.getQueryResultCacheHits());
+        assertEquals(0, stats.getQueryResultCacheMisses());
+    }
+
+    private IMap<Integer, Integer> createMap() {
+        Config config = smallInstanceConfig()
+                .setProperty(QUERY_RESULT_CACHE_ENABLED.getName(), "true")
+                .setProperty(QUERY_RESULT_CACHE_MAX_ENTRIES.getName(), "16");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        return instance.getMap(randomMapName());
+    }
+
+    private QueryResult putResult(Object key) {
+        QueryResult result = newResult();
+        cache.put(key, partitions, cache.readVersions(partitions), result);
+        return result;
+    }
+
+    private static QueryResult newResult() {
+        return new QueryResult(IterationType.ENTRY, null, null, Long.MAX_VALUE, false);
+    }
+
+    private static Query query(Predicate predicate) {
+        return Query.of().mapName("map").predicate(predicate).iterationType(IterationType.ENTRY).build();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleTestObjects.Employee;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class DataRecordFactoryIndexOnlyIntegrationTest extends HazelcastTestSupport {
+
+    @Test
+    public void testRecordWithoutIndex_hasNoCachedValue() {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+
+        map.put(1, new Employee("tom", 24, true, 10));
+
+        assertFalse(getRecord(instance, map, 1) instanceof CachedSimpleRecord);
+    }
+
+    @Test
+    public void testRecordWithConfiguredIndex_hasCachedValue() {
+        String mapName = randomMapName();
+        Config config = new Config();
+        config.getMapConfig(mapName).addIndexConfig(new IndexConfig(IndexType.HASH, "name"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Employee> map = instance.getMap(mapName);
+
+        map.put(1, new Employee("tom", 24, true, 10));
+
+        assertTrue(getRecord(instance, map, 1) instanceof CachedSimpleRecord);
+    }
+
+    @Test
+    public void testRecordCreatedBeforeIndexAdded_staysQueryable() {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+
+        map.put(1, new Employee("tom", 24, true, 10));
+        map.addIndex(IndexType.HASH, "name");
+        map.put(2, new Employee("tom", 30, true, 20));
+
+        assertFalse(getRecord(instance, map, 1) instanceof CachedSimpleRecord);
+        assertTrue(getRecord(instance, map, 2) instanceof CachedSimpleRecord);
+        assertEquals(2, map.values(Predicates.equal("name", "tom")).size());
+        assertEquals(1, map.values(Predicates.equal("age", 24)).size());
+    }
+
+    private static Record getRecord(HazelcastInstance instance, IMap<Integer, Employee> map, int key) {
+        NodeEngineImpl nodeEngine = getNodeEngineImpl(instance);
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        Data keyData = nodeEngine.toData(key);
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(keyData);
+        return mapServiceContext.getRecordStore(partitionId, map.getName()).getRecord(keyData);
+    }
+}
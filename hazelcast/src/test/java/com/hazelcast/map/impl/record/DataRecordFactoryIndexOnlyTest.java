@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.cluster.ClusterService;
+import com.hazelcast.internal.cluster.Versions;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.eviction.Evictor;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class DataRecordFactoryIndexOnlyTest {
+
+    private SerializationService serializationService;
+    private MapConfig mapConfig;
+    private MapContainer mapContainer;
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        mapConfig = new MapConfig().setCacheDeserializedValues(CacheDeserializedValues.INDEX_ONLY);
+
+        NodeEngine nodeEngine = mock(NodeEngine.class);
+        ClusterService clusterService = mock(ClusterService.class);
+        MapServiceContext mapServiceContext = mock(MapServiceContext.class);
+        when(mapServiceContext.getNodeEngine()).thenReturn(nodeEngine);
+        when(nodeEngine.getClusterService()).thenReturn(clusterService);
+        when(clusterService.getClusterVersion()).thenReturn(Versions.CURRENT_CLUSTER_VERSION);
+
+        indexes = mock(Indexes.class);
+        mapContainer = mock(MapContainer.class);
+        when(mapContainer.getMapConfig()).thenReturn(mapConfig);
+        when(mapContainer.getEvictor()).thenReturn(Evictor.NULL_EVICTOR);
+        when(mapContainer.getMapServiceContext()).thenReturn(mapServiceContext);
+        when(mapContainer.getIndexes()).thenReturn(indexes);
+    }
+
+    @Test
+    public void testNoIndex_createsRecordWithoutCachedValue() {
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(false);
+
+        assertEquals(SimpleRecord.class, newRecord().getClass());
+    }
+
+    @Test
+    public void testNoIndex_withLRUEviction_createsRecordWithoutCachedValue() {
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(false);
+        when(mapContainer.getEvictor()).thenReturn(mock(Evictor.class));
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.LRU);
+
+        assertEquals(SimpleRecordWithLRUEviction.class, newRecord().getClass());
+    }
+
+    @Test
+    public void testNoIndex_withPerEntryStats_createsRecordWithoutCachedValue() {
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(false);
+        mapConfig.setPerEntryStatsEnabled(true);
+
+        assertEquals(DataRecordWithStats.class, newRecord().getClass());
+    }
+
+    @Test
+    public void testWithIndex_createsRecordWithCachedValue() {
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(true);
+
+        assertEquals(CachedSimpleRecord.class, newRecord().getClass());
+    }
+
+    @Test
+    public void testNoGlobalIndexes_createsRecordWithoutCachedValue() {
+        when(mapContainer.getIndexes()).thenReturn(null);
+
+        assertEquals(SimpleRecord.class, newRecord().getClass());
+    }
+
+    @Test
+    public void testNoIndex_recordIsCheaper() {
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(false);
+        long costWithoutIndex = newRecord().getCost();
+
+        when(indexes.haveAtLeastOneIndexOrDefinition()).thenReturn(true);
+        long costWithIndex = newRecord().getCost();
+
+        assertTrue(costWithoutIndex < costWithIndex);
+    }
+
+    private Record<Data> newRecord() {
+        return new DataRecordFactory(mapContainer, serializationService).newRecord("value");
+    }
+}
@@ -47,6 +47,8 @@ public class DataRecordFactoryTest extends AbstractRecordFactoryTest<Data> {
                 {false, EvictionPolicy.LFU, CacheDeserializedValues.ALWAYS, CachedSimpleRecordWithLFUEviction.class},
                 {false, EvictionPolicy.LRU, CacheDeserializedValues.NEVER, SimpleRecordWithLRUEviction.class},
                 {false, EvictionPolicy.LRU, CacheDeserializedValues.ALWAYS, CachedSimpleRecordWithLRUEviction.class},
+                {false, EvictionPolicy.TINY_LFU, CacheDeserializedValues.NEVER, SimpleRecordWithLRUEviction.class},
+                {false, EvictionPolicy.TINY_LFU, CacheDeserializedValues.ALWAYS, CachedSimpleRecordWithLRUEviction.class},
                 {false, EvictionPolicy.RANDOM, CacheDeserializedValues.NEVER, SimpleRecord.class},
                 {false, EvictionPolicy.RANDOM, CacheDeserializedValues.ALWAYS, CachedSimpleRecord.class},
         });
@@ -46,6 +46,7 @@ public class ObjectRecordFactoryTest extends AbstractRecordFactoryTest<Object> {
                 {false, EvictionPolicy.LFU, CacheDeserializedValues.ALWAYS, SimpleRecordWithLFUEviction.class},
                 {false, EvictionPolicy.LRU, CacheDeserializedValues.NEVER, SimpleRecordWithLRUEviction.class},
                 {false, EvictionPolicy.LRU, CacheDeserializedValues.ALWAYS, SimpleRecordWithLRUEviction.class},
+                {false, EvictionPolicy.TINY_LFU, CacheDeserializedValues.NEVER, SimpleRecordWithLRUEviction.class},
                 {false, EvictionPolicy.RANDOM, CacheDeserializedValues.NEVER, SimpleRecord.class},
                 {false, EvictionPolicy.RANDOM, CacheDeserializedValues.ALWAYS, SimpleRecord.class},
         });
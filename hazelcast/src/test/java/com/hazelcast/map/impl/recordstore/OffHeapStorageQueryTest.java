@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.memory.impl.TestIgnoreRuleAccordingToUnsafeAvailability;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_OFF_HEAP_STORAGE_ENABLED;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OffHeapStorageQueryTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "offHeap";
+    private static final int KEY_COUNT = 1000;
+    private static final int QUERY_COUNT = 200;
+
+    @Rule
+    public final TestIgnoreRuleAccordingToUnsafeAvailability unsafeRule = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private HazelcastInstance instance;
+    private IMap<Integer, String> map;
+
+    @Before
+    public void setUp() {
+        Config config = smallInstanceConfig()
+                .setProperty(MAP_OFF_HEAP_STORAGE_ENABLED.getName(), "true");
+        config.getMapConfig(MAP_NAME).setInMemoryFormat(InMemoryFormat.BINARY);
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, value(i));
+        }
+    }
+
+    @Test
+    public void testOffHeapStorageIsUsed() {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+
+        assertTrue(mapServiceContext.getMapContainer(MAP_NAME).isOffHeapStorageEnabled());
+        int partitionId = instance.getPartitionService().getPartition(0).getPartitionId();
+        RecordStore recordStore = mapServiceContext.getRecordStore(partitionId, MAP_NAME);
+        assertTrue(recordStore.getStorage() instanceof OffHeapStorage);
+    }
+
+    @Test
+    public void testValues() {
+        Collection<String> values = map.values(Predicates.like("this", "value-1%"));
+
+        // 1, 10-19, 100-199
+        assertEquals(111, values.size());
+    }
+
+    @Test
+    public void testValues_whileEntriesArePutAndRemoved() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        Future mutator = spawn(() -> {
+            Random random = new Random();
+            while (!stop.get()) {
+                int key = random.nextInt(KEY_COUNT);
+                if (random.nextBoolean()) {
+                    map.remove(key);
+                } else {
+                    // values of different sizes make the blocks move between size classes
+                    map.put(key, random.nextBoolean() ? value(key) : value(key) + "-" + randomString());
+                }
+            }
+        });
+
+        try {
+            Predicate<Integer, String> predicate = Predicates.like("this", "value-%");
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                Collection<String> values = map.values(predicate);
+                assertTrue(values.size() <= KEY_COUNT);
+                for (String value : values) {
+                    assertTrue("Unexpected value " + value, value.startsWith("value-"));
+                }
+            }
+        } finally {
+            stop.set(true);
+        }
+        mutator.get();
+    }
+
+    private static String value(int key) {
+        return "value-" + key;
+    }
+}
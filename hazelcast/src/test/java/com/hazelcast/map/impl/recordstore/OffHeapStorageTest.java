@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.impl.TestIgnoreRuleAccordingToUnsafeAvailability;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OffHeapStorageTest {
+
+    @Rule
+    public final TestIgnoreRuleAccordingToUnsafeAvailability unsafeRule = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private SerializationService serializationService;
+    private DataRecordFactory recordFactory;
+    private OffHeapStorage storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        MapContainer mapContainer = mock(MapContainer.class);
+        when(mapContainer.getMapConfig()).thenReturn(new MapConfig().setPerEntryStatsEnabled(true));
+        recordFactory = new DataRecordFactory(mapContainer, serializationService);
+        storage = new OffHeapStorage(null, serializationService);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Data key = toData("key");
+        Record record = recordFactory.newRecord("value");
+        record.setVersion(3);
+        record.setHits(5);
+        record.setCreationTime(Record.EPOCH_TIME + 10_000);
+        storage.put(key, record);
+
+        Record stored = storage.get(toData("key"));
+        assertEquals("value", serializationService.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(5, stored.getHits());
+        assertEquals(Record.EPOCH_TIME + 10_000, stored.getCreationTime());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void testGet_missingKey() {
+        assertNull(storage.get(toData("missing")));
+        assertFalse(storage.containsKey(toData("missing")));
+    }
+
+    @Test
+    public void testRecordMutation_writesThrough() {
+        Data key = toData(1);
+        storage.put(key, recordFactory.newRecord(1));
+
+        Record record = storage.get(key);
+        record.onUpdate(Record.EPOCH_TIME + 5_000);
+        record.onAccess(Record.EPOCH_TIME + 6_000);
+
+        Record reread = storage.get(key);
+        assertEquals(1, reread.getVersion());
+        assertEquals(1, reread.getHits());
+        assertEquals(Record.EPOCH_TIME + 5_000, reread.getLastUpdateTime());
+        assertEquals(Record.EPOCH_TIME + 6_000, reread.getLastAccessTime());
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        Data key = toData(1);
+        storage.put(key, recordFactory.newRecord("small"));
+        Record record = storage.get(key);
+
+        String largeValue = new String(new char[10_000]).replace('\0', 'x');
+        storage.updateRecordValue(key, record, largeValue);
+        assertEquals(largeValue, serializationService.toObject(storage.get(key).getValue()));
+
+        storage.updateRecordValue(key, record, "small again");
+        assertEquals("small again", serializationService.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void testPut_existingKey_replacesEntry() {
+        Data key = toData(1);
+        storage.put(key, recordFactory.newRecord("a"));
+        storage.put(key, recordFactory.newRecord("b"));
+
+        assertEquals(1, storage.size());
+        assertEquals("b", serializationService.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        Data key = toData(1);
+        storage.put(key, recordFactory.newRecord(1));
+        long usedMemory = storage.getUsedMemory();
+
+        storage.removeRecord(key, storage.get(key));
+
+        assertEquals(0, storage.size());
+        assertNull(storage.get(key));
+        assertTrue(storage.getUsedMemory() < usedMemory);
+    }
+
+    @Test
+    public void testManyEntries_survivesResize() {
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        assertEquals(count, storage.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) serializationService.toObject(storage.get(toData(i)).getValue()));
+        }
+    }
+
+    @Test
+    public void testMutationTolerantIterator_removeWhileIterating() {
+        int count = 1_000;
+        for (int i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            seen.add(serializationService.toObject(entry.getKey()));
+            storage.removeRecord(entry.getKey(), entry.getValue());
+        }
+
+        assertEquals(count, seen.size());
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testMutationTolerantIterator_putWhileIterating_returnsEachEntryOnce() {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        // the puts resize the table several times while iterating
+        List<Integer> seen = new ArrayList<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        int next = count;
+        while (iterator.hasNext()) {
+            int key = serializationService.toObject(iterator.next().getKey());
+            if (key < count) {
+                seen.add(key);
+                for (int i = 0; i < 10; i++) {
+                    storage.put(toData(next), recordFactory.newRecord(next++));
+                }
+            }
+        }
+
+        assertEquals(count, seen.size());
+        assertEquals(count, new HashSet<>(seen).size());
+    }
+
+    @Test
+    public void testMutationTolerantIterator_returnsRecordCopies() {
+        Data key = toData(1);
+        storage.put(key, recordFactory.newRecord("value"));
+
+        Record record = storage.mutationTolerantIterator().next().getValue();
+        storage.removeRecord(key, storage.get(key));
+        storage.put(toData(2), recordFactory.newRecord("other"));
+
+        assertTrue(record instanceof OffHeapRecordCopy);
+        assertEquals("value", serializationService.toObject(record.getValue()));
+    }
+
+    @Test
+    public void testMutationTolerantIterator_endsOnClear() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        assertTrue(iterator.hasNext());
+        storage.clear(false);
+        storage.put(toData(1), recordFactory.newRecord(1));
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testNoMemoryReserved_untilFirstPut() {
+        assertEquals(0, storage.getCommittedMemory());
+        assertFalse(storage.mutationTolerantIterator().hasNext());
+
+        storage.put(toData(1), recordFactory.newRecord(1));
+        assertTrue(storage.getCommittedMemory() > 0);
+
+        storage.clear(false);
+        assertEquals(0, storage.getCommittedMemory());
+    }
+
+    @Test
+    public void testFetchKeysAndEntries() {
+        int count = 1_000;
+        for (int i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        do {
+            MapKeysWithCursor cursor = storage.fetchKeys(pointers, 100);
+            for (Data key : cursor.getBatch()) {
+                keys.add(serializationService.toObject(key));
+            }
+            pointers = cursor.getIterationPointers();
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+        assertEquals(count, keys.size());
+
+        MapEntriesWithCursor entries = storage.fetchEntries(
+                new IterationPointer[]{new IterationPointer(Integer.MAX_VALUE, -1)}, count);
+        assertEquals(count, entries.getBatch().size());
+    }
+
+    @Test
+    public void testClear_releasesMemory() {
+        for (int i = 0; i < 1_000; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        long usedMemory = storage.getUsedMemory();
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertTrue(storage.getUsedMemory() < usedMemory);
+        assertEquals(storage.getUsedMemory(), storage.getEntryCostEstimator().getEstimate());
+    }
+
+    private Data toData(Object o) {
+        return serializationService.toData(o);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Random;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_PRIMITIVE_KEY_STORAGE_ENABLED;
+
+/**
+ * Compares get/put throughput of a {@code Long}-keyed map backed by the
+ * primitive-keyed storage with the one backed by the regular storage.
+ */
+@State(Scope.Benchmark)
+public class PrimitiveKeyMapBenchmark {
+
+    private static final int KEY_RANGE = 100_000;
+
+    private final Random random = new Random(303);
+
+    @Param({"false", "true"})
+    public boolean primitiveKeyStorage;
+
+    private HazelcastInstance instance;
+    private IMap<Long, Long> map;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.setProperty(MAP_PRIMITIVE_KEY_STORAGE_ENABLED.getName(), String.valueOf(primitiveKeyStorage));
+        config.getMapConfig("map").setInMemoryFormat(InMemoryFormat.BINARY);
+
+        instance = Hazelcast.newHazelcastInstance(config);
+        map = instance.getMap("map");
+        for (long key = 0; key < KEY_RANGE; key++) {
+            map.set(key, key);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public Long get() {
+        return map.get((long) random.nextInt(KEY_RANGE));
+    }
+
+    @Benchmark
+    public void put() {
+        map.set((long) random.nextInt(KEY_RANGE), random.nextLong());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(PrimitiveKeyMapBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .threads(1)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Xmx16g")
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PrimitiveKeyStorageTest {
+
+    private SerializationService serializationService;
+    private DataRecordFactory recordFactory;
+    private PrimitiveKeyStorage<Record> storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        MapContainer mapContainer = mock(MapContainer.class);
+        when(mapContainer.getMapConfig()).thenReturn(new MapConfig().setPerEntryStatsEnabled(true));
+        recordFactory = new DataRecordFactory(mapContainer, serializationService);
+        storage = new PrimitiveKeyStorage<>(InMemoryFormat.BINARY, mock(ExpirySystem.class), serializationService);
+    }
+
+    @Test
+    public void testPutAndGet_longKeys() {
+        storage.put(toData(42L), recordFactory.newRecord("value"));
+
+        assertEquals("value", serializationService.toObject(storage.get(toData(42L)).getValue()));
+        assertTrue(storage.containsKey(toData(42L)));
+        assertFalse(storage.containsKey(toData(43L)));
+        assertEquals(1, storage.size());
+        assertTrue(storage.isPrimitive());
+    }
+
+    @Test
+    public void testPutAndGet_intKeys() {
+        storage.put(toData(42), recordFactory.newRecord("value"));
+
+        assertEquals("value", serializationService.toObject(storage.get(toData(42)).getValue()));
+        assertTrue(storage.isPrimitive());
+    }
+
+    @Test
+    public void testGet_keyOfOtherType_isNotFound() {
+        storage.put(toData(42L), recordFactory.newRecord("value"));
+
+        assertNull(storage.get(toData(42)));
+        assertNull(storage.get(toData("42")));
+        assertTrue(storage.isPrimitive());
+    }
+
+    @Test
+    public void testPut_existingKey_replacesRecord() {
+        storage.put(toData(1L), recordFactory.newRecord("a"));
+        storage.put(toData(1L), recordFactory.newRecord("b"));
+
+        assertEquals(1, storage.size());
+        assertEquals("b", serializationService.toObject(storage.get(toData(1L)).getValue()));
+    }
+
+    @Test
+    public void testRemoveRecord_andReinsert() {
+        for (long i = 0; i < 100; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        for (long i = 0; i < 100; i += 2) {
+            storage.removeRecord(toData(i), storage.get(toData(i)));
+        }
+        assertEquals(50, storage.size());
+        for (long i = 0; i < 100; i++) {
+            assertEquals(i % 2 != 0, storage.containsKey(toData(i)));
+        }
+
+        for (long i = 0; i < 100; i += 2) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        assertEquals(100, storage.size());
+    }
+
+    @Test
+    public void testManyEntries_survivesResize() {
+        int count = 10_000;
+        for (long i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        assertEquals(count, storage.size());
+        for (long i = 0; i < count; i++) {
+            assertEquals(i, (long) serializationService.toObject(storage.get(toData(i)).getValue()));
+        }
+    }
+
+    @Test
+    public void testRepeatedPutAndRemove_doesNotExhaustTable() {
+        for (long i = 0; i < 100_000; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+            storage.removeRecord(toData(i), storage.get(toData(i)));
+        }
+        assertTrue(storage.isEmpty());
+        assertNull(storage.get(toData(1L)));
+    }
+
+    @Test
+    public void testMutationTolerantIterator_removeWhileIterating() {
+        int count = 1_000;
+        for (long i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            seen.add(serializationService.toObject(entry.getKey()));
+            storage.removeRecord(entry.getKey(), entry.getValue());
+        }
+
+        assertEquals(count, seen.size());
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testIteratedKeys_equalOriginalKeys() {
+        Data key = toData(Long.MIN_VALUE);
+        storage.put(key, recordFactory.newRecord(1));
+
+        Map.Entry<Data, Record> entry = storage.mutationTolerantIterator().next();
+
+        assertEquals(key, entry.getKey());
+        assertEquals(key.hashCode(), entry.getKey().hashCode());
+    }
+
+    @Test
+    public void testIteratedKeys_equalOriginalKeys_withLittleEndianSerialization() {
+        serializationService = new DefaultSerializationServiceBuilder().setByteOrder(ByteOrder.LITTLE_ENDIAN).build();
+        storage = new PrimitiveKeyStorage<>(InMemoryFormat.BINARY, mock(ExpirySystem.class), serializationService);
+        Data key = toData(12345L);
+        storage.put(key, recordFactory.newRecord(1));
+
+        assertEquals(key, storage.mutationTolerantIterator().next().getKey());
+        assertEquals(12345L, (long) serializationService.toObject(storage.mutationTolerantIterator().next().getKey()));
+    }
+
+    @Test
+    public void testFetchKeys_withResizeDuringIteration() {
+        int count = 1_000;
+        for (long i = 0; i < count; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Long> keys = new HashSet<>();
+        int fetched = 0;
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        boolean resized = false;
+        do {
+            MapKeysWithCursor cursor = storage.fetchKeys(pointers, 100);
+            for (Data key : cursor.getBatch()) {
+                keys.add(serializationService.toObject(key));
+                fetched++;
+            }
+            pointers = cursor.getIterationPointers();
+            if (!resized) {
+                for (long i = count; i < 4 * count; i++) {
+                    storage.put(toData(i), recordFactory.newRecord(i));
+                }
+                resized = true;
+            }
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        for (long i = 0; i < count; i++) {
+            assertTrue(keys.contains(i));
+        }
+        assertEquals(keys.size(), fetched);
+    }
+
+    @Test
+    public void testRandomSamples() {
+        for (long i = 0; i < 100; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+
+        int sampleCount = 0;
+        for (Object sample : storage.getRandomSamples(15)) {
+            Data key = storage.extractDataKeyFromLazy((EntryView) sample);
+            assertTrue(storage.containsKey(key));
+            sampleCount++;
+        }
+        assertEquals(15, sampleCount);
+    }
+
+    @Test
+    public void testKeyOfOtherType_movesEntriesToRegularStorage() {
+        for (long i = 0; i < 100; i++) {
+            storage.put(toData(i), recordFactory.newRecord(i));
+        }
+        long estimate = storage.getEntryCostEstimator().getEstimate();
+
+        storage.put(toData("string-key"), recordFactory.newRecord("value"));
+
+        assertFalse(storage.isPrimitive());
+        assertEquals(101, storage.size());
+        for (long i = 0; i < 100; i++) {
+            assertEquals(i, (long) serializationService.toObject(storage.get(toData(i)).getValue()));
+        }
+        assertTrue(storage.containsKey(toData("string-key")));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > estimate);
+    }
+
+    @Test
+    public void testCostEstimate() {
+        storage.put(toData(1L), recordFactory.newRecord(1));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > 0);
+
+        storage.removeRecord(toData(1L), storage.get(toData(1L)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void testClear() {
+        storage.put(toData(1L), recordFactory.newRecord(1));
+        storage.put(toData("string-key"), recordFactory.newRecord("value"));
+
+        storage.clear(false);
+
+        assertTrue(storage.isEmpty());
+        assertTrue(storage.isPrimitive());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+
+        storage.put(toData(1), recordFactory.newRecord(1));
+        assertTrue(storage.isPrimitive());
+    }
+
+    private Data toData(Object o) {
+        return serializationService.toData(o);
+    }
+}
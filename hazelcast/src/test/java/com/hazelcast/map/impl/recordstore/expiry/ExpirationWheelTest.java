@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore.expiry;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ExpirationWheelTest {
+
+    private static final long NOW_TICK = 1_000_000;
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final ExpirationWheel wheel = new ExpirationWheel(NOW_TICK);
+
+    @Test
+    public void testKeyBecomesDueAtItsTick() {
+        Data key = toData(1);
+        assertEquals(NOW_TICK + 10, wheel.schedule(key, NOW_TICK + 10));
+
+        wheel.advance(NOW_TICK + 9);
+        assertFalse(wheel.hasDueKeys());
+
+        wheel.advance(NOW_TICK + 10);
+        assertEquals(key, wheel.pollDueKey());
+        assertNull(wheel.pollDueKey());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPassedTickIsMovedToNextTick() {
+        Data key = toData(1);
+        assertEquals(NOW_TICK + 1, wheel.schedule(key, NOW_TICK - 100));
+
+        wheel.advance(NOW_TICK + 1);
+        assertEquals(key, wheel.pollDueKey());
+    }
+
+    @Test
+    public void testTickBeyondWheelIsClamped() {
+        long scheduledTick = wheel.schedule(toData(1), Long.MAX_VALUE);
+
+        assertTrue(scheduledTick > NOW_TICK + (1L << 23));
+        wheel.advance(scheduledTick - 1);
+        assertFalse(wheel.hasDueKeys());
+        wheel.advance(scheduledTick);
+        assertTrue(wheel.hasDueKeys());
+    }
+
+    @Test
+    public void testKeysCascadeFromAllLevels() {
+        Random random = new Random(1607);
+        Map<Data, Long> ticks = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            long delay = random.nextInt(1 << (6 * (1 + i % ExpirationWheel.LEVEL_COUNT)));
+            Data key = toData(i);
+            ticks.put(key, wheel.schedule(key, NOW_TICK + 1 + delay));
+        }
+        assertEquals(1000, wheel.size());
+
+        long tick = NOW_TICK;
+        while (!ticks.isEmpty()) {
+            long nextTick = tick + 1 + random.nextInt(5000);
+            wheel.advance(nextTick);
+            Data key;
+            while ((key = wheel.pollDueKey()) != null) {
+                long dueTick = ticks.remove(key);
+                assertTrue(dueTick > tick && dueTick <= nextTick);
+            }
+            tick = nextTick;
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvanceOfEmptyWheelSkipsTicks() {
+        wheel.advance(NOW_TICK + 100_000);
+        assertEquals(NOW_TICK + 100_001, wheel.currentTick());
+
+        Data key = toData(1);
+        wheel.schedule(key, NOW_TICK + 100_010);
+        wheel.advance(NOW_TICK + 100_010);
+        assertEquals(key, wheel.pollDueKey());
+    }
+
+    @Test
+    public void testClear() {
+        List<Data> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(toData(i));
+            wheel.schedule(keys.get(i), NOW_TICK + i * 100);
+        }
+        wheel.advance(NOW_TICK + 1000);
+        assertTrue(wheel.hasDueKeys());
+
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertFalse(wheel.hasDueKeys());
+        wheel.advance(NOW_TICK + 100_000);
+        assertFalse(wheel.hasDueKeys());
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.projection;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.projection.QueryBenchmark.Person;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_COLUMNAR_SCAN_ENABLED;
+
+/**
+ * Compares the row by row and the columnar evaluation of aggregations on
+ * full partition scans, over the same persons as {@link QueryBenchmark} but
+ * without indexes. The {@code keySet} benchmark is not affected by the
+ * columnar scan and shows the cost of the same full scan returning entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, warmups = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ColumnarScanBenchmark {
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private IMap<Integer, Person> map;
+
+    @Setup
+    public void prepare() {
+        Config config = new Config()
+                .setProperty(QUERY_COLUMNAR_SCAN_ENABLED.getName(), String.valueOf(columnar));
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(config);
+        map = hz.getMap("persons");
+        for (int k = 0; k < 100000; k++) {
+            map.put(k, new Person(k, 80 + k % 60));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Benchmark
+    public Long count() {
+        return map.aggregate(Aggregators.count(), Predicates.sql("age >= 10000 and age < 60000 and iq > 100"));
+    }
+
+    @Benchmark
+    public Long sum() {
+        return map.aggregate(Aggregators.integerSum("iq"), Predicates.between("age", 10000, 60000));
+    }
+
+    @Benchmark
+    public Double average() {
+        return map.aggregate(Aggregators.integerAvg("age"), Predicates.or(
+                Predicates.in("iq", 90, 100, 110), Predicates.greaterThan("age", 90000)));
+    }
+
+    @Benchmark
+    public Set<Integer> keySet() {
+        return map.keySet(Predicates.sql("age=10 and iq=100"));
+    }
+}
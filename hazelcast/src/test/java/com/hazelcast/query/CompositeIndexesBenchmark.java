@@ -31,6 +31,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -38,8 +39,11 @@ import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_FLAT_HASH_ENABLED;
+
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 @State(Scope.Benchmark)
@@ -48,11 +52,15 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 10)
 public class CompositeIndexesBenchmark {
 
+    @Param({"false", "true"})
+    public boolean flatHashIndexStore;
+
     IMap<Integer, Pojo> map;
 
     @Setup
     public void setup() {
         Config config = new Config();
+        config.setProperty(INDEX_FLAT_HASH_ENABLED.getName(), Boolean.toString(flatHashIndexStore));
         MapConfig mapConfig = config.getMapConfig("map");
 
         mapConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "f1"));
@@ -71,6 +79,10 @@ public class CompositeIndexesBenchmark {
 
     @TearDown
     public void tearDown() {
+        for (Map.Entry<String, LocalIndexStats> entry : map.getLocalMapStats().getIndexStats().entrySet()) {
+            System.out.println(entry.getKey() + " (flatHashIndexStore=" + flatHashIndexStore + "): memory cost="
+                    + entry.getValue().getMemoryCost());
+        }
         Hazelcast.shutdownAll();
     }
 
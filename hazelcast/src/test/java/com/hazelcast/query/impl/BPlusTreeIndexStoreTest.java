@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runners.Parameterized.UseParametersRunnerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.hazelcast.instance.impl.TestUtil.toData;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(Parameterized.class)
+@UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BPlusTreeIndexStoreTest {
+
+    @Parameter(0)
+    public IndexCopyBehavior copyBehavior;
+
+    @Parameters(name = "copyBehavior: {0}")
+    public static Collection<Object[]> parameters() {
+        return asList(new Object[][]{
+                {IndexCopyBehavior.COPY_ON_READ},
+                {IndexCopyBehavior.COPY_ON_WRITE},
+                {IndexCopyBehavior.NEVER},
+        });
+    }
+
+    @Test
+    public void testSingleRecordPerValue() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        QueryableEntry entry = entry(1);
+
+        assertNull(store.insertInternal(10, entry));
+        assertEquals(singleton(entry), store.getRecords(10));
+
+        QueryableEntry updated = entry(1);
+        assertSame(entry, store.insertInternal(10, updated));
+        assertEquals(singleton(updated), store.getRecords(10));
+
+        assertSame(updated, store.removeInternal(10, updated.getKeyData()));
+        assertTrue(store.getRecords(10).isEmpty());
+    }
+
+    @Test
+    public void testMultipleRecordsPerValue() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        QueryableEntry first = entry(1);
+        QueryableEntry second = entry(2);
+        QueryableEntry third = entry(3);
+
+        store.insertInternal(10, first);
+        store.insertInternal(10, second);
+        store.insertInternal(10, third);
+        assertEquals(set(first, second, third), store.getRecords(10));
+
+        assertNull(store.removeInternal(10, toData(4)));
+        assertSame(second, store.removeInternal(10, second.getKeyData()));
+        assertEquals(set(first, third), store.getRecords(10));
+
+        store.removeInternal(10, first.getKeyData());
+        store.removeInternal(10, third.getKeyData());
+        assertTrue(store.getRecords(10).isEmpty());
+        assertFalse(store.getSqlRecordIteratorBatch(10).hasNext());
+    }
+
+    @Test
+    public void testNullValues() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        QueryableEntry nullEntry = entry(1);
+        QueryableEntry entry = entry(2);
+        store.insertInternal(NULL, nullEntry);
+        store.insertInternal(5, entry);
+
+        assertEquals(singleton(nullEntry), store.getRecords(NULL));
+        assertEquals(asList(nullEntry, entry), toList(store.getSqlRecordIterator(false)));
+        assertEquals(asList(entry, nullEntry), toList(store.getSqlRecordIterator(true)));
+
+        assertSame(nullEntry, store.removeInternal(NULL, nullEntry.getKeyData()));
+        assertTrue(store.getRecords(NULL).isEmpty());
+    }
+
+    @Test
+    public void testRangeQueries() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        List<QueryableEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            QueryableEntry entry = entry(i);
+            entries.add(entry);
+            store.insertInternal(i, entry);
+        }
+
+        assertEquals(new HashSet<>(entries.subList(0, 100)), store.getRecords(Comparison.LESS, 100));
+        assertEquals(new HashSet<>(entries.subList(0, 101)), store.getRecords(Comparison.LESS_OR_EQUAL, 100));
+        assertEquals(new HashSet<>(entries.subList(901, 1000)), store.getRecords(Comparison.GREATER, 900));
+        assertEquals(new HashSet<>(entries.subList(900, 1000)), store.getRecords(Comparison.GREATER_OR_EQUAL, 900));
+        assertEquals(new HashSet<>(entries.subList(10, 21)), store.getRecords(10, true, 20, true));
+        assertEquals(new HashSet<>(entries.subList(11, 20)), store.getRecords(10, false, 20, false));
+        assertEquals(singleton(entries.get(10)), store.getRecords(10, true, 10, true));
+        assertTrue(store.getRecords(10, false, 10, true).isEmpty());
+        assertTrue(store.getRecords(20, true, 10, true).isEmpty());
+        assertEquals(set(entries.get(1), entries.get(500), entries.get(999)),
+                store.getRecords(new HashSet<>(asList(1, 500, 999, 1000))));
+
+        assertEquals(entries.subList(10, 21), toList(store.getSqlRecordIterator(10, true, 20, true, false)));
+        List<QueryableEntry> descending = new ArrayList<>(entries.subList(10, 20));
+        Collections.reverse(descending);
+        assertEquals(descending, toList(store.getSqlRecordIterator(Comparison.LESS, 20, true)).subList(0, 10));
+    }
+
+    @Test
+    public void testClear() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        store.insertInternal(NULL, entry(1));
+        store.insertInternal(1, entry(2));
+        store.clear();
+
+        assertTrue(store.getRecords(NULL).isEmpty());
+        assertTrue(store.getRecords(1).isEmpty());
+        assertEquals(0, toList(store.getSqlRecordIterator(false)).size());
+    }
+
+    private static QueryableEntry entry(int key) {
+        Data keyData = toData(key);
+        QueryableEntry entry = mock(QueryableEntry.class);
+        when(entry.getKeyData()).thenReturn(keyData);
+        return entry;
+    }
+
+    private static Set<QueryableEntry> set(QueryableEntry... entries) {
+        return new HashSet<>(asList(entries));
+    }
+
+    private static List<QueryableEntry> toList(Iterator<QueryableEntry> iterator) {
+        List<QueryableEntry> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+}
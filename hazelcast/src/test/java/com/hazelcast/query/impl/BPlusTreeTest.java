@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BPlusTreeTest {
+
+    private final BPlusTree<String> tree = new BPlusTree<>(4);
+    private final TreeMap<Integer, String> expected = new TreeMap<>();
+
+    @Test
+    public void testEmpty() {
+        assertNull(tree.get(1));
+        assertNull(tree.remove(1));
+        assertFalse(tree.iterator(null, false, null, false, false).hasNext());
+        assertFalse(tree.iterator(null, false, null, false, true).hasNext());
+        assertEquals(1, tree.height());
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(tree.put(1, "a"));
+        assertEquals("a", tree.put(1, "b"));
+        assertEquals("b", tree.get(1));
+        assertEquals("b", tree.remove(1));
+        assertNull(tree.get(1));
+    }
+
+    @Test
+    public void testAscendingInsertionsSplitLeaves() {
+        for (int i = 0; i < 1000; ++i) {
+            put(i);
+        }
+        assertTrue(tree.height() > 1);
+        verifyContent();
+    }
+
+    @Test
+    public void testDescendingInsertionsSplitLeaves() {
+        for (int i = 1000; i > 0; --i) {
+            put(i);
+        }
+        verifyContent();
+    }
+
+    @Test
+    public void testRemovalOfAllKeys() {
+        for (int i = 0; i < 1000; ++i) {
+            put(i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            remove(i);
+        }
+        verifyContent();
+        for (int i = 1; i < 1000; i += 2) {
+            remove(i);
+        }
+        verifyContent();
+        assertEquals(1, tree.height());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                remove(key);
+            } else {
+                put(key);
+            }
+            if (i % 1000 == 0) {
+                verifyContent();
+            }
+        }
+        verifyContent();
+    }
+
+    @Test
+    public void testRanges() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; ++i) {
+            put(random.nextInt(1000));
+        }
+
+        for (int i = 0; i < 200; ++i) {
+            int from = random.nextInt(1100) - 50;
+            int to = from + random.nextInt(300);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+
+            verifyRange(expected.subMap(from, fromInclusive, to, toInclusive), from, fromInclusive, to, toInclusive);
+            verifyRange(expected.headMap(to, toInclusive), null, false, to, toInclusive);
+            verifyRange(expected.tailMap(from, fromInclusive), from, fromInclusive, null, false);
+        }
+        verifyRange(expected, null, false, null, false);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorExhausted() {
+        put(1);
+        Iterator<Map.Entry<Comparable, String>> iterator = tree.iterator(null, false, null, false, false);
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test
+    public void testIteratorToleratesConcurrentUpdates() {
+        for (int i = 0; i < 100; ++i) {
+            put(i * 2);
+        }
+
+        Iterator<Map.Entry<Comparable, String>> iterator = tree.iterator(null, false, null, false, false);
+        Comparable previous = null;
+        int seen = 0;
+        while (iterator.hasNext()) {
+            Comparable key = iterator.next().getKey();
+            if (previous != null) {
+                assertTrue(Comparables.compare(previous, key) < 0);
+            }
+            previous = key;
+            // odd keys land right behind the cursor, removals unlink leaves ahead of it
+            tree.put(((Integer) key) + 1, "x");
+            tree.remove(((Integer) key) + 20);
+            ++seen;
+        }
+        assertTrue(seen > 0);
+    }
+
+    private void put(int key) {
+        String value = "v" + key;
+        assertEquals(expected.put(key, value), tree.put(key, value));
+    }
+
+    private void remove(int key) {
+        assertEquals(expected.remove(key), tree.remove(key));
+    }
+
+    private void verifyContent() {
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+        verifyRange(expected, null, false, null, false);
+    }
+
+    private void verifyRange(NavigableMap<Integer, String> expectedRange, Integer from, boolean fromInclusive,
+                             Integer to, boolean toInclusive) {
+        assertEquals(new ArrayList<>(expectedRange.entrySet()),
+                toList(tree.iterator(from, fromInclusive, to, toInclusive, false)));
+        assertEquals(new ArrayList<>(expectedRange.descendingMap().entrySet()),
+                toList(tree.iterator(from, fromInclusive, to, toInclusive, true)));
+    }
+
+    private static List<Map.Entry<Integer, String>> toList(Iterator<Map.Entry<Comparable, String>> iterator) {
+        List<Map.Entry<Integer, String>> list = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Map.Entry<Comparable, String> entry = iterator.next();
+            list.add(new AbstractMap.SimpleImmutableEntry<>((Integer) entry.getKey(), entry.getValue()));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CountingBloomFilterTest {
+
+    @Test
+    public void testAddRemove() {
+        CountingBloomFilter filter = new CountingBloomFilter(100);
+        assertFalse(filter.mightContain("a"));
+
+        filter.add("a");
+        filter.add("a");
+        assertTrue(filter.mightContain("a"));
+
+        filter.remove("a");
+        assertTrue(filter.mightContain("a"));
+        filter.remove("a");
+        assertFalse(filter.mightContain("a"));
+    }
+
+    @Test
+    public void testNumbersAreCanonicalized() {
+        CountingBloomFilter filter = new CountingBloomFilter(100);
+        filter.add(1);
+        assertTrue(filter.mightContain(1L));
+        assertTrue(filter.mightContain(1.0));
+        assertTrue(filter.mightContain((short) 1));
+
+        filter.add(new CompositeValue(new Comparable[]{2L, "x", NULL}));
+        assertTrue(filter.mightContain(new CompositeValue(new Comparable[]{2, "x", NULL})));
+    }
+
+    @Test
+    public void testSaturatedCountersAreSticky() {
+        CountingBloomFilter filter = new CountingBloomFilter(100);
+        for (int i = 0; i < 100; ++i) {
+            filter.add("a");
+        }
+        for (int i = 0; i < 100; ++i) {
+            filter.remove("a");
+        }
+        // the filter lost track of the count but must not produce false negatives
+        assertTrue(filter.mightContain("a"));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000);
+        for (int i = 0; i < 1000; ++i) {
+            filter.add(i);
+        }
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(filter.mightContain(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 1000; i < 101000; ++i) {
+            if (filter.mightContain(i)) {
+                ++falsePositives;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 5000);
+    }
+
+    @Test
+    public void testClear() {
+        CountingBloomFilter filter = new CountingBloomFilter(10);
+        assertEquals(128, filter.counterCount());
+        filter.add("a");
+        filter.clear();
+        assertFalse(filter.mightContain("a"));
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static com.hazelcast.query.impl.IndexStatistics.SAMPLE_SIZE;
+import static com.hazelcast.query.impl.IndexStatistics.UNKNOWN;
+import static com.hazelcast.query.impl.TypeConverters.ENUM_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.INTEGER_CONVERTER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexStatisticsTest {
+
+    private final IndexStatistics statistics = new IndexStatistics();
+
+    @Test
+    public void testUnknownWhenEmpty() {
+        assertEquals(UNKNOWN, statistics.estimateEqual(1), 0.0);
+        assertEquals(UNKNOWN, statistics.estimateRange(1, true, 10, true), 0.0);
+        assertEquals(0, statistics.getEntryCount());
+    }
+
+    @Test
+    public void testUniformValues() {
+        for (int i = 0; i < 100_000; ++i) {
+            statistics.onInsert(i % 100, INTEGER_CONVERTER);
+        }
+
+        assertEquals(100_000, statistics.getEntryCount());
+        assertTrue(statistics.estimateEqual(7) < 0.05);
+        assertTrue(statistics.estimateEqual(1000) <= 1.0 / SAMPLE_SIZE);
+        assertEquals(0.5, statistics.estimateRange(null, false, 50, false), 0.1);
+        assertEquals(0.2, statistics.estimateRange(10, true, 30, false), 0.1);
+        assertEquals(1.0, statistics.estimateRange(null, false, null, false), 0.0);
+    }
+
+    @Test
+    public void testSkewedValues() {
+        for (int i = 0; i < 100_000; ++i) {
+            statistics.onInsert(i % 10 == 0 ? i : 0, INTEGER_CONVERTER);
+        }
+
+        assertEquals(0.9, statistics.estimateEqual(0), 0.1);
+        assertTrue(statistics.estimateEqual(10) < 0.05);
+        assertTrue(statistics.estimateRange(0, false, null, false) < 0.2);
+    }
+
+    @Test
+    public void testQueryValuesAreComparedNumerically() {
+        for (int i = 0; i < 1000; ++i) {
+            statistics.onInsert(i % 2, INTEGER_CONVERTER);
+        }
+
+        assertEquals(0.5, statistics.estimateEqual(1L), 0.2);
+        assertEquals(0.5, statistics.estimateRange(0.5, true, null, false), 0.2);
+    }
+
+    @Test
+    public void testIncomparableValues() {
+        for (int i = 0; i < 1000; ++i) {
+            statistics.onInsert(i, INTEGER_CONVERTER);
+        }
+
+        assertEquals(UNKNOWN, statistics.estimateRange("a", true, "b", true), 0.0);
+    }
+
+    @Test
+    public void testValuesAreConverted() {
+        statistics.onInsert(TimeUnitValue.SECONDS, ENUM_CONVERTER);
+
+        assertEquals(1.0, statistics.estimateEqual("SECONDS"), 0.0);
+    }
+
+    @Test
+    public void testNullsAndMultiValues() {
+        statistics.onInsert(null, INTEGER_CONVERTER);
+        statistics.onInsert(new MultiResult<>(Arrays.asList(1, 2, 3)), INTEGER_CONVERTER);
+
+        assertEquals(2, statistics.getEntryCount());
+        assertEquals(0.25, statistics.estimateEqual(AbstractIndex.NULL), 0.0);
+        assertEquals(0.5, statistics.estimateRange(2, true, null, false), 0.0);
+    }
+
+    @Test
+    public void testUpdateReplacesSampledValue() {
+        for (int i = 0; i < 100; ++i) {
+            statistics.onInsert(1, INTEGER_CONVERTER);
+        }
+        for (int i = 0; i < 100; ++i) {
+            statistics.onUpdate(1, 2, INTEGER_CONVERTER);
+        }
+
+        assertEquals(100, statistics.getEntryCount());
+        assertEquals(1.0, statistics.estimateEqual(2), 0.0);
+        assertTrue(statistics.estimateEqual(1) < 0.01);
+    }
+
+    @Test
+    public void testRemoveEvictsSampledValues() {
+        // all the values fit into the sample, so every removal evicts one
+        for (int i = 0; i < SAMPLE_SIZE; ++i) {
+            statistics.onInsert(i % 2, INTEGER_CONVERTER);
+        }
+        for (int i = 0; i < SAMPLE_SIZE / 2; ++i) {
+            statistics.onRemove(1, INTEGER_CONVERTER);
+        }
+        assertEquals(1.0, statistics.estimateEqual(0), 0.0);
+
+        for (int i = 0; i < SAMPLE_SIZE / 2; ++i) {
+            statistics.onInsert(2, INTEGER_CONVERTER);
+        }
+        assertEquals(0.5, statistics.estimateEqual(0), 0.0);
+        assertEquals(0.5, statistics.estimateEqual(2), 0.0);
+    }
+
+    @Test
+    public void testSampleStaysUniformAfterRemovals() {
+        for (int i = 0; i < 100_000; ++i) {
+            statistics.onInsert(i % 2, INTEGER_CONVERTER);
+        }
+        for (int i = 0; i < 50_000; ++i) {
+            statistics.onRemove(1, INTEGER_CONVERTER);
+        }
+        for (int i = 0; i < 50_000; ++i) {
+            statistics.onInsert(2, INTEGER_CONVERTER);
+        }
+
+        assertEquals(100_000, statistics.getEntryCount());
+        assertEquals(0.5, statistics.estimateEqual(0), 0.2);
+        assertEquals(0.5, statistics.estimateEqual(2), 0.2);
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        statistics.onInsert(1, INTEGER_CONVERTER);
+        statistics.onInsert(2, INTEGER_CONVERTER);
+        statistics.onRemove(2, INTEGER_CONVERTER);
+        assertEquals(1, statistics.getEntryCount());
+        assertEquals(1.0, statistics.estimateEqual(1), 0.0);
+
+        statistics.clear();
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(UNKNOWN, statistics.estimateEqual(1), 0.0);
+    }
+
+    private enum TimeUnitValue {
+        SECONDS
+    }
+}
@@ -25,7 +25,9 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.map.IMap;
+import com.hazelcast.query.LocalIndexStats;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -37,9 +39,11 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
+import java.util.Map;
 import java.util.Random;
 
 import static com.hazelcast.config.BitmapIndexOptions.UniqueKeyTransformation.RAW;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_FLAT_HASH_ENABLED;
 
 @State(Scope.Benchmark)
 public class IndexUpdateBenchmark {
@@ -48,6 +52,9 @@ public class IndexUpdateBenchmark {
 
     private final Random random = new Random(303);
 
+    @Param({"false", "true"})
+    public boolean flatHashIndexStore;
+
     private HazelcastInstance instance;
     private IMap<Integer, Integer> noIndexes;
     private IMap<Integer, Integer> singleIndex;
@@ -59,6 +66,7 @@ public class IndexUpdateBenchmark {
         CacheDeserializedValues cacheDeserializedValues = CacheDeserializedValues.NEVER;
 
         Config config = new Config();
+        config.setProperty(INDEX_FLAT_HASH_ENABLED.getName(), Boolean.toString(flatHashIndexStore));
 
         MapConfig noIndexesConfig = config.getMapConfig("noIndexes");
         noIndexesConfig.setInMemoryFormat(inMemoryFormat);
@@ -86,6 +94,8 @@ public class IndexUpdateBenchmark {
 
     @TearDown
     public void tearDown() {
+        printIndexMemoryCosts(singleIndex);
+        printIndexMemoryCosts(multipleIndexes);
         instance.shutdown();
     }
 
@@ -116,6 +126,13 @@ public class IndexUpdateBenchmark {
         }
     }
 
+    private void printIndexMemoryCosts(IMap<Integer, Integer> map) {
+        for (Map.Entry<String, LocalIndexStats> entry : map.getLocalMapStats().getIndexStats().entrySet()) {
+            System.out.println(map.getName() + "." + entry.getKey() + " (flatHashIndexStore=" + flatHashIndexStore
+                    + "): entries=" + map.size() + ", memory cost=" + entry.getValue().getMemoryCost());
+        }
+    }
+
     public static void main(String[] args) throws RunnerException {
         // @formatter:off
         Options opt = new OptionsBuilder()
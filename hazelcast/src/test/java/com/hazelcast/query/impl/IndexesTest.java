@@ -18,6 +18,7 @@ package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.IndexType;
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.query.PredicateBuilder;
@@ -54,6 +55,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 @UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
@@ -234,4 +236,72 @@ public class IndexesTest {
         assertNull(matched);
     }
 
+    @Test
+    public void testGlobalIndexSkipsAbsentValues() {
+        Indexes indexes = Indexes.newBuilder(serializationService, copyBehavior, DEFAULT_IN_MEMORY_FORMAT)
+                .global(true).statsEnabled(true).valueFilterCapacity(100).build();
+        InternalIndex index = addValues(indexes);
+
+        assertEquals(1, size(indexes.query(new SqlPredicate("name = 'v1'"), SKIP_PARTITIONS_COUNT_CHECK)));
+        assertEquals(0, size(indexes.query(new SqlPredicate("name = 'v0'"), SKIP_PARTITIONS_COUNT_CHECK)));
+        assertEquals(2, size(indexes.query(new SqlPredicate("name in ('v1', 'v2', 'v0')"), SKIP_PARTITIONS_COUNT_CHECK)));
+        for (int i = 100; i < 200; i++) {
+            assertEquals(0, size(indexes.query(new SqlPredicate("name = 'v" + i + "'"), SKIP_PARTITIONS_COUNT_CHECK)));
+        }
+
+        assertAbsentValuesSkipped(index);
+    }
+
+    @Test
+    public void testPartitionedIndexSkipsAbsentValues() {
+        Indexes indexes = Indexes.newBuilder(serializationService, copyBehavior, DEFAULT_IN_MEMORY_FORMAT)
+                .global(false).statsEnabled(true).valueFilterCapacity(100).build();
+        InternalIndex index = addValues(indexes);
+
+        assertEquals(1, index.getRecords("v1").size());
+        assertEquals(0, index.getRecords("v0").size());
+        assertEquals(2, index.getRecords(new Comparable[]{"v1", "v2", "v0"}).size());
+        for (int i = 100; i < 200; i++) {
+            assertEquals(0, index.getRecords("v" + i).size());
+        }
+
+        assertAbsentValuesSkipped(index);
+    }
+
+    @Test
+    public void testIndexStatisticsDisabledByDefault() {
+        Indexes indexes = Indexes.newBuilder(serializationService, copyBehavior, DEFAULT_IN_MEMORY_FORMAT).build();
+        InternalIndex index = addValues(indexes);
+
+        assertEquals(IndexStatistics.UNKNOWN, index.estimateSelectivity("v1"), 0.0);
+    }
+
+    @Test
+    public void testIndexStatisticsEnabled() {
+        Indexes indexes = Indexes.newBuilder(serializationService, copyBehavior, DEFAULT_IN_MEMORY_FORMAT)
+                .indexStatisticsEnabled(true).build();
+        InternalIndex index = addValues(indexes);
+
+        assertEquals(1.0 / 99, index.estimateSelectivity("v1"), 0.0);
+        // the removed value is evicted from the sample
+        assertTrue(index.estimateSelectivity("v0") < 1.0 / 99);
+    }
+
+    private InternalIndex addValues(Indexes indexes) {
+        InternalIndex index = indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.HASH, "name"));
+        for (int i = 0; i < 100; i++) {
+            indexes.putEntry(new QueryEntry(serializationService, toData(i), new Value("v" + i), newExtractor()), null,
+                    Index.OperationSource.USER);
+        }
+        indexes.removeEntry(toData(0), new Value("v0"), Index.OperationSource.USER);
+        return index;
+    }
+
+    private static void assertAbsentValuesSkipped(InternalIndex index) {
+        PerIndexStats stats = index.getPerIndexStats();
+        assertEquals(103, stats.getValueFilterLookupCount());
+        // allow a few false positives
+        assertTrue(stats.getValueFilterSkipCount() > 90);
+    }
+
 }
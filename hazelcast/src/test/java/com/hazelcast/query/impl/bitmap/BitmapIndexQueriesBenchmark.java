@@ -41,6 +41,7 @@ import java.util.Random;
 
 import static com.hazelcast.config.BitmapIndexOptions.UniqueKeyTransformation.RAW;
 import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
 import static com.hazelcast.query.Predicates.equal;
 import static com.hazelcast.query.Predicates.not;
 import static com.hazelcast.query.Predicates.or;
@@ -52,10 +53,20 @@ public class BitmapIndexQueriesBenchmark {
     private static final int HABITS = 5000;
     private static final int DOMAIN = 25000;
 
+    // items have a few tags out of a small domain: every tag matches a large
+    // dense set of items
+    private static final int ITEMS = 200000;
+    private static final int TAGS = 3;
+    private static final int TAG_DOMAIN = 16;
+    private static final int PRICE_DOMAIN = 10000;
+    private static final int PRICE_RANGE = 100;
+
     private final Random random = new Random(303);
     private HazelcastInstance instance;
     private IMap<Integer, Person> personsBitmap;
     private IMap<Integer, Person> personsHash;
+    private IMap<Integer, Item> itemsBitmap;
+    private IMap<Integer, Item> itemsHash;
 
     @Setup
     public void setup() {
@@ -71,10 +82,22 @@ public class BitmapIndexQueriesBenchmark {
         personsHashConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
         personsHashConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "habits[any]"));
 
+        MapConfig itemsBitmapConfig = config.getMapConfig("itemsBitmap");
+        itemsBitmapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        itemsBitmapConfig.addIndexConfig(new IndexConfig(IndexType.BITMAP, "tags[any]"));
+        itemsBitmapConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, "price"));
+
+        MapConfig itemsHashConfig = config.getMapConfig("itemsHash");
+        itemsHashConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        itemsHashConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "tags[any]"));
+        itemsHashConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, "price"));
+
         instance = Hazelcast.newHazelcastInstance(config);
 
         personsBitmap = instance.getMap("personsBitmap");
         personsHash = instance.getMap("personsHash");
+        itemsBitmap = instance.getMap("itemsBitmap");
+        itemsHash = instance.getMap("itemsHash");
 
         for (int i = 0; i < SIZE; ++i) {
             int[] habits = new int[HABITS];
@@ -85,6 +108,16 @@ public class BitmapIndexQueriesBenchmark {
             personsBitmap.put(i, person);
             personsHash.put(i, person);
         }
+
+        for (int i = 0; i < ITEMS; ++i) {
+            int[] tags = new int[TAGS];
+            for (int j = 0; j < TAGS; ++j) {
+                tags[j] = random.nextInt(TAG_DOMAIN);
+            }
+            Item item = new Item(tags, random.nextInt(PRICE_DOMAIN));
+            itemsBitmap.put(i, item);
+            itemsHash.put(i, item);
+        }
     }
 
     @TearDown
@@ -132,6 +165,48 @@ public class BitmapIndexQueriesBenchmark {
         personsHash.entrySet(not(equal("habits[any]", random.nextInt(DOMAIN))));
     }
 
+    @Benchmark
+    public void bitmapTagsAnd() {
+        itemsBitmap.entrySet(and(equal("tags[any]", random.nextInt(TAG_DOMAIN)), equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void hashTagsAnd() {
+        itemsHash.entrySet(and(equal("tags[any]", random.nextInt(TAG_DOMAIN)), equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void bitmapTagsOr() {
+        itemsBitmap.entrySet(or(equal("tags[any]", random.nextInt(TAG_DOMAIN)), equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void hashTagsOr() {
+        itemsHash.entrySet(or(equal("tags[any]", random.nextInt(TAG_DOMAIN)), equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void bitmapTagsNot() {
+        itemsBitmap.entrySet(not(equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void hashTagsNot() {
+        itemsHash.entrySet(not(equal("tags[any]", random.nextInt(TAG_DOMAIN))));
+    }
+
+    @Benchmark
+    public void bitmapTagsAndPriceRange() {
+        int price = random.nextInt(PRICE_DOMAIN - PRICE_RANGE);
+        itemsBitmap.entrySet(and(equal("tags[any]", random.nextInt(TAG_DOMAIN)), between("price", price, price + PRICE_RANGE)));
+    }
+
+    @Benchmark
+    public void hashTagsAndPriceRange() {
+        int price = random.nextInt(PRICE_DOMAIN - PRICE_RANGE);
+        itemsHash.entrySet(and(equal("tags[any]", random.nextInt(TAG_DOMAIN)), between("price", price, price + PRICE_RANGE)));
+    }
+
     public static void main(String[] args) throws RunnerException {
         // @formatter:off
         Options opt = new OptionsBuilder()
@@ -164,4 +239,26 @@ public class BitmapIndexQueriesBenchmark {
 
     }
 
+    public static class Item implements Serializable {
+
+        private final int[] tags;
+        private final int price;
+
+        public Item(int[] tags, int price) {
+            this.tags = tags;
+            this.price = price;
+        }
+
+        @SuppressWarnings("unused")
+        public int[] getTags() {
+            return tags;
+        }
+
+        @SuppressWarnings("unused")
+        public int getPrice() {
+            return price;
+        }
+
+    }
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.bitmap;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ContainerBitSetTest {
+
+    private static final int CHUNK = 1 << 16;
+
+    private final List<SparseBitSet> actual = new ArrayList<>();
+    private final List<TreeSet<Long>> expected = new ArrayList<>();
+
+    private Random random;
+
+    @Test
+    public void testEmpty() {
+        ContainerBitSet empty = new SparseBitSet().toContainerBitSet();
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.cardinality());
+        assertEquals(AscendingLongIterator.END, empty.iterator().getIndex());
+        assertFalse(empty.contains(0));
+    }
+
+    @Test
+    public void testExportIsCachedUntilModified() {
+        SparseBitSet bitSet = new SparseBitSet();
+        bitSet.add(10);
+        ContainerBitSet containers = bitSet.toContainerBitSet();
+        assertSame(containers, bitSet.toContainerBitSet());
+
+        bitSet.add(20);
+        ContainerBitSet updated = bitSet.toContainerBitSet();
+        assertEquals(2, updated.cardinality());
+        assertTrue(updated.contains(20));
+
+        bitSet.remove(10);
+        assertEquals(1, bitSet.toContainerBitSet().cardinality());
+        assertFalse(bitSet.toContainerBitSet().contains(10));
+    }
+
+    @Test
+    public void testContainers() {
+        long seed = System.nanoTime();
+        System.out.println(getClass().getSimpleName() + ".testContainers seed: " + seed);
+        random = new Random(seed);
+
+        // array containers
+        generateRandom(0, 3000, CHUNK);
+        // bitmap containers
+        generateRandom(CHUNK, 60000, 2 * CHUNK);
+        // run containers
+        generateRuns(2 * CHUNK, 100, 1000);
+        // full chunks
+        generateRange(CHUNK, 3 * CHUNK);
+        // sparse members having different 32-bit prefixes
+        generateRandom(0, 600, 4L << Integer.SIZE);
+
+        for (int i = 0; i < actual.size(); ++i) {
+            verify(actual.get(i).toContainerBitSet(), expected.get(i));
+        }
+    }
+
+    @Test
+    public void testSetOperations() {
+        long seed = System.nanoTime();
+        System.out.println(getClass().getSimpleName() + ".testSetOperations seed: " + seed);
+        random = new Random(seed);
+
+        actual.add(new SparseBitSet());
+        expected.add(new TreeSet<>());
+        generateRandom(0, 3000, 3 * CHUNK);
+        generateRandom(CHUNK, 3000, CHUNK);
+        generateRandom(0, 100000, 3 * CHUNK);
+        generateRandom(CHUNK, 50000, CHUNK);
+        generateRuns(0, 200, 500);
+        generateRuns(CHUNK / 2, 50, 3000);
+        generateRange(0, 2 * CHUNK);
+        generateRange(CHUNK + 100, CHUNK + 5000);
+        generateRandom(0, 600, 4L << Integer.SIZE);
+
+        for (int i = 0; i < actual.size(); ++i) {
+            for (int j = 0; j < actual.size(); ++j) {
+                verifyOperations(i, j);
+            }
+        }
+    }
+
+    private void verifyOperations(int i, int j) {
+        ContainerBitSet a = actual.get(i).toContainerBitSet();
+        ContainerBitSet b = actual.get(j).toContainerBitSet();
+
+        TreeSet<Long> and = new TreeSet<>(expected.get(i));
+        and.retainAll(expected.get(j));
+        verify(ContainerBitSet.and(a, b), and);
+
+        TreeSet<Long> or = new TreeSet<>(expected.get(i));
+        or.addAll(expected.get(j));
+        verify(ContainerBitSet.or(a, b), or);
+
+        TreeSet<Long> andNot = new TreeSet<>(expected.get(i));
+        andNot.removeAll(expected.get(j));
+        verify(ContainerBitSet.andNot(a, b), andNot);
+    }
+
+    private void verify(ContainerBitSet actual, TreeSet<Long> expected) {
+        assertEquals(expected.size(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+
+        AscendingLongIterator iterator = actual.iterator();
+        for (long member : expected) {
+            assertEquals(member, iterator.getIndex());
+            assertEquals(member, iterator.advance());
+        }
+        assertEquals(AscendingLongIterator.END, iterator.getIndex());
+        assertEquals(AscendingLongIterator.END, iterator.advance());
+
+        for (int i = 0; i < 1000; ++i) {
+            long member = random.nextInt(4 * CHUNK);
+            assertEquals(expected.contains(member), actual.contains(member));
+        }
+        for (long member : expected) {
+            assertTrue(actual.contains(member));
+        }
+
+        iterator = actual.iterator();
+        long member = 0;
+        while (true) {
+            member += 1 + random.nextInt(random.nextBoolean() ? 10 : 2 * CHUNK);
+            Long expectedMember = expected.ceiling(member);
+            if (expectedMember == null) {
+                assertEquals(AscendingLongIterator.END, iterator.advanceAtLeastTo(member));
+                assertEquals(AscendingLongIterator.END, iterator.getIndex());
+                break;
+            }
+            assertEquals((long) expectedMember, iterator.advanceAtLeastTo(member));
+            assertEquals((long) expectedMember, iterator.getIndex());
+            member = expectedMember;
+        }
+    }
+
+    private void generateRandom(long offset, int count, long bound) {
+        SparseBitSet bitSet = new SparseBitSet();
+        TreeSet<Long> set = new TreeSet<>();
+        for (int i = 0; i < count; ++i) {
+            long member = offset + (long) (random.nextDouble() * bound);
+            bitSet.add(member);
+            set.add(member);
+        }
+        actual.add(bitSet);
+        expected.add(set);
+    }
+
+    private void generateRuns(long offset, int runs, int maxRunLength) {
+        SparseBitSet bitSet = new SparseBitSet();
+        TreeSet<Long> set = new TreeSet<>();
+        long member = offset;
+        for (int i = 0; i < runs; ++i) {
+            member += 1 + random.nextInt(maxRunLength);
+            int length = 1 + random.nextInt(maxRunLength);
+            for (int j = 0; j < length; ++j) {
+                bitSet.add(member);
+                set.add(member);
+                ++member;
+            }
+        }
+        actual.add(bitSet);
+        expected.add(set);
+    }
+
+    private void generateRange(long from, long to) {
+        SparseBitSet bitSet = new SparseBitSet();
+        TreeSet<Long> set = new TreeSet<>();
+        for (long member = from; member < to; ++member) {
+            bitSet.add(member);
+            set.add(member);
+        }
+        actual.add(bitSet);
+        expected.add(set);
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AccessorCompilerTest {
+
+    @Test
+    public void compile_publicMethod() throws Exception {
+        assertNotNull(AccessorCompiler.compile(Person.class.getMethod("getAge")));
+    }
+
+    @Test
+    public void compile_methodOfNonPublicClass_returnsNull() throws Exception {
+        assertNull(AccessorCompiler.compile(Hidden.class.getMethod("getValue")));
+    }
+
+    @Test
+    public void compile_staticMethod_returnsNull() throws Exception {
+        assertNull(AccessorCompiler.compile(Person.class.getMethod("getSpecies")));
+    }
+
+    @Test
+    public void compile_voidMethod_returnsNull() throws Exception {
+        assertNull(AccessorCompiler.compile(Person.class.getMethod("touch")));
+    }
+
+    @Test
+    public void compile_privateField() throws Exception {
+        Field field = Person.class.getDeclaredField("name");
+        field.setAccessible(true);
+        assertNotNull(AccessorCompiler.compile(field));
+    }
+
+    @Test
+    public void methodGetter_primitiveReturnType() throws Exception {
+        MethodGetter getter = new MethodGetter(null, Person.class.getMethod("getAge"), null, null);
+        assertEquals(42, getter.getValue(new Person("a", 42)));
+    }
+
+    @Test
+    public void methodGetter_nestedPath() throws Exception {
+        Person parent = new Person("parent", 70);
+        Person person = new Person("child", 40);
+        person.parent = parent;
+        MethodGetter parentGetter = new MethodGetter(null, Person.class.getMethod("getParent"), null, null);
+        MethodGetter getter = new MethodGetter(parentGetter, Person.class.getMethod("getName"), null, null);
+
+        assertEquals("parent", getter.getValue(person));
+        assertNull(getter.getValue(new Person("orphan", 1)));
+    }
+
+    @Test
+    public void methodGetter_anyModifier() throws Exception {
+        Person person = new Person("a", 1);
+        person.children = asList(new Person("b", 2), new Person("c", 3));
+        MethodGetter childrenGetter = new MethodGetter(null, Person.class.getMethod("getChildren"), "[any]", Person.class);
+        MethodGetter getter = new MethodGetter(childrenGetter, Person.class.getMethod("getAge"), null, null);
+
+        @SuppressWarnings("unchecked")
+        MultiResult<Object> result = (MultiResult<Object>) getter.getValue(person);
+        assertEquals(Arrays.<Object>asList(2, 3), result.getResults());
+    }
+
+    @Test
+    public void methodGetter_exceptionIsWrapped() throws Exception {
+        MethodGetter getter = new MethodGetter(null, Person.class.getMethod("getFailure"), null, null);
+        try {
+            getter.getValue(new Person("a", 1));
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void methodGetter_wrongTarget() throws Exception {
+        MethodGetter getter = new MethodGetter(null, Person.class.getMethod("getAge"), null, null);
+        getter.getValue("not a person");
+    }
+
+    @Test
+    public void fieldGetter_privateField() throws Exception {
+        Field field = Person.class.getDeclaredField("name");
+        field.setAccessible(true);
+        FieldGetter getter = new FieldGetter(null, field, null, null);
+        assertEquals("a", getter.getValue(new Person("a", 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fieldGetter_wrongTarget() throws Exception {
+        Field field = Person.class.getDeclaredField("name");
+        field.setAccessible(true);
+        FieldGetter getter = new FieldGetter(null, field, null, null);
+        getter.getValue("not a person");
+    }
+
+    public static class Person {
+
+        private final String name;
+        private final int age;
+        private Person parent;
+        private List<Person> children;
+
+        public Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public static String getSpecies() {
+            return "human";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Person getParent() {
+            return parent;
+        }
+
+        public List<Person> getChildren() {
+            return children;
+        }
+
+        public String getFailure() {
+            throw new IllegalStateException();
+        }
+
+        public void touch() {
+        }
+    }
+
+    static class Hidden {
+
+        public int getValue() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.FixedLayoutDataSerializable;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static com.hazelcast.query.impl.getters.DataSerializableNavigator.NOT_NAVIGABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class DataSerializableNavigatorTest {
+
+    private static final int FACTORY_ID = 1;
+
+    private InternalSerializationService ss;
+    private DataSerializableNavigator navigator;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder()
+                .addDataSerializableFactory(FACTORY_ID, classId -> classId == Person.CLASS_ID ? new Person() : new Shape())
+                .build();
+        navigator = new DataSerializableNavigator(ss, Extractors.newBuilder(ss).build());
+    }
+
+    @Test
+    public void testLeadingPrimitives_readFromSerializedForm() {
+        learn();
+
+        Data data = ss.toData(new Person(42, 1234567890123L, true, "name", 0.5));
+        assertEquals(42, navigator.read(data, "age"));
+        assertEquals(1234567890123L, navigator.read(data, "id"));
+        assertEquals(true, navigator.read(data, "active"));
+    }
+
+    @Test
+    public void testPrimitivesAfterString_notNavigable() {
+        learn();
+
+        Data data = ss.toData(new Person(42, 1, true, "name", 0.5));
+        assertSame(NOT_NAVIGABLE, navigator.read(data, "name"));
+        assertSame(NOT_NAVIGABLE, navigator.read(data, "score"));
+    }
+
+    @Test
+    public void testSameValueInAllSamples_readsCurrentValue() {
+        for (int i = 0; i < 100; i++) {
+            Data data = ss.toData(new Person(0, 0, false, "name", 0));
+            assertEquals(0, navigator.read(data, "age"));
+        }
+        Data data = ss.toData(new Person(7, 8, true, "name", 0));
+        assertEquals(7, navigator.read(data, "age"));
+    }
+
+    @Test
+    public void testNestedAttribute_notNavigable() {
+        Data data = ss.toData(new Person(42, 1, true, "name", 0.5));
+        assertSame(NOT_NAVIGABLE, navigator.read(data, "name.length"));
+    }
+
+    @Test
+    public void testNonDataSerializable_notNavigable() {
+        assertSame(NOT_NAVIGABLE, navigator.read(ss.toData(42), "age"));
+    }
+
+    @Test
+    public void testClassWithoutFixedLayout_notNavigable() {
+        // the area follows a long for other kinds of shapes, the
+        // offset learned from these samples would be wrong for them
+        for (int i = 0; i < 100; i++) {
+            Data data = ss.toData(new Shape(0, i));
+            assertValue(i, navigator.read(data, "area"));
+        }
+
+        assertSame(NOT_NAVIGABLE, navigator.read(ss.toData(new Shape(0, 5)), "area"));
+        assertSame(NOT_NAVIGABLE, navigator.read(ss.toData(new Shape(1, 5)), "area"));
+    }
+
+    private void learn() {
+        for (int i = 0; i < 100; i++) {
+            Person person = new Person(i % 70, i * 31L, i % 2 == 0, "name" + i, i / 3.0);
+            Data data = ss.toData(person);
+            assertValue(person.age, navigator.read(data, "age"));
+            assertValue(person.id, navigator.read(data, "id"));
+            assertValue(person.active, navigator.read(data, "active"));
+            assertValue(person.name, navigator.read(data, "name"));
+            assertValue(person.score, navigator.read(data, "score"));
+        }
+    }
+
+    private static void assertValue(Object expected, Object actual) {
+        if (actual != NOT_NAVIGABLE) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static class Person implements FixedLayoutDataSerializable {
+
+        static final int CLASS_ID = 1;
+
+        int age;
+        long id;
+        boolean active;
+        String name;
+        double score;
+
+        Person() {
+        }
+
+        Person(int age, long id, boolean active, String name, double score) {
+            this.age = age;
+            this.id = id;
+            this.active = active;
+            this.name = name;
+            this.score = score;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeInt(age);
+            out.writeLong(id);
+            out.writeBoolean(active);
+            out.writeString(name);
+            out.writeDouble(score);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            age = in.readInt();
+            id = in.readLong();
+            active = in.readBoolean();
+            name = in.readString();
+            score = in.readDouble();
+        }
+    }
+
+    private static class Shape implements IdentifiedDataSerializable {
+
+        int kind;
+        int area;
+
+        Shape() {
+        }
+
+        Shape(int kind, int area) {
+            this.kind = kind;
+            this.area = area;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return 2;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeInt(kind);
+            if (kind != 0) {
+                out.writeLong(-1);
+            }
+            out.writeInt(area);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            kind = in.readInt();
+            if (kind != 0) {
+                in.readLong();
+            }
+            area = in.readInt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.getters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single attribute read by the compiled field and
+ * method getters against the plain reflective reads they replace, for a
+ * direct and a nested ({@code address.city}) attribute.
+ * <p>
+ * Run with {@code -Dhazelcast.query.disableCompiledGetters=true} to measure
+ * the getters falling back to reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GetterBenchmark {
+
+    private Person person;
+
+    private Method ageMethod;
+    private Field ageField;
+    private Getter methodGetter;
+    private Getter fieldGetter;
+    private Getter nestedMethodGetter;
+
+    @Setup
+    public void setup() throws Exception {
+        person = new Person(42, new Address("Istanbul"));
+
+        ageMethod = Person.class.getMethod("getAge");
+        ageMethod.setAccessible(true);
+        ageField = Person.class.getDeclaredField("age");
+        ageField.setAccessible(true);
+
+        methodGetter = new MethodGetter(null, ageMethod, null, null);
+        fieldGetter = new FieldGetter(null, ageField, null, null);
+        Getter addressGetter = new MethodGetter(null, Person.class.getMethod("getAddress"), null, null);
+        nestedMethodGetter = new MethodGetter(addressGetter, Address.class.getMethod("getCity"), null, null);
+    }
+
+    @Benchmark
+    public Object reflectiveMethod() throws Exception {
+        return ageMethod.invoke(person);
+    }
+
+    @Benchmark
+    public Object methodGetter() throws Exception {
+        return methodGetter.getValue(person);
+    }
+
+    @Benchmark
+    public Object reflectiveField() throws Exception {
+        return ageField.get(person);
+    }
+
+    @Benchmark
+    public Object fieldGetter() throws Exception {
+        return fieldGetter.getValue(person);
+    }
+
+    @Benchmark
+    public Object nestedMethodGetter() throws Exception {
+        return nestedMethodGetter.getValue(person);
+    }
+
+    public static class Person {
+
+        private final int age;
+        private final Address address;
+
+        public Person(int age, Address address) {
+            this.age = age;
+            this.address = address;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public static class Address {
+
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GetterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
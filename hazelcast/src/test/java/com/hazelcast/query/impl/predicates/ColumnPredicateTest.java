@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.ColumnBatch;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.hazelcast.instance.impl.TestUtil.toData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnPredicateTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final Extractors extractors = Extractors.newBuilder(ss).build();
+    private final Random random = new Random(4011);
+
+    @Test
+    public void testUnsupportedPredicates() {
+        ColumnBatch batch = new ColumnBatch();
+        assertNull(ColumnPredicate.compile(Predicates.like("this", "a%"), batch));
+        assertNull(ColumnPredicate.compile(Predicates.equal("this", null), batch));
+        assertNull(ColumnPredicate.compile(Predicates.and(Predicates.equal("this", 1), Predicates.like("this", "a%")), batch));
+        assertNotNull(ColumnPredicate.compile(Predicates.sql("this > 1 and this < 10"), batch));
+    }
+
+    @Test
+    public void testBatchRejectsValuesNotFittingColumns() {
+        ColumnBatch batch = new ColumnBatch();
+        batch.addColumn("this");
+
+        assertFalse(batch.add(entry(null)));
+        assertFalse(batch.add(entry("string")));
+        assertTrue(batch.add(entry(1)));
+        assertFalse(batch.add(entry(2L)));
+        assertTrue(batch.add(entry(3)));
+
+        assertEquals(2, batch.size());
+        assertEquals(Integer.class, batch.getColumnClass(0));
+        assertFalse(batch.isDoubleColumn(0));
+    }
+
+    @Test
+    public void testBindFailsIfConvertedValueIsNotOfColumnClass() {
+        ColumnBatch batch = new ColumnBatch();
+        // 1.5 can't be converted to an integer, it is compared as a number
+        ColumnPredicate predicate = ColumnPredicate.compile(Predicates.greaterThan("this", 1.5), batch);
+        batch.add(entry(2));
+        assertFalse(predicate.bind(batch));
+
+        batch.clear();
+        batch.add(entry(2.0));
+        assertTrue(predicate.bind(batch));
+    }
+
+    @Test
+    public void testFloatingPointEquality() {
+        assertSameSelection(Predicates.equal("this", 0.0), -0.0, 0.0, Double.NaN);
+        assertSameSelection(Predicates.equal("this", Double.NaN), -0.0, 0.0, Double.NaN);
+        assertSameSelection(Predicates.in("this", -0.0, Double.NaN), -0.0, 0.0, Double.NaN, 1.0);
+        assertSameSelection(Predicates.greaterEqual("this", 0.0), -0.0, 0.0, Double.NaN, -1.0);
+        assertSameSelection(Predicates.between("this", -0.0f, 1.5f), -0.0f, 0.0f, Float.NaN, 1.5f, 2.0f);
+    }
+
+    @Test
+    public void testLongColumns() {
+        for (int i = 0; i < 200; i++) {
+            Predicate predicate = randomPredicate(false, 3);
+            List<Object> values = new ArrayList<>();
+            int size = 1 + random.nextInt(ColumnBatch.CAPACITY);
+            for (int j = 0; j < size; j++) {
+                values.add(random.nextInt(21) - 10);
+            }
+            assertSameSelection(predicate, values.toArray());
+        }
+    }
+
+    @Test
+    public void testDoubleColumns() {
+        for (int i = 0; i < 200; i++) {
+            Predicate predicate = randomPredicate(true, 3);
+            List<Object> values = new ArrayList<>();
+            int size = 1 + random.nextInt(ColumnBatch.CAPACITY);
+            for (int j = 0; j < size; j++) {
+                values.add(randomValue(true));
+            }
+            assertSameSelection(predicate, values.toArray());
+        }
+    }
+
+    private void assertSameSelection(Predicate predicate, Object... values) {
+        ColumnBatch batch = new ColumnBatch();
+        ColumnPredicate columnPredicate = ColumnPredicate.compile(predicate, batch);
+        assertNotNull(columnPredicate);
+
+        List<QueryEntry> entries = new ArrayList<>();
+        for (Object value : values) {
+            QueryEntry entry = entry(value);
+            assertTrue(batch.add(entry));
+            entries.add(entry);
+        }
+        assertTrue(columnPredicate.bind(batch));
+
+        long[] selection = new long[ColumnBatch.SELECTION_LENGTH];
+        columnPredicate.evaluate(batch, selection);
+        int expectedCount = 0;
+        for (int row = 0; row < entries.size(); row++) {
+            boolean expected = predicate.apply(entries.get(row));
+            boolean selected = (selection[row >>> 6] & (1L << row)) != 0;
+            assertEquals(predicate + " on " + values[row], expected, selected);
+            expectedCount += expected ? 1 : 0;
+        }
+        assertEquals(expectedCount, ColumnBatch.count(selection, batch.size()));
+    }
+
+    private QueryEntry entry(Object value) {
+        return new QueryEntry(ss, toData(random.nextLong()), value, extractors);
+    }
+
+    private Comparable randomValue(boolean floatingPoint) {
+        int value = random.nextInt(25) - 12;
+        if (!floatingPoint) {
+            // long values are converted to the integer column class
+            return random.nextInt(5) == 0 ? (Comparable) (long) value : (Comparable) value;
+        }
+        switch (random.nextInt(20)) {
+            case 0:
+                return -0.0;
+            case 1:
+                return Double.NaN;
+            default:
+                return value / 2.0;
+        }
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private Predicate randomPredicate(boolean floatingPoint, int depth) {
+        switch (random.nextInt(depth > 0 ? 11 : 8)) {
+            case 0:
+                return Predicates.equal("this", randomValue(floatingPoint));
+            case 1:
+                return Predicates.notEqual("this", randomValue(floatingPoint));
+            case 2:
+                return Predicates.lessThan("this", randomValue(floatingPoint));
+            case 3:
+                return Predicates.lessEqual("this", randomValue(floatingPoint));
+            case 4:
+                return Predicates.greaterThan("this", randomValue(floatingPoint));
+            case 5:
+                return Predicates.greaterEqual("this", randomValue(floatingPoint));
+            case 6:
+                return Predicates.between("this", randomValue(floatingPoint), randomValue(floatingPoint));
+            case 7:
+                return Predicates.in("this", randomValue(floatingPoint), randomValue(floatingPoint),
+                        randomValue(floatingPoint));
+            case 8:
+                return Predicates.and(randomPredicate(floatingPoint, depth - 1), randomPredicate(floatingPoint, depth - 1));
+            case 9:
+                return Predicates.or(randomPredicate(floatingPoint, depth - 1), randomPredicate(floatingPoint, depth - 1));
+            default:
+                return Predicates.not(randomPredicate(floatingPoint, depth - 1));
+        }
+    }
+}
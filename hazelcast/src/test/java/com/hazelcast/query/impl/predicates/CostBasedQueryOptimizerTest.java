@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2021, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryContext.IndexMatchHint;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.query.impl.IndexStatistics.UNKNOWN;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CostBasedQueryOptimizerTest {
+
+    private Indexes indexes;
+    private CostBasedQueryOptimizer optimizer;
+
+    @Before
+    public void before() {
+        indexes = mock(Indexes.class);
+        when(indexes.haveAtLeastOneIndex()).thenReturn(true);
+        when(indexes.getCompositeIndexes()).thenReturn(new InternalIndex[0]);
+        optimizer = new CostBasedQueryOptimizer(0.5);
+    }
+
+    @Test
+    public void testComparableConjunctsUseTheirIndexes() {
+        InternalIndex age = index("age", 0.01);
+        InternalIndex name = index("name", 0.05);
+        Predicate predicate = and(equal("age", 1), equal("name", "Alice"));
+
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+        verifySkips(age, 0);
+        verifySkips(name, 0);
+    }
+
+    @Test
+    public void testUnselectiveConjunctSkipsItsIndex() {
+        InternalIndex age = index("age", 0.001);
+        InternalIndex name = index("name", 0.3);
+        Predicate ageEqual = equal("age", 1);
+        Predicate nameEqual = equal("name", "Alice");
+
+        Predicate[] predicates = predicatesOf(optimizer.optimize(and(nameEqual, ageEqual), indexes));
+        assertEquals(2, predicates.length);
+        assertSame(ageEqual, predicates[0]);
+        assertSkipIndex(nameEqual, predicates[1]);
+        verifySkips(age, 0);
+        verifySkips(name, 1);
+    }
+
+    @Test
+    public void testSkippedConjunctsAreOrderedBySelectivity() {
+        index("age", 0.001);
+        index("name", 0.4);
+        index("city", 0.2);
+        Predicate ageEqual = equal("age", 1);
+        Predicate nameEqual = equal("name", "Alice");
+        Predicate cityEqual = equal("city", "Rome");
+        Predicate unindexed = equal("unindexed", 1);
+
+        Predicate[] predicates = predicatesOf(optimizer.optimize(and(unindexed, nameEqual, cityEqual, ageEqual), indexes));
+        assertEquals(4, predicates.length);
+        assertSame(ageEqual, predicates[0]);
+        assertSkipIndex(cityEqual, predicates[1]);
+        assertSkipIndex(nameEqual, predicates[2]);
+        assertSame(unindexed, predicates[3]);
+    }
+
+    @Test
+    public void testUnselectivePredicateRunsAsFullScan() {
+        InternalIndex age = index("age", 0.9);
+        Predicate predicate = greaterThan("age", 1);
+
+        assertSkipIndex(predicate, optimizer.optimize(predicate, indexes));
+        verifySkips(age, 1);
+    }
+
+    @Test
+    public void testUnselectiveConjunctionRunsAsFullScan() {
+        index("age", 0.6);
+        index("name", 0.7);
+        Predicate predicate = and(equal("age", 1), equal("name", "Alice"));
+
+        assertSkipIndex(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    @Test
+    public void testUnselectiveDisjunctionRunsAsFullScan() {
+        index("age", 0.3);
+        index("name", 0.4);
+        Predicate predicate = or(equal("age", 1), equal("name", "Alice"));
+
+        assertSkipIndex(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    @Test
+    public void testSelectiveDisjunctionUsesIndexes() {
+        index("age", 0.1);
+        index("name", 0.2);
+        Predicate predicate = or(equal("age", 1), equal("name", "Alice"));
+
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    @Test
+    public void testUnknownSelectivityKeepsPredicate() {
+        InternalIndex age = index("age", UNKNOWN);
+        InternalIndex name = index("name", 0.9);
+        Predicate predicate = and(equal("age", 1), equal("name", "Alice"));
+
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+        verifySkips(age, 0);
+        verifySkips(name, 0);
+    }
+
+    @Test
+    public void testUnindexedPredicateIsKept() {
+        Predicate predicate = equal("unindexed", 1);
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    private InternalIndex index(String attribute, double selectivity) {
+        InternalIndex index = mock(InternalIndex.class);
+        when(index.getPerIndexStats()).thenReturn(mock(PerIndexStats.class));
+        when(index.estimateSelectivity(any())).thenReturn(selectivity);
+        when(index.estimateSelectivity(any(), anyBoolean(), any(), anyBoolean())).thenReturn(selectivity);
+        when(indexes.matchIndex(eq(attribute), any(IndexMatchHint.class), anyInt())).thenReturn(index);
+        return index;
+    }
+
+    private static void verifySkips(InternalIndex index, int skips) {
+        verify(index.getPerIndexStats(), skips == 0 ? never() : times(skips)).onOptimizerSkip();
+    }
+
+    private static Predicate[] predicatesOf(Predicate predicate) {
+        assertThat(predicate, instanceOf(AndPredicate.class));
+        return ((AndPredicate) predicate).getPredicates();
+    }
+
+    private static void assertSkipIndex(Predicate expectedTarget, Predicate actual) {
+        assertThat(actual, instanceOf(SkipIndexPredicate.class));
+        assertSame(expectedTarget, ((SkipIndexPredicate) actual).getTarget());
+    }
+}
@@ -133,6 +133,11 @@ public class SamplingSerializationService implements InternalSerializationServic
         return (B) data;
     }
 
+    @Override
+    public Data toStoredData(Data data) {
+        return data;
+    }
+
     @Override
     public ClassLoader getClassLoader() {
         return delegate.getClassLoader();